@@ -27,7 +27,6 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 import javolution.util.FastList;
 import javolution.util.FastMap;
@@ -50,7 +49,7 @@ import org.restcomm.protocols.ss7.cap.api.dialog.CAPGeneralAbortReason;
 import org.restcomm.protocols.ss7.cap.api.dialog.CAPGprsReferenceNumber;
 import org.restcomm.protocols.ss7.cap.api.dialog.CAPNoticeProblemDiagnostic;
 import org.restcomm.protocols.ss7.cap.api.dialog.CAPUserAbortReason;
-import org.restcomm.protocols.ss7.cap.api.dialog.ServingCheckData;
+import org.restcomm.protocols.ss7.cap.api.dialog.ServingCheckResult;
 import org.restcomm.protocols.ss7.cap.api.errors.CAPErrorCode;
 import org.restcomm.protocols.ss7.cap.api.errors.CAPErrorMessage;
 import org.restcomm.protocols.ss7.cap.api.errors.CAPErrorMessageFactory;
@@ -61,6 +60,7 @@ import org.restcomm.protocols.ss7.cap.dialog.CAPGprsReferenceNumberImpl;
 import org.restcomm.protocols.ss7.cap.dialog.CAPUserAbortPrimitiveImpl;
 import org.restcomm.protocols.ss7.cap.errors.CAPErrorMessageFactoryImpl;
 import org.restcomm.protocols.ss7.cap.errors.CAPErrorMessageImpl;
+import org.restcomm.protocols.ss7.cap.gap.CallGapManager;
 import org.restcomm.protocols.ss7.cap.service.circuitSwitchedCall.CAPServiceCircuitSwitchedCallImpl;
 import org.restcomm.protocols.ss7.cap.service.gprs.CAPServiceGprsImpl;
 import org.restcomm.protocols.ss7.cap.service.sms.CAPServiceSmsImpl;
@@ -71,6 +71,7 @@ import org.restcomm.protocols.ss7.isup.impl.message.parameter.ISUPParameterFacto
 import org.restcomm.protocols.ss7.map.MAPParameterFactoryImpl;
 import org.restcomm.protocols.ss7.map.api.MAPParameterFactory;
 import org.restcomm.protocols.ss7.sccp.NetworkIdState;
+import org.restcomm.protocols.ss7.tcap.ConcurrentLongHashMap;
 import org.restcomm.protocols.ss7.tcap.DialogImpl;
 import org.restcomm.protocols.ss7.tcap.api.MessageType;
 import org.restcomm.protocols.ss7.tcap.api.TCAPProvider;
@@ -125,7 +126,7 @@ public class CAPProviderImpl implements CAPProvider, TCListener {
     private transient Collection<CAPDialogListener> dialogListeners = new FastList<CAPDialogListener>().shared();
 
 //    protected transient FastMap<Long, CAPDialogImpl> dialogs = new FastMap<Long, CAPDialogImpl>().shared();
-    protected transient ConcurrentHashMap<Long, CAPDialogImpl> dialogs = new ConcurrentHashMap<Long, CAPDialogImpl>();
+    protected transient ConcurrentLongHashMap<CAPDialogImpl> dialogs = new ConcurrentLongHashMap<CAPDialogImpl>();
 
     private transient TCAPProvider tcapProvider = null;
 
@@ -141,6 +142,12 @@ public class CAPProviderImpl implements CAPProvider, TCListener {
     private final transient CAPServiceGprs capServiceGprs = new CAPServiceGprsImpl(this);
     private final transient CAPServiceSms capServiceSms = new CAPServiceSmsImpl(this);
 
+    // services that perform an ApplicationContext indexed by CAPApplicationContext ordinal,
+    // filled when the provider is created
+    private final transient CAPServiceBase[] servingServices = new CAPServiceBase[CAPApplicationContext.values().length];
+
+    private final transient CallGapManager callGapManager = new CallGapManager();
+
     public CAPProviderImpl(String name, TCAPProvider tcapProvider) {
         this.tcapProvider = tcapProvider;
 
@@ -149,12 +156,28 @@ public class CAPProviderImpl implements CAPProvider, TCListener {
         this.capServices.add(this.capServiceCircuitSwitchedCall);
         this.capServices.add(this.capServiceGprs);
         this.capServices.add(this.capServiceSms);
+
+        for (CAPApplicationContext ctx : CAPApplicationContext.values()) {
+            for (CAPServiceBase ser : this.capServices) {
+                if (ser.isServingService(ctx).getResult() == ServingCheckResult.AC_Serving) {
+                    this.servingServices[ctx.ordinal()] = ser;
+                    break;
+                }
+            }
+        }
     }
 
     public TCAPProvider getTCAPProvider() {
         return this.tcapProvider;
     }
 
+    /**
+     * @return call gapping manager for outgoing InitialDP requests (disabled by default)
+     */
+    public CallGapManager getCallGapManager() {
+        return this.callGapManager;
+    }
+
     @Override
     public CAPServiceCircuitSwitchedCall getCAPServiceCircuitSwitchedCall() {
         return this.capServiceCircuitSwitchedCall;
@@ -341,23 +364,7 @@ public class CAPProviderImpl implements CAPProvider, TCListener {
         }
 
         // Selecting the CAP service that can perform the ApplicationContext
-        CAPServiceBase perfSer = null;
-        for (CAPServiceBase ser : this.capServices) {
-
-            ServingCheckData chkRes = ser.isServingService(capAppCtx);
-            switch (chkRes.getResult()) {
-                case AC_Serving:
-                    perfSer = ser;
-                    break;
-
-                case AC_VersionIncorrect:
-                    SendUnsupportedAcn(acn, tcBeginIndication.getDialog(), "onTCBegin: Unsupported");
-                    return;
-            }
-
-            if (perfSer != null)
-                break;
-        }
+        CAPServiceBase perfSer = this.servingServices[capAppCtx.ordinal()];
 
         // No CAPService can accept the received ApplicationContextName
         if (perfSer == null) {
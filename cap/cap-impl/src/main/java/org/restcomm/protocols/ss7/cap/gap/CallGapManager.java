@@ -0,0 +1,522 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.cap.gap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.restcomm.protocols.ss7.cap.api.CAPException;
+import org.restcomm.protocols.ss7.cap.api.gap.BasicGapCriteria;
+import org.restcomm.protocols.ss7.cap.api.gap.CallGappedException;
+import org.restcomm.protocols.ss7.cap.api.gap.GapCriteria;
+import org.restcomm.protocols.ss7.cap.api.gap.GapIndicators;
+import org.restcomm.protocols.ss7.cap.api.gap.GapTreatment;
+import org.restcomm.protocols.ss7.cap.api.isup.CalledPartyNumberCap;
+import org.restcomm.protocols.ss7.cap.api.isup.CallingPartyNumberCap;
+import org.restcomm.protocols.ss7.cap.api.isup.Digits;
+import org.restcomm.protocols.ss7.cap.api.primitives.CalledPartyBCDNumber;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.CallGapRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.primitive.ControlType;
+import org.restcomm.protocols.ss7.cap.isup.DigitsImpl;
+
+/**
+ * Call gapping at the gsmSSF side.
+ *
+ * When enabled, every received CallGap request installs (or replaces / removes) a gap and every outgoing InitialDP request is
+ * checked against installed gaps. Gaps are kept in two digit tries: one for called party address prefixes (gaps by
+ * calledAddressValue, gapOnService and calledAddressAndService, a gap on service only is stored at the root) and one for
+ * calling party address prefixes (callingAddressAndService). The longest matching prefix with the same service key (or
+ * without a service key) wins in every trie.
+ *
+ * Every gap is an interval gate: after a call has passed, next calls are gapped till gapInterval milliseconds elapse,
+ * gapInterval==-1 means that all calls are gapped. A gap expires after duration seconds (duration==-1 or -2 - the gap is active
+ * till it is replaced or removed), duration==0 or gapInterval==0 removes the gap.
+ *
+ * The manager is disabled by default.
+ *
+ */
+public class CallGapManager {
+
+    public static final int ANY_SERVICE_KEY = -1;
+
+    private static final int CHILD_COUNT = 16;
+
+    private volatile boolean enabled;
+
+    private final Node calledRoot = new Node();
+    private final Node callingRoot = new Node();
+    private final ConcurrentHashMap<GapKey, Gap> gaps = new ConcurrentHashMap<GapKey, Gap>();
+
+    private final AtomicLong gappedCallCount = new AtomicLong();
+    private final AtomicLong passedCallCount = new AtomicLong();
+    private final AtomicLong receivedCallGapCount = new AtomicLong();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables / disables call gapping. Installed gaps are removed when disabling.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled)
+            this.clear();
+    }
+
+    /**
+     * Installs, replaces or removes a gap according to a received CallGap request
+     *
+     * @return the installed gap or null if the gap has been removed or the request is not applicable
+     */
+    public Gap applyCallGap(CallGapRequest request) {
+        return this.applyCallGap(request.getGapCriteria(), request.getGapIndicators(), request.getControlType(),
+                request.getGapTreatment(), System.currentTimeMillis());
+    }
+
+    public Gap applyCallGap(GapCriteria gapCriteria, GapIndicators gapIndicators, ControlType controlType,
+            GapTreatment gapTreatment, long now) {
+        this.receivedCallGapCount.incrementAndGet();
+        this.purgeExpired(now);
+
+        if (gapCriteria == null || gapIndicators == null)
+            return null;
+        BasicGapCriteria basic = gapCriteria.getBasicGapCriteria();
+        if (basic == null && gapCriteria.getCompoundGapCriteria() != null)
+            // ScfID of compound criteria is not checked: gaps are applied to all InitialDPs of this provider
+            basic = gapCriteria.getCompoundGapCriteria().getBasicGapCriteria();
+        if (basic == null)
+            return null;
+
+        GapKey key;
+        if (basic.getCalledAddressValue() != null) {
+            key = new GapKey(false, digitsToString(basic.getCalledAddressValue()), ANY_SERVICE_KEY);
+        } else if (basic.getGapOnService() != null) {
+            key = new GapKey(false, "", basic.getGapOnService().getServiceKey());
+        } else if (basic.getCalledAddressAndService() != null) {
+            key = new GapKey(false, digitsToString(basic.getCalledAddressAndService().getCalledAddressValue()), basic
+                    .getCalledAddressAndService().getServiceKey());
+        } else if (basic.getCallingAddressAndService() != null) {
+            key = new GapKey(true, digitsToString(basic.getCallingAddressAndService().getCallingAddressValue()), basic
+                    .getCallingAddressAndService().getServiceKey());
+        } else {
+            return null;
+        }
+        if (key.digits == null)
+            return null;
+
+        Node root = key.calling ? this.callingRoot : this.calledRoot;
+        if (gapIndicators.getDuration() == 0 || gapIndicators.getGapInterval() == 0) {
+            Gap old = this.gaps.remove(key);
+            if (old != null)
+                this.removeFromTrie(root, old);
+            return null;
+        }
+
+        long expiryTime = gapIndicators.getDuration() < 0 ? Long.MAX_VALUE : now + gapIndicators.getDuration() * 1000L;
+        Gap gap = new Gap(key, gapIndicators.getGapInterval(), expiryTime, controlType, gapTreatment);
+        Node node = root;
+        for (int i = 0; i < key.digits.length(); i++) {
+            node = node.getOrCreateChild(key.digits.charAt(i));
+        }
+        node.put(gap);
+        this.gaps.put(key, gap);
+        return gap;
+    }
+
+    /**
+     * Checks if an InitialDP with the passed parameters is allowed to be sent
+     *
+     * @throws CallGappedException if the call is gapped
+     */
+    public void checkInitialDP(int serviceKey, CalledPartyNumberCap calledPartyNumber,
+            CallingPartyNumberCap callingPartyNumber, CalledPartyBCDNumber calledPartyBCDNumber) throws CallGappedException {
+        String calledDigits = null;
+        if (calledPartyNumber != null) {
+            try {
+                if (calledPartyNumber.getCalledPartyNumber() != null)
+                    calledDigits = calledPartyNumber.getCalledPartyNumber().getAddress();
+            } catch (CAPException e) {
+            }
+        }
+        if (calledDigits == null && calledPartyBCDNumber != null)
+            calledDigits = calledPartyBCDNumber.getAddress();
+
+        String callingDigits = null;
+        if (callingPartyNumber != null) {
+            try {
+                if (callingPartyNumber.getCallingPartyNumber() != null)
+                    callingDigits = callingPartyNumber.getCallingPartyNumber().getAddress();
+            } catch (CAPException e) {
+            }
+        }
+
+        Gap gap = this.check(serviceKey, calledDigits, callingDigits, System.currentTimeMillis());
+        if (gap != null)
+            throw new CallGappedException("InitialDP is gapped by CallGap: " + gap, gap.getGapTreatment());
+    }
+
+    /**
+     * @return the gap that blocks the call or null if the call is allowed
+     */
+    public Gap check(int serviceKey, String calledDigits, String callingDigits, long now) {
+        if (this.gaps.isEmpty())
+            return null;
+
+        Gap calledGap = this.findLongestMatch(this.calledRoot, calledDigits, serviceKey, now);
+        Gap callingGap = callingDigits != null ? this.findLongestMatch(this.callingRoot, callingDigits, serviceKey, now) : null;
+        if (calledGap == null && callingGap == null)
+            return null;
+
+        // a gap slot is consumed only when the call passes all matching gaps
+        Gap blocking = null;
+        if (calledGap != null && !calledGap.canPass(now))
+            blocking = calledGap;
+        else if (callingGap != null && !callingGap.canPass(now))
+            blocking = callingGap;
+        else if (calledGap != null && !calledGap.tryPass(now))
+            blocking = calledGap;
+        else if (callingGap != null && !callingGap.tryPass(now)) {
+            // another call has taken the calling gap slot meanwhile
+            if (calledGap != null)
+                calledGap.cancelPass(now);
+            blocking = callingGap;
+        }
+
+        if (blocking != null) {
+            blocking.gappedCount.incrementAndGet();
+            this.gappedCallCount.incrementAndGet();
+        } else {
+            this.passedCallCount.incrementAndGet();
+        }
+        return blocking;
+    }
+
+    private Gap findLongestMatch(Node root, String digits, int serviceKey, long now) {
+        Gap res = this.matchNode(root, serviceKey, now);
+        if (digits == null)
+            return res;
+        Node node = root;
+        for (int i = 0; i < digits.length(); i++) {
+            node = node.getChild(digits.charAt(i));
+            if (node == null)
+                break;
+            Gap gap = this.matchNode(node, serviceKey, now);
+            if (gap != null)
+                res = gap;
+        }
+        return res;
+    }
+
+    private Gap matchNode(Node node, int serviceKey, long now) {
+        Gap[] nodeGaps = node.gaps;
+        Gap res = null;
+        for (Gap gap : nodeGaps) {
+            if (gap.key.serviceKey == serviceKey || gap.key.serviceKey == ANY_SERVICE_KEY) {
+                if (gap.expiryTime <= now) {
+                    this.expire(node, gap);
+                    continue;
+                }
+                // a gap with the service key is preferred to a gap without it
+                if (res == null || gap.key.serviceKey == serviceKey)
+                    res = gap;
+            }
+        }
+        return res;
+    }
+
+    private void expire(Node node, Gap gap) {
+        node.remove(gap);
+        this.gaps.remove(gap.key, gap);
+    }
+
+    private void removeFromTrie(Node root, Gap gap) {
+        Node node = root;
+        for (int i = 0; i < gap.key.digits.length() && node != null; i++) {
+            node = node.getChild(gap.key.digits.charAt(i));
+        }
+        if (node != null)
+            node.remove(gap);
+    }
+
+    /**
+     * Removes gaps whose duration has elapsed
+     */
+    public void purgeExpired(long now) {
+        for (Gap gap : this.gaps.values()) {
+            if (gap.expiryTime <= now && this.gaps.remove(gap.key, gap))
+                this.removeFromTrie(gap.key.calling ? this.callingRoot : this.calledRoot, gap);
+        }
+    }
+
+    public void clear() {
+        for (Gap gap : this.gaps.values()) {
+            if (this.gaps.remove(gap.key, gap))
+                this.removeFromTrie(gap.key.calling ? this.callingRoot : this.calledRoot, gap);
+        }
+    }
+
+    public Collection<Gap> getActiveGaps() {
+        this.purgeExpired(System.currentTimeMillis());
+        return new ArrayList<Gap>(this.gaps.values());
+    }
+
+    public int getActiveGapCount() {
+        this.purgeExpired(System.currentTimeMillis());
+        return this.gaps.size();
+    }
+
+    public long getGappedCallCount() {
+        return gappedCallCount.get();
+    }
+
+    public long getPassedCallCount() {
+        return passedCallCount.get();
+    }
+
+    public long getReceivedCallGapCount() {
+        return receivedCallGapCount.get();
+    }
+
+    private static String digitsToString(Digits digits) {
+        if (digits == null)
+            return null;
+        try {
+            if (digits.getIsGenericDigits())
+                return digits.getGenericDigits().getDecodedDigits();
+            if (digits.getIsGenericNumber())
+                return digits.getGenericNumber().getAddress();
+
+            // a received Digits is not marked, a gap criteria address is a GenericNumber
+            DigitsImpl dig = new DigitsImpl();
+            dig.setData(digits.getData());
+            dig.setIsGenericNumber();
+            return dig.getGenericNumber().getAddress();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static int childIndex(char c) {
+        if (c >= '0' && c <= '9')
+            return c - '0';
+        switch (c) {
+            case '*':
+                return 10;
+            case '#':
+                return 11;
+            case 'a':
+            case 'A':
+                return 12;
+            case 'b':
+            case 'B':
+                return 13;
+            case 'c':
+            case 'C':
+                return 14;
+            default:
+                return 15;
+        }
+    }
+
+    private static final class Node {
+        private final AtomicReferenceArray<Node> children = new AtomicReferenceArray<Node>(CHILD_COUNT);
+        // copy-on-write: gaps are changed rarely and read for every InitialDP
+        private volatile Gap[] gaps = new Gap[0];
+
+        private Node getChild(char c) {
+            return this.children.get(childIndex(c));
+        }
+
+        private Node getOrCreateChild(char c) {
+            int i = childIndex(c);
+            Node node = this.children.get(i);
+            if (node == null) {
+                this.children.compareAndSet(i, null, new Node());
+                node = this.children.get(i);
+            }
+            return node;
+        }
+
+        private synchronized void put(Gap gap) {
+            List<Gap> lst = new ArrayList<Gap>(this.gaps.length + 1);
+            for (Gap g : this.gaps) {
+                if (!g.key.equals(gap.key))
+                    lst.add(g);
+            }
+            lst.add(gap);
+            this.gaps = lst.toArray(new Gap[lst.size()]);
+        }
+
+        private synchronized void remove(Gap gap) {
+            List<Gap> lst = new ArrayList<Gap>(this.gaps.length);
+            for (Gap g : this.gaps) {
+                if (g != gap)
+                    lst.add(g);
+            }
+            if (lst.size() != this.gaps.length)
+                this.gaps = lst.toArray(new Gap[lst.size()]);
+        }
+    }
+
+    private static final class GapKey {
+        private final boolean calling;
+        private final String digits;
+        private final int serviceKey;
+
+        private GapKey(boolean calling, String digits, int serviceKey) {
+            this.calling = calling;
+            this.digits = digits;
+            this.serviceKey = serviceKey;
+        }
+
+        @Override
+        public int hashCode() {
+            int res = digits != null ? digits.hashCode() : 0;
+            res = 31 * res + serviceKey;
+            return calling ? res + 1 : res;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof GapKey))
+                return false;
+            GapKey other = (GapKey) obj;
+            if (calling != other.calling || serviceKey != other.serviceKey)
+                return false;
+            return digits == null ? other.digits == null : digits.equals(other.digits);
+        }
+    }
+
+    /**
+     * An installed gap
+     */
+    public static final class Gap {
+        private final GapKey key;
+        private final int gapInterval;
+        private final long expiryTime;
+        private final ControlType controlType;
+        private final GapTreatment gapTreatment;
+        // time when a next call may pass
+        private final AtomicLong nextPassTime = new AtomicLong();
+        private final AtomicLong gappedCount = new AtomicLong();
+
+        private Gap(GapKey key, int gapInterval, long expiryTime, ControlType controlType, GapTreatment gapTreatment) {
+            this.key = key;
+            this.gapInterval = gapInterval;
+            this.expiryTime = expiryTime;
+            this.controlType = controlType;
+            this.gapTreatment = gapTreatment;
+        }
+
+        private boolean canPass(long now) {
+            return this.gapInterval >= 0 && now >= this.nextPassTime.get();
+        }
+
+        private boolean tryPass(long now) {
+            if (this.gapInterval < 0)
+                return false;
+            while (true) {
+                long next = this.nextPassTime.get();
+                if (now < next)
+                    return false;
+                if (this.nextPassTime.compareAndSet(next, now + this.gapInterval))
+                    return true;
+            }
+        }
+
+        /**
+         * Gives back a slot consumed by tryPass(now) for a call that has been gapped by another gap
+         */
+        private void cancelPass(long now) {
+            this.nextPassTime.compareAndSet(now + this.gapInterval, now);
+        }
+
+        public boolean isCallingAddress() {
+            return key.calling;
+        }
+
+        /**
+         * @return address prefix digits (an empty string for a gap on service)
+         */
+        public String getDigits() {
+            return key.digits;
+        }
+
+        /**
+         * @return service key or ANY_SERVICE_KEY if the gap is for all services
+         */
+        public int getServiceKey() {
+            return key.serviceKey;
+        }
+
+        public int getGapInterval() {
+            return gapInterval;
+        }
+
+        /**
+         * @return time (System.currentTimeMillis()) of the gap expiry or Long.MAX_VALUE if the gap does not expire
+         */
+        public long getExpiryTime() {
+            return expiryTime;
+        }
+
+        public ControlType getControlType() {
+            return controlType;
+        }
+
+        public GapTreatment getGapTreatment() {
+            return gapTreatment;
+        }
+
+        public long getGappedCount() {
+            return gappedCount.get();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Gap [");
+            sb.append(key.calling ? "callingDigits=" : "calledDigits=");
+            sb.append(key.digits);
+            if (key.serviceKey != ANY_SERVICE_KEY) {
+                sb.append(", serviceKey=");
+                sb.append(key.serviceKey);
+            }
+            sb.append(", gapInterval=");
+            sb.append(gapInterval);
+            if (controlType != null) {
+                sb.append(", controlType=");
+                sb.append(controlType);
+            }
+            sb.append("]");
+            return sb.toString();
+        }
+    }
+}
@@ -28,13 +28,14 @@ import org.mobicents.protocols.asn.AsnInputStream;
 import org.mobicents.protocols.asn.AsnOutputStream;
 import org.restcomm.protocols.ss7.cap.api.CAPException;
 import org.restcomm.protocols.ss7.cap.api.CAPParsingComponentException;
+import org.restcomm.protocols.ss7.tcap.asn.ParameterContent;
 
 /**
  *
  * @author sergey vetyutnev
  *
  */
-public interface CAPAsnPrimitive extends Serializable {
+public interface CAPAsnPrimitive extends Serializable, ParameterContent.Primitive {
 
     int getTag() throws CAPException;
 
@@ -24,7 +24,6 @@ package org.restcomm.protocols.ss7.cap.service.circuitSwitchedCall;
 
 import java.util.ArrayList;
 
-import org.mobicents.protocols.asn.AsnOutputStream;
 import org.restcomm.protocols.ss7.cap.CAPDialogImpl;
 import org.restcomm.protocols.ss7.cap.CAPProviderImpl;
 import org.restcomm.protocols.ss7.cap.api.CAPApplicationContext;
@@ -74,6 +73,7 @@ import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.primitive.
 import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.primitive.SCIBillingChargingCharacteristics;
 import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.primitive.ServiceInteractionIndicatorsTwo;
 import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.primitive.TimeDurationChargingResult;
+import org.restcomm.protocols.ss7.cap.gap.CallGapManager;
 import org.restcomm.protocols.ss7.inap.api.isup.CallingPartysCategoryInap;
 import org.restcomm.protocols.ss7.inap.api.isup.HighLayerCompatibilityInap;
 import org.restcomm.protocols.ss7.inap.api.isup.RedirectionInformationInap;
@@ -92,6 +92,7 @@ import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberManagement.
 import org.restcomm.protocols.ss7.tcap.api.TCAPException;
 import org.restcomm.protocols.ss7.tcap.api.tc.component.InvokeClass;
 import org.restcomm.protocols.ss7.tcap.api.tc.dialog.Dialog;
+import org.restcomm.protocols.ss7.tcap.asn.ParameterContent;
 import org.restcomm.protocols.ss7.tcap.asn.comp.Invoke;
 import org.restcomm.protocols.ss7.tcap.asn.comp.OperationCode;
 import org.restcomm.protocols.ss7.tcap.asn.comp.Parameter;
@@ -156,6 +157,10 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
             throw new CAPException(
                     "Bad application context name for addInitialDPRequest: must be CapV1_gsmSSF_to_gsmSCF, CapV2_gsmSSF_to_gsmSCF, CapV3_gsmSSF_scfGeneric or CapV4_gsmSSF_scfGeneric");
 
+        CallGapManager callGapManager = this.capProviderImpl.getCallGapManager();
+        if (callGapManager.isEnabled())
+            callGapManager.checkInitialDP(serviceKey, calledPartyNumber, callingPartyNumber, calledPartyBCDNumber);
+
         Invoke invoke = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory()
                 .createTCInvokeRequest(InvokeClass.Class2);
         if (customInvokeTimeout == _Timer_Default)
@@ -174,14 +179,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
                 cugOutgoingAccess, imsi, subscriberState, locationInformation, extBasicServiceCode, callReferenceNumber,
                 mscAddress, calledPartyBCDNumber, timeAndTimezone, callForwardingSSPending, initialDPArgExtension, this.appCntx
                         .getVersion().getVersion() >= 3);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -225,14 +227,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
         invoke.setOperationCode(oc);
 
         ApplyChargingReportRequestImpl req = new ApplyChargingReportRequestImpl(timeDurationChargingResult);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -281,14 +280,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
 
         ApplyChargingRequestImpl req = new ApplyChargingRequestImpl(aChBillingChargingCharacteristics, partyToCharge,
                 extensions, aChChargingAddress);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -335,14 +331,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
         invoke.setOperationCode(oc);
 
         CallInformationReportRequestImpl req = new CallInformationReportRequestImpl(requestedInformationList, extensions, legID);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -390,14 +383,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
 
         CallInformationRequestRequestImpl req = new CallInformationRequestRequestImpl(requestedInformationTypeList, extensions,
                 legID);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -460,14 +450,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
                 extensions, carrier, callingPartysCategory, redirectingPartyID, redirectionInformation, genericNumbers,
                 serviceInteractionIndicatorsTwo, chargeNumber, legToBeConnected, cugInterlock, cugOutgoingAccess,
                 suppressionOfAnnouncement, ocsIApplicable, naoliInfo, borInterrogationRequested, suppressNCSI);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -568,14 +555,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
                 serviceInteractionIndicatorsTwo, callingPartysCategory, genericNumbers, cugInterlock,
                 cugOutgoingAccess, chargeNumber, carrier, suppressionOfAnnouncement, naOliInfo,
                 borInterrogationRequested, suppressOCsi, continueWithArgumentArgExtension);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -626,14 +610,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
 
         EventReportBCSMRequestImpl req = new EventReportBCSMRequestImpl(eventTypeBCSM, eventSpecificInformationBCSM, legID,
                 miscCallInfo, extensions);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -680,14 +661,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
         invoke.setOperationCode(oc);
 
         RequestReportBCSMEventRequestImpl req = new RequestReportBCSMEventRequestImpl(bcsmEventList, extensions);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -732,14 +710,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
         invoke.setOperationCode(oc);
 
         ReleaseCallRequestImpl req = new ReleaseCallRequestImpl(cause);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -870,14 +845,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
 
         AssistRequestInstructionsRequestImpl req = new AssistRequestInstructionsRequestImpl(correlationID, ipSSPCapabilities,
                 extensions);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -932,14 +904,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
         EstablishTemporaryConnectionRequestImpl req = new EstablishTemporaryConnectionRequestImpl(assistingSSPIPRoutingAddress,
                 correlationID, scfID, extensions, carrier, serviceInteractionIndicatorsTwo, callSegmentID, naOliInfo,
                 chargeNumber, originalCalledPartyID, callingPartyNumber, this.appCntx.getVersion().getVersion() >= 3);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -1029,14 +998,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
 
         DisconnectForwardConnectionWithArgumentRequestImpl req = new DisconnectForwardConnectionWithArgumentRequestImpl(
                 callSegmentID, extensions);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -1090,14 +1056,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
 
         ConnectToResourceRequestImpl req = new ConnectToResourceRequestImpl(resourceAddress_IPRoutingAddress,
                 resourceAddress_Null, extensions, serviceInteractionIndicatorsTwo, callSegmentID);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -1147,14 +1110,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
         invoke.setOperationCode(oc);
 
         ResetTimerRequestImpl req = new ResetTimerRequestImpl(timerID, timerValue, extensions, callSegmentID);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -1199,14 +1159,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
         invoke.setOperationCode(oc);
 
         FurnishChargingInformationRequestImpl req = new FurnishChargingInformationRequestImpl(FCIBCCCAMELsequence1);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -1253,14 +1210,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
 
         SendChargingInformationRequestImpl req = new SendChargingInformationRequestImpl(sciBillingChargingCharacteristics,
                 partyToCharge, extensions);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -1315,14 +1269,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
         invoke.setOperationCode(oc);
 
         SpecializedResourceReportRequestImpl req = new SpecializedResourceReportRequestImpl(false);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -1365,14 +1316,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
 
         SpecializedResourceReportRequestImpl req = new SpecializedResourceReportRequestImpl(isAllAnnouncementsComplete,
                 isFirstAnnouncementStarted, true);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -1433,14 +1381,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
 
         PlayAnnouncementRequestImpl req = new PlayAnnouncementRequestImpl(informationToSend, disconnectFromIPForbidden,
                 requestAnnouncementCompleteNotification, extensions, callSegmentID, requestAnnouncementStartedNotification);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -1499,14 +1444,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
 
         PromptAndCollectUserInformationRequestImpl req = new PromptAndCollectUserInformationRequestImpl(collectedInfo,
                 disconnectFromIPForbidden, informationToSend, extensions, callSegmentID, requestAnnouncementStartedNotification);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -1553,14 +1495,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
         resultLast.setOperationCode(oc);
 
         PromptAndCollectUserInformationResponseImpl req = new PromptAndCollectUserInformationResponseImpl(digitsResponse);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         resultLast.setParameter(p);
 
         this.sendReturnResultLastComponent(resultLast);
@@ -1635,14 +1574,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
         oc.setLocalOperationCode((long) CAPOperationCode.cancelCode);
         invoke.setOperationCode(oc);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -1685,14 +1621,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
         invoke.setOperationCode(oc);
 
         DisconnectLegRequestImpl req = new DisconnectLegRequestImpl(logToBeReleased, releaseCause, extensions);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -1759,14 +1692,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
 
         InitiateCallAttemptRequestImpl req = new InitiateCallAttemptRequestImpl(destinationRoutingAddress, extensions,
                 legToBeCreated, newCallSegment, callingPartyNumber, callReferenceNumber, gsmSCFAddress, suppressTCsi);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -1804,14 +1734,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
 
         InitiateCallAttemptResponseImpl res = new InitiateCallAttemptResponseImpl(supportedCamelPhases,
                 offeredCamel4Functionalities, extensions, releaseCallArgExtensionAllowed);
-        AsnOutputStream aos = new AsnOutputStream();
-        res.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(res.getTagClass());
         p.setPrimitive(res.getIsPrimitive());
         p.setTag(res.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, res);
         resultLast.setParameter(p);
 
         this.sendReturnResultLastComponent(resultLast);
@@ -1843,14 +1770,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
         invoke.setOperationCode(oc);
 
         MoveLegRequestImpl req = new MoveLegRequestImpl(logIDToMove, extensions);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -1948,14 +1872,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
         invoke.setOperationCode(oc);
 
         SplitLegRequestImpl req = new SplitLegRequestImpl(legIDToSplit, newCallSegmentId, extensions);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -2018,14 +1939,11 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
         invoke.setOperationCode(oc);
 
         CallGapRequestImpl req = new CallGapRequestImpl(gapCriteria, gapIndicators, controlType, gapTreatment, capExtension);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
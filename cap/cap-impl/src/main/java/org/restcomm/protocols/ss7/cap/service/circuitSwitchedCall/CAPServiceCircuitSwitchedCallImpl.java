@@ -41,6 +41,7 @@ import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.CAPDialogC
 import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.CAPServiceCircuitSwitchedCall;
 import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.CAPServiceCircuitSwitchedCallListener;
 import org.restcomm.protocols.ss7.cap.dialog.ServingCheckDataImpl;
+import org.restcomm.protocols.ss7.cap.gap.CallGapManager;
 import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
 import org.restcomm.protocols.ss7.tcap.api.tc.dialog.Dialog;
 import org.restcomm.protocols.ss7.tcap.asn.comp.ComponentType;
@@ -796,6 +797,10 @@ public class CAPServiceCircuitSwitchedCallImpl extends CAPServiceBaseImpl implem
         ind.setInvokeId(invokeId);
         ind.setCAPDialog(capDialogImpl);
 
+        CallGapManager callGapManager = this.capProviderImpl.getCallGapManager();
+        if (callGapManager.isEnabled())
+            callGapManager.applyCallGap(ind);
+
         for (CAPServiceListener serLis : this.serviceListeners) {
             try {
                 serLis.onCAPMessage(ind);
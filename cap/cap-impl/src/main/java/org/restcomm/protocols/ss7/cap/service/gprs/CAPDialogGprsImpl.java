@@ -24,7 +24,6 @@ package org.restcomm.protocols.ss7.cap.service.gprs;
 
 import java.util.ArrayList;
 
-import org.mobicents.protocols.asn.AsnOutputStream;
 import org.restcomm.protocols.ss7.cap.CAPDialogImpl;
 import org.restcomm.protocols.ss7.cap.CAPProviderImpl;
 import org.restcomm.protocols.ss7.cap.api.CAPApplicationContext;
@@ -62,6 +61,7 @@ import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberInformation
 import org.restcomm.protocols.ss7.tcap.api.TCAPException;
 import org.restcomm.protocols.ss7.tcap.api.tc.component.InvokeClass;
 import org.restcomm.protocols.ss7.tcap.api.tc.dialog.Dialog;
+import org.restcomm.protocols.ss7.tcap.asn.ParameterContent;
 import org.restcomm.protocols.ss7.tcap.asn.comp.Invoke;
 import org.restcomm.protocols.ss7.tcap.asn.comp.OperationCode;
 import org.restcomm.protocols.ss7.tcap.asn.comp.Parameter;
@@ -117,14 +117,11 @@ public class CAPDialogGprsImpl extends CAPDialogImpl implements CAPDialogGprs {
                 gprsMSClass, endUserAddress, qualityOfService, accessPointName, routeingAreaIdentity, chargingID,
                 sgsnCapabilities, locationInformationGPRS, pdpInitiationType, extensions, gsnAddress, secondaryPDPContext, imei);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -167,14 +164,11 @@ public class CAPDialogGprsImpl extends CAPDialogImpl implements CAPDialogGprs {
 
         RequestReportGPRSEventRequestImpl req = new RequestReportGPRSEventRequestImpl(gprsEvent, pdpID);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -220,14 +214,11 @@ public class CAPDialogGprsImpl extends CAPDialogImpl implements CAPDialogGprs {
         ApplyChargingGPRSRequestImpl req = new ApplyChargingGPRSRequestImpl(chargingCharacteristics, tariffSwitchInterval,
                 pdpID);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -270,14 +261,11 @@ public class CAPDialogGprsImpl extends CAPDialogImpl implements CAPDialogGprs {
 
         EntityReleasedGPRSRequestImpl req = new EntityReleasedGPRSRequestImpl(gprsCause, pdpID);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -339,14 +327,11 @@ public class CAPDialogGprsImpl extends CAPDialogImpl implements CAPDialogGprs {
 
         ConnectGPRSRequestImpl req = new ConnectGPRSRequestImpl(accessPointName, pdpID);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -389,14 +374,11 @@ public class CAPDialogGprsImpl extends CAPDialogImpl implements CAPDialogGprs {
 
         ContinueGPRSRequestImpl req = new ContinueGPRSRequestImpl(pdpID);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -439,14 +421,11 @@ public class CAPDialogGprsImpl extends CAPDialogImpl implements CAPDialogGprs {
 
         ReleaseGPRSRequestImpl req = new ReleaseGPRSRequestImpl(gprsCause, pdpID);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -489,14 +468,11 @@ public class CAPDialogGprsImpl extends CAPDialogImpl implements CAPDialogGprs {
 
         ResetTimerGPRSRequestImpl req = new ResetTimerGPRSRequestImpl(timerID, timerValue);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -542,14 +518,11 @@ public class CAPDialogGprsImpl extends CAPDialogImpl implements CAPDialogGprs {
         FurnishChargingInformationGPRSRequestImpl req = new FurnishChargingInformationGPRSRequestImpl(
                 fciGPRSBillingChargingCharacteristics);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -592,14 +565,11 @@ public class CAPDialogGprsImpl extends CAPDialogImpl implements CAPDialogGprs {
 
         CancelGPRSRequestImpl req = new CancelGPRSRequestImpl(pdpID);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -645,14 +615,11 @@ public class CAPDialogGprsImpl extends CAPDialogImpl implements CAPDialogGprs {
         SendChargingInformationGPRSRequestImpl req = new SendChargingInformationGPRSRequestImpl(
                 sciGPRSBillingChargingCharacteristics);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -700,14 +667,11 @@ public class CAPDialogGprsImpl extends CAPDialogImpl implements CAPDialogGprs {
         ApplyChargingReportGPRSRequestImpl req = new ApplyChargingReportGPRSRequestImpl(chargingResult, qualityOfService,
                 active, pdpID, chargingRollOver);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -771,14 +735,11 @@ public class CAPDialogGprsImpl extends CAPDialogImpl implements CAPDialogGprs {
         EventReportGPRSRequestImpl req = new EventReportGPRSRequestImpl(gprsEventType, miscGPRSInfo,
                 gprsEventSpecificInformation, pdpID);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -24,7 +24,6 @@ package org.restcomm.protocols.ss7.cap.service.sms;
 
 import java.util.ArrayList;
 
-import org.mobicents.protocols.asn.AsnOutputStream;
 import org.restcomm.protocols.ss7.cap.CAPDialogImpl;
 import org.restcomm.protocols.ss7.cap.CAPProviderImpl;
 import org.restcomm.protocols.ss7.cap.api.CAPApplicationContext;
@@ -58,6 +57,7 @@ import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberInformation
 import org.restcomm.protocols.ss7.tcap.api.TCAPException;
 import org.restcomm.protocols.ss7.tcap.api.tc.component.InvokeClass;
 import org.restcomm.protocols.ss7.tcap.api.tc.dialog.Dialog;
+import org.restcomm.protocols.ss7.tcap.asn.ParameterContent;
 import org.restcomm.protocols.ss7.tcap.asn.comp.Invoke;
 import org.restcomm.protocols.ss7.tcap.asn.comp.OperationCode;
 import org.restcomm.protocols.ss7.tcap.asn.comp.Parameter;
@@ -105,14 +105,11 @@ public class CAPDialogSmsImpl extends CAPDialogImpl implements CAPDialogSms {
         ConnectSMSRequestImpl req = new ConnectSMSRequestImpl(callingPartysNumber, destinationSubscriberNumber,
                 smscAddress, extensions);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -158,14 +155,11 @@ public class CAPDialogSmsImpl extends CAPDialogImpl implements CAPDialogSms {
         EventReportSMSRequestImpl req = new EventReportSMSRequestImpl(eventTypeSMS, eventSpecificInformationSMS,
                 miscCallInfo, extensions);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -204,14 +198,11 @@ public class CAPDialogSmsImpl extends CAPDialogImpl implements CAPDialogSms {
         invoke.setOperationCode(oc);
 
         FurnishChargingInformationSMSRequestImpl req = new FurnishChargingInformationSMSRequestImpl(fciBCCCAMELsequence1);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -274,14 +265,11 @@ public class CAPDialogSmsImpl extends CAPDialogImpl implements CAPDialogSms {
                 tPValidityPeriod, extensions, smsReferenceNumber, mscAddress, sgsnNumber, mSClassmark2, gprsMSClass,
                 imei, calledPartyNumber);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -321,14 +309,11 @@ public class CAPDialogSmsImpl extends CAPDialogImpl implements CAPDialogSms {
 
         ReleaseSMSRequestImpl req = new ReleaseSMSRequestImpl(rpCause);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -370,14 +355,11 @@ public class CAPDialogSmsImpl extends CAPDialogImpl implements CAPDialogSms {
 
         RequestReportSMSEventRequestImpl req = new RequestReportSMSEventRequestImpl(smsEvents, extensions);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -418,14 +400,11 @@ public class CAPDialogSmsImpl extends CAPDialogImpl implements CAPDialogSms {
 
         ResetTimerSMSRequestImpl req = new ResetTimerSMSRequestImpl(timerID, timerValue, extensions);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
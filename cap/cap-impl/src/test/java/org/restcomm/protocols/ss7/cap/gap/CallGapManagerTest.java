@@ -0,0 +1,146 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.cap.gap;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import org.restcomm.protocols.ss7.cap.api.gap.GapCriteria;
+import org.restcomm.protocols.ss7.cap.api.isup.Digits;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.primitive.ControlType;
+import org.restcomm.protocols.ss7.cap.isup.DigitsImpl;
+import org.restcomm.protocols.ss7.isup.impl.message.parameter.GenericNumberImpl;
+import org.restcomm.protocols.ss7.isup.message.parameter.GenericNumber;
+import org.testng.annotations.Test;
+
+/**
+ * Checks call gapping at the gsmSSF side
+ */
+public class CallGapManagerTest {
+
+    private Digits createDigits(String address, boolean marked) throws Exception {
+        GenericNumber genericNumber = new GenericNumberImpl(GenericNumber._NAI_NATIONAL_SN, address, 0, 1, 0, false, 1);
+        DigitsImpl digits = new DigitsImpl(genericNumber);
+        if (marked)
+            return digits;
+        // as received from the network
+        return new DigitsImpl(digits.getData());
+    }
+
+    @Test(groups = { "functional", "gap" })
+    public void testCalledPrefix() throws Exception {
+        CallGapManager manager = new CallGapManager();
+        long now = 1000000;
+
+        GapCriteria criteria = new GapCriteriaImpl(new BasicGapCriteriaImpl(this.createDigits("1234", false)));
+        CallGapManager.Gap gap = manager.applyCallGap(criteria, new GapIndicatorsImpl(10, 1000), ControlType.sCPOverloaded,
+                null, now);
+        assertNotNull(gap);
+        assertEquals(gap.getDigits(), "1234");
+        assertEquals(manager.getActiveGapCount(), 0); // the gap is in the past for System.currentTimeMillis()
+
+        gap = manager.applyCallGap(criteria, new GapIndicatorsImpl(10, 1000), ControlType.sCPOverloaded, null, now);
+
+        // not matching prefix
+        assertNull(manager.check(1, "1233999", null, now));
+        assertNull(manager.check(1, "123", null, now));
+        // the first call passes, next ones are gapped till gapInterval
+        assertNull(manager.check(1, "12345", null, now));
+        assertSame(manager.check(2, "1234", null, now + 500), gap);
+        assertNull(manager.check(3, "123456", null, now + 1000));
+        assertSame(manager.check(3, "123456", null, now + 1999), gap);
+
+        // the gap expires after duration
+        assertNull(manager.check(1, "12345", null, now + 10000));
+        assertNull(manager.check(1, "12345", null, now + 10001));
+
+        assertEquals(manager.getGappedCallCount(), 2);
+        assertEquals(manager.getPassedCallCount(), 2);
+        assertEquals(gap.getGappedCount(), 2);
+    }
+
+    @Test(groups = { "functional", "gap" })
+    public void testServiceKeyAndRemoval() throws Exception {
+        CallGapManager manager = new CallGapManager();
+        long now = 1000000;
+
+        // all calls for service key 5 are gapped
+        GapCriteria criteria = new GapCriteriaImpl(new BasicGapCriteriaImpl(new GapOnServiceImpl(5)));
+        manager.applyCallGap(criteria, new GapIndicatorsImpl(-1, -1), ControlType.manuallyInitiated, null, now);
+        assertNotNull(manager.check(5, "111", null, now));
+        assertNotNull(manager.check(5, null, null, now + 1000000000L));
+        assertNull(manager.check(6, "111", null, now));
+
+        // the longest prefix wins: the "77" gap does not gap the call while "7" gaps all
+        manager.applyCallGap(new GapCriteriaImpl(new BasicGapCriteriaImpl(new CalledAddressAndServiceImpl(this.createDigits(
+                "7", true), 6))), new GapIndicatorsImpl(-1, -1), ControlType.sCPOverloaded, null, now);
+        manager.applyCallGap(new GapCriteriaImpl(new BasicGapCriteriaImpl(new CalledAddressAndServiceImpl(this.createDigits(
+                "77", true), 6))), new GapIndicatorsImpl(-1, 100), ControlType.sCPOverloaded, null, now);
+        assertNotNull(manager.check(6, "7123", null, now));
+        assertNull(manager.check(6, "7712", null, now));
+        assertNotNull(manager.check(6, "7712", null, now + 10));
+
+        // calling party gapping
+        manager.applyCallGap(new GapCriteriaImpl(new BasicGapCriteriaImpl(new CallingAddressAndServiceImpl(this
+                .createDigits("99", false), 8))), new GapIndicatorsImpl(-1, -1), ControlType.sCPOverloaded, null, now);
+        assertNotNull(manager.check(8, "5", "991", now));
+        assertNull(manager.check(8, "5", "981", now));
+
+        // duration == 0 removes the gap
+        manager.applyCallGap(criteria, new GapIndicatorsImpl(0, -1), ControlType.manuallyInitiated, null, now);
+        assertNull(manager.check(5, "111", null, now));
+
+        manager.setEnabled(false);
+        assertEquals(manager.getActiveGapCount(), 0);
+        assertNull(manager.check(6, "7123", null, now));
+    }
+
+    @Test(groups = { "functional", "gap" })
+    public void testCalledAndCallingGaps() throws Exception {
+        CallGapManager manager = new CallGapManager();
+        long now = 1000000;
+
+        CallGapManager.Gap calledGap = manager.applyCallGap(new GapCriteriaImpl(new BasicGapCriteriaImpl(this.createDigits(
+                "12", true))), new GapIndicatorsImpl(-1, 1000), ControlType.sCPOverloaded, null, now);
+        CallGapManager.Gap callingGap = manager.applyCallGap(new GapCriteriaImpl(new BasicGapCriteriaImpl(
+                new CallingAddressAndServiceImpl(this.createDigits("99", true), 8))), new GapIndicatorsImpl(-1, 1000),
+                ControlType.sCPOverloaded, null, now);
+
+        // the calling gap slot is taken
+        assertNull(manager.check(8, "5", "991", now));
+        // the call is gapped by the calling gap, the called gap slot must not be consumed
+        assertSame(manager.check(8, "123", "991", now + 10), callingGap);
+        assertNull(manager.check(8, "123", null, now + 20));
+        assertSame(manager.check(8, "123", null, now + 30), calledGap);
+
+        // both gaps are passed and both slots are taken
+        assertNull(manager.check(8, "123", "991", now + 1020));
+        assertSame(manager.check(8, "5", "991", now + 1030), callingGap);
+        assertSame(manager.check(8, "123", null, now + 1030), calledGap);
+
+        assertEquals(calledGap.getGappedCount(), 2);
+        assertEquals(callingGap.getGappedCount(), 2);
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.ss7.congestion;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Adaptive congestion controller that is driven by samples of the queue sojourn time (how long the oldest queued message is
+ * waiting) and of the queue length. It is not bound to a resource: a user (MTP3, SCCP or TCAP delivery executor monitor)
+ * invokes {@link #sample(long, int, long)} every few milliseconds and reads {@link #getLevel()} and
+ * {@link #getAdmissionProbability()}.
+ * </p>
+ * <p>
+ * The control law is CoDel-like with AIMD admission: the sojourn time is extrapolated by its gradient for the prediction
+ * horizon; while the predicted sojourn time stays above the target for more than an interval the admission probability of
+ * new work is multiplicatively decreased (the next decrease comes after interval / sqrt(count) as in CoDel). When the
+ * predicted sojourn time is below the target (and the queue is not growing) the admission probability is additively
+ * increased at every sample.
+ * </p>
+ * <p>
+ * Congestion levels (see {@link CongestionTicket#getLevel()}): 0 - the full admission, 1 - the admission of new work is being
+ * reduced, 2 - the minimal admission is reached (new work should not be accepted), 3 - the sojourn time is above the
+ * overload limit.
+ * </p>
+ */
+public class AdaptiveCongestionController {
+
+    public static final long DEFAULT_TARGET = TimeUnit.MILLISECONDS.toNanos(5);
+    public static final long DEFAULT_INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+    public static final long DEFAULT_PREDICTION_HORIZON = TimeUnit.MILLISECONDS.toNanos(50);
+    public static final long DEFAULT_OVERLOAD_SOJOURN_TIME = TimeUnit.MILLISECONDS.toNanos(500);
+    public static final double DEFAULT_INCREASE_STEP = 0.02;
+    public static final double DEFAULT_DECREASE_FACTOR = 0.75;
+    public static final double DEFAULT_MIN_ADMISSION_PROBABILITY = 0.05;
+
+    private static final double GRADIENT_WEIGHT = 0.25;
+
+    private final long target;
+    private final long interval;
+    private final long predictionHorizon;
+    private final long overloadSojournTime;
+    private final double increaseStep;
+    private final double decreaseFactor;
+    private final double minAdmissionProbability;
+
+    // the sampler state, changed only inside of sample()
+    private boolean hasSample;
+    private long lastSampleTime;
+    private long lastSojournTime;
+    private int lastQueueLength;
+    private double sojournTimeGradient;
+    private double queueLengthGradient;
+    private boolean aboveTarget;
+    // the time when the admission may start to be decreased (valid when aboveTarget)
+    private long firstDecreaseTime;
+    private long nextDecreaseTime;
+    private int decreaseCount;
+    private boolean decreasing;
+
+    private volatile double admissionProbability = 1.0;
+    private volatile int level;
+    private volatile long sojournTime;
+    private volatile long predictedSojournTime;
+
+    public AdaptiveCongestionController() {
+        this(DEFAULT_TARGET, DEFAULT_INTERVAL, DEFAULT_PREDICTION_HORIZON, DEFAULT_OVERLOAD_SOJOURN_TIME, DEFAULT_INCREASE_STEP,
+                DEFAULT_DECREASE_FACTOR, DEFAULT_MIN_ADMISSION_PROBABILITY);
+    }
+
+    /**
+     * @param target target sojourn time (nanoseconds)
+     * @param interval how long the predicted sojourn time must stay above the target before the admission is decreased
+     *        (nanoseconds)
+     * @param predictionHorizon how far the sojourn time is extrapolated by its gradient (nanoseconds)
+     * @param overloadSojournTime the sojourn time that leads to the congestion level 3 (nanoseconds)
+     * @param increaseStep the admission probability increase per sample when the queue is drained
+     * @param decreaseFactor the admission probability is multiplied by this value when it is decreased
+     * @param minAdmissionProbability the admission probability is never decreased below this value
+     */
+    public AdaptiveCongestionController(long target, long interval, long predictionHorizon, long overloadSojournTime,
+            double increaseStep, double decreaseFactor, double minAdmissionProbability) {
+        if (target <= 0 || interval <= 0 || predictionHorizon < 0 || overloadSojournTime <= target)
+            throw new IllegalArgumentException("target and interval must be positive, overloadSojournTime must be above target");
+        if (increaseStep <= 0 || decreaseFactor <= 0 || decreaseFactor >= 1 || minAdmissionProbability < 0
+                || minAdmissionProbability >= 1)
+            throw new IllegalArgumentException(
+                    "increaseStep must be positive, decreaseFactor must be in (0, 1), minAdmissionProbability in [0, 1)");
+
+        this.target = target;
+        this.interval = interval;
+        this.predictionHorizon = predictionHorizon;
+        this.overloadSojournTime = overloadSojournTime;
+        this.increaseStep = increaseStep;
+        this.decreaseFactor = decreaseFactor;
+        this.minAdmissionProbability = minAdmissionProbability;
+    }
+
+    /**
+     * Registers a new sample
+     *
+     * @param sojournTime how long the oldest queued message is waiting (nanoseconds, 0 if the queue is empty)
+     * @param queueLength count of queued messages
+     * @param now System.nanoTime() of the sample
+     */
+    public synchronized void sample(long sojournTime, int queueLength, long now) {
+        if (hasSample) {
+            long dt = now - lastSampleTime;
+            if (dt > 0) {
+                double g = (double) (sojournTime - lastSojournTime) / dt;
+                sojournTimeGradient += GRADIENT_WEIGHT * (g - sojournTimeGradient);
+                double qg = (double) (queueLength - lastQueueLength) * TimeUnit.SECONDS.toNanos(1) / dt;
+                queueLengthGradient += GRADIENT_WEIGHT * (qg - queueLengthGradient);
+            }
+        }
+        hasSample = true;
+        lastSampleTime = now;
+        lastSojournTime = sojournTime;
+        lastQueueLength = queueLength;
+
+        long predicted = sojournTime;
+        if (sojournTimeGradient > 0)
+            predicted += (long) (sojournTimeGradient * predictionHorizon);
+
+        double p = admissionProbability;
+        if (predicted < target) {
+            aboveTarget = false;
+            decreasing = false;
+            // the queue may be still growing after a congestion, we do not speed up until it is drained
+            if (queueLengthGradient <= 0 || sojournTime < target / 2)
+                p = Math.min(1.0, p + increaseStep);
+        } else if (!aboveTarget) {
+            aboveTarget = true;
+            firstDecreaseTime = now + interval;
+        } else if (now - firstDecreaseTime >= 0) {
+            if (!decreasing) {
+                decreasing = true;
+                decreaseCount = 1;
+                p *= decreaseFactor;
+                nextDecreaseTime = now + interval;
+            } else if (now - nextDecreaseTime >= 0) {
+                decreaseCount++;
+                p *= decreaseFactor;
+                nextDecreaseTime = now + (long) (interval / Math.sqrt(decreaseCount));
+            }
+        }
+        if (p < minAdmissionProbability)
+            p = minAdmissionProbability;
+
+        int newLevel;
+        if (sojournTime >= overloadSojournTime)
+            newLevel = 3;
+        else if (p <= minAdmissionProbability)
+            newLevel = 2;
+        else if (p < 1.0)
+            newLevel = 1;
+        else
+            newLevel = 0;
+
+        this.sojournTime = sojournTime;
+        this.predictedSojournTime = predicted;
+        this.admissionProbability = p;
+        this.level = newLevel;
+    }
+
+    /**
+     * @return a probability (0..1] with which new work (for example a new incoming dialog) should be accepted
+     */
+    public double getAdmissionProbability() {
+        return admissionProbability;
+    }
+
+    /**
+     * @return true if new work is admitted (random drawing with the current admission probability)
+     */
+    public boolean admit() {
+        double p = admissionProbability;
+        return p >= 1.0 || ThreadLocalRandom.current().nextDouble() < p;
+    }
+
+    /**
+     * @return congestion level 0..3
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * @return the last sampled sojourn time (nanoseconds)
+     */
+    public long getSojournTime() {
+        return sojournTime;
+    }
+
+    /**
+     * @return the last sojourn time extrapolated for the prediction horizon (nanoseconds)
+     */
+    public long getPredictedSojournTime() {
+        return predictedSojournTime;
+    }
+
+    public long getTarget() {
+        return target;
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    /**
+     * Returns the controller into the non congested state
+     */
+    public synchronized void reset() {
+        hasSample = false;
+        lastSampleTime = 0;
+        lastSojournTime = 0;
+        lastQueueLength = 0;
+        sojournTimeGradient = 0;
+        queueLengthGradient = 0;
+        aboveTarget = false;
+        firstDecreaseTime = 0;
+        nextDecreaseTime = 0;
+        decreaseCount = 0;
+        decreasing = false;
+        admissionProbability = 1.0;
+        level = 0;
+        sojournTime = 0;
+        predictedSojournTime = 0;
+    }
+
+}
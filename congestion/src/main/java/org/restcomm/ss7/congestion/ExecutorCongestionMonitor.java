@@ -57,4 +57,15 @@ public interface ExecutorCongestionMonitor {
 
     void setBackToNormalDelayThreshold_3(double value) throws Exception;
 
+    /**
+     * @return max count of messages that are queued for delivering and not yet delivered among executor lanes
+     */
+    int getMaxQueueDepth();
+
+    /**
+     * @return a probability (0..1] with which new dialogs should be accepted, 1 if the adaptive congestion control is not
+     *         used
+     */
+    double getAdmissionProbability();
+
 }
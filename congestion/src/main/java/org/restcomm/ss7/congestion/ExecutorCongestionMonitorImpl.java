@@ -32,11 +32,16 @@ import java.util.concurrent.ExecutorService;
  */
 public class ExecutorCongestionMonitorImpl extends BaseCongestionMonitor implements ExecutorCongestionMonitor {
     private static final String SOURCE = "EXECUTOR_";
+    // the adaptive controller provides a level itself
+    private static final double[] ADAPTIVE_LEVEL_THRESHOLD = new double[] { 1, 2, 3 };
+    private static final double[] ADAPTIVE_BACK_TO_NORMAL_LEVEL_THRESHOLD = new double[] { 0, 1, 2 };
 
     private String productName;
     private String source;
-    private int currentAlarmLevel = 0;
+    private volatile int currentAlarmLevel = 0;
     private ExecutorService[] executors;
+    private LaneExecutor laneExecutor;
+    private AdaptiveCongestionController adaptiveController;
 
     private double[] delayThreshold = new double[] { 1, 6, 12 };
     private double[] backToNormalDelayThreshold = new double[] { 0.5, 3, 8 };
@@ -50,12 +55,88 @@ public class ExecutorCongestionMonitorImpl extends BaseCongestionMonitor impleme
         this.source = SOURCE + productName;
     }
 
+    /**
+     * Monitoring of a {@link LaneExecutor}: the delay is measured per lane (a test task is queued after messages that are
+     * already queued for the lane)
+     */
+    public ExecutorCongestionMonitorImpl(String productName, LaneExecutor laneExecutor) {
+        this.productName = productName;
+        this.laneExecutor = laneExecutor;
+
+        this.source = SOURCE + productName;
+    }
+
+    /**
+     * Adaptive monitoring of a {@link LaneExecutor}: monitor() samples the sojourn time and the queue depth of lanes
+     * synchronously (no test task is queued), so it may be invoked every few milliseconds. The congestion level and the
+     * admission probability are provided by the {@link AdaptiveCongestionController}, delay thresholds are not used.
+     */
+    public ExecutorCongestionMonitorImpl(String productName, LaneExecutor laneExecutor,
+            AdaptiveCongestionController adaptiveController) {
+        this(productName, laneExecutor);
+        this.adaptiveController = adaptiveController;
+    }
+
+    public AdaptiveCongestionController getAdaptiveController() {
+        return adaptiveController;
+    }
+
+    @Override
+    public double getAdmissionProbability() {
+        AdaptiveCongestionController adaptiveController = this.adaptiveController;
+        if (adaptiveController != null)
+            return adaptiveController.getAdmissionProbability();
+        else
+            return 1.0;
+    }
+
+    /**
+     * @return max count of queued and not yet executed tasks among lanes (0 for ExecutorService based monitor)
+     */
+    @Override
+    public int getMaxQueueDepth() {
+        LaneExecutor laneExecutor = this.laneExecutor;
+        int maxDepth = 0;
+        if (laneExecutor != null) {
+            for (int i = 0; i < laneExecutor.getLaneCount(); i++) {
+                int depth = laneExecutor.getLaneQueueDepth(i);
+                if (maxDepth < depth)
+                    maxDepth = depth;
+            }
+        }
+        return maxDepth;
+    }
+
     @Override
     public void monitor() {
+        if (adaptiveController != null && laneExecutor != null) {
+            this.sampleLanes();
+            return;
+        }
+
         TestMonitor testMonitor = new TestMonitor();
         testMonitor.startMonitor();
     }
 
+    private void sampleLanes() {
+        long maxSojournTime = 0;
+        int queueLength = 0;
+        for (int i = 0; i < laneExecutor.getLaneCount(); i++) {
+            long sojournTime = laneExecutor.getLaneSojournTime(i);
+            if (maxSojournTime < sojournTime)
+                maxSojournTime = sojournTime;
+            queueLength += laneExecutor.getLaneQueueDepth(i);
+        }
+        adaptiveController.sample(maxSojournTime, queueLength, System.nanoTime());
+
+        calculatedMaxValue = maxSojournTime / 1000000000.0;
+        int level = adaptiveController.getLevel();
+        if (level != currentAlarmLevel) {
+            super.applyNewValue(currentAlarmLevel, level, ADAPTIVE_LEVEL_THRESHOLD, ADAPTIVE_BACK_TO_NORMAL_LEVEL_THRESHOLD,
+                    true);
+        }
+    }
+
     @Override
     public String getSource() {
         return this.source;
@@ -146,6 +227,14 @@ public class ExecutorCongestionMonitorImpl extends BaseCongestionMonitor impleme
         StringBuilder sb = new StringBuilder();
         sb.append("Last measured max delay between delivering an IP message for sending and a moment when the message was transferred via an IP channel (seconds): ");
         sb.append(calculatedMaxValue);
+        if (laneExecutor != null) {
+            sb.append(", max queue depth of a lane: ");
+            sb.append(getMaxQueueDepth());
+        }
+        if (adaptiveController != null) {
+            sb.append(", admission probability: ");
+            sb.append(adaptiveController.getAdmissionProbability());
+        }
         return sb.toString();
     }
 
@@ -155,6 +244,18 @@ public class ExecutorCongestionMonitorImpl extends BaseCongestionMonitor impleme
         private int finished = 0;
 
         public void startMonitor() {
+            if (laneExecutor != null) {
+                cnt = laneExecutor.getLaneCount();
+                monitorList = new ExecutorTestMonitor[cnt];
+                for (int i1 = 0; i1 < cnt; i1++) {
+                    monitorList[i1] = new ExecutorTestMonitor(this);
+                }
+                for (int i1 = 0; i1 < cnt; i1++) {
+                    laneExecutor.execute(i1, monitorList[i1]);
+                }
+                return;
+            }
+
             cnt = executors.length;
             monitorList = new ExecutorTestMonitor[cnt];
             for (int i1 = 0; i1 < cnt; i1++) {
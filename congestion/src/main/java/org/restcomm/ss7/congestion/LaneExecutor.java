@@ -0,0 +1,51 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.ss7.congestion;
+
+/**
+ * An executor that splits tasks into lanes. Tasks of one lane are executed in the order of submitting, one at a time. Used by
+ * {@link ExecutorCongestionMonitorImpl} for measuring of a delivery delay and queue depth per lane.
+ */
+public interface LaneExecutor {
+
+    /**
+     * @return count of lanes
+     */
+    int getLaneCount();
+
+    /**
+     * @return count of tasks that are queued for a lane and not yet executed
+     */
+    int getLaneQueueDepth(int lane);
+
+    /**
+     * @return how long (in nanoseconds) the oldest queued task of a lane is waiting, 0 if the lane is empty
+     */
+    long getLaneSojournTime(int lane);
+
+    /**
+     * Submits a task that will be executed after all tasks that are already queued for the lane
+     */
+    void execute(int lane, Runnable task);
+
+}
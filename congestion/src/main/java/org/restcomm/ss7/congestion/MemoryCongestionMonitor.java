@@ -57,4 +57,10 @@ public interface MemoryCongestionMonitor {
 
     void setBackToNormalMemoryThreshold_3(double value) throws Exception;
 
+    /**
+     * @return a probability (0..1] with which new work (for example a new incoming dialog) should be accepted regarding the
+     *         memory state
+     */
+    double getAdmissionProbability();
+
 }
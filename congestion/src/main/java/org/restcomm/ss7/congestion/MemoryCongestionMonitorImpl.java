@@ -23,8 +23,37 @@
 package org.restcomm.ss7.congestion;
 
 import java.io.Serializable;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
 
 /**
+ * <p>
+ * Memory congestion monitor. The used memory percentage is measured from the heap usage that remains after the last garbage
+ * collection (post-GC usage of heap pools that support it, see {@link MemoryPoolMXBean#getCollectionUsage()}), so it is
+ * not affected by the garbage that is waiting for a collection and is stable with G1 / ZGC. If no heap pool supports the
+ * post-GC usage the monitor falls back to Runtime.freeMemory() measuring.
+ * </p>
+ * <p>
+ * GC notifications are used for counting of GC pause time and of freed memory (for the allocation rate calculating).
+ * {@link #getAdmissionProbability()} starts to shed new work before the heap is filled: when the post-GC usage extrapolated
+ * by its growth rate exceeds the memory threshold 1, when the GC pause time takes a big share of the time or when the
+ * allocation rate consumes the free heap faster than it can be collected.
+ * </p>
+ *
  * @author amit bhayani
  * @author sergey vetyutnev
  *
@@ -32,6 +61,19 @@ import java.io.Serializable;
 public class MemoryCongestionMonitorImpl extends BaseCongestionMonitor implements MemoryCongestionMonitor, Serializable {
     private static final String SOURCE = "MEMORY";
 
+    // com.sun.management.GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION
+    private static final String GARBAGE_COLLECTION_NOTIFICATION = "com.sun.management.gc.notification";
+
+    // how far (seconds) the post-GC usage is extrapolated by its growth rate
+    private static final double PREDICTION_HORIZON = 30;
+    // a share of GC pause time when shedding of new work begins and when the min admission is reached
+    private static final double GC_PAUSE_RATIO_LOW = 0.1;
+    private static final double GC_PAUSE_RATIO_HIGH = 0.5;
+    // new work is shed when the free heap is consumed by allocations faster than this time (seconds), GC is thrashing
+    private static final double MIN_HEADROOM_TIME = 0.1;
+    private static final double MIN_ADMISSION_PROBABILITY = 0.05;
+    private static final double SMOOTHING_WEIGHT = 0.3;
+
     private double maxMemory;
     private volatile double percentageOfMemoryUsed;
 
@@ -44,8 +86,73 @@ public class MemoryCongestionMonitorImpl extends BaseCongestionMonitor implement
     protected double calculatedFreeMemory;
     protected double calculatedTotalFreeMemory;
 
+    // old generation heap pools that support the post-GC usage
+    private transient List<MemoryPoolMXBean> collectedPools = new ArrayList<MemoryPoolMXBean>();
+    private transient List<MemoryPoolMXBean> heapPools = new ArrayList<MemoryPoolMXBean>();
+    private transient List<NotificationEmitter> gcEmitters = new ArrayList<NotificationEmitter>();
+    private transient NotificationListener gcListener;
+
+    // updated from GC notification threads
+    private final AtomicLong gcPauseTime = new AtomicLong();
+    private final AtomicLong gcFreedMemory = new AtomicLong();
+
+    // monitor() state
+    private long lastMonitorTime;
+    private long lastHeapUsed;
+    private long lastGcPauseTime;
+    private long lastGcFreedMemory;
+    private double lastPostGcPercentage = -1;
+
+    protected volatile double postGcPercentageGrowthRate;
+    protected volatile double predictedPercentageOfMemoryUsed;
+    protected volatile double gcPauseRatio;
+    protected volatile double allocationRate;
+    protected volatile double headroomTime = Double.MAX_VALUE;
+    private volatile double admissionProbability = 1.0;
+
     public MemoryCongestionMonitorImpl() {
         maxMemory = Runtime.getRuntime().maxMemory() / (double) 1024;
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                heapPools.add(pool);
+                if (pool.isCollectionUsageThresholdSupported() && !isYoungGenerationPool(pool.getName()))
+                    collectedPools.add(pool);
+            }
+        }
+
+        gcListener = new GcNotificationListener();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter) {
+                // concurrent collectors report whole cycles, not pauses
+                String name = gc.getName();
+                boolean concurrent = name.contains("Cycles") || name.contains("Concurrent");
+                NotificationEmitter emitter = (NotificationEmitter) gc;
+                emitter.addNotificationListener(gcListener, null, concurrent);
+                gcEmitters.add(emitter);
+            }
+        }
+    }
+
+    /**
+     * Young generation pools are almost full after each collection (survivors), so they are not a measure of live data
+     */
+    private static boolean isYoungGenerationPool(String name) {
+        String s = name.toLowerCase();
+        return s.contains("eden") || s.contains("survivor") || s.contains("young") || s.contains("nursery");
+    }
+
+    /**
+     * Unregisters GC notification listeners. The monitor must not be used after stopping.
+     */
+    public void stop() {
+        for (NotificationEmitter emitter : gcEmitters) {
+            try {
+                emitter.removeNotificationListener(gcListener);
+            } catch (ListenerNotFoundException e) {
+            }
+        }
+        gcEmitters.clear();
     }
 
     /**
@@ -159,7 +266,7 @@ public class MemoryCongestionMonitorImpl extends BaseCongestionMonitor implement
      * @see org.restcomm.ss7.congestion.CongestionMonitor#monitor()
      */
     @Override
-    public void monitor() {
+    public synchronized void monitor() {
         Runtime runtime = Runtime.getRuntime();
 
         double allocatedMemory = runtime.totalMemory() / (double) 1024;
@@ -171,11 +278,149 @@ public class MemoryCongestionMonitorImpl extends BaseCongestionMonitor implement
         calculatedFreeMemory = freeMemory;
         calculatedTotalFreeMemory = totalFreeMemory;
 
-        this.percentageOfMemoryUsed = (((double) 100) - ((totalFreeMemory / maxMemory) * ((double) 100)));
+        long now = System.nanoTime();
+        long heapUsed = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            MemoryUsage usage = pool.getUsage();
+            if (usage != null)
+                heapUsed += usage.getUsed();
+        }
+
+        double postGcPercentage = getPostGcPercentage();
+        if (postGcPercentage >= 0) {
+            this.percentageOfMemoryUsed = postGcPercentage;
+        } else {
+            this.percentageOfMemoryUsed = (((double) 100) - ((totalFreeMemory / maxMemory) * ((double) 100)));
+        }
+
+        long pauseTime = gcPauseTime.get();
+        long freed = gcFreedMemory.get();
+        if (lastMonitorTime != 0) {
+            double dt = (now - lastMonitorTime) / (double) TimeUnit.SECONDS.toNanos(1);
+            if (dt > 0) {
+                double pauseRatio = (pauseTime - lastGcPauseTime) / 1000.0 / dt;
+                gcPauseRatio += SMOOTHING_WEIGHT * (Math.min(1.0, pauseRatio) - gcPauseRatio);
+
+                double rate = Math.max(0, heapUsed - lastHeapUsed + freed - lastGcFreedMemory) / dt;
+                allocationRate += SMOOTHING_WEIGHT * (rate - allocationRate);
+
+                if (postGcPercentage >= 0 && lastPostGcPercentage >= 0) {
+                    double growth = (postGcPercentage - lastPostGcPercentage) / dt;
+                    postGcPercentageGrowthRate += SMOOTHING_WEIGHT * (growth - postGcPercentageGrowthRate);
+                }
+            }
+        }
+        lastMonitorTime = now;
+        lastHeapUsed = heapUsed;
+        lastGcPauseTime = pauseTime;
+        lastGcFreedMemory = freed;
+        lastPostGcPercentage = postGcPercentage;
+
+        double predicted = percentageOfMemoryUsed;
+        if (postGcPercentageGrowthRate > 0)
+            predicted += postGcPercentageGrowthRate * PREDICTION_HORIZON;
+        predictedPercentageOfMemoryUsed = predicted;
+
+        double headroom = (100.0 - percentageOfMemoryUsed) / 100.0 * maxMemory * 1024;
+        headroomTime = allocationRate > 0 ? headroom / allocationRate : Double.MAX_VALUE;
+
+        admissionProbability = calculateAdmissionProbability(predicted, gcPauseRatio, headroomTime, memoryThreshold);
 
         super.applyNewValue(memoryAlarmLevel, percentageOfMemoryUsed, memoryThreshold, backToNormalMemoryThreshold, true);
     }
 
+    /**
+     * @return max post-GC usage percentage among heap pools that support it or -1 if it is not available
+     */
+    private double getPostGcPercentage() {
+        double res = -1;
+        for (MemoryPoolMXBean pool : collectedPools) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage == null)
+                continue;
+            // the pool has not been collected yet, the current usage is the upper bound of live data
+            if (usage.getCommitted() == 0)
+                usage = pool.getUsage();
+            long max = usage.getMax() > 0 ? usage.getMax() : pool.getUsage().getMax();
+            if (max <= 0)
+                max = Runtime.getRuntime().maxMemory();
+            double percentage = usage.getUsed() * 100.0 / max;
+            if (res < percentage)
+                res = percentage;
+        }
+        return res;
+    }
+
+    /**
+     * Calculates the admission probability of new work as the minimum of: the predicted memory usage (linearly from 1 at the
+     * memory threshold 1 down to the min value at the memory threshold 3), the GC pause share of the time and the time for
+     * which allocations consume the free heap
+     */
+    protected static double calculateAdmissionProbability(double predictedPercentage, double gcPauseRatio,
+            double headroomTime, double[] memoryThreshold) {
+        double p = 1.0;
+        if (predictedPercentage > memoryThreshold[0]) {
+            double range = memoryThreshold[2] - memoryThreshold[0];
+            double v = range > 0 ? 1.0 - (predictedPercentage - memoryThreshold[0]) / range : 0;
+            p = Math.min(p, v);
+        }
+        if (gcPauseRatio > GC_PAUSE_RATIO_LOW) {
+            double v = 1.0 - (gcPauseRatio - GC_PAUSE_RATIO_LOW) / (GC_PAUSE_RATIO_HIGH - GC_PAUSE_RATIO_LOW);
+            p = Math.min(p, v);
+        }
+        if (headroomTime < MIN_HEADROOM_TIME) {
+            p = Math.min(p, headroomTime / MIN_HEADROOM_TIME);
+        }
+        return Math.max(MIN_ADMISSION_PROBABILITY, p);
+    }
+
+    @Override
+    public double getAdmissionProbability() {
+        return admissionProbability;
+    }
+
+    public double getPercentageOfMemoryUsed() {
+        return percentageOfMemoryUsed;
+    }
+
+    private class GcNotificationListener implements NotificationListener {
+
+        @Override
+        public void handleNotification(Notification notification, Object handback) {
+            if (!GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())
+                    || !(notification.getUserData() instanceof CompositeData))
+                return;
+
+            CompositeData gcInfo = (CompositeData) ((CompositeData) notification.getUserData()).get("gcInfo");
+            if (gcInfo == null)
+                return;
+
+            boolean concurrent = Boolean.TRUE.equals(handback);
+            if (!concurrent) {
+                Object duration = gcInfo.get("duration");
+                if (duration instanceof Long)
+                    gcPauseTime.addAndGet((Long) duration);
+            }
+
+            long before = getUsed((TabularData) gcInfo.get("memoryUsageBeforeGc"));
+            long after = getUsed((TabularData) gcInfo.get("memoryUsageAfterGc"));
+            if (before > after)
+                gcFreedMemory.addAndGet(before - after);
+        }
+
+        private long getUsed(TabularData data) {
+            long res = 0;
+            if (data != null) {
+                for (Object row : data.values()) {
+                    MemoryUsage usage = MemoryUsage.from((CompositeData) ((CompositeData) row).get("value"));
+                    if (usage != null)
+                        res += usage.getUsed();
+                }
+            }
+            return res;
+        }
+    }
+
     protected CongestionTicketImpl generateTicket() {
         return new CongestionTicketImpl(SOURCE, memoryAlarmLevel);
     }
@@ -273,6 +518,14 @@ public class MemoryCongestionMonitorImpl extends BaseCongestionMonitor implement
         sb.append(calculatedTotalFreeMemory);
         sb.append(",  percentageOfMemoryUsed=");
         sb.append(percentageOfMemoryUsed);
+        sb.append(", predictedPercentageOfMemoryUsed=");
+        sb.append(predictedPercentageOfMemoryUsed);
+        sb.append(", gcPauseRatio=");
+        sb.append(gcPauseRatio);
+        sb.append(", allocationRate=");
+        sb.append((long) allocationRate);
+        sb.append(", admissionProbability=");
+        sb.append(admissionProbability);
         return sb.toString();
     }
 
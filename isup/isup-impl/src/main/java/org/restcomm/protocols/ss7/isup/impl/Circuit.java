@@ -74,43 +74,15 @@ class Circuit {
 
     private ReentrantLock lock = new ReentrantLock();
 
-    private ConcurrentLinkedList<ISUPMessage> incoming = new ConcurrentLinkedList<ISUPMessage>();
-    private ConcurrentLinkedList<ISUPMessage> outgoing = new ConcurrentLinkedList<ISUPMessage>();
+    // created on first message, an idle circuit has neither tasks nor queues
+    private volatile Sender sender;
+    private volatile Receiver receiver;
 
-    private Sender sender;
-    private Receiver receiver;
-
-    private ByteArrayOutputStream bos = new ByteArrayOutputStream(300);
-
-    /**
-     * @param cic
-     */
-    public Circuit(int cic, int dpc, ISUPProviderImpl provider, Scheduler scheduler) {
-        sender = new Sender(scheduler);
-        receiver = new Receiver(scheduler);
+    // timers are scheduled in the timer wheel of the provider, so there is nothing to create here
+    public Circuit(int cic, int dpc, ISUPProviderImpl provider) {
         this.cic = cic;
         this.dpc = dpc;
         this.provider = provider;
-
-        // create all timers and deactivate them
-        t1 = new TimerT1(scheduler);
-        t5 = new TimerT5(scheduler);
-        t7 = new TimerT7(scheduler);
-        t12 = new TimerT12(scheduler);
-        t13 = new TimerT13(scheduler);
-        t14 = new TimerT14(scheduler);
-        t15 = new TimerT15(scheduler);
-        t16 = new TimerT16(scheduler);
-        t17 = new TimerT17(scheduler);
-        t18 = new TimerT18(scheduler);
-        t19 = new TimerT19(scheduler);
-        t20 = new TimerT20(scheduler);
-        t21 = new TimerT21(scheduler);
-        t22 = new TimerT22(scheduler);
-        t23 = new TimerT23(scheduler);
-        t28 = new TimerT28(scheduler);
-        t33 = new TimerT33(scheduler);
-        onStop();
     }
 
     /**
@@ -182,7 +154,8 @@ class Circuit {
      * @param message
      */
     public void receive(ISUPMessage message) {
-        incoming.offer(message);
+        Receiver receiver = getReceiver();
+        receiver.incoming.offer(message);
         receiver.submit();
     }
 
@@ -192,17 +165,47 @@ class Circuit {
      * @throws IOException
      */
     public void send(ISUPMessage message) throws ParameterException, IOException {
-        outgoing.offer(message);
+        Sender sender = getSender();
+        sender.outgoing.offer(message);
         sender.submit();
     }
 
+    private Receiver getReceiver() {
+        Receiver receiver = this.receiver;
+        if (receiver == null) {
+            synchronized (this) {
+                receiver = this.receiver;
+                if (receiver == null) {
+                    receiver = new Receiver(provider.scheduler);
+                    this.receiver = receiver;
+                }
+            }
+        }
+        return receiver;
+    }
+
+    private Sender getSender() {
+        Sender sender = this.sender;
+        if (sender == null) {
+            synchronized (this) {
+                sender = this.sender;
+                if (sender == null) {
+                    sender = new Sender(provider.scheduler);
+                    this.sender = sender;
+                }
+            }
+        }
+        return sender;
+    }
+
     /**
      * @param message
      * @return
      * @throws ParameterException
      * @throws IOException
      */
-    private Mtp3TransferPrimitive decorate(ISUPMessage message) throws ParameterException, IOException {
+    private Mtp3TransferPrimitive decorate(ISUPMessage message, ByteArrayOutputStream bos) throws ParameterException,
+            IOException {
         ((AbstractISUPMessage) message).encode(bos);
         byte[] encoded = bos.toByteArray();
         int opc = this.provider.getLocalSpc();
@@ -216,8 +219,24 @@ class Circuit {
         return msg;
     }
 
+    /**
+     * All tasks of a circuit have the same affinity, so they are executed sequentially by a LaneScheduler
+     */
+    private abstract class CircuitTask extends Task {
+        public CircuitTask(Scheduler scheduler) {
+            super(scheduler);
+        }
+
+        @Override
+        public int getAffinity() {
+            return dpc * 31 + cic;
+        }
+    }
+
     // --------------- data handlers ---------------------------
-    private class Receiver extends Task {
+    private class Receiver extends CircuitTask {
+        private final ConcurrentLinkedList<ISUPMessage> incoming = new ConcurrentLinkedList<ISUPMessage>();
+
         public Receiver(Scheduler scheduler) {
             super(scheduler);
         }
@@ -287,7 +306,10 @@ class Circuit {
         }
     }
 
-    private class Sender extends Task {
+    private class Sender extends CircuitTask {
+        private final ConcurrentLinkedList<ISUPMessage> outgoing = new ConcurrentLinkedList<ISUPMessage>();
+        private final ByteArrayOutputStream bos = new ByteArrayOutputStream(300);
+
         public Sender(Scheduler scheduler) {
             super(scheduler);
         }
@@ -309,7 +331,7 @@ class Circuit {
                     bos.reset();
 
                     // FIXME: add SEG creation?
-                    Mtp3TransferPrimitive msg = decorate(message);
+                    Mtp3TransferPrimitive msg = decorate(message, bos);
                     // process timers
                     switch (message.getMessageType().getCode()) {
                         case ReleaseMessage.MESSAGE_CODE:
@@ -361,76 +383,69 @@ class Circuit {
 
     // FIXME: check how t3 works....
 
-    private TimerT1 t1;
-    private TimerT5 t5;
-    private Mtp3TransferPrimitive t1t5encodedREL; // keep encoded value, so we can simply send,
-    // without spending CPU on encoding.
-    private ReleaseMessage t1t5REL; // keep for timers.
-    private TimerT7 t7;
-    private ISUPMessage t7AddressMessage; // IAM/SAM
-
-    // FIXME: t8 - receive IAM with contuuity check ind.
-    // FIXME: t11
-
-    private TimerT12 t12;
-    private TimerT13 t13;
-    private Mtp3TransferPrimitive t12t13encodedBLO; // keep encoded value, so we can simply
-    // send, without spending CPU on
-    // encoding.
-    private BlockingMessage t12t13BLO; // keep for timers.
-
-    private TimerT14 t14;
-    private TimerT15 t15;
-    private Mtp3TransferPrimitive t14t15encodedUBL; // keep encoded value, so we can simply
-    // send, without spending CPU on
-    // encoding.
-    private UnblockingMessage t14t15UBL; // keep for timers.
-
-    private TimerT16 t16;
-    private TimerT17 t17;
-    private Mtp3TransferPrimitive t16t17encodedRSC; // keep encoded value, so we can simply
-    // send, without spending CPU on
-    // encoding.
-    private ResetCircuitMessage t16t17RSC; // keep for timers.
-
-    private TimerT18 t18;
-    private TimerT19 t19;
-    private Mtp3TransferPrimitive t18t19encodedCGB; // keep encoded value, so we can simply
-    // send, without spending CPU on
-    // encoding.
-    private CircuitGroupBlockingMessage t18t19CGB; // keep for timers.
-
-    private TimerT20 t20;
-    private TimerT21 t21;
-    private Mtp3TransferPrimitive t20t21encodedCGU; // keep encoded value, so we can simply
-    // send, without spending CPU on
-    // encoding.
-    private CircuitGroupUnblockingMessage t20t21CGU; // keep for timers.
-
-    private TimerT22 t22;
-    private TimerT23 t23;
-    private Mtp3TransferPrimitive t22t23encodedGRS; // keep encoded value, so we can simply
-    // send, without spending CPU on
-    // encoding.
-    private CircuitGroupResetMessage t22t23GRS; // keep for timers.
-
-    private TimerT28 t28;
-    private CircuitGroupQueryMessage t28CQM;
-
-    private TimerT33 t33;
-    private InformationRequestMessage t33INR;
+    /**
+     * Messages kept for timer expiry, created on first use of the circuit timers
+     */
+    private static final class TimerMessages {
+        Mtp3TransferPrimitive t1t5encodedREL; // keep encoded value, so we can simply send,
+        // without spending CPU on encoding.
+        ReleaseMessage t1t5REL; // keep for timers.
+        ISUPMessage t7AddressMessage; // IAM/SAM
+
+        // FIXME: t8 - receive IAM with contuuity check ind.
+        // FIXME: t11
+
+        Mtp3TransferPrimitive t12t13encodedBLO; // keep encoded value, so we can simply
+        // send, without spending CPU on
+        // encoding.
+        BlockingMessage t12t13BLO; // keep for timers.
+
+        Mtp3TransferPrimitive t14t15encodedUBL; // keep encoded value, so we can simply
+        // send, without spending CPU on
+        // encoding.
+        UnblockingMessage t14t15UBL; // keep for timers.
+
+        Mtp3TransferPrimitive t16t17encodedRSC; // keep encoded value, so we can simply
+        // send, without spending CPU on
+        // encoding.
+        ResetCircuitMessage t16t17RSC; // keep for timers.
+
+        Mtp3TransferPrimitive t18t19encodedCGB; // keep encoded value, so we can simply
+        // send, without spending CPU on
+        // encoding.
+        CircuitGroupBlockingMessage t18t19CGB; // keep for timers.
+
+        Mtp3TransferPrimitive t20t21encodedCGU; // keep encoded value, so we can simply
+        // send, without spending CPU on
+        // encoding.
+        CircuitGroupUnblockingMessage t20t21CGU; // keep for timers.
+
+        Mtp3TransferPrimitive t22t23encodedGRS; // keep encoded value, so we can simply
+        // send, without spending CPU on
+        // encoding.
+        CircuitGroupResetMessage t22t23GRS; // keep for timers.
+
+        CircuitGroupQueryMessage t28CQM;
+
+        InformationRequestMessage t33INR;
+    }
+
+    private TimerMessages timerMessages;
+
+    // active timers of this circuit, linked through CircuitTimerWheel.Timer.nextInCircuit
+    private CircuitTimerWheel.Timer timers;
 
     // FIXME: t34 - check how SEG works
 
     private void startRELTimers(Mtp3TransferPrimitive encoded, ReleaseMessage rel) {
-        // FIXME: add lock ?
-        this.t1t5encodedREL = encoded;
-        this.t1t5REL = rel;
+        final TimerMessages messages = getTimerMessages();
+        messages.t1t5encodedREL = encoded;
+        messages.t1t5REL = rel;
 
         // it is started always.
         startT1();
 
-        if (!this.t5.isActive()) {
+        if (!isTimerActive(ISUPTimeoutEvent.T5)) {
             startT5();
         }
     }
@@ -439,7 +454,7 @@ class Circuit {
      * @return
      */
     private boolean stopRELTimers() {
-        if (this.t1.isActive() || this.t5.isActive()) {
+        if (isTimerActive(ISUPTimeoutEvent.T1) || isTimerActive(ISUPTimeoutEvent.T5)) {
             cancelT1();
             cancelT5();
             return true;
@@ -453,8 +468,9 @@ class Circuit {
      * @param message
      */
     private void startXAMTimers(ISUPMessage message) {
+        final TimerMessages messages = getTimerMessages();
         this.cancelT7();
-        this.t7AddressMessage = message;
+        messages.t7AddressMessage = message;
         this.startT7();
     }
 
@@ -470,12 +486,13 @@ class Circuit {
      * @param message
      */
     private void startBLOTimers(Mtp3TransferPrimitive encoded, BlockingMessage message) {
-        this.t12t13BLO = message;
-        this.t12t13encodedBLO = encoded;
+        final TimerMessages messages = getTimerMessages();
+        messages.t12t13BLO = message;
+        messages.t12t13encodedBLO = encoded;
         // it is started always.
         startT12();
 
-        if (!this.t13.isActive())
+        if (!isTimerActive(ISUPTimeoutEvent.T13))
             startT13();
     }
 
@@ -492,12 +509,13 @@ class Circuit {
      * @param message
      */
     private void startUBLTimers(Mtp3TransferPrimitive encoded, UnblockingMessage message) {
-        this.t14t15UBL = message;
-        this.t14t15encodedUBL = encoded;
+        final TimerMessages messages = getTimerMessages();
+        messages.t14t15UBL = message;
+        messages.t14t15encodedUBL = encoded;
         // it is started always.
         startT14();
 
-        if (!this.t15.isActive())
+        if (!isTimerActive(ISUPTimeoutEvent.T15))
             startT15();
     }
 
@@ -515,12 +533,13 @@ class Circuit {
      * @param message
      */
     private void startRSCTimers(Mtp3TransferPrimitive encoded, ResetCircuitMessage message) {
-        this.t16t17RSC = message;
-        this.t16t17encodedRSC = encoded;
+        final TimerMessages messages = getTimerMessages();
+        messages.t16t17RSC = message;
+        messages.t16t17encodedRSC = encoded;
         // it is started always.
         startT16();
 
-        if (!this.t17.isActive())
+        if (!isTimerActive(ISUPTimeoutEvent.T17))
             startT17();
     }
 
@@ -537,7 +556,8 @@ class Circuit {
      * @param message
      */
     private void startINRTimers(InformationRequestMessage message) {
-        this.t33INR = message;
+        final TimerMessages messages = getTimerMessages();
+        messages.t33INR = message;
         startT33();
     }
 
@@ -553,7 +573,8 @@ class Circuit {
      * @param message
      */
     private void startCQMTimers(CircuitGroupQueryMessage message) {
-        this.t28CQM = message;
+        final TimerMessages messages = getTimerMessages();
+        messages.t28CQM = message;
 
         // it is started always.
         startT28();
@@ -572,12 +593,13 @@ class Circuit {
      * @param message
      */
     private void startGRSTimers(Mtp3TransferPrimitive encoded, CircuitGroupResetMessage message) {
-        this.t22t23GRS = message;
-        this.t22t23encodedGRS = encoded;
+        final TimerMessages messages = getTimerMessages();
+        messages.t22t23GRS = message;
+        messages.t22t23encodedGRS = encoded;
         // it is started always.
         startT22();
 
-        if (!this.t23.isActive())
+        if (!isTimerActive(ISUPTimeoutEvent.T23))
             startT23();
     }
 
@@ -594,12 +616,13 @@ class Circuit {
      * @param message
      */
     private void startCGUTimers(Mtp3TransferPrimitive encoded, CircuitGroupUnblockingMessage message) {
-        this.t20t21CGU = message;
-        this.t20t21encodedCGU = encoded;
+        final TimerMessages messages = getTimerMessages();
+        messages.t20t21CGU = message;
+        messages.t20t21encodedCGU = encoded;
         // it is started always.
         startT20();
 
-        if (!this.t21.isActive())
+        if (!isTimerActive(ISUPTimeoutEvent.T21))
             startT21();
     }
 
@@ -616,12 +639,13 @@ class Circuit {
      * @param message
      */
     private void startCGBTimers(Mtp3TransferPrimitive encoded, CircuitGroupBlockingMessage message) {
-        this.t18t19CGB = message;
-        this.t18t19encodedCGB = encoded;
+        final TimerMessages messages = getTimerMessages();
+        messages.t18t19CGB = message;
+        messages.t18t19encodedCGB = encoded;
         // it is started always.
         startT18();
 
-        if (!this.t19.isActive())
+        if (!isTimerActive(ISUPTimeoutEvent.T19))
             startT19();
     }
 
@@ -634,1120 +658,544 @@ class Circuit {
     }
 
     private void startT1() {
-        cancelT1();
-        this.t1.start();
+        startTimer(ISUPTimeoutEvent.T1, provider.getT1Timeout());
     }
 
     private boolean cancelT1() {
-        if (this.t1.isActive()) {
-            this.t1.cancel();
-            return true;
-        }
-
-        return false;
+        return stopTimer(ISUPTimeoutEvent.T1);
     }
 
     private void startT5() {
-        cancelT5();
-        this.t5.start();
+        startTimer(ISUPTimeoutEvent.T5, provider.getT5Timeout());
     }
 
     private boolean cancelT5() {
-        if (this.t5.isActive()) {
-            this.t5.cancel();
-            return true;
-        }
-
-        return false;
+        return stopTimer(ISUPTimeoutEvent.T5);
     }
 
     private void startT7() {
-        cancelT7();
-        this.t7.start();
+        startTimer(ISUPTimeoutEvent.T7, provider.getT7Timeout());
     }
 
     private boolean cancelT7() {
-        if (this.t7.isActive()) {
-            this.t7.cancel();
-            return true;
-        }
-
-        return false;
+        return stopTimer(ISUPTimeoutEvent.T7);
     }
 
     private void startT12() {
-        cancelT12();
-        this.t12.start();
+        startTimer(ISUPTimeoutEvent.T12, provider.getT12Timeout());
     }
 
     private boolean cancelT12() {
-        if (this.t12.isActive()) {
-            this.t12.cancel();
-            return true;
-        }
-
-        return false;
+        return stopTimer(ISUPTimeoutEvent.T12);
     }
 
     private void startT13() {
-        cancelT13();
-        this.t13.start();
+        startTimer(ISUPTimeoutEvent.T13, provider.getT13Timeout());
     }
 
     private boolean cancelT13() {
-        if (this.t13.isActive()) {
-            this.t13.cancel();
-            return true;
-        }
-
-        return false;
+        return stopTimer(ISUPTimeoutEvent.T13);
     }
 
     private void startT14() {
-        cancelT14();
-        this.t14.start();
+        startTimer(ISUPTimeoutEvent.T14, provider.getT14Timeout());
     }
 
     private boolean cancelT14() {
-        if (this.t14.isActive()) {
-            this.t14.cancel();
-            return true;
-        }
-
-        return false;
+        return stopTimer(ISUPTimeoutEvent.T14);
     }
 
     private void startT15() {
-        cancelT15();
-        this.t15.start();
+        startTimer(ISUPTimeoutEvent.T15, provider.getT15Timeout());
     }
 
     private boolean cancelT15() {
-        if (this.t15.isActive()) {
-            this.t15.cancel();
-            return true;
-        }
-
-        return false;
+        return stopTimer(ISUPTimeoutEvent.T15);
     }
 
     private void startT16() {
-        cancelT16();
-        this.t16.start();
+        startTimer(ISUPTimeoutEvent.T16, provider.getT16Timeout());
     }
 
     private boolean cancelT16() {
-        if (this.t16.isActive()) {
-            this.t16.cancel();
-            return true;
-        }
-
-        return false;
+        return stopTimer(ISUPTimeoutEvent.T16);
     }
 
     private void startT17() {
-        cancelT17();
-        this.t17.start();
+        startTimer(ISUPTimeoutEvent.T17, provider.getT17Timeout());
     }
 
     private boolean cancelT17() {
-        if (this.t17.isActive()) {
-            this.t17.cancel();
-            return true;
-        }
-
-        return false;
+        return stopTimer(ISUPTimeoutEvent.T17);
     }
 
     private void startT18() {
-        cancelT18();
-        this.t18.start();
+        startTimer(ISUPTimeoutEvent.T18, provider.getT18Timeout());
     }
 
     private boolean cancelT18() {
-        if (this.t18.isActive()) {
-            this.t18.cancel();
-            return true;
-        }
-
-        return false;
+        return stopTimer(ISUPTimeoutEvent.T18);
     }
 
     private void startT19() {
-        cancelT19();
-        this.t19.start();
+        startTimer(ISUPTimeoutEvent.T19, provider.getT19Timeout());
     }
 
     private boolean cancelT19() {
-        if (this.t19.isActive()) {
-            this.t19.cancel();
-            return true;
-        }
-
-        return false;
+        return stopTimer(ISUPTimeoutEvent.T19);
     }
 
     private void startT20() {
-        cancelT20();
-        this.t20.start();
+        startTimer(ISUPTimeoutEvent.T20, provider.getT20Timeout());
     }
 
     private boolean cancelT20() {
-        if (this.t20.isActive()) {
-            this.t20.cancel();
-            return true;
-        }
-
-        return false;
+        return stopTimer(ISUPTimeoutEvent.T20);
     }
 
     private void startT21() {
-        cancelT21();
-        this.t21.start();
+        startTimer(ISUPTimeoutEvent.T21, provider.getT21Timeout());
     }
 
     private boolean cancelT21() {
-        if (this.t21.isActive()) {
-            this.t21.cancel();
-            return true;
-        }
-
-        return false;
+        return stopTimer(ISUPTimeoutEvent.T21);
     }
 
     private void startT22() {
-        cancelT22();
-        this.t22.start();
+        startTimer(ISUPTimeoutEvent.T22, provider.getT22Timeout());
     }
 
     private boolean cancelT22() {
-        if (this.t22.isActive()) {
-            this.t22.cancel();
-            return true;
-        }
-
-        return false;
+        return stopTimer(ISUPTimeoutEvent.T22);
     }
 
     private void startT23() {
-        cancelT23();
-        this.t23.start();
+        startTimer(ISUPTimeoutEvent.T23, provider.getT23Timeout());
     }
 
     private boolean cancelT23() {
-        if (this.t23.isActive()) {
-            this.t23.cancel();
-            return true;
-        }
-
-        return false;
+        return stopTimer(ISUPTimeoutEvent.T23);
     }
 
     private void startT28() {
-        cancelT28();
-        this.t28.start();
+        startTimer(ISUPTimeoutEvent.T28, provider.getT28Timeout());
     }
 
     private boolean cancelT28() {
-        if (this.t28.isActive()) {
-            this.t28.cancel();
-            return true;
-        }
-
-        return false;
+        return stopTimer(ISUPTimeoutEvent.T28);
     }
 
     private void startT33() {
-        cancelT33();
-        this.t33.start();
+        startTimer(ISUPTimeoutEvent.T33, provider.getT33Timeout());
     }
 
     private boolean cancelT33() {
-        if (this.t33.isActive()) {
-            this.t33.cancel();
-            return true;
-        }
-
-        return false;
+        return stopTimer(ISUPTimeoutEvent.T33);
     }
 
-    private class TimerT1 extends Task {
-        private int ttl;
-
-        public TimerT1(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT1Timeout() / 100);
-            scheduler.submitHeatbeat(this);
+    private TimerMessages getTimerMessages() {
+        if (timerMessages == null) {
+            timerMessages = new TimerMessages();
         }
+        return timerMessages;
+    }
 
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
+    private void startTimer(int timerId, long timeout) {
+        stopTimer(timerId);
+        CircuitTimerWheel.Timer timer = provider.getTimerWheel().schedule(this, timerId, timeout);
+        timer.nextInCircuit = timers;
+        timers = timer;
+    }
 
-            try {
-                lock.lock();
-                // cancel it
-                this.cancel();
-                // start T1
-                startT1();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        // TODO: CI required ?
-                        provider.send(t1t5encodedREL);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t1t5REL, ISUPTimeoutEvent.T1, dpc);
-                provider.deliver(timeoutEvent);
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                lock.unlock();
+    private boolean stopTimer(int timerId) {
+        CircuitTimerWheel.Timer prev = null;
+        for (CircuitTimerWheel.Timer timer = timers; timer != null; prev = timer, timer = timer.nextInCircuit) {
+            if (timer.timerId == timerId) {
+                unlinkTimer(prev, timer);
+                provider.getTimerWheel().cancel(timer);
+                return true;
             }
-
-            return 0;
         }
+        return false;
     }
 
-    private class TimerT5 extends Task {
-        private int ttl;
-
-        public TimerT5(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
+    private boolean isTimerActive(int timerId) {
+        for (CircuitTimerWheel.Timer timer = timers; timer != null; timer = timer.nextInCircuit) {
+            if (timer.timerId == timerId) {
+                return true;
+            }
         }
+        return false;
+    }
 
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT5Timeout() / 100);
-            scheduler.submitHeatbeat(this);
+    private void unlinkTimer(CircuitTimerWheel.Timer prev, CircuitTimerWheel.Timer timer) {
+        if (prev == null) {
+            timers = timer.nextInCircuit;
+        } else {
+            prev.nextInCircuit = timer.nextInCircuit;
         }
+        timer.nextInCircuit = null;
+    }
 
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
+    /**
+     * Invoked by the timer wheel when a timer of this circuit has expired. A timer that has been canceled or restarted in
+     * the meantime is not in the active list any more and is ignored.
+     *
+     * @param expired
+     */
+    void onTimer(CircuitTimerWheel.Timer expired) {
+        try {
+            lock.lock();
+            CircuitTimerWheel.Timer prev = null;
+            CircuitTimerWheel.Timer timer = timers;
+            while (timer != null && timer != expired) {
+                prev = timer;
+                timer = timer.nextInCircuit;
             }
-
-            try {
-                lock.lock();
-                // remove t5, its current runnable.
-                cancelT1();
-                // cancel it
-                this.cancel();
-                // restart T5
-                startT5();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        final ResetCircuitMessage rcm = provider.getMessageFactory().createRSC(cic);
-                        // avoid provider method, since we dont want other timer to be
-                        // setup.
-                        provider.sendMessage(rcm, dpc);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t1t5REL, ISUPTimeoutEvent.T5, dpc);
-                provider.deliver(timeoutEvent);
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                lock.unlock();
+            if (timer == null) {
+                return;
             }
+            unlinkTimer(prev, timer);
 
-            return 0;
+            switch (timer.timerId) {
+                case ISUPTimeoutEvent.T1:
+                    onT1();
+                    break;
+                case ISUPTimeoutEvent.T5:
+                    onT5();
+                    break;
+                case ISUPTimeoutEvent.T7:
+                    onT7();
+                    break;
+                case ISUPTimeoutEvent.T12:
+                    onT12();
+                    break;
+                case ISUPTimeoutEvent.T13:
+                    onT13();
+                    break;
+                case ISUPTimeoutEvent.T14:
+                    onT14();
+                    break;
+                case ISUPTimeoutEvent.T15:
+                    onT15();
+                    break;
+                case ISUPTimeoutEvent.T16:
+                    onT16();
+                    break;
+                case ISUPTimeoutEvent.T17:
+                    onT17();
+                    break;
+                case ISUPTimeoutEvent.T18:
+                    onT18();
+                    break;
+                case ISUPTimeoutEvent.T19:
+                    onT19();
+                    break;
+                case ISUPTimeoutEvent.T20:
+                    onT20();
+                    break;
+                case ISUPTimeoutEvent.T21:
+                    onT21();
+                    break;
+                case ISUPTimeoutEvent.T22:
+                    onT22();
+                    break;
+                case ISUPTimeoutEvent.T23:
+                    onT23();
+                    break;
+                case ISUPTimeoutEvent.T28:
+                    onT28();
+                    break;
+                case ISUPTimeoutEvent.T33:
+                    onT33();
+                    break;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            lock.unlock();
         }
     }
 
-    private class TimerT7 extends Task {
-        private int ttl;
-
-        public TimerT7(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT7Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
+    private void onT1() {
+        // start T1
+        startT1();
+        // send
+        if (provider.isAutomaticTimerMessages())
             try {
-                lock.lock();
-                // cancel it
-                this.cancel();
-                // send REL
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        final ReleaseMessage rel = provider.getMessageFactory().createREL(cic);
-                        final CauseIndicators ci = provider.getParameterFactory().createCauseIndicators();
-                        ci.setCauseValue(CauseIndicators._CV_NORMAL_UNSPECIFIED);
-                        rel.setCauseIndicators(ci);
-                        provider.sendMessage(rel, dpc);
-                    } catch (ParameterException e) {
-                        // TODO Auto-generated catch block
-                        e.printStackTrace();
-                    } catch (IOException e) {
-                        // TODO Auto-generated catch block
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t7AddressMessage, ISUPTimeoutEvent.T7, dpc);
-                t7AddressMessage = null;
-                provider.deliver(timeoutEvent);
+                // TODO: CI required ?
+                provider.send(timerMessages.t1t5encodedREL);
             } catch (Exception e) {
                 e.printStackTrace();
-            } finally {
-                lock.unlock();
             }
-
-            return 0;
-        }
+        // notify user
+        final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, timerMessages.t1t5REL, ISUPTimeoutEvent.T1, dpc);
+        provider.deliver(timeoutEvent);
     }
 
-    private class TimerT12 extends Task {
-        private int ttl;
-
-        public TimerT12(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT12Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
+    private void onT5() {
+        cancelT1();
+        // restart T5
+        startT5();
+        // send
+        if (provider.isAutomaticTimerMessages())
             try {
-                lock.lock();
-                // cancel it
-                this.cancel();
-                // start T12
-                startT12();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t12t13encodedBLO);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t12t13BLO, ISUPTimeoutEvent.T12, dpc);
-                provider.deliver(timeoutEvent);
+                final ResetCircuitMessage rcm = provider.getMessageFactory().createRSC(cic);
+                // avoid provider method, since we dont want other timer to be
+                // setup.
+                provider.sendMessage(rcm, dpc);
             } catch (Exception e) {
                 e.printStackTrace();
-            } finally {
-                lock.unlock();
             }
-
-            return 0;
-        }
+        // notify user
+        final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, timerMessages.t1t5REL, ISUPTimeoutEvent.T5, dpc);
+        provider.deliver(timeoutEvent);
     }
 
-    private class TimerT13 extends Task {
-        private int ttl;
-
-        public TimerT13(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT13Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
+    private void onT7() {
+        // send REL
+        if (provider.isAutomaticTimerMessages())
+            try {
+                final ReleaseMessage rel = provider.getMessageFactory().createREL(cic);
+                final CauseIndicators ci = provider.getParameterFactory().createCauseIndicators();
+                ci.setCauseValue(CauseIndicators._CV_NORMAL_UNSPECIFIED);
+                rel.setCauseIndicators(ci);
+                provider.sendMessage(rel, dpc);
+            } catch (ParameterException e) {
+                // TODO Auto-generated catch block
+                e.printStackTrace();
+            } catch (IOException e) {
+                // TODO Auto-generated catch block
+                e.printStackTrace();
             }
+        // notify user
+        final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, timerMessages.t7AddressMessage, ISUPTimeoutEvent.T7, dpc);
+        timerMessages.t7AddressMessage = null;
+        provider.deliver(timeoutEvent);
+    }
 
+    private void onT12() {
+        // start T12
+        startT12();
+        // send
+        if (provider.isAutomaticTimerMessages())
             try {
-                lock.lock();
-                // cancel it
-                this.cancel();
-                // cancel T12
-                cancelT12();
-                // restart T13
-                startT13();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t12t13encodedBLO);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t12t13BLO, ISUPTimeoutEvent.T13, dpc);
-                provider.deliver(timeoutEvent);
+                provider.send(timerMessages.t12t13encodedBLO);
             } catch (Exception e) {
                 e.printStackTrace();
-            } finally {
-                lock.unlock();
             }
-
-            return 0;
-        }
+        // notify user
+        final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, timerMessages.t12t13BLO, ISUPTimeoutEvent.T12, dpc);
+        provider.deliver(timeoutEvent);
     }
 
-    private class TimerT14 extends Task {
-        private int ttl;
-
-        public TimerT14(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT14Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
+    private void onT13() {
+        // cancel T12
+        cancelT12();
+        // restart T13
+        startT13();
+        // send
+        if (provider.isAutomaticTimerMessages())
             try {
-                lock.lock();
-                // cancel it
-                this.cancel();
-                // start T14
-                startT14();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t14t15encodedUBL);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t14t15UBL, ISUPTimeoutEvent.T14, dpc);
-                provider.deliver(timeoutEvent);
+                provider.send(timerMessages.t12t13encodedBLO);
             } catch (Exception e) {
                 e.printStackTrace();
-            } finally {
-                lock.unlock();
             }
-
-            return 0;
-        }
+        // notify user
+        final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, timerMessages.t12t13BLO, ISUPTimeoutEvent.T13, dpc);
+        provider.deliver(timeoutEvent);
     }
 
-    private class TimerT15 extends Task {
-        private int ttl;
-
-        public TimerT15(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT15Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
+    private void onT14() {
+        // start T14
+        startT14();
+        // send
+        if (provider.isAutomaticTimerMessages())
             try {
-                lock.lock();
-                // remove t15, its current runnable.
-                this.cancel();
-                // cancel T14
-                cancelT14();
-                // start
-                startT15();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t14t15encodedUBL);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t14t15UBL, ISUPTimeoutEvent.T15, dpc);
-                provider.deliver(timeoutEvent);
+                provider.send(timerMessages.t14t15encodedUBL);
             } catch (Exception e) {
                 e.printStackTrace();
-            } finally {
-                lock.unlock();
             }
-
-            return 0;
-        }
+        // notify user
+        final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, timerMessages.t14t15UBL, ISUPTimeoutEvent.T14, dpc);
+        provider.deliver(timeoutEvent);
     }
 
-    private class TimerT16 extends Task {
-        private int ttl;
-
-        public TimerT16(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT16Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
+    private void onT15() {
+        // cancel T14
+        cancelT14();
+        // start
+        startT15();
+        // send
+        if (provider.isAutomaticTimerMessages())
             try {
-                lock.lock();
-                // remove us
-                this.cancel();
-                // start T14
-                startT16();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t16t17encodedRSC);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t16t17RSC, ISUPTimeoutEvent.T16, dpc);
-                provider.deliver(timeoutEvent);
+                provider.send(timerMessages.t14t15encodedUBL);
             } catch (Exception e) {
                 e.printStackTrace();
-            } finally {
-                lock.unlock();
             }
-
-            return 0;
-        }
+        // notify user
+        final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, timerMessages.t14t15UBL, ISUPTimeoutEvent.T15, dpc);
+        provider.deliver(timeoutEvent);
     }
 
-    private class TimerT17 extends Task {
-        private int ttl;
-
-        public TimerT17(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT17Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
+    private void onT16() {
+        // start T14
+        startT16();
+        // send
+        if (provider.isAutomaticTimerMessages())
             try {
-                lock.lock();
-                // remove t17, its current runnable.
-                this.cancel();
-                // cancel T16
-                cancelT16();
-                // restart T17
-                startT17();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t16t17encodedRSC);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t16t17RSC, ISUPTimeoutEvent.T17, dpc);
-                provider.deliver(timeoutEvent);
+                provider.send(timerMessages.t16t17encodedRSC);
             } catch (Exception e) {
                 e.printStackTrace();
-            } finally {
-                lock.unlock();
             }
-
-            return 0;
-        }
+        // notify user
+        final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, timerMessages.t16t17RSC, ISUPTimeoutEvent.T16, dpc);
+        provider.deliver(timeoutEvent);
     }
 
-    private class TimerT18 extends Task {
-        private int ttl;
-
-        public TimerT18(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT18Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
+    private void onT17() {
+        // cancel T16
+        cancelT16();
+        // restart T17
+        startT17();
+        // send
+        if (provider.isAutomaticTimerMessages())
             try {
-                lock.lock();
-                // remove us
-                this.cancel();
-                // start T18
-                startT18();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t18t19encodedCGB);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t18t19CGB, ISUPTimeoutEvent.T18, dpc);
-                provider.deliver(timeoutEvent);
+                provider.send(timerMessages.t16t17encodedRSC);
             } catch (Exception e) {
                 e.printStackTrace();
-            } finally {
-                lock.unlock();
             }
-
-            return 0;
-        }
+        // notify user
+        final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, timerMessages.t16t17RSC, ISUPTimeoutEvent.T17, dpc);
+        provider.deliver(timeoutEvent);
     }
 
-    private class TimerT19 extends Task {
-        private int ttl;
-
-        public TimerT19(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT19Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
+    private void onT18() {
+        // start T18
+        startT18();
+        // send
+        if (provider.isAutomaticTimerMessages())
             try {
-                lock.lock();
-                // remove t19, its current runnable.
-                this.cancel();
-                // cancel T18
-                cancelT18();
-                // restart T19
-                startT19();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t18t19encodedCGB);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t18t19CGB, ISUPTimeoutEvent.T19, dpc);
-                provider.deliver(timeoutEvent);
+                provider.send(timerMessages.t18t19encodedCGB);
             } catch (Exception e) {
                 e.printStackTrace();
-            } finally {
-                lock.unlock();
             }
-
-            return 0;
-        }
+        // notify user
+        final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, timerMessages.t18t19CGB, ISUPTimeoutEvent.T18, dpc);
+        provider.deliver(timeoutEvent);
     }
 
-    private class TimerT20 extends Task {
-        private int ttl;
-
-        public TimerT20(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT20Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
+    private void onT19() {
+        // cancel T18
+        cancelT18();
+        // restart T19
+        startT19();
+        // send
+        if (provider.isAutomaticTimerMessages())
             try {
-                lock.lock();
-                // remove us
-                this.cancel();
-                // start T20
-                startT20();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t20t21encodedCGU);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t20t21CGU, ISUPTimeoutEvent.T20, dpc);
-                provider.deliver(timeoutEvent);
+                provider.send(timerMessages.t18t19encodedCGB);
             } catch (Exception e) {
                 e.printStackTrace();
-            } finally {
-                lock.unlock();
             }
-
-            return 0;
-        }
+        // notify user
+        final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, timerMessages.t18t19CGB, ISUPTimeoutEvent.T19, dpc);
+        provider.deliver(timeoutEvent);
     }
 
-    private class TimerT21 extends Task {
-        private int ttl;
-
-        public TimerT21(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT21Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
+    private void onT20() {
+        // start T20
+        startT20();
+        // send
+        if (provider.isAutomaticTimerMessages())
             try {
-                lock.lock();
-                // remove t21, its current runnable.
-                this.cancel();
-                // cancel T20
-                cancelT20();
-                // restart T21
-                startT21();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t20t21encodedCGU);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t20t21CGU, ISUPTimeoutEvent.T21, dpc);
-                provider.deliver(timeoutEvent);
+                provider.send(timerMessages.t20t21encodedCGU);
             } catch (Exception e) {
                 e.printStackTrace();
-            } finally {
-                lock.unlock();
             }
-
-            return 0;
-        }
+        // notify user
+        final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, timerMessages.t20t21CGU, ISUPTimeoutEvent.T20, dpc);
+        provider.deliver(timeoutEvent);
     }
 
-    private class TimerT22 extends Task {
-        private int ttl;
-
-        public TimerT22(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT22Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
+    private void onT21() {
+        // cancel T20
+        cancelT20();
+        // restart T21
+        startT21();
+        // send
+        if (provider.isAutomaticTimerMessages())
             try {
-                lock.lock();
-                // remove us
-                this.cancel();
-                // start T22
-                startT22();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t22t23encodedGRS);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t22t23GRS, ISUPTimeoutEvent.T22, dpc);
-                provider.deliver(timeoutEvent);
+                provider.send(timerMessages.t20t21encodedCGU);
             } catch (Exception e) {
                 e.printStackTrace();
-            } finally {
-                lock.unlock();
             }
-
-            return 0;
-        }
+        // notify user
+        final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, timerMessages.t20t21CGU, ISUPTimeoutEvent.T21, dpc);
+        provider.deliver(timeoutEvent);
     }
 
-    private class TimerT23 extends Task {
-        private int ttl;
-
-        public TimerT23(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT23Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
+    private void onT22() {
+        // start T22
+        startT22();
+        // send
+        if (provider.isAutomaticTimerMessages())
             try {
-                lock.lock();
-                // remove t23, its current runnable.
-                this.cancel();
-                // cancel T22
-                cancelT22();
-                // restart T23
-                startT23();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t22t23encodedGRS);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t22t23GRS, ISUPTimeoutEvent.T23, dpc);
-                provider.deliver(timeoutEvent);
+                provider.send(timerMessages.t22t23encodedGRS);
             } catch (Exception e) {
                 e.printStackTrace();
-            } finally {
-                lock.unlock();
             }
-
-            return 0;
-        }
+        // notify user
+        final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, timerMessages.t22t23GRS, ISUPTimeoutEvent.T22, dpc);
+        provider.deliver(timeoutEvent);
     }
 
-    private class TimerT28 extends Task {
-        private int ttl;
-
-        public TimerT28(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT28Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
+    private void onT23() {
+        // cancel T22
+        cancelT22();
+        // restart T23
+        startT23();
+        // send
+        if (provider.isAutomaticTimerMessages())
             try {
-                lock.lock();
-                // remove us
-                this.cancel();
-                // notify user
-                final CircuitGroupQueryMessage msg = t28CQM;
-                t28CQM = null;
-                ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, msg, ISUPTimeoutEvent.T28, dpc);
-                provider.deliver(timeoutEvent);
-
+                provider.send(timerMessages.t22t23encodedGRS);
             } catch (Exception e) {
                 e.printStackTrace();
-            } finally {
-                lock.unlock();
             }
-
-            return 0;
-        }
+        // notify user
+        final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, timerMessages.t22t23GRS, ISUPTimeoutEvent.T23, dpc);
+        provider.deliver(timeoutEvent);
     }
 
-    private class TimerT33 extends Task {
-        private int ttl;
-
-        public TimerT33(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT33Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
+    private void onT28() {
+        // notify user
+        final CircuitGroupQueryMessage msg = timerMessages.t28CQM;
+        timerMessages.t28CQM = null;
+        ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, msg, ISUPTimeoutEvent.T28, dpc);
+        provider.deliver(timeoutEvent);
+    }
 
+    private void onT33() {
+        // send REL
+        if (provider.isAutomaticTimerMessages())
             try {
-                lock.lock();
-                // remove us
-                this.cancel();
-                // send REL
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        final ReleaseMessage rel = provider.getMessageFactory().createREL(cic);
-                        final CauseIndicators ci = provider.getParameterFactory().createCauseIndicators();
-                        ci.setCauseValue(CauseIndicators._CV_NORMAL_UNSPECIFIED);
-                        rel.setCauseIndicators(ci);
-                        provider.sendMessage(rel, dpc);
-                    } catch (ParameterException e) {
-                        // TODO Auto-generated catch block
-                        e.printStackTrace();
-                    } catch (IOException e) {
-                        // TODO Auto-generated catch block
-                        e.printStackTrace();
-                    }
-                final InformationRequestMessage msg = t33INR;
-                t33INR = null;
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, msg, ISUPTimeoutEvent.T33, dpc);
-                provider.deliver(timeoutEvent);
-                // FIXME: do this after call, to prevent send of another msg
-
-            } catch (Exception e) {
+                final ReleaseMessage rel = provider.getMessageFactory().createREL(cic);
+                final CauseIndicators ci = provider.getParameterFactory().createCauseIndicators();
+                ci.setCauseValue(CauseIndicators._CV_NORMAL_UNSPECIFIED);
+                rel.setCauseIndicators(ci);
+                provider.sendMessage(rel, dpc);
+            } catch (ParameterException e) {
+                // TODO Auto-generated catch block
+                e.printStackTrace();
+            } catch (IOException e) {
+                // TODO Auto-generated catch block
                 e.printStackTrace();
-            } finally {
-                lock.unlock();
             }
-
-            return 0;
-        }
+        final InformationRequestMessage msg = timerMessages.t33INR;
+        timerMessages.t33INR = null;
+        // notify user
+        final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, msg, ISUPTimeoutEvent.T33, dpc);
+        provider.deliver(timeoutEvent);
+        // FIXME: do this after call, to prevent send of another msg
     }
 
     /**
@@ -0,0 +1,201 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.restcomm.protocols.ss7.isup.impl;
+
+import org.restcomm.protocols.ss7.scheduler.Scheduler;
+import org.restcomm.protocols.ss7.scheduler.Task;
+
+/**
+ * Hashed timing wheel shared by all circuits of an ISUP provider.
+ *
+ * ISUP timers count scheduler heartbeats (one per 100 ms). Instead of one heartbeat task per timer and circuit a single
+ * heartbeat task advances the wheel by one bucket, a running timer is a small entry linked into a bucket. Start and cancel of a
+ * timer are O(1) and a circuit without running timers holds no timer objects at all.
+ *
+ * Expired timers are delivered to {@link Circuit#onTimer(Timer)} outside of the wheel lock.
+ */
+class CircuitTimerWheel {
+
+    // heartbeat period of the scheduler, milliseconds
+    static final long TICK_DURATION = 100;
+    static final int WHEEL_SIZE = 512;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private final Scheduler scheduler;
+
+    // all fields below are guarded by this
+    private final Timer[] buckets = new Timer[WHEEL_SIZE];
+    private long tick;
+    private int activeTimers;
+    private TickTask tickTask;
+
+    CircuitTimerWheel(Scheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    synchronized void start() {
+        if (tickTask != null)
+            return;
+
+        tickTask = new TickTask(scheduler);
+        tickTask.start();
+    }
+
+    synchronized void stop() {
+        if (tickTask == null)
+            return;
+
+        tickTask.cancel();
+        tickTask = null;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            while (buckets[i] != null) {
+                unlink(buckets[i]);
+            }
+        }
+        activeTimers = 0;
+    }
+
+    /**
+     * Schedules a timer that expires after the given timeout. Like a heartbeat task the timer fires on the heartbeat that follows
+     * timeout / 100 full heartbeats.
+     *
+     * @param circuit
+     * @param timerId
+     * @param timeout milliseconds
+     * @return
+     */
+    synchronized Timer schedule(Circuit circuit, int timerId, long timeout) {
+        long ticks = timeout > 0 ? timeout / TICK_DURATION : 0;
+        Timer timer = new Timer(circuit, timerId);
+        timer.remainingRounds = ticks / WHEEL_SIZE;
+        link(timer, (int) ((tick + ticks) & WHEEL_MASK));
+        activeTimers++;
+        return timer;
+    }
+
+    synchronized void cancel(Timer timer) {
+        if (timer.bucket >= 0) {
+            unlink(timer);
+            activeTimers--;
+        }
+    }
+
+    synchronized int getActiveTimersCount() {
+        return activeTimers;
+    }
+
+    /**
+     * Advances the wheel by one bucket and fires all timers that expire in it
+     */
+    void tick() {
+        Timer expired = null;
+        synchronized (this) {
+            Timer timer = buckets[(int) (tick & WHEEL_MASK)];
+            while (timer != null) {
+                Timer next = timer.next;
+                if (timer.remainingRounds > 0) {
+                    timer.remainingRounds--;
+                } else {
+                    unlink(timer);
+                    activeTimers--;
+                    timer.next = expired;
+                    expired = timer;
+                }
+                timer = next;
+            }
+            tick++;
+        }
+
+        while (expired != null) {
+            Timer next = expired.next;
+            expired.next = null;
+            try {
+                expired.circuit.onTimer(expired);
+            } catch (Exception e) {
+                // catch exception, so other timers are fired.
+                e.printStackTrace();
+            }
+            expired = next;
+        }
+    }
+
+    private void link(Timer timer, int bucket) {
+        timer.bucket = bucket;
+        timer.prev = null;
+        timer.next = buckets[bucket];
+        if (timer.next != null)
+            timer.next.prev = timer;
+        buckets[bucket] = timer;
+    }
+
+    private void unlink(Timer timer) {
+        if (timer.prev != null)
+            timer.prev.next = timer.next;
+        else
+            buckets[timer.bucket] = timer.next;
+        if (timer.next != null)
+            timer.next.prev = timer.prev;
+        timer.bucket = -1;
+        timer.prev = null;
+        timer.next = null;
+    }
+
+    static final class Timer {
+        final Circuit circuit;
+        final int timerId;
+
+        // guarded by the wheel
+        private long remainingRounds;
+        private int bucket = -1;
+        private Timer prev;
+        private Timer next;
+
+        // guarded by the circuit lock
+        Timer nextInCircuit;
+
+        private Timer(Circuit circuit, int timerId) {
+            this.circuit = circuit;
+            this.timerId = timerId;
+        }
+    }
+
+    private class TickTask extends Task {
+        TickTask(Scheduler scheduler) {
+            super(scheduler);
+        }
+
+        public int getQueueNumber() {
+            return Scheduler.HEARTBEAT_QUEUE;
+        }
+
+        void start() {
+            this.activate(true);
+            scheduler.submitHeatbeat(this);
+        }
+
+        public long perform() {
+            scheduler.submitHeatbeat(this);
+            tick();
+            return 0;
+        }
+    }
+}
@@ -34,7 +34,6 @@ import javolution.util.FastList;
 
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
-import org.restcomm.protocols.ss7.isup.CircuitManager;
 import org.restcomm.protocols.ss7.isup.ISUPEvent;
 import org.restcomm.protocols.ss7.isup.ISUPListener;
 import org.restcomm.protocols.ss7.isup.ISUPMessageFactory;
@@ -63,6 +62,9 @@ public class ISUPProviderImpl implements ISUPProvider {
     protected final transient ISUPParameterFactory parameterFactory;
     protected final transient Scheduler scheduler;
 
+    // shared by all circuits, see Circuit timers
+    protected final transient CircuitTimerWheel timerWheel;
+
     protected final transient ConcurrentHashMap<Long, Circuit> cic2Circuit = new ConcurrentHashMap<Long, Circuit>();
     protected final int ni;
     protected final int localSpc;
@@ -72,6 +74,7 @@ public class ISUPProviderImpl implements ISUPProvider {
             boolean automaticTimerMessages) {
         this.stack = isupStackImpl;
         this.scheduler = scheduler;
+        this.timerWheel = new CircuitTimerWheel(scheduler);
 
         this.ni = ni;
         this.localSpc = localSpc;
@@ -191,14 +194,9 @@ public class ISUPProviderImpl implements ISUPProvider {
     // ---------------------- non interface methods ----------------
 
     public void start() {
-        CircuitManager cm = this.stack.getCircuitManager();
-        long[] channelIDs = cm.getChannelIDs();
+        // circuits are created on first use, see getCircuit()
         this.cic2Circuit.clear();
-
-        for (long channelID : channelIDs) {
-            Circuit c = new Circuit(cm.getCIC(channelID), cm.getDPC(channelID), this, scheduler);
-            cic2Circuit.put(channelID, c);
-        }
+        this.timerWheel.start();
     }
 
     public void stop() {
@@ -210,6 +208,11 @@ public class ISUPProviderImpl implements ISUPProvider {
                 ex.printStackTrace();
             }
         }
+        this.timerWheel.stop();
+    }
+
+    CircuitTimerWheel getTimerWheel() {
+        return timerWheel;
     }
 
     // --------- private methods and class defs.
@@ -235,10 +238,17 @@ public class ISUPProviderImpl implements ISUPProvider {
             // what for do we need to throw this error , lets simply add a circuit and return it , we have all parameters anyway
             // throw new IllegalArgumentException("Curcuit not defined, no route definition present!");
             this.stack.getCircuitManager().addCircuit(cic, dpc);
-            c = new Circuit(cic, dpc, this, scheduler);
+            c = new Circuit(cic, dpc, this);
             cic2Circuit.put(channelID, c);
         } else {
             c = this.cic2Circuit.get(channelID);
+            if (c == null) {
+                c = new Circuit(cic, dpc, this);
+                Circuit current = this.cic2Circuit.putIfAbsent(channelID, c);
+                if (current != null) {
+                    c = current;
+                }
+            }
         }
         return c;
     }
@@ -0,0 +1,106 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.restcomm.protocols.ss7.isup.impl;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.restcomm.protocols.ss7.isup.ISUPTimeoutEvent;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for the timer wheel used by circuits, the wheel is advanced manually instead of by scheduler heartbeats.
+ */
+public class CircuitTimerWheelTest {
+
+    private CircuitTimerWheel wheel;
+    private TestCircuit circuit;
+
+    @BeforeMethod
+    public void setUp() {
+        wheel = new CircuitTimerWheel(null);
+        circuit = new TestCircuit();
+    }
+
+    @Test(groups = { "timers", "functional" })
+    public void testExpiry() {
+        wheel.schedule(circuit, ISUPTimeoutEvent.T1, 300);
+        // like a heartbeat task with ttl = 3 the timer fires on the fourth heartbeat
+        advance(3);
+        assertEquals(circuit.fired.size(), 0);
+        assertEquals(wheel.getActiveTimersCount(), 1);
+        advance(1);
+        assertEquals(circuit.fired.size(), 1);
+        assertEquals((int) circuit.fired.get(0), ISUPTimeoutEvent.T1);
+        assertEquals(wheel.getActiveTimersCount(), 0);
+    }
+
+    @Test(groups = { "timers", "functional" })
+    public void testExpiryAfterSeveralRounds() {
+        // T5 default timeout, longer than one turn of the wheel
+        long timeout = 5 * 60 * 1000;
+        wheel.schedule(circuit, ISUPTimeoutEvent.T5, timeout);
+        wheel.schedule(circuit, ISUPTimeoutEvent.T12, 1000);
+        advance((int) (timeout / CircuitTimerWheel.TICK_DURATION));
+        assertEquals(circuit.fired.size(), 1);
+        assertEquals((int) circuit.fired.get(0), ISUPTimeoutEvent.T12);
+        advance(1);
+        assertEquals(circuit.fired.size(), 2);
+        assertEquals((int) circuit.fired.get(1), ISUPTimeoutEvent.T5);
+    }
+
+    @Test(groups = { "timers", "functional" })
+    public void testCancel() {
+        CircuitTimerWheel.Timer t1 = wheel.schedule(circuit, ISUPTimeoutEvent.T1, 200);
+        wheel.schedule(circuit, ISUPTimeoutEvent.T5, 200);
+        wheel.cancel(t1);
+        // second cancel is a no-op
+        wheel.cancel(t1);
+        assertEquals(wheel.getActiveTimersCount(), 1);
+        advance(10);
+        assertEquals(circuit.fired.size(), 1);
+        assertEquals((int) circuit.fired.get(0), ISUPTimeoutEvent.T5);
+        assertEquals(wheel.getActiveTimersCount(), 0);
+    }
+
+    private void advance(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            wheel.tick();
+        }
+    }
+
+    private static class TestCircuit extends Circuit {
+        private final List<Integer> fired = new ArrayList<Integer>();
+
+        TestCircuit() {
+            super(1, 1, null);
+        }
+
+        @Override
+        void onTimer(CircuitTimerWheel.Timer expired) {
+            fired.add(expired.timerId);
+        }
+    }
+}
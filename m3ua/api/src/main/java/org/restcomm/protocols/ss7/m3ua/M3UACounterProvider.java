@@ -166,4 +166,9 @@ public interface M3UACounterProvider {
      */
     Map<String,LongValue> getBeatAckPerAssRx(String compainName);
 
+    /**
+     * return a number of data packets routed to AS (selected by route load-sharing)
+     */
+    Map<String,LongValue> getPacketsPerAsTx(String compainName);
+
 }
@@ -289,6 +289,21 @@ public interface M3UAManagement {
      */
     void addRoute(int dpc, int opc, int si, String asName, int trafficModeType) throws Exception;
 
+    /**
+     * Add new route based on Destination Point Code (DPC), Originating Point Code (OPC) and Service Indicator (SI) with a
+     * load-sharing weight of the {@link As}. For the Loadshare trafficModeType the SLS space is distributed between the As
+     * of this route in proportion of their weights.
+     *
+     * @param dpc destination point code
+     * @param opc originating point code
+     * @param si service indicator
+     * @param asName name of {@link As}
+     * @param trafficModeType {@link TrafficModeType} to decide how to distribute traffic between various AS for this route
+     * @param weight load-sharing weight of this {@link As} for this route, from 1 to 64
+     * @throws Exception
+     */
+    void addRoute(int dpc, int opc, int si, String asName, int trafficModeType, int weight) throws Exception;
+
     /**
      * Remove the As for given route
      *
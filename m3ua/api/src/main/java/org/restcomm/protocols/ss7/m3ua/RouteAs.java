@@ -31,6 +31,13 @@ public interface RouteAs {
 
     As[] getAsArray();
 
+    /**
+     * Returns load-sharing weights of As. An index of this array is the same as the index of {@link #getAsArray()}
+     *
+     * @return
+     */
+    int[] getWeightArray();
+
     TrafficModeType getTrafficModeType();
 
     void setTrafficModeType(TrafficModeType trafficModeType);
@@ -915,7 +915,9 @@ public class AspFactoryImpl implements AssociationListener, XMLSerializable, Asp
         if (ipChannelType == IpChannelType.SCTP) {
             try {
                 // TODO where is streamNumber stored?
-                m3UAMessage = this.messageFactory.createMessage(byteBuf);
+                // zero-copy mode: a DATA message payload refers to byteBuf, it is retained when it is passed to MTP3 users
+                m3UAMessage = ((MessageFactoryImpl) this.messageFactory).createMessage(byteBuf,
+                        this.m3UAManagementImpl.isZeroCopyPayload());
                 if (this.isHeartBeatEnabled()) {
                     this.heartBeatTimer.reset();
                 }
@@ -60,6 +60,8 @@ public class M3UACounterProviderImpl implements M3UACounterProvider{
     private static String BEAT_PER_ASS_RX = "beatPerAssRx";
     private static String BEAT_ACK_PER_ASS_RX = "beatAckPerAssRx";
 
+    private static String PACKETS_PER_AS_TX = "packetsPerAsTx";
+
     public M3UACounterProviderImpl(M3UAManagementImpl m3uaManagementImpl) {
 
         this.m3uaManagementImpl = m3uaManagementImpl;
@@ -103,6 +105,8 @@ public class M3UACounterProviderImpl implements M3UACounterProvider{
         this.statDataCollection.registerStatCounterCollector(DRST_PER_ASS_RX, StatDataCollectorType.StringLongMap);
         this.statDataCollection.registerStatCounterCollector(BEAT_PER_ASS_RX, StatDataCollectorType.StringLongMap);
         this.statDataCollection.registerStatCounterCollector(BEAT_ACK_PER_ASS_RX, StatDataCollectorType.StringLongMap);
+
+        this.statDataCollection.registerStatCounterCollector(PACKETS_PER_AS_TX, StatDataCollectorType.StringLongMap);
     }
 
     @Override
@@ -532,4 +536,16 @@ public class M3UACounterProviderImpl implements M3UACounterProvider{
         this.statDataCollection.updateData(BEAT_ACK_PER_ASS_RX, assName);
     }
 
+    public Map<String, LongValue> getPacketsPerAsTx(String compainName) {
+        StatResult res = this.statDataCollection.restartAndGet(PACKETS_PER_AS_TX, compainName);
+        this.statDataCollection.updateData(PACKETS_PER_AS_TX, m3uaManagementImpl.getAppServers().size());
+        if (res != null)
+            return res.getStringLongValue();
+        else
+            return null;
+    }
+    public void updatePacketsPerAsTx(String asName) {
+        this.statDataCollection.updateData(PACKETS_PER_AS_TX, asName);
+    }
+
 }
@@ -123,6 +123,8 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
 
     protected Management transportManagement = null;
     protected boolean sctpLibNettySupport = false;
+    // if true a payload of an incoming DATA message is passed to MTP3 users without copying (only for SCTP associations)
+    protected boolean zeroCopyPayload = false;
 
     protected ScheduledExecutorService fsmTicker;
 
@@ -271,6 +273,23 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
         return sctpLibNettySupport;
     }
 
+    /**
+     * Enables the zero-copy mode: a payload of an incoming DATA message is not copied into a byte array, Mtp3TransferPrimitive
+     * refers to a retained slice of the received buffer and SCCP decodes a message directly from it. The buffer is released
+     * after the primitive is delivered to all MTP3 users, so MTP3 users must not use a primitive (or its data buffer) after
+     * onMtp3TransferMessage() has returned. The mode is used only for SCTP associations.
+     */
+    public void setZeroCopyPayload(boolean zeroCopyPayload) throws Exception {
+        if (this.isStarted)
+            throw new Exception("ZeroCopyPayload parameter can be updated only when M3UA stack is NOT running");
+
+        this.zeroCopyPayload = zeroCopyPayload;
+    }
+
+    public boolean isZeroCopyPayload() {
+        return zeroCopyPayload;
+    }
+
     public void start() throws Exception {
 
         if (this.transportManagement == null) {
@@ -847,11 +866,15 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
     }
 
     public void addRoute(int dpc, int opc, int si, String asName) throws Exception {
-        this.routeManagement.addRoute(dpc, opc, si, asName, TrafficModeType.Loadshare);
+        this.routeManagement.addRoute(dpc, opc, si, asName, TrafficModeType.Loadshare, RouteAsImpl.DEFAULT_WEIGHT);
     }
 
     public void addRoute(int dpc, int opc, int si, String asName, int trafficModeType) throws Exception {
-        this.routeManagement.addRoute(dpc, opc, si, asName, trafficModeType);
+        this.routeManagement.addRoute(dpc, opc, si, asName, trafficModeType, RouteAsImpl.DEFAULT_WEIGHT);
+    }
+
+    public void addRoute(int dpc, int opc, int si, String asName, int trafficModeType, int weight) throws Exception {
+        this.routeManagement.addRoute(dpc, opc, si, asName, trafficModeType, weight);
     }
 
     public void removeRoute(int dpc, int opc, int si, String asName) throws Exception {
@@ -1181,6 +1204,9 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
             logger.error(String.format("Tx : No AS found for routing message %s", payload));
             throw new IOException(String.format("Tx : No AS found for routing message %s", payload));
         }
+        if (this.statisticsEnabled) {
+            this.m3uaCounterProvider.updatePacketsPerAsTx(asImpl.getName());
+        }
         payload.setNetworkAppearance(asImpl.getNetworkAppearance());
         payload.setRoutingContext(asImpl.getRoutingContext());
         asImpl.write(payload);
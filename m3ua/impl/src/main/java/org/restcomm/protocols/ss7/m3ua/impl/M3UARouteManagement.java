@@ -62,7 +62,6 @@ public class M3UARouteManagement {
     private static final Logger logger = Logger.getLogger(M3UARouteManagement.class);
 
     private static final String KEY_SEPARATOR = ":";
-    private static final int WILDCARD = -1;
 
     private static final int BIT_ONE = 0x01;
 
@@ -71,11 +70,25 @@ public class M3UARouteManagement {
     private final int asSelectionMask;
     private int asSlsShiftPlaces = 0x00;
 
+    /**
+     * SLS vs its rank in the SLS space. The rank keeps the SLS bits reserved for As selection (asSelectionMask) as the least
+     * significant bits and the rest of SLS bits above them, so that consecutive ranks differ at first in the As selection
+     * bits. {@link RouteAsImpl} distributes ranks between As, with equal weights a rank modulo As count is the value of the As
+     * selection bits and the rest of SLS bits remain for the ASP selection inside of the As.
+     */
+    private final int[] slsRank = new int[256];
+
     /**
      * persists key vs corresponding As that servers for this key
      */
     protected RouteMap<String, RouteAsImpl> route = new RouteMap<String, RouteAsImpl>();
 
+    /**
+     * {@link #route} compiled into a primitive keyed table that is used for routing of outgoing MSU. Rebuilt (and replaced)
+     * each time a key is added to or removed from {@link #route}
+     */
+    private volatile RouteIndex routeIndex = RouteIndex.EMPTY;
+
     /**
      * Persists DPC vs As's serving this DPC. Used for notifying M3UA-user of MTP3 primitive PAUSE, RESUME.
      */
@@ -150,6 +163,18 @@ public class M3UARouteManagement {
                 break;
 
         }
+
+        int selectionBits = Integer.bitCount(this.asSelectionMask);
+        for (int sls = 0; sls < this.slsRank.length; sls++) {
+            int selection = (sls & this.asSelectionMask) >> this.asSlsShiftPlaces;
+            int rest;
+            if (this.asSlsShiftPlaces == 0) {
+                rest = sls >> selectionBits;
+            } else {
+                rest = sls & ~this.asSelectionMask & 0xff;
+            }
+            this.slsRank[sls] = selection | (rest << selectionBits);
+        }
     }
 
     /**
@@ -177,6 +202,12 @@ public class M3UARouteManagement {
                 logger.error(String.format("Error while adding key=%s to As list=%s", key, Arrays.toString(asList)));
             }
         }
+
+        this.rebuildRouteIndex();
+    }
+
+    private void rebuildRouteIndex() {
+        this.routeIndex = RouteIndex.compile(this.route);
     }
 
     /**
@@ -186,9 +217,11 @@ public class M3UARouteManagement {
      * @param opc
      * @param si
      * @param asName
+     * @param traffmode
+     * @param weight load-sharing weight of the {@link AsImpl} for this key
      * @throws Exception If corresponding {@link AsImpl} doesn't exist or {@link AsImpl} already added
      */
-    protected void addRoute(int dpc, int opc, int si, String asName, int traffmode) throws Exception {
+    protected void addRoute(int dpc, int opc, int si, String asName, int traffmode, int weight) throws Exception {
         AsImpl asImpl = null;
         for (FastList.Node<As> n = this.m3uaManagement.appServers.head(), end = this.m3uaManagement.appServers.tail(); (n = n
                 .getNext()) != end;) {
@@ -214,10 +247,13 @@ public class M3UARouteManagement {
             asArray.setM3uaManagement(this.m3uaManagement);
         }
 
-        asArray.addRoute(dpc, opc, si, asImpl, traffmode);
+        asArray.addRoute(dpc, opc, si, asImpl, traffmode, weight);
 
         this.addAsToDPC(dpc, asImpl);
 
+        if (this.routeIndex.get(dpc, opc, si) != asArray) {
+            this.rebuildRouteIndex();
+        }
     }
 
     /**
@@ -259,6 +295,7 @@ public class M3UARouteManagement {
         //Final check to remove RouteAs
         if(!asArray.hasAs()){
             route.remove(key);
+            this.rebuildRouteIndex();
         }
 
         this.m3uaManagement.store();
@@ -271,7 +308,9 @@ public class M3UARouteManagement {
      * </p>
      * <p>
      * If two or more {@link AsImpl} are active and {@link TrafficModeType} configured is load-shared, load is configured
-     * between each {@link AsImpl} depending on SLS
+     * between each {@link AsImpl} depending on SLS and {@link AsImpl} weights. The traffic of an unavailable {@link AsImpl} is
+     * spread between the remaining active ones, an SLS is always routed to the same {@link AsImpl} while the set of active
+     * {@link AsImpl} does not change
      * </p>
      *
      * @param dpc
@@ -281,34 +320,13 @@ public class M3UARouteManagement {
      * @return
      */
     protected AsImpl getAsForRoute(int dpc, int opc, int si, int sls) {
-        // TODO : Loadsharing needs to be implemented
-
-        String key = (new StringBuffer().append(dpc).append(KEY_SEPARATOR).append(opc).append(KEY_SEPARATOR).append(si))
-                .toString();
-        RouteAsImpl routeAs = route.get(key);
-
-        if (routeAs == null) {
-            key = (new StringBuffer().append(dpc).append(KEY_SEPARATOR).append(opc).append(KEY_SEPARATOR).append(WILDCARD))
-                    .toString();
-
-            routeAs = route.get(key);
-
-            if (routeAs == null) {
-                key = (new StringBuffer().append(dpc).append(KEY_SEPARATOR).append(WILDCARD).append(KEY_SEPARATOR)
-                        .append(WILDCARD)).toString();
-
-                routeAs = route.get(key);
-            }
-        }
+        RouteAsImpl routeAs = this.routeIndex.find(dpc, opc, si);
 
         if (routeAs == null) {
             return null;
         }
 
-        int count = (sls & this.asSelectionMask);
-        count = (count >> this.asSlsShiftPlaces);
-
-       return routeAs.getAsForRoute(count);
+        return routeAs.getAsForRoute(this.slsRank[sls & 0xff]);
     }
 
     private void addAsToDPC(int dpc, AsImpl asImpl) {
@@ -335,15 +353,8 @@ public class M3UARouteManagement {
         // Now decide if we should remove As from RouteRow? If the same As is
         // assigned as route for different key combination we shouldn't remove
         // it from RouteRow
-        for (RouteMap.Entry<String, RouteAsImpl> e = this.route.head(), end = this.route.tail(); (e = e.getNext()) != end;) {
-            String key = e.getKey();
-            String[] keys = key.split(KEY_SEPARATOR);
-            if (keys[0].equals(Integer.toString(dpc))) {
-                RouteAsImpl asList = e.getValue();
-                if(asList.hasAs(asImpl)){
-                    return;
-                }
-            }
+        if (this.routeIndex.isServedByAs(dpc, asImpl)) {
+            return;
         }
 
         // We reached here means time to remove this As from RouteRow.
@@ -369,5 +380,6 @@ public class M3UARouteManagement {
     public void removeAllResourses() throws Exception {
         this.route.clear();
         this.routeTable.clear();
+        this.rebuildRouteIndex();
     }
 }
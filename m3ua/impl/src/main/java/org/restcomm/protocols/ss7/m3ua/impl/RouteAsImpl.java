@@ -42,13 +42,34 @@ public class RouteAsImpl implements XMLSerializable, RouteAs {
 
     private static final String TRAFFIC_MODE_TYPE = "trafficModeType";
     private static final String AS_ARRAY = "as";
+    private static final String AS_WEIGHTS = "weights";
+
+    protected static final int DEFAULT_WEIGHT = 1;
+    // the SLS space (256) must stay larger than the sum of weights of As of a route (at most 4 As)
+    protected static final int MAX_WEIGHT = 64;
+
+    private static final int SLS_SPACE = 256;
+    private static final int[] NO_AS_TABLE = new int[SLS_SPACE];
+    static {
+        for (int i = 0; i < SLS_SPACE; i++) {
+            NO_AS_TABLE[i] = -1;
+        }
+    }
 
     private M3UAManagementImpl m3uaManagement;
     private As[] asArray = null;
+    private int[] weights = null;
     private TrafficModeType trafficModeType = new TrafficModeTypeImpl(TrafficModeType.Loadshare);
 
+    /**
+     * SLS rank (see {@link M3UARouteManagement}) vs index of As in asArray that serves this rank when it is active. Rebuilt
+     * when As are added or removed.
+     */
+    private volatile int[] slsVsAsTable = NO_AS_TABLE;
+
     // After reading comma separted value from xml file, its stored here. And them M3USManagement will do the necessary setup.
     private String asArraytemp = null;
+    private String weightsTemp = null;
 
     public RouteAsImpl() {
         // TODO Auto-generated constructor stub
@@ -70,7 +91,12 @@ public class RouteAsImpl implements XMLSerializable, RouteAs {
         return asArraytemp;
     }
 
-    protected void addRoute(int dpc, int opc, int si, AsImpl asImpl, int traffmode) throws Exception {
+    protected void addRoute(int dpc, int opc, int si, AsImpl asImpl, int traffmode, int weight) throws Exception {
+        if (weight < DEFAULT_WEIGHT || weight > MAX_WEIGHT) {
+            throw new Exception(String.format("Invalid weight=%d for As=%s dpc=%d opc=%d si=%d, must be from %d to %d",
+                    weight, asImpl.getName(), dpc, opc, si, DEFAULT_WEIGHT, MAX_WEIGHT));
+        }
+
         if (this.trafficModeType.getMode() != traffmode) {
             throw new Exception(
                     String.format(
@@ -89,12 +115,15 @@ public class RouteAsImpl implements XMLSerializable, RouteAs {
             }
         } else {
             asArray = new AsImpl[this.m3uaManagement.maxAsForRoute];
+            weights = new int[asArray.length];
         }
 
         // Add to first empty slot
         for (int count = 0; count < asArray.length; count++) {
             if (asArray[count] == null) {
                 asArray[count] = asImpl;
+                weights[count] = weight;
+                this.rebuildSlsVsAsTable();
                 this.m3uaManagement.store();
                 return;
             }
@@ -108,6 +137,8 @@ public class RouteAsImpl implements XMLSerializable, RouteAs {
             AsImpl asTemp = (AsImpl) asArray[count];
             if (asTemp != null && asImpl.equals(asTemp)) {
                 asArray[count] = null;
+                weights[count] = 0;
+                this.rebuildSlsVsAsTable();
                 return;
             }
         }
@@ -115,11 +146,61 @@ public class RouteAsImpl implements XMLSerializable, RouteAs {
         throw new Exception(String.format("No AS=%s configured  for dpc=%d opc=%d si=%d", asImpl.getName(), dpc, opc, si));
     }
 
-    protected AsImpl getAsForRoute(int count) {
+    /**
+     * Builds the SLS rank vs As table. Ranks are assigned to As with smooth weighted round robin, so an As with weight w gets
+     * w ranks out of every sum-of-weights consecutive ranks and ranks of one As are interleaved with others as evenly as
+     * possible.
+     */
+    private void rebuildSlsVsAsTable() {
+        int totalWeight = 0;
+        for (int count = 0; count < asArray.length; count++) {
+            if (asArray[count] != null) {
+                totalWeight += weights[count];
+            }
+        }
+
+        if (totalWeight == 0) {
+            this.slsVsAsTable = NO_AS_TABLE;
+            return;
+        }
+
+        int[] round = new int[totalWeight];
+        int[] current = new int[asArray.length];
+        for (int i = 0; i < totalWeight; i++) {
+            int selected = -1;
+            for (int count = 0; count < asArray.length; count++) {
+                if (asArray[count] != null) {
+                    current[count] += weights[count];
+                    if (selected == -1 || current[count] > current[selected]) {
+                        selected = count;
+                    }
+                }
+            }
+            current[selected] -= totalWeight;
+            round[i] = selected;
+        }
+
+        int[] table = new int[SLS_SPACE];
+        for (int rank = 0; rank < SLS_SPACE; rank++) {
+            table[rank] = round[rank % totalWeight];
+        }
+        this.slsVsAsTable = table;
+    }
+
+    /**
+     * @param slsRank rank of SLS of the message (see {@link M3UARouteManagement})
+     * @return As that serves this SLS or null if no As is active
+     */
+    protected AsImpl getAsForRoute(int slsRank) {
 
         if (this.trafficModeType.getMode() == TrafficModeType.Override) {
             // For Override we always try with first available AS
-            count = 0;
+            return this.getFirstActiveAs(0);
+        }
+
+        int count = this.slsVsAsTable[slsRank];
+        if (count < 0) {
+            return null;
         }
 
         // First attempt
@@ -128,6 +209,47 @@ public class RouteAsImpl implements XMLSerializable, RouteAs {
             return asImpl;
         }
 
+        // The As is not available: its ranks are spread between active As in proportion of their weights. The rank sequence
+        // number inside of the As (slsRank / total weight) is used for selection, so the result is stable for an SLS while
+        // the set of active As is the same
+        int activeWeight = 0;
+        for (int i = 0; i < asArray.length; i++) {
+            if (i != count && this.isAsActive((AsImpl) asArray[i])) {
+                activeWeight += weights[i];
+            }
+        }
+        if (activeWeight == 0) {
+            return null;
+        }
+
+        int totalWeight = 0;
+        for (int i = 0; i < asArray.length; i++) {
+            if (asArray[i] != null) {
+                totalWeight += weights[i];
+            }
+        }
+        int target = (slsRank / totalWeight) % activeWeight;
+        for (int i = 0; i < asArray.length; i++) {
+            if (i != count) {
+                asImpl = (AsImpl) asArray[i];
+                if (this.isAsActive(asImpl)) {
+                    if (target < weights[i]) {
+                        return asImpl;
+                    }
+                    target -= weights[i];
+                }
+            }
+        }
+        return null;
+    }
+
+    private AsImpl getFirstActiveAs(int count) {
+        // First attempt
+        AsImpl asImpl = (AsImpl) asArray[count];
+        if (this.isAsActive(asImpl)) {
+            return asImpl;
+        }
+
         // Second recursive Attempt
         for (int i = 0; i < this.m3uaManagement.getMaxAsForRoute(); i++) {
             count = count + 1;
@@ -189,6 +311,10 @@ public class RouteAsImpl implements XMLSerializable, RouteAs {
         return this.asArray;
     }
 
+    public int[] getWeightArray() {
+        return this.weights;
+    }
+
     /**
      * XML Serialization/Deserialization
      */
@@ -199,6 +325,7 @@ public class RouteAsImpl implements XMLSerializable, RouteAs {
             int trafficMode = xml.getAttribute(TRAFFIC_MODE_TYPE, TrafficModeType.Loadshare);
             routeAs.trafficModeType = new TrafficModeTypeImpl(trafficMode);
             routeAs.asArraytemp = xml.getAttribute(AS_ARRAY, "");
+            routeAs.weightsTemp = xml.getAttribute(AS_WEIGHTS, "");
         }
 
         @Override
@@ -207,30 +334,37 @@ public class RouteAsImpl implements XMLSerializable, RouteAs {
 
             As[] asList = routeAs.asArray;
             StringBuffer sb = new StringBuffer();
+            StringBuffer sbWeights = new StringBuffer();
             for (int count = 0; count < asList.length; count++) {
                 AsImpl asImpl = (AsImpl) asList[count];
                 if (asImpl != null) {
                     sb.append(asImpl.getName()).append(",");
+                    sbWeights.append(routeAs.weights[count]).append(",");
                 }
             }
 
             String value = sb.toString();
+            String weightsValue = sbWeights.toString();
 
             if (!value.equals("")) {
                 // remove last comma
                 value = value.substring(0, (value.length() - 1));
+                weightsValue = weightsValue.substring(0, (weightsValue.length() - 1));
             }
 
             xml.setAttribute(AS_ARRAY, value);
+            xml.setAttribute(AS_WEIGHTS, weightsValue);
 
         }
     };
 
     protected void reset() {
         AsImpl[] asList = new AsImpl[this.m3uaManagement.getMaxAsForRoute()];
+        int[] weightList = new int[asList.length];
 
         if (asArraytemp != null && !asArraytemp.equals("")) {
             String[] asNames = asArraytemp.split(",");
+            String[] asWeights = (weightsTemp != null && !weightsTemp.equals("")) ? weightsTemp.split(",") : new String[0];
             for (int count = 0; count < asList.length && count < asNames.length; count++) {
                 String asName = asNames[count];
                 As as = this.m3uaManagement.getAs(asName);
@@ -239,10 +373,20 @@ public class RouteAsImpl implements XMLSerializable, RouteAs {
                     continue;
                 }
                 asList[count] = (AsImpl) as;
+                weightList[count] = DEFAULT_WEIGHT;
+                if (count < asWeights.length) {
+                    try {
+                        weightList[count] = Math.min(MAX_WEIGHT,
+                                Math.max(DEFAULT_WEIGHT, Integer.parseInt(asWeights[count].trim())));
+                    } catch (NumberFormatException e) {
+                    }
+                }
             }
         }// if (value != null && !value.equals(""))
 
         this.asArray = asList;
+        this.weights = weightList;
+        this.rebuildSlsVsAsTable();
     }
 
 }
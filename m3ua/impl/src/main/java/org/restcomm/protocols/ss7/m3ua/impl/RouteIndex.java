@@ -0,0 +1,160 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.m3ua.impl;
+
+import java.util.Map;
+
+/**
+ * <p>
+ * Immutable lookup table of {@link RouteAsImpl} keyed by the (DPC, OPC, SI) combination packed into a long. It is compiled
+ * from the persisted "dpc:opc:si" keyed {@link RouteMap} every time the set of configured keys changes and is then used for
+ * routing of every outgoing MSU, so that the lookup (including the wildcard fallback) does not allocate.
+ * </p>
+ * <p>
+ * The table uses open addressing with linear probing. {@link RouteAsImpl} instances are shared with the {@link RouteMap},
+ * so adding or removing of an As to an already existing key does not require a recompilation.
+ * </p>
+ */
+final class RouteIndex {
+
+    static final RouteIndex EMPTY = new RouteIndex(new long[2], new RouteAsImpl[2], 0);
+
+    private static final String KEY_SEPARATOR = ":";
+    private static final int WILDCARD = -1;
+
+    private final long[] keys;
+    private final RouteAsImpl[] values;
+    private final int mask;
+    private final int size;
+
+    private RouteIndex(long[] keys, RouteAsImpl[] values, int size) {
+        this.keys = keys;
+        this.values = values;
+        this.mask = keys.length - 1;
+        this.size = size;
+    }
+
+    /**
+     * Packs DPC (24 bits), OPC (32 bits, so the wildcard -1 never collides with a real point code) and SI (8 bits) into one
+     * key.
+     */
+    static long key(int dpc, int opc, int si) {
+        return ((long) (dpc & 0xFFFFFF) << 40) | ((opc & 0xFFFFFFFFL) << 8) | (si & 0xFF);
+    }
+
+    static int dpc(long key) {
+        return (int) (key >>> 40);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Compiles the index from the "dpc:opc:si" keyed route map. Keys that cannot be parsed are skipped.
+     */
+    static RouteIndex compile(Map<String, RouteAsImpl> route) {
+        if (route.isEmpty()) {
+            return EMPTY;
+        }
+
+        int capacity = 2;
+        while (capacity < route.size() * 2) {
+            capacity <<= 1;
+        }
+
+        long[] keys = new long[capacity];
+        RouteAsImpl[] values = new RouteAsImpl[capacity];
+        int mask = capacity - 1;
+        int size = 0;
+        for (Map.Entry<String, RouteAsImpl> e : route.entrySet()) {
+            String[] parts = e.getKey().split(KEY_SEPARATOR);
+            if (parts.length != 3 || e.getValue() == null) {
+                continue;
+            }
+
+            long key;
+            try {
+                key = key(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+            } catch (NumberFormatException ex) {
+                continue;
+            }
+
+            int i = hash(key) & mask;
+            while (values[i] != null && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (values[i] == null) {
+                size++;
+            }
+            keys[i] = key;
+            values[i] = e.getValue();
+        }
+        return new RouteIndex(keys, values, size);
+    }
+
+    RouteAsImpl get(int dpc, int opc, int si) {
+        long key = key(dpc, opc, si);
+        int i = hash(key) & mask;
+        RouteAsImpl value;
+        while ((value = values[i]) != null) {
+            if (keys[i] == key) {
+                return value;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Looks for the most specific configured key: dpc:opc:si, then dpc:opc:-1 and at last dpc:-1:-1
+     */
+    RouteAsImpl find(int dpc, int opc, int si) {
+        RouteAsImpl routeAs = this.get(dpc, opc, si);
+        if (routeAs == null) {
+            routeAs = this.get(dpc, opc, WILDCARD);
+            if (routeAs == null) {
+                routeAs = this.get(dpc, WILDCARD, WILDCARD);
+            }
+        }
+        return routeAs;
+    }
+
+    /**
+     * @return true if any key with the passed DPC is served by the passed As
+     */
+    boolean isServedByAs(int dpc, AsImpl asImpl) {
+        for (int i = 0; i < values.length; i++) {
+            RouteAsImpl value = values[i];
+            if (value != null && dpc(keys[i]) == dpc && value.hasAs(asImpl)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+}
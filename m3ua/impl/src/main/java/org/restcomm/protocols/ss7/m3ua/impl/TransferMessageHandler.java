@@ -21,8 +21,11 @@
  */
 package org.restcomm.protocols.ss7.m3ua.impl;
 
+import io.netty.buffer.ByteBuf;
+
 import org.apache.log4j.Logger;
 import org.restcomm.protocols.ss7.m3ua.impl.fsm.FSM;
+import org.restcomm.protocols.ss7.m3ua.impl.parameter.ProtocolDataImpl;
 import org.restcomm.protocols.ss7.m3ua.message.transfer.PayloadData;
 import org.restcomm.protocols.ss7.m3ua.parameter.ErrorCode;
 import org.restcomm.protocols.ss7.m3ua.parameter.ProtocolData;
@@ -50,6 +53,19 @@ public class TransferMessageHandler extends MessageHandler {
         this.mtp3TransferPrimitiveFactory = m3uaManagement.getMtp3TransferPrimitiveFactory();
     }
 
+    private Mtp3TransferPrimitive createMtp3TransferPrimitive(ProtocolData protocolData) {
+        ByteBuf dataBuf = ((ProtocolDataImpl) protocolData).getDataBuf();
+        if (dataBuf != null) {
+            // zero-copy mode: the primitive keeps the received buffer till it is delivered to MTP3 users
+            return this.mtp3TransferPrimitiveFactory.createMtp3TransferPrimitive(protocolData.getSI(), protocolData.getNI(),
+                    protocolData.getMP(), protocolData.getOpc(), protocolData.getDpc(), protocolData.getSLS(), dataBuf.retain());
+        } else {
+            return this.mtp3TransferPrimitiveFactory.createMtp3TransferPrimitive(protocolData.getSI(), protocolData.getNI(),
+                    protocolData.getMP(), protocolData.getOpc(), protocolData.getDpc(), protocolData.getSLS(),
+                    protocolData.getData());
+        }
+    }
+
     public void handlePayload(PayloadData payload) {
         RoutingContext rc = payload.getRoutingContext();
 
@@ -68,10 +84,7 @@ public class TransferMessageHandler extends MessageHandler {
             AspState aspState = AspState.getState(fsm.getState().getName());
 
             if (aspState == AspState.ACTIVE) {
-                ProtocolData protocolData = payload.getData();
-                Mtp3TransferPrimitive mtp3TransferPrimitive = this.mtp3TransferPrimitiveFactory.createMtp3TransferPrimitive(
-                        protocolData.getSI(), protocolData.getNI(), protocolData.getMP(), protocolData.getOpc(),
-                        protocolData.getDpc(), protocolData.getSLS(), protocolData.getData());
+                Mtp3TransferPrimitive mtp3TransferPrimitive = this.createMtp3TransferPrimitive(payload.getData());
                 ((AsImpl) aspImpl.getAs()).getM3UAManagement().sendTransferMessageToLocalUser(mtp3TransferPrimitive,
                         payload.getData().getSLS());
             } else {
@@ -101,10 +114,7 @@ public class TransferMessageHandler extends MessageHandler {
             AspState aspState = AspState.getState(fsm.getState().getName());
 
             if (aspState == AspState.ACTIVE) {
-                ProtocolData protocolData = payload.getData();
-                Mtp3TransferPrimitive mtp3TransferPrimitive = this.mtp3TransferPrimitiveFactory.createMtp3TransferPrimitive(
-                        protocolData.getSI(), protocolData.getNI(), protocolData.getMP(), protocolData.getOpc(),
-                        protocolData.getDpc(), protocolData.getSLS(), protocolData.getData());
+                Mtp3TransferPrimitive mtp3TransferPrimitive = this.createMtp3TransferPrimitive(payload.getData());
                 ((AsImpl) aspImpl.getAs()).getM3UAManagement().sendTransferMessageToLocalUser(mtp3TransferPrimitive,
                         payload.getData().getSLS());
             } else {
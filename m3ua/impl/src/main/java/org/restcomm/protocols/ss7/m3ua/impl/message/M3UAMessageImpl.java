@@ -78,6 +78,14 @@ public abstract class M3UAMessageImpl implements M3UAMessage {
     }
 
     protected void decode(ByteBuf data) {
+        this.decode(data, false);
+    }
+
+    /**
+     * @param sliceProtocolData if true a Protocol Data parameter refers to a slice of the passed buffer instead of a copy of
+     *        its value (zero-copy mode)
+     */
+    protected void decode(ByteBuf data, boolean sliceProtocolData) {
         while (data.readableBytes() >= 4) {
             short tag = (short) ((data.readUnsignedByte() << 8) | (data.readUnsignedByte()));
             short len = (short) ((data.readUnsignedByte() << 8) | (data.readUnsignedByte()));
@@ -86,9 +94,13 @@ public abstract class M3UAMessageImpl implements M3UAMessage {
                 return;
             }
 
-            byte[] value = new byte[len - 4];
-            data.readBytes(value);
-            parameters.put(tag, factory.createParameter(tag, value));
+            if (sliceProtocolData && tag == Parameter.Protocol_Data && len >= 16) {
+                parameters.put(tag, factory.createProtocolData(data.readSlice(len - 4)));
+            } else {
+                byte[] value = new byte[len - 4];
+                data.readBytes(value);
+                parameters.put(tag, factory.createParameter(tag, value));
+            }
 
             // The Parameter Length does not include any padding octets. We have
             // to consider padding here
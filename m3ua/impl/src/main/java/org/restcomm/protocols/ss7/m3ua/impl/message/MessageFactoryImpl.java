@@ -136,6 +136,16 @@ public M3UAMessageImpl createMessage(int messageClass, int messageType) {
     }
 
     public M3UAMessageImpl createMessage(ByteBuf message) {
+        return this.createMessage(message, false);
+    }
+
+    /**
+     * Decodes a message from the passed buffer.
+     *
+     * @param sliceProtocolData if true the Protocol Data parameter of a DATA message refers to a slice of the passed buffer
+     *        (zero-copy mode), so the message is valid only while the buffer is not released and its content is not moved
+     */
+    public M3UAMessageImpl createMessage(ByteBuf message, boolean sliceProtocolData) {
         int dataLen;
         if (message.readableBytes() < 8) {
             return null;
@@ -160,7 +170,7 @@ public M3UAMessageImpl createMessage(int messageClass, int messageType) {
         // parsing params of this message
         message.markWriterIndex();
         message.writerIndex(message.readerIndex() + dataLen);
-        messageTemp.decode(message);
+        messageTemp.decode(message, sliceProtocolData);
         message.resetWriterIndex();
 
         return messageTemp;
@@ -368,6 +368,7 @@ public class M3UAShellExecutor implements ShellExecutor {
         for (String key : keys) {
             RouteAs routeAs = route.get(key);
             As[] asList = routeAs.getAsArray();
+            int[] weights = routeAs.getWeightArray();
 
             sb.append(M3UAOAMMessages.NEW_LINE);
             sb.append(key);
@@ -378,6 +379,9 @@ public class M3UAShellExecutor implements ShellExecutor {
                 As asImpl = asList[i];
                 if (asImpl != null) {
                     sb.append(asImpl.getName());
+                    if (weights != null && weights[i] > 1) {
+                        sb.append("(weight=").append(weights[i]).append(")");
+                    }
                     sb.append(M3UAOAMMessages.COMMA);
                 }
             }
@@ -620,9 +624,9 @@ public class M3UAShellExecutor implements ShellExecutor {
                 }
 
                 if (routeCmd.equals("add")) {
-                    // m3ua route add <as-name> <dpc> <opc> <si> trafficmode <traffic-mode> stackname <stack-name>
+                    // m3ua route add <as-name> <dpc> <opc> <si> trafficmode <traffic-mode> weight <weight> stackname <stack-name>
 
-                    if (args.length < 5 || args.length > 11) {
+                    if (args.length < 5 || args.length > 13) {
                         return M3UAOAMMessages.INVALID_COMMAND;
                     }
 
@@ -632,6 +636,7 @@ public class M3UAShellExecutor implements ShellExecutor {
                     int opc = -1;
                     int si = -1;
                     int trafficMode = TrafficModeType.Loadshare;
+                    int weight = 1;
 
                     if (asName == null) {
                         return M3UAOAMMessages.INVALID_COMMAND;
@@ -652,6 +657,8 @@ public class M3UAShellExecutor implements ShellExecutor {
 
                         if (key.equals("trafficmode")) {
                             trafficMode = Integer.parseInt(args[count++]);
+                        } else if (key.equals("weight")) {
+                            weight = Integer.parseInt(args[count++]);
                         } else if (key.equals("stackname")) {
                             String m3uaStackName = args[count++];
 
@@ -669,7 +676,7 @@ public class M3UAShellExecutor implements ShellExecutor {
 
                     this.setDefaultValue();
 
-                    this.m3uaManagement.addRoute(dpc, opc, si, asName, trafficMode);
+                    this.m3uaManagement.addRoute(dpc, opc, si, asName, trafficMode, weight);
 
                     return String.format(M3UAOAMMessages.ADD_ROUTE_AS_FOR_DPC_SUCCESSFULL, asName, dpc,
                             this.m3uaManagement.getName());
@@ -21,6 +21,8 @@
  */
 package org.restcomm.protocols.ss7.m3ua.impl.parameter;
 
+import io.netty.buffer.ByteBuf;
+
 import org.restcomm.protocols.ss7.m3ua.parameter.ASPIdentifier;
 import org.restcomm.protocols.ss7.m3ua.parameter.AffectedPointCode;
 import org.restcomm.protocols.ss7.m3ua.parameter.ConcernedDPC;
@@ -63,6 +65,14 @@ public class ParameterFactoryImpl implements ParameterFactory {
         return p;
     }
 
+    /**
+     * Creates a Protocol Data parameter that refers to a slice of a received buffer (zero-copy mode)
+     */
+    public ProtocolData createProtocolData(ByteBuf payloadData) {
+        ProtocolDataImpl p = new ProtocolDataImpl(payloadData);
+        return p;
+    }
+
     public NetworkAppearance createNetworkAppearance(long netApp) {
         return new NetworkAppearanceImpl(netApp);
     }
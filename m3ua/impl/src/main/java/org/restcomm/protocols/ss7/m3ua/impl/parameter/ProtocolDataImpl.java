@@ -21,6 +21,8 @@
  */
 package org.restcomm.protocols.ss7.m3ua.impl.parameter;
 
+import io.netty.buffer.ByteBuf;
+
 import org.restcomm.protocols.ss7.m3ua.parameter.ProtocolData;
 
 /**
@@ -38,6 +40,9 @@ public class ProtocolDataImpl extends ParameterImpl implements ProtocolData {
     private int mp;
     private int sls;
     private byte[] data;
+    // zero-copy mode: a slice of a received buffer that contains the user data, it is valid only while the received buffer
+    // is not released
+    private ByteBuf dataBuf;
 
     protected ProtocolDataImpl() {
         this.tag = ParameterImpl.Protocol_Data;
@@ -52,7 +57,6 @@ public class ProtocolDataImpl extends ParameterImpl implements ProtocolData {
         this.mp = mp;
         this.sls = sls;
         this.data = data;
-        encode();
     }
 
     /**
@@ -77,9 +81,30 @@ public class ProtocolDataImpl extends ParameterImpl implements ProtocolData {
         System.arraycopy(valueData, 12, data, 0, valueData.length - 12);
     }
 
+    /**
+     * Creates new parameter that refers to the passed buffer (zero-copy mode). The buffer is not retained.
+     *
+     * @param valueData readable bytes of the buffer are the value of this parameter
+     */
+    protected ProtocolDataImpl(ByteBuf valueData) {
+        this();
+
+        int index = valueData.readerIndex();
+        this.opc = valueData.getInt(index);
+        this.dpc = valueData.getInt(index + 4);
+
+        this.si = valueData.getUnsignedByte(index + 8);
+        this.ni = valueData.getUnsignedByte(index + 9);
+        this.mp = valueData.getUnsignedByte(index + 10);
+        this.sls = valueData.getUnsignedByte(index + 11);
+
+        this.dataBuf = valueData.slice(index + 12, valueData.readableBytes() - 12);
+    }
+
     private byte[] encode() {
         // create byte array taking into account data, point codes and
         // indicators;
+        byte[] data = this.getData();
         byte[] value = new byte[data.length + 12];
         // insert data
         System.arraycopy(data, 0, value, 12, data.length);
@@ -130,14 +155,55 @@ public class ProtocolDataImpl extends ParameterImpl implements ProtocolData {
     }
 
     public byte[] getData() {
+        if (this.data == null && this.dataBuf != null) {
+            byte[] res = new byte[this.dataBuf.readableBytes()];
+            this.dataBuf.getBytes(this.dataBuf.readerIndex(), res);
+            this.data = res;
+        }
         return data;
     }
 
+    /**
+     * @return a slice of a received buffer that contains the user data or null if the parameter is not created in the
+     *         zero-copy mode
+     */
+    public ByteBuf getDataBuf() {
+        return dataBuf;
+    }
+
     @Override
     protected byte[] getValue() {
         return this.encode();
     }
 
+    @Override
+    public void write(ByteBuf buf) {
+        // the value is written directly into the buffer without creating of an intermediate byte array
+        int dataLength = this.data != null ? this.data.length : this.dataBuf.readableBytes();
+        length = (short) (dataLength + 16);
+
+        buf.writeShort(tag);
+        buf.writeShort(length);
+
+        buf.writeInt(opc);
+        buf.writeInt(dpc);
+        buf.writeByte(si);
+        buf.writeByte(ni);
+        buf.writeByte(mp);
+        buf.writeByte(sls);
+
+        if (this.data != null)
+            buf.writeBytes(this.data);
+        else
+            buf.writeBytes(this.dataBuf, this.dataBuf.readerIndex(), dataLength);
+
+        // padding up to a multiple of 4 octets
+        int remainder = (4 - length % 4);
+        if (remainder < 4) {
+            buf.writeZero(remainder);
+        }
+    }
+
     @Override
     public String toString() {
         return String.format("Protocol opc=%d dpc=%d si=%d ni=%d sls=%d", opc, dpc, si, ni, sls);
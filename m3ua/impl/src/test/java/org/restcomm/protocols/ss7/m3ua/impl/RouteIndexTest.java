@@ -0,0 +1,86 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.m3ua.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import org.testng.annotations.Test;
+
+/**
+ * Tests for {@link RouteIndex}
+ */
+public class RouteIndexTest {
+
+    @Test
+    public void testWildcardFallback() {
+        RouteMap<String, RouteAsImpl> route = new RouteMap<String, RouteAsImpl>();
+        RouteAsImpl exact = new RouteAsImpl();
+        RouteAsImpl anySi = new RouteAsImpl();
+        RouteAsImpl anyOpc = new RouteAsImpl();
+        route.put("100:200:3", exact);
+        route.put("100:200:-1", anySi);
+        route.put("100:-1:-1", anyOpc);
+        route.put("101:-1:-1", new RouteAsImpl());
+
+        RouteIndex index = RouteIndex.compile(route);
+        assertEquals(index.size(), 4);
+
+        assertSame(index.find(100, 200, 3), exact);
+        assertSame(index.find(100, 200, 5), anySi);
+        assertSame(index.find(100, 201, 3), anyOpc);
+        assertNull(index.find(102, 200, 3));
+
+        assertSame(index.get(100, -1, -1), anyOpc);
+        assertNull(index.get(101, 200, 3));
+    }
+
+    @Test
+    public void testLargeTable() {
+        RouteMap<String, RouteAsImpl> route = new RouteMap<String, RouteAsImpl>();
+        RouteAsImpl[] values = new RouteAsImpl[5000];
+        for (int dpc = 0; dpc < values.length; dpc++) {
+            values[dpc] = new RouteAsImpl();
+            route.put(dpc + ":-1:-1", values[dpc]);
+        }
+        route.put("bad:key", new RouteAsImpl());
+
+        RouteIndex index = RouteIndex.compile(route);
+        assertEquals(index.size(), values.length);
+        for (int dpc = 0; dpc < values.length; dpc++) {
+            assertSame(index.find(dpc, 1, 3), values[dpc]);
+        }
+        // OPC wildcard must not collide with the max 24 bit point code
+        assertNull(index.get(1, 0xFFFFFF, -1));
+    }
+
+    @Test
+    public void testEmpty() {
+        RouteIndex index = RouteIndex.compile(new RouteMap<String, RouteAsImpl>());
+        assertSame(index, RouteIndex.EMPTY);
+        assertNull(index.find(1, 2, 3));
+        assertFalse(index.isServedByAs(1, null));
+    }
+}
@@ -25,6 +25,7 @@ package org.restcomm.protocols.ss7.m3ua.impl.cong;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 import java.util.ArrayList;
 
@@ -32,6 +33,7 @@ import org.restcomm.ss7.congestion.BaseCongestionMonitor;
 import org.restcomm.ss7.congestion.CongestionListener;
 import org.restcomm.ss7.congestion.CongestionTicket;
 import org.restcomm.ss7.congestion.CongestionTicketImpl;
+import org.restcomm.ss7.congestion.MemoryCongestionMonitorImpl;
 import org.testng.annotations.Test;
 
 /**
@@ -113,6 +115,37 @@ public class CongTest {
         assertEquals(listener.lstFinish.size(), 0);
     }
 
+    @Test
+    public void MemoryCongestionMonitorImplTest() throws Exception {
+        MemoryCongestionMonitorImpl monitor = new MemoryCongestionMonitorImpl();
+        try {
+            monitor.monitor();
+            System.gc();
+            Thread.sleep(100);
+            monitor.monitor();
+
+            assertTrue(monitor.getPercentageOfMemoryUsed() >= 0 && monitor.getPercentageOfMemoryUsed() <= 100);
+            assertTrue(monitor.getAdmissionProbability() > 0 && monitor.getAdmissionProbability() <= 1.0);
+        } finally {
+            monitor.stop();
+        }
+
+        double[] thresholds = new double[] { 70, 80, 90 };
+        assertEquals(TestMemoryCongestionMonitor.admission(50, 0, Double.MAX_VALUE, thresholds), 1.0);
+        assertEquals(TestMemoryCongestionMonitor.admission(80, 0, Double.MAX_VALUE, thresholds), 0.5, 0.000001);
+        assertEquals(TestMemoryCongestionMonitor.admission(95, 0, Double.MAX_VALUE, thresholds), 0.05, 0.000001);
+        assertEquals(TestMemoryCongestionMonitor.admission(50, 0.3, Double.MAX_VALUE, thresholds), 0.5, 0.000001);
+        assertEquals(TestMemoryCongestionMonitor.admission(50, 0, 0.05, thresholds), 0.5, 0.000001);
+        assertEquals(TestMemoryCongestionMonitor.admission(80, 0.4, Double.MAX_VALUE, thresholds), 0.25, 0.000001);
+    }
+
+    static class TestMemoryCongestionMonitor extends MemoryCongestionMonitorImpl {
+        static double admission(double predictedPercentage, double gcPauseRatio, double headroomTime,
+                double[] memoryThreshold) {
+            return calculateAdmissionProbability(predictedPercentage, gcPauseRatio, headroomTime, memoryThreshold);
+        }
+    }
+
     class TestCongestionMonitor extends BaseCongestionMonitor {
         protected double[] alarmThreshold = new double[] { 5, 50, 500 };
         protected double[] backToNormalMemoryThreshold = new double[] { 2, 20, 200 };
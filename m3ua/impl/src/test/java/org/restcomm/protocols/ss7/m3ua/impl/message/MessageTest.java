@@ -170,6 +170,41 @@ public class MessageTest {
         assertEquals(payload, p2.getData());
     }
 
+    @Test
+    public void testPayloadData_ZeroCopy() throws IOException {
+        ByteBuf byteBuf = Unpooled.buffer();
+
+        PayloadDataImpl msg = (PayloadDataImpl) messageFactory.createMessage(MessageClass.TRANSFER_MESSAGES,
+                MessageType.PAYLOAD);
+        byte[] payload = new byte[] { 1, 2, 3, 4, 5 };
+        ProtocolDataImpl p1 = (ProtocolDataImpl) parmFactory.createProtocolData(1408, 14150, 3, 2, 1, 5, payload);
+        msg.setData(p1);
+        msg.encode(byteBuf);
+        byte[] encoded = new byte[byteBuf.readableBytes()];
+        byteBuf.getBytes(byteBuf.readerIndex(), encoded);
+
+        PayloadDataImpl msg1 = (PayloadDataImpl) messageFactory.createMessage(byteBuf, true);
+
+        ProtocolDataImpl p2 = (ProtocolDataImpl) msg1.getData();
+        assertNotNull(p2.getDataBuf());
+        assertEquals(p2.getDataBuf().readableBytes(), payload.length);
+        assertEquals(p1.getOpc(), p2.getOpc());
+        assertEquals(p1.getDpc(), p2.getDpc());
+        assertEquals(p1.getSI(), p2.getSI());
+        assertEquals(p1.getNI(), p2.getNI());
+        assertEquals(p1.getMP(), p2.getMP());
+        assertEquals(p1.getSLS(), p2.getSLS());
+
+        // the message that refers to the received buffer is encoded as the original one
+        ByteBuf byteBuf2 = Unpooled.buffer();
+        msg1.encode(byteBuf2);
+        byte[] encoded2 = new byte[byteBuf2.readableBytes()];
+        byteBuf2.getBytes(byteBuf2.readerIndex(), encoded2);
+        assertTrue(Arrays.equals(encoded, encoded2));
+
+        assertEquals(payload, p2.getData());
+    }
+
     @Test
     public void testDestinationUnavailable() throws IOException {
         ByteBuf byteBuf = Unpooled.buffer();
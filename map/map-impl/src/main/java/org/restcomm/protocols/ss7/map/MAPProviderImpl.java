@@ -26,7 +26,6 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 import javolution.util.FastList;
 import javolution.util.FastMap;
@@ -56,6 +55,7 @@ import org.restcomm.protocols.ss7.map.api.dialog.MAPRefuseReason;
 import org.restcomm.protocols.ss7.map.api.dialog.MAPUserAbortChoice;
 import org.restcomm.protocols.ss7.map.api.dialog.Reason;
 import org.restcomm.protocols.ss7.map.api.dialog.ServingCheckData;
+import org.restcomm.protocols.ss7.map.api.dialog.ServingCheckResult;
 import org.restcomm.protocols.ss7.map.api.errors.MAPErrorCode;
 import org.restcomm.protocols.ss7.map.api.errors.MAPErrorMessage;
 import org.restcomm.protocols.ss7.map.api.errors.MAPErrorMessageFactory;
@@ -84,6 +84,7 @@ import org.restcomm.protocols.ss7.map.service.pdpContextActivation.MAPServicePdp
 import org.restcomm.protocols.ss7.map.service.sms.MAPServiceSmsImpl;
 import org.restcomm.protocols.ss7.map.service.supplementary.MAPServiceSupplementaryImpl;
 import org.restcomm.protocols.ss7.sccp.NetworkIdState;
+import org.restcomm.protocols.ss7.tcap.ConcurrentLongHashMap;
 import org.restcomm.protocols.ss7.tcap.DialogImpl;
 import org.restcomm.protocols.ss7.tcap.api.MessageType;
 import org.restcomm.protocols.ss7.tcap.api.TCAPProvider;
@@ -142,7 +143,7 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
     private transient Collection<MAPDialogListener> dialogListeners = new FastList<MAPDialogListener>().shared();
 
 //    protected transient FastMap<Long, MAPDialogImpl> dialogs = new FastMap<Long, MAPDialogImpl>().shared();
-    protected transient ConcurrentHashMap<Long, MAPDialogImpl> dialogs = new ConcurrentHashMap<Long, MAPDialogImpl>();
+    protected transient ConcurrentLongHashMap<MAPDialogImpl> dialogs = new ConcurrentLongHashMap<MAPDialogImpl>();
 
 //    /**
 //     * Congestion sources name list. Congestion is where this collection is not empty
@@ -165,6 +166,11 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
     private final transient MAPServiceSms mapServiceSms = new MAPServiceSmsImpl(this);
     private final transient MAPServiceLsm mapServiceLsm = new MAPServiceLsmImpl(this);
 
+    // services that perform an ApplicationContext and AC_VersionIncorrect results of isServingService() indexed by
+    // MAPApplicationContextName ordinal and version, both are filled when the provider is created
+    private final transient MAPServiceBase[][] servingServices;
+    private final transient ServingCheckData[][] servingVersionIncorrect;
+
     /**
      * public common methods
      */
@@ -181,6 +187,46 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
         this.mapServices.add(this.mapServiceSupplementary);
         this.mapServices.add(this.mapServiceSms);
         this.mapServices.add(this.mapServiceLsm);
+
+        int namesCount = MAPApplicationContextName.values().length;
+        int versionsCount = MAPApplicationContextVersion.values().length + 1;
+        this.servingServices = new MAPServiceBase[namesCount][versionsCount];
+        this.servingVersionIncorrect = new ServingCheckData[namesCount][versionsCount];
+        this.fillServingTables();
+    }
+
+    private void fillServingTables() {
+        for (MAPApplicationContextName name : MAPApplicationContextName.values()) {
+            for (MAPApplicationContextVersion version : MAPApplicationContextVersion.values()) {
+                MAPApplicationContext ctx = MAPApplicationContext.getInstance(name, version);
+                if (ctx == null)
+                    continue;
+
+                int nameInd = name.ordinal();
+                int vers = version.getVersion();
+                for (MAPServiceBase ser : this.mapServices) {
+                    ServingCheckData chkRes = ser.isServingService(ctx);
+                    if (chkRes.getResult() == ServingCheckResult.AC_Serving) {
+                        this.servingServices[nameInd][vers] = ser;
+                        break;
+                    }
+                    if (chkRes.getResult() == ServingCheckResult.AC_VersionIncorrect
+                            && this.servingVersionIncorrect[nameInd][vers] == null)
+                        this.servingVersionIncorrect[nameInd][vers] = chkRes;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the MAP service that can perform the ApplicationContext or null if no MAP service serves it
+     *
+     * @param mapAppCtx
+     * @return
+     */
+    protected MAPServiceBase getServingService(MAPApplicationContext mapAppCtx) {
+        return this.servingServices[mapAppCtx.getApplicationContextName().ordinal()][mapAppCtx.getApplicationContextVersion()
+                .getVersion()];
     }
 
     public TCAPProvider getTCAPProvider() {
@@ -551,26 +597,18 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
 
         // Selecting the MAP service that can perform the ApplicationContext
         if (perfSer == null) {
-            for (MAPServiceBase ser : this.mapServices) {
-
-                ServingCheckData chkRes = ser.isServingService(mapAppCtx);
-                switch (chkRes.getResult()) {
-                    case AC_Serving:
-                        perfSer = ser;
-                        break;
-
-                    case AC_VersionIncorrect:
-                        try {
-                            this.fireTCAbortACNNotSupported(tcBeginIndication.getDialog(), null,
-                                    chkRes.getAlternativeApplicationContext(), false);
-                        } catch (MAPException e1) {
-                            loger.error("Error while firing TC-U-ABORT. ", e1);
-                        }
-                        break;
+            perfSer = this.getServingService(mapAppCtx);
+            if (perfSer == null) {
+                ServingCheckData chkRes = this.servingVersionIncorrect[mapAppCtx.getApplicationContextName().ordinal()][mapAppCtx
+                        .getApplicationContextVersion().getVersion()];
+                if (chkRes != null) {
+                    try {
+                        this.fireTCAbortACNNotSupported(tcBeginIndication.getDialog(), null,
+                                chkRes.getAlternativeApplicationContext(), false);
+                    } catch (MAPException e1) {
+                        loger.error("Error while firing TC-U-ABORT. ", e1);
+                    }
                 }
-
-                if (perfSer != null)
-                    break;
             }
         }
 
@@ -26,6 +26,8 @@ import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CharsetEncoder;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.restcomm.protocols.ss7.map.api.datacoding.NationalLanguageIdentifier;
 
@@ -59,8 +61,16 @@ public class GSMCharset extends Charset {
     protected int[] mainTable;
     protected int[] extensionTable;
 
+    // reverse (char -> septet code) tables, they are created at the first use
+    private volatile short[][] mainEncodingTable;
+    private volatile short[][] extensionEncodingTable;
+    // true if mainTable and extensionTable are the static tables of this class, their reverse tables are shared
+    private boolean sharedTables;
+    private static final ConcurrentHashMap<int[], short[][]> sharedEncodingTables = new ConcurrentHashMap<int[], short[][]>();
+
     public GSMCharset(String canonicalName, String[] aliases) {
         this(canonicalName, aliases, basicMap,basicExtentionMap);
+        this.sharedTables = true;
     }
 
     public GSMCharset(String canonicalName, String[] aliases, int[] mainTable, int[] extentionTable) {
@@ -74,6 +84,7 @@ public class GSMCharset extends Charset {
             NationalLanguageIdentifier nationalLanguageLockingShiftIdentifier,
             NationalLanguageIdentifier nationalLanguageSingleShiftIdentifier) {
         super(canonicalName, aliases);
+        this.sharedTables = true;
 
         if (nationalLanguageLockingShiftIdentifier == null) {
             this.mainTable = basicMap;
@@ -187,6 +198,92 @@ public class GSMCharset extends Charset {
         return new GSMCharsetEncoder(this, averageBytesPerChar, maxBytesPerChar);
     }
 
+    /**
+     * Returns the septet code of a char in the main character table or -1 if the char is absent there
+     *
+     * @param c
+     * @return
+     */
+    public int findMainCode(char c) {
+        return findCode(getMainEncodingTable(), c);
+    }
+
+    /**
+     * Returns the septet code (that follows an ESCAPE septet) of a char in the extension character table or -1 if the char is
+     * absent there or the extension character table is not defined
+     *
+     * @param c
+     * @return
+     */
+    public int findExtensionCode(char c) {
+        short[][] table = getExtensionEncodingTable();
+        return table != null ? findCode(table, c) : -1;
+    }
+
+    static int findCode(short[][] encodingTable, char c) {
+        short[] page = encodingTable[c >>> 8];
+        return page != null ? page[c & 0xFF] : -1;
+    }
+
+    short[][] getMainEncodingTable() {
+        short[][] table = this.mainEncodingTable;
+        if (table == null) {
+            table = obtainEncodingTable(this.mainTable, false, this.sharedTables);
+            this.mainEncodingTable = table;
+        }
+        return table;
+    }
+
+    short[][] getExtensionEncodingTable() {
+        if (this.extensionTable == null)
+            return null;
+        short[][] table = this.extensionEncodingTable;
+        if (table == null) {
+            table = obtainEncodingTable(this.extensionTable, true, this.sharedTables);
+            this.extensionEncodingTable = table;
+        }
+        return table;
+    }
+
+    private static short[][] obtainEncodingTable(int[] charTable, boolean extension, boolean shared) {
+        if (!shared)
+            return createEncodingTable(charTable, extension);
+
+        short[][] res = sharedEncodingTables.get(charTable);
+        if (res == null) {
+            res = createEncodingTable(charTable, extension);
+            short[][] prev = sharedEncodingTables.putIfAbsent(charTable, res);
+            if (prev != null)
+                res = prev;
+        }
+        return res;
+    }
+
+    /**
+     * Creates a reverse (char -> septet code) table for a character table. The table consists of 256 pages that are indexed by
+     * the high byte of a char; a page is created only if it contains at least one char. If a char is present in the character
+     * table several times the first septet code is used (as the former linear search did). Zero chars in an extension table
+     * mean "no char" and are not included.
+     */
+    private static short[][] createEncodingTable(int[] charTable, boolean extension) {
+        short[][] res = new short[256][];
+        int cnt = charTable.length < 128 ? charTable.length : 128;
+        for (int i = 0; i < cnt; i++) {
+            int c = charTable[i];
+            if (c < 0 || c > 0xFFFF || (extension && c == 0))
+                continue;
+            short[] page = res[c >>> 8];
+            if (page == null) {
+                page = new short[256];
+                Arrays.fill(page, (short) -1);
+                res[c >>> 8] = page;
+            }
+            if (page[c & 0xFF] < 0)
+                page[c & 0xFF] = (short) i;
+        }
+        return res;
+    }
+
     /**
      * Returns true if all characters in data String is included in main and extension encoding tables of the GSM7 charset
      *
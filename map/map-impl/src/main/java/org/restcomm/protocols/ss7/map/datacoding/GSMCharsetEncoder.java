@@ -122,32 +122,21 @@ public class GSMCharsetEncoder extends CharsetEncoder {
             char c = in.get();
             lastChar = c;
 
-            boolean found = false;
             // searching a char in the main character table
-            for (int i = 0; i < this.cs.mainTable.length; i++) {
-                if (this.cs.mainTable[i] == c) {
-                    found = true;
-                    this.putByte(i, out);
-                    break;
-                }
-            }
-
-            // searching a char in the extension character table
-            if (!found && this.cs.extensionTable != null) {
-                for (int i = 0; i < this.cs.mainTable.length; i++) {
-                    if (c != 0 && this.cs.extensionTable[i] == c) {
-                        found = true;
-                        this.putByte(GSMCharsetEncoder.ESCAPE, out);
-                        this.putByte(i, out);
-                        break;
-                    }
+            int code = this.cs.findMainCode(c);
+            if (code >= 0) {
+                this.putByte(code, out);
+            } else {
+                // searching a char in the extension character table
+                code = this.cs.findExtensionCode(c);
+                if (code >= 0) {
+                    this.putByte(GSMCharsetEncoder.ESCAPE, out);
+                    this.putByte(code, out);
+                } else {
+                    // found no suitable symbol - encode a space char
+                    this.putByte(0x20, out);
                 }
             }
-
-            if (!found) {
-                // found no suitable symbol - encode a space char
-                this.putByte(0x20, out);
-            }
         }
 
         if (out.limit() - out.position() < 1) {
@@ -0,0 +1,400 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.map.datacoding;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * Encoding and decoding of GSM 7-bit default alphabet (and national language shift tables) data without CharsetEncoder /
+ * CharsetDecoder. The result is the same as GSMCharsetEncoder / GSMCharsetDecoder produce for the same GSMCharset and
+ * GSMCharsetEncodingData / GSMCharsetDecodingData, but chars are looked up in reverse tables of GSMCharset and septets are
+ * packed / unpacked by 8 septets (7 octets) at once directly from / into a caller's buffer.
+ * </p>
+ * <br/>
+ * <p>
+ * For further details look at GSM 03.38 Specs
+ * </p>
+ */
+public final class Gsm7Codec {
+
+    // the flag of a septet code from the extension character table, such a code is encoded as ESCAPE + code
+    private static final int EXTENSION_FLAG = 0x80;
+
+    private Gsm7Codec() {
+    }
+
+    /**
+     * Returns the count of octets that encode(...) methods produce for data (including a leading buffer of encodingData)
+     *
+     * @param cs
+     * @param data
+     * @param encodingData can be null
+     * @return
+     */
+    public static int getEncodedLength(GSMCharset cs, CharSequence data, GSMCharsetEncodingData encodingData) {
+        short[][] mainTable = cs.getMainEncodingTable();
+        short[][] extensionTable = cs.getExtensionEncodingTable();
+        Gsm7EncodingStyle style = encodingData != null ? encodingData.encodingStyle : null;
+        byte[] leadingBuffer = encodingData != null ? encodingData.leadingBuffer : null;
+
+        int len = data.length();
+        int septetCount = 0;
+        for (int i = 0; i < len; i++) {
+            if (findCode(mainTable, extensionTable, data.charAt(i)) >= EXTENSION_FLAG)
+                septetCount += 2;
+            else
+                septetCount++;
+        }
+
+        int leadingLength = leadingBuffer != null ? leadingBuffer.length : 0;
+        if (style == Gsm7EncodingStyle.bit8_smpp_style)
+            return leadingLength + septetCount;
+
+        int bitCount = fillBitCount(leadingLength) + septetCount * 7;
+        if (style == Gsm7EncodingStyle.bit7_ussd_style && (bitCount & 7) == 0 && len > 0 && data.charAt(len - 1) == '\r')
+            bitCount += 8;
+        return leadingLength + (bitCount + 7) / 8;
+    }
+
+    /**
+     * Encodes data into a new byte array
+     *
+     * @param cs
+     * @param data
+     * @param encodingData can be null. totalSeptetCount of encodingData is updated
+     * @return
+     */
+    public static byte[] encode(GSMCharset cs, CharSequence data, GSMCharsetEncodingData encodingData) {
+        byte[] res = new byte[getEncodedLength(cs, data, encodingData)];
+        encode(cs, data, encodingData, res, 0);
+        return res;
+    }
+
+    /**
+     * Encodes data into a ByteBuffer starting from its current position. The position is advanced by the count of encoded
+     * octets.
+     *
+     * @param cs
+     * @param data
+     * @param encodingData can be null. totalSeptetCount of encodingData is updated
+     * @param out
+     * @throws BufferOverflowException if out has not enough remaining space
+     */
+    public static void encode(GSMCharset cs, CharSequence data, GSMCharsetEncodingData encodingData, ByteBuffer out) {
+        if (out.hasArray()) {
+            if (out.remaining() < getEncodedLength(cs, data, encodingData))
+                throw new BufferOverflowException();
+            int cnt = encode(cs, data, encodingData, out.array(), out.arrayOffset() + out.position());
+            out.position(out.position() + cnt);
+        } else {
+            out.put(encode(cs, data, encodingData));
+        }
+    }
+
+    /**
+     * Encodes data into buf starting from offset. buf must have at least getEncodedLength() octets after offset.
+     *
+     * @param cs
+     * @param data
+     * @param encodingData can be null. totalSeptetCount of encodingData is updated
+     * @param buf
+     * @param offset
+     * @return the count of encoded octets
+     */
+    public static int encode(GSMCharset cs, CharSequence data, GSMCharsetEncodingData encodingData, byte[] buf, int offset) {
+        short[][] mainTable = cs.getMainEncodingTable();
+        short[][] extensionTable = cs.getExtensionEncodingTable();
+        Gsm7EncodingStyle style = encodingData != null ? encodingData.encodingStyle : null;
+
+        int pos = offset;
+        int septetCount = 0;
+        // the count of collected but not yet written bits in acc
+        int bitCount = 0;
+        long acc = 0;
+
+        if (encodingData != null) {
+            encodingData.totalSeptetCount = 0;
+            encodingData.leadingBufferIsEncoded = false;
+            byte[] leadingBuffer = encodingData.leadingBuffer;
+            if (leadingBuffer != null) {
+                System.arraycopy(leadingBuffer, 0, buf, pos, leadingBuffer.length);
+                pos += leadingBuffer.length;
+                if (style != Gsm7EncodingStyle.bit8_smpp_style) {
+                    septetCount = (leadingBuffer.length * 8 + 6) / 7;
+                    bitCount = fillBitCount(leadingBuffer.length);
+                }
+                encodingData.leadingBufferIsEncoded = true;
+            }
+        }
+
+        int len = data.length();
+        if (style == Gsm7EncodingStyle.bit8_smpp_style) {
+            for (int i = 0; i < len; i++) {
+                int code = findCode(mainTable, extensionTable, data.charAt(i));
+                if (code >= EXTENSION_FLAG) {
+                    buf[pos++] = GSMCharset.ESCAPE;
+                    code &= 0x7F;
+                }
+                buf[pos++] = (byte) code;
+            }
+            return pos - offset;
+        }
+
+        char lastChar = ' ';
+        for (int i = 0; i < len; i++) {
+            char c = data.charAt(i);
+            lastChar = c;
+            int code = findCode(mainTable, extensionTable, c);
+            if (code >= EXTENSION_FLAG) {
+                acc |= (long) GSMCharset.ESCAPE << bitCount;
+                bitCount += 7;
+                septetCount++;
+                code &= 0x7F;
+                if (bitCount >= 56) {
+                    putOctets(acc, buf, pos);
+                    pos += 7;
+                    acc >>>= 56;
+                    bitCount -= 56;
+                }
+            }
+            acc |= (long) code << bitCount;
+            bitCount += 7;
+            septetCount++;
+            if (bitCount >= 56) {
+                putOctets(acc, buf, pos);
+                pos += 7;
+                acc >>>= 56;
+                bitCount -= 56;
+            }
+        }
+
+        if (style == Gsm7EncodingStyle.bit7_ussd_style) {
+            if ((bitCount & 7) == 1) {
+                // USSD: replace 7-bit pad with <CR>
+                acc |= 0x0DL << bitCount;
+                bitCount += 7;
+            } else if ((bitCount & 7) == 0 && lastChar == '\r') {
+                // USSD: adding extra <CR> if the last symbol is <CR> and no padding
+                acc |= 0x0DL << bitCount;
+                bitCount += 8;
+            }
+        }
+
+        // writing the rest of data (the last octet can be incomplete)
+        while (bitCount > 0) {
+            buf[pos++] = (byte) acc;
+            acc >>>= 8;
+            bitCount -= 8;
+        }
+
+        if (encodingData != null)
+            encodingData.totalSeptetCount = septetCount;
+        return pos - offset;
+    }
+
+    /**
+     * Returns the maximum count of chars that decode(...) methods can produce for length octets
+     *
+     * @param length
+     * @param decodingData can be null
+     * @return
+     */
+    public static int getMaxDecodedLength(int length, GSMCharsetDecodingData decodingData) {
+        if (decodingData != null && decodingData.encodingStyle == Gsm7EncodingStyle.bit8_smpp_style)
+            return length;
+        else
+            return length * 8 / 7;
+    }
+
+    /**
+     * Decodes the remaining content of a ByteBuffer. The position of the ByteBuffer is set to its limit.
+     *
+     * @param cs
+     * @param in
+     * @param decodingData can be null
+     * @return
+     */
+    public static String decode(GSMCharset cs, ByteBuffer in, GSMCharsetDecodingData decodingData) {
+        int length = in.remaining();
+        String res;
+        if (in.hasArray()) {
+            res = decode(cs, in.array(), in.arrayOffset() + in.position(), length, decodingData);
+            in.position(in.limit());
+        } else {
+            byte[] buf = new byte[length];
+            in.get(buf);
+            res = decode(cs, buf, 0, length, decodingData);
+        }
+        return res;
+    }
+
+    /**
+     * Decodes length octets of data starting from offset
+     *
+     * @param cs
+     * @param data
+     * @param offset
+     * @param length
+     * @param decodingData can be null
+     * @return
+     */
+    public static String decode(GSMCharset cs, byte[] data, int offset, int length, GSMCharsetDecodingData decodingData) {
+        char[] buf = new char[getMaxDecodedLength(length, decodingData)];
+        int cnt = decode(cs, data, offset, length, decodingData, buf, 0);
+        return new String(buf, 0, cnt);
+    }
+
+    /**
+     * Decodes length octets of data starting from offset into out starting from outOffset. out must have at least
+     * getMaxDecodedLength() chars after outOffset.
+     *
+     * @param cs
+     * @param data
+     * @param offset
+     * @param length
+     * @param decodingData can be null
+     * @param out
+     * @param outOffset
+     * @return the count of decoded chars
+     */
+    public static int decode(GSMCharset cs, byte[] data, int offset, int length, GSMCharsetDecodingData decodingData,
+            char[] out, int outOffset) {
+        int[] mainTable = cs.mainTable;
+        int[] extensionTable = cs.extensionTable;
+        Gsm7EncodingStyle style = null;
+        int skipCount = 0;
+        int totalCount = -1;
+        if (decodingData != null) {
+            style = decodingData.encodingStyle;
+            skipCount = decodingData.leadingSeptetSkipCount > 0 ? decodingData.leadingSeptetSkipCount : 0;
+            totalCount = decodingData.totalSeptetCount;
+        }
+
+        int septetCount;
+        if (style == Gsm7EncodingStyle.bit8_smpp_style) {
+            septetCount = length;
+        } else {
+            septetCount = length * 8 / 7;
+            // USSD: skip final '\r' char at the octet border
+            if (style == Gsm7EncodingStyle.bit7_ussd_style && length > 0 && length % 7 == 0
+                    && (data[offset + length - 1] & 0xFF) >>> 1 == '\r')
+                septetCount--;
+        }
+        if (totalCount >= 0 && totalCount < septetCount)
+            septetCount = totalCount;
+
+        int pos = outOffset;
+        boolean escape = false;
+
+        if (style == Gsm7EncodingStyle.bit8_smpp_style) {
+            for (int i = skipCount; i < septetCount; i++) {
+                int septet = data[offset + i];
+                int code = 0;
+                if (septet >= 0) {
+                    if (escape) {
+                        escape = false;
+                        if (extensionTable != null)
+                            code = extensionTable[septet];
+                    } else if (septet == GSMCharset.ESCAPE) {
+                        escape = true;
+                        continue;
+                    } else {
+                        code = mainTable[septet];
+                    }
+                }
+                out[pos++] = code == 0 ? ' ' : (char) code;
+            }
+            return pos - outOffset;
+        }
+
+        int ind = skipCount;
+        while (ind < septetCount) {
+            // loading of 7 octets that contain 8 septets (or less octets at the end of data)
+            int group = ind >>> 3;
+            int octetPos = offset + group * 7;
+            int octetCount = offset + length - octetPos;
+            long word;
+            if (octetCount >= 7) {
+                word = (data[octetPos] & 0xFFL) | (data[octetPos + 1] & 0xFFL) << 8 | (data[octetPos + 2] & 0xFFL) << 16
+                        | (data[octetPos + 3] & 0xFFL) << 24 | (data[octetPos + 4] & 0xFFL) << 32
+                        | (data[octetPos + 5] & 0xFFL) << 40 | (data[octetPos + 6] & 0xFFL) << 48;
+            } else {
+                word = 0;
+                for (int i = 0; i < octetCount; i++) {
+                    word |= (data[octetPos + i] & 0xFFL) << (i * 8);
+                }
+            }
+
+            int groupEnd = (group + 1) << 3;
+            if (groupEnd > septetCount)
+                groupEnd = septetCount;
+            for (; ind < groupEnd; ind++) {
+                int septet = (int) (word >>> ((ind & 7) * 7)) & 0x7F;
+                int code;
+                if (escape) {
+                    escape = false;
+                    code = extensionTable != null ? extensionTable[septet] : 0;
+                } else if (septet == GSMCharset.ESCAPE) {
+                    escape = true;
+                    continue;
+                } else {
+                    code = mainTable[septet];
+                }
+                out[pos++] = code == 0 ? ' ' : (char) code;
+            }
+        }
+        return pos - outOffset;
+    }
+
+    private static int findCode(short[][] mainTable, short[][] extensionTable, char c) {
+        int code = GSMCharset.findCode(mainTable, c);
+        if (code >= 0)
+            return code;
+        if (extensionTable != null) {
+            code = GSMCharset.findCode(extensionTable, c);
+            if (code >= 0)
+                return code | EXTENSION_FLAG;
+        }
+        // found no suitable symbol - encode a space char
+        return 0x20;
+    }
+
+    // the count of zero bits between a leading buffer (UserDataHeader) and the first septet so the first septet starts at a
+    // septet boundary
+    private static int fillBitCount(int leadingLength) {
+        int septetCount = (leadingLength * 8 + 6) / 7;
+        return septetCount * 7 - leadingLength * 8;
+    }
+
+    private static void putOctets(long acc, byte[] buf, int pos) {
+        buf[pos] = (byte) acc;
+        buf[pos + 1] = (byte) (acc >>> 8);
+        buf[pos + 2] = (byte) (acc >>> 16);
+        buf[pos + 3] = (byte) (acc >>> 24);
+        buf[pos + 4] = (byte) (acc >>> 32);
+        buf[pos + 5] = (byte) (acc >>> 40);
+        buf[pos + 6] = (byte) (acc >>> 48);
+    }
+}
@@ -28,13 +28,14 @@ import org.mobicents.protocols.asn.AsnInputStream;
 import org.mobicents.protocols.asn.AsnOutputStream;
 import org.restcomm.protocols.ss7.map.api.MAPException;
 import org.restcomm.protocols.ss7.map.api.MAPParsingComponentException;
+import org.restcomm.protocols.ss7.tcap.asn.ParameterContent;
 
 /**
  *
  * @author sergey vetyutnev
  *
  */
-public interface MAPAsnPrimitive extends Serializable {
+public interface MAPAsnPrimitive extends Serializable, ParameterContent.Primitive {
 
     int getTag() throws MAPException;
 
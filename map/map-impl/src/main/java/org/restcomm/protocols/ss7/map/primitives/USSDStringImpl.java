@@ -24,7 +24,6 @@ package org.restcomm.protocols.ss7.map.primitives;
 
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
-import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
 
 import org.restcomm.protocols.ss7.map.api.MAPException;
@@ -34,10 +33,9 @@ import org.restcomm.protocols.ss7.map.api.datacoding.CBSNationalLanguage;
 import org.restcomm.protocols.ss7.map.api.primitives.USSDString;
 import org.restcomm.protocols.ss7.map.datacoding.CBSDataCodingSchemeImpl;
 import org.restcomm.protocols.ss7.map.datacoding.GSMCharset;
-import org.restcomm.protocols.ss7.map.datacoding.GSMCharsetDecoder;
 import org.restcomm.protocols.ss7.map.datacoding.GSMCharsetDecodingData;
-import org.restcomm.protocols.ss7.map.datacoding.GSMCharsetEncoder;
 import org.restcomm.protocols.ss7.map.datacoding.GSMCharsetEncodingData;
+import org.restcomm.protocols.ss7.map.datacoding.Gsm7Codec;
 import org.restcomm.protocols.ss7.map.datacoding.Gsm7EncodingStyle;
 
 /**
@@ -53,6 +51,8 @@ public class USSDStringImpl extends OctetStringBase implements USSDString {
     private static GSMCharset gsm7Charset = new GSMCharset("GSM", new String[] {});
     private static GSMCharset gsm7Charset_Urdu = new GSMCharset("GSM", new String[] {}, GSMCharset.urduMap,
             GSMCharset.urduExtentionMap);
+    private static final GSMCharsetDecodingData ussdDecodingData = new GSMCharsetDecodingData(Gsm7EncodingStyle.bit7_ussd_style,
+            Integer.MAX_VALUE, 0);
     private static Charset ucs2Charset = Charset.forName("UTF-16BE");
 
     public USSDStringImpl(CBSDataCodingScheme dataCodingScheme) {
@@ -91,26 +91,16 @@ public class USSDStringImpl extends OctetStringBase implements USSDString {
 
             switch (dataCodingScheme.getCharacterSet()) {
                 case GSM7:
-                    Charset cSet = gsm7Charset;
+                    GSMCharset cSet = gsm7Charset;
                     if (dataCodingScheme.getNationalLanguageShiftTable() == CBSNationalLanguage.Arabic) {
                         cSet = gsm7Charset_Urdu;
                     }
-                    GSMCharsetEncoder encoder = (GSMCharsetEncoder) cSet.newEncoder();
-                    encoder.setGSMCharsetEncodingData(new GSMCharsetEncodingData(Gsm7EncodingStyle.bit7_ussd_style, null));
-                    ByteBuffer bb = null;
-                    try {
-                        bb = encoder.encode(CharBuffer.wrap(ussdString));
-                    } catch (Exception e) {
-                        // This can not occur
-                    }
-                    if (bb != null) {
-                        this.data = new byte[bb.limit()];
-                        bb.get(this.data);
-                    } else
-                        this.data = new byte[0];
+                    this.data = Gsm7Codec.encode(cSet, ussdString, new GSMCharsetEncodingData(Gsm7EncodingStyle.bit7_ussd_style,
+                            null));
                     break;
 
                 case GSM8:
+                    ByteBuffer bb;
                     if (gsm8Charset != null) {
                         bb = gsm8Charset.encode(ussdString);
                         this.data = new byte[bb.limit()];
@@ -129,22 +119,8 @@ public class USSDStringImpl extends OctetStringBase implements USSDString {
                             ussdString = ussdString + " ";
                         if (ussdString.length() < 3)
                             ussdString = ussdString + "\n";
-                        cSet = gsm7Charset;
-                        encoder = (GSMCharsetEncoder) cSet.newEncoder();
-                        encoder.setGSMCharsetEncodingData(new GSMCharsetEncodingData(Gsm7EncodingStyle.bit7_ussd_style, null));
-                        bb = null;
-                        try {
-                            String sb = ussdString.substring(0, 3);
-                            bb = encoder.encode(CharBuffer.wrap(sb));
-                        } catch (Exception e) {
-                            // This can not occur
-                        }
-                        byte[] buf1;
-                        if (bb != null) {
-                            buf1 = new byte[bb.limit()];
-                            bb.get(buf1);
-                        } else
-                            buf1 = new byte[0];
+                        byte[] buf1 = Gsm7Codec.encode(gsm7Charset, ussdString.substring(0, 3), new GSMCharsetEncodingData(
+                                Gsm7EncodingStyle.bit7_ussd_style, null));
 
                         String sb2 = ussdString.substring(3);
                         bb = ucs2Charset.encode(sb2);
@@ -187,21 +163,12 @@ public class USSDStringImpl extends OctetStringBase implements USSDString {
                     if (dataCodingScheme.getNationalLanguageShiftTable() == CBSNationalLanguage.Arabic) {
                         cSet = gsm7Charset_Urdu;
                     }
-                    GSMCharsetDecoder decoder = (GSMCharsetDecoder) cSet.newDecoder();
-                    decoder.setGSMCharsetDecodingData(new GSMCharsetDecodingData(Gsm7EncodingStyle.bit7_ussd_style,
-                            Integer.MAX_VALUE, 0));
-                    ByteBuffer bb = ByteBuffer.wrap(this.data);
-                    CharBuffer bf = null;
-                    try {
-                        bf = decoder.decode(bb);
-                    } catch (CharacterCodingException e) {
-                        // This can not occur
-                    }
-                    if (bf != null)
-                        res = bf.toString();
+                    res = Gsm7Codec.decode(cSet, this.data, 0, this.data.length, ussdDecodingData);
                     break;
 
                 case GSM8:
+                    ByteBuffer bb;
+                    CharBuffer bf;
                     if (gsm8Charset != null) {
                         byte[] buf = this.data;
                         bb = ByteBuffer.wrap(buf);
@@ -214,23 +181,8 @@ public class USSDStringImpl extends OctetStringBase implements USSDString {
                     String pref = "";
                     byte[] buf = this.data;
                     if (dataCodingScheme.getDataCodingGroup() == CBSDataCodingGroup.GeneralWithLanguageIndication) {
-                        cSet = gsm7Charset;
-                        decoder = (GSMCharsetDecoder) cSet.newDecoder();
-                        decoder.setGSMCharsetDecodingData(new GSMCharsetDecodingData(Gsm7EncodingStyle.bit7_ussd_style,
-                                Integer.MAX_VALUE, 0));
-                        byte[] buf2 = new byte[3];
-                        if (this.data.length < 3)
-                            buf2 = new byte[this.data.length];
-                        System.arraycopy(this.data, 0, buf2, 0, buf2.length);
-                        bb = ByteBuffer.wrap(buf2);
-                        bf = null;
-                        try {
-                            bf = decoder.decode(bb);
-                        } catch (CharacterCodingException e) {
-                            // This can not occur
-                        }
-                        if (bf != null)
-                            pref = bf.toString();
+                        pref = Gsm7Codec.decode(gsm7Charset, this.data, 0, this.data.length < 3 ? this.data.length : 3,
+                                ussdDecodingData);
 
                         if (this.data.length <= 3) {
                             buf = new byte[0];
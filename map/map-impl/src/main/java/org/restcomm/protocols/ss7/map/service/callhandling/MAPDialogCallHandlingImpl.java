@@ -22,7 +22,6 @@
 
 package org.restcomm.protocols.ss7.map.service.callhandling;
 
-import org.mobicents.protocols.asn.AsnOutputStream;
 import org.restcomm.protocols.ss7.map.MAPDialogImpl;
 import org.restcomm.protocols.ss7.map.MAPProviderImpl;
 import org.restcomm.protocols.ss7.map.api.MAPApplicationContext;
@@ -64,6 +63,7 @@ import org.restcomm.protocols.ss7.map.api.service.supplementary.ForwardingReason
 import org.restcomm.protocols.ss7.map.api.service.supplementary.SSCode;
 import org.restcomm.protocols.ss7.tcap.api.TCAPException;
 import org.restcomm.protocols.ss7.tcap.api.tc.dialog.Dialog;
+import org.restcomm.protocols.ss7.tcap.asn.ParameterContent;
 import org.restcomm.protocols.ss7.tcap.asn.comp.Invoke;
 import org.restcomm.protocols.ss7.tcap.asn.comp.OperationCode;
 import org.restcomm.protocols.ss7.tcap.asn.comp.Parameter;
@@ -168,14 +168,11 @@ public class MAPDialogCallHandlingImpl extends MAPDialogImpl implements MAPDialo
                     callDiversionTreatmentIndicator, longFTNSupported, suppressVtCSI, suppressIncomingCallBarring,
                     gsmSCFInitiatedCall, basicServiceGroup2, networkSignalInfo2, supressMTSS, mtRoamingRetrySupported,
                     callPriority);
-            AsnOutputStream aos = new AsnOutputStream();
-            req.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
             invoke.setParameter(p);
         }
 
@@ -262,14 +259,12 @@ public class MAPDialogCallHandlingImpl extends MAPDialogImpl implements MAPDialo
                     naeaPreferredCI, ccbsIndicators, msisdn, nrPortabilityStatus, istAlertTimer, supportedCamelPhases,
                     offeredCamel4CSIs, routingInfo2, ssList2, basicService2, allowedServices, unavailabilityCause,
                     releaseResourcesSupported, gsmBearerCapability);
-            AsnOutputStream aos = new AsnOutputStream();
-            res.encodeData(aos);
 
             p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(res.getTagClass());
             p.setPrimitive(res.getIsPrimitive());
             p.setTag(res.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, res);
         }
 
         if (nonLast) {
@@ -347,14 +342,11 @@ public class MAPDialogCallHandlingImpl extends MAPDialogImpl implements MAPDialo
                 additionalSignalInfo, orNotSupportedInGMSC, prePagingSupported, longFTNSupported, suppressVtCsi,
                 offeredCamel4CSIsInInterrogatingNode, mtRoamingRetrySupported, pagingArea, callPriority, mtrfIndicator,
                 oldMSCNumber, this.appCntx.getApplicationContextVersion().getVersion());
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -392,14 +384,11 @@ public class MAPDialogCallHandlingImpl extends MAPDialogImpl implements MAPDialo
 
         ProvideRoamingNumberResponseImpl res = new ProvideRoamingNumberResponseImpl(roamingNumber, extensionContainer,
                 releaseResourcesSupported, vmscAddress, this.appCntx.getApplicationContextVersion().getVersion());
-        AsnOutputStream aos = new AsnOutputStream();
-        res.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(res.getTagClass());
         p.setPrimitive(res.getIsPrimitive());
         p.setTag(res.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, res);
         resultLast.setParameter(p);
 
         this.sendReturnResultLastComponent(resultLast);
@@ -430,14 +419,11 @@ public class MAPDialogCallHandlingImpl extends MAPDialogImpl implements MAPDialo
         invoke.setOperationCode(oc);
 
         IstCommandRequestImpl req = new IstCommandRequestImpl(imsi, extensionContainer);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -473,14 +459,11 @@ public class MAPDialogCallHandlingImpl extends MAPDialogImpl implements MAPDialo
 
         if (extensionContainer!=null) {
             IstCommandResponseImpl res = new IstCommandResponseImpl(extensionContainer);
-            AsnOutputStream aos = new AsnOutputStream();
-            res.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(res.getTagClass());
             p.setPrimitive(res.getIsPrimitive());
             p.setTag(res.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, res);
             resultLast.setParameter(p);
         }
         this.sendReturnResultLastComponent(resultLast);
@@ -158,6 +158,7 @@ import org.restcomm.protocols.ss7.map.service.mobility.subscriberManagement.Inse
 import org.restcomm.protocols.ss7.tcap.api.TCAPException;
 import org.restcomm.protocols.ss7.tcap.api.tc.component.InvokeClass;
 import org.restcomm.protocols.ss7.tcap.api.tc.dialog.Dialog;
+import org.restcomm.protocols.ss7.tcap.asn.ParameterContent;
 import org.restcomm.protocols.ss7.tcap.asn.TcapFactory;
 import org.restcomm.protocols.ss7.tcap.asn.comp.Invoke;
 import org.restcomm.protocols.ss7.tcap.asn.comp.OperationCode;
@@ -213,14 +214,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
                     .getApplicationContextVersion().getVersion(), imsi, numberOfRequestedVectors, segmentationProhibited,
                     immediateResponsePreferred, reSynchronisationInfo, extensionContainer, requestingNodeType,
                     requestingPlmnId, numberOfRequestedAdditionalVectors, additionalVectorsAreForEPS);
-            AsnOutputStream aos = new AsnOutputStream();
-            req.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
             invoke.setParameter(p);
         }
 
@@ -271,14 +269,12 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
             SendAuthenticationInfoResponseImpl req = new SendAuthenticationInfoResponseImpl(this.appCntx
                     .getApplicationContextVersion().getVersion(), authenticationSetList, extensionContainer,
                     epsAuthenticationSetList);
-            AsnOutputStream aos = new AsnOutputStream();
-            req.encodeData(aos);
 
             p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
         }
 
         if (nonLast) {
@@ -335,14 +331,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
 
         AuthenticationFailureReportRequestImpl req = new AuthenticationFailureReportRequestImpl(imsi, failureCause, extensionContainer, reAttempt, accessType,
                 rand, vlrNumber, sgsnNumber);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -377,14 +370,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
             resultLast.setOperationCode(oc);
 
             AuthenticationFailureReportResponseImpl req = new AuthenticationFailureReportResponseImpl(extensionContainer);
-            AsnOutputStream aos = new AsnOutputStream();
-            req.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
             resultLast.setParameter(p);
         }
 
@@ -427,14 +417,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
                 imsi, mscNumber, roamingNumber, vlrNumber, lmsi, extensionContainer, vlrCapability,
                 informPreviousNetworkEntity, csLCSNotSupportedByUE, vGmlcAddress, addInfo, pagingArea,
                 skipSubscriberDataUpdate, restorationIndicator);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -472,14 +459,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
 
         UpdateLocationResponseImpl req = new UpdateLocationResponseImpl(this.appCntx.getApplicationContextVersion()
                 .getVersion(), hlrNumber, extensionContainer, addCapability, pagingAreaCapability);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         resultLast.setParameter(p);
 
         this.sendReturnResultLastComponent(resultLast);
@@ -534,14 +518,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
         AnyTimeInterrogationRequestImpl req = new AnyTimeInterrogationRequestImpl(subscriberIdentity, requestedInfo,
                 gsmSCFAddress, extensionContainer);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -582,8 +563,6 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
                     "Bad application context name for AnyTimeInterrogationRequest: must be networkLocUpContext_V3");
 
         AnyTimeInterrogationResponseImpl req = new AnyTimeInterrogationResponseImpl(subscriberInfo, extensionContainer);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
 
         // Operation Code
         OperationCode oc = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createOperationCode();
@@ -600,7 +579,7 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
             resultLastNonLast.setParameter(p);
 
             this.sendReturnResultComponent(resultLastNonLast);
@@ -615,7 +594,7 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
             resultLast.setParameter(p);
 
             this.sendReturnResultLastComponent(resultLast);
@@ -649,14 +628,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
         invoke.setOperationCode(oc);
 
         AnyTimeSubscriptionInterrogationRequestImpl req = new AnyTimeSubscriptionInterrogationRequestImpl(subscriberIdentity, requestedSubscriptionInfo, gsmSCFAddress, extensionContainer, isLongFTNSupported);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -715,8 +691,6 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
         AnyTimeSubscriptionInterrogationResponseImpl req = new AnyTimeSubscriptionInterrogationResponseImpl(callForwardingData, callBarringData, odbInfo,
                 camelSubscriptionInfo, supportedVlrCamelPhases, supportedSgsnCamelPhases, extensionContainer, offeredCamel4CSIsInVlr, offeredCamel4CSIsInSgsn,
                 msisdnBsList, csgSubscriptionDataList, callWaitingData, callHoldData, clipData, clirData, ectData);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
 
         // Operation Code
         OperationCode oc = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createOperationCode();
@@ -726,7 +700,7 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
 
         if (nonLast) {
             ReturnResult resultNonLast = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory()
@@ -778,14 +752,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
 
         ProvideSubscriberInfoRequestImpl req = new ProvideSubscriberInfoRequestImpl(imsi, lmsi, requestedInfo, extensionContainer, callPriority);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -823,8 +794,6 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
                     "Bad application context name for ProvideSubscriberInfoResponse: must be subscriberInfoEnquiryContext_V3");
 
         ProvideSubscriberInfoResponseImpl req = new ProvideSubscriberInfoResponseImpl(subscriberInfo, extensionContainer);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
 
         // Operation Code
         OperationCode oc = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createOperationCode();
@@ -842,7 +811,7 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
             resultLastNonLast.setParameter(p);
 
             this.sendReturnResultComponent(resultLastNonLast);
@@ -858,7 +827,7 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
             resultLast.setParameter(p);
 
             this.sendReturnResultLastComponent(resultLast);
@@ -899,14 +868,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
         CheckImeiRequestImpl req = new CheckImeiRequestImpl(this.appCntx.getApplicationContextVersion().getVersion(), imei,
                 requestedEquipmentInfo, extensionContainer);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -944,14 +910,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
 
         CheckImeiResponseImpl resp = new CheckImeiResponseImpl(this.appCntx.getApplicationContextVersion().getVersion(),
                 equipmentStatus, bmuef, extensionContainer);
-        AsnOutputStream aos = new AsnOutputStream();
-        resp.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(resp.getTagClass());
         p.setPrimitive(resp.getIsPrimitive());
         p.setTag(resp.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, resp);
         resultLast.setParameter(p);
 
         this.sendReturnResultLastComponent(resultLast);
@@ -991,7 +954,7 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
         CheckImeiRequestImpl req = new CheckImeiRequestImpl(this.appCntx.getApplicationContextVersion().getVersion(), imei,
                 requestedEquipmentInfo, extensionContainer);
         req.setIMSI(imsi);
-
+        // encoded length is known only after encoding, so this request is encoded at once
         AsnOutputStream aos = new AsnOutputStream();
         req.encodeData(aos);
 
@@ -1133,14 +1096,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
                 csgSubscriptionDataList, ueReachabilityRequestIndicator, sgsnNumber, mmeName, subscribedPeriodicRAUTAUtimer,
                 vplmnLIPAAllowed, mdtUserConsent, subscribedPeriodicLAUtimer);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -1208,14 +1168,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
             InsertSubscriberDataResponseImpl resp = new InsertSubscriberDataResponseImpl(this.appCntx.getApplicationContextVersion().getVersion(),
                     teleserviceList, bearerServiceList, ssList, odbGeneralData, regionalSubscriptionResponse, supportedCamelPhases, extensionContainer,
                     offeredCamel4CSIs, supportedFeatures);
-            AsnOutputStream aos = new AsnOutputStream();
-            resp.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(resp.getTagClass());
             p.setPrimitive(resp.getIsPrimitive());
             p.setTag(resp.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, resp);
             resultLast.setParameter(p);
         }
 
@@ -1273,14 +1230,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
                 istInformationWithdraw, specificCSIWithdraw, chargingCharacteristicsWithdraw, stnSrWithdraw, epsSubscriptionDataWithdraw,
                 apnOiReplacementWithdraw, csgSubscriptionDeleted);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -1319,14 +1273,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
 
         if ((regionalSubscriptionResponse != null || extensionContainer != null) && this.appCntx.getApplicationContextVersion().getVersion() != 1) {
             DeleteSubscriberDataResponseImpl resp = new DeleteSubscriberDataResponseImpl(regionalSubscriptionResponse, extensionContainer);
-            AsnOutputStream aos = new AsnOutputStream();
-            resp.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(resp.getTagClass());
             p.setPrimitive(resp.getIsPrimitive());
             p.setTag(resp.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, resp);
             resultLast.setParameter(p);
         }
 
@@ -1370,14 +1321,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
                 typeOfUpdate, mtrfSupportedAndAuthorized, mtrfSupportedAndNotAuthorized, newMSCNumber, newVLRNumber, newLmsi,
                 this.appCntx.getApplicationContextVersion().getVersion());
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -1417,14 +1365,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
         if (extensionContainer != null) {
             CancelLocationResponseImpl req = new CancelLocationResponseImpl(extensionContainer);
 
-            AsnOutputStream aos = new AsnOutputStream();
-            req.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
             resultLast.setParameter(p);
         }
 
@@ -1467,14 +1412,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
                 segmentationProhibited, extensionContainer, mscNumber, previousLAI, hopCounter, mtRoamingForwardingSupported,
                 newVLRNumber, lmsi, this.appCntx.getApplicationContextVersion().getVersion());
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -1522,14 +1464,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
 
         SendIdentificationResponseImpl req = new SendIdentificationResponseImpl(imsi, authenticationSetList,
                 currentSecurityContext, extensionContainer, this.appCntx.getApplicationContextVersion().getVersion());
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
 
         if (nonLast) {
             ReturnResult resultLastNonLast = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory()
@@ -1582,14 +1521,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
                 nodeTypeIndicator, areaRestricted, ueReachableIndicator, epsSubscriptionDataNotNeeded, uesrvccCapability,
                 this.appCntx.getApplicationContextVersion().getVersion());
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -1643,14 +1579,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
         UpdateGprsLocationResponseImpl req = new UpdateGprsLocationResponseImpl(hlrNumber, extensionContainer, addCapability,
                 sgsnMmeSeparationSupported);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         resultLast.setParameter(p);
 
         this.sendReturnResultLastComponent(resultLast);
@@ -1679,14 +1612,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
         PurgeMSRequestImpl req = new PurgeMSRequestImpl(imsi, vlrNumber, sgsnNumber, extensionContainer, this.appCntx
                 .getApplicationContextVersion().getVersion());
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -1729,14 +1659,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
         PurgeMSResponseImpl resp = new PurgeMSResponseImpl(freezeTMSI, freezePTMSI, extensionContainer, freezeMTMSI);
 
         if (this.appCntx.getApplicationContextVersion().getVersion() >= 3 && (freezeTMSI || freezePTMSI || extensionContainer != null || freezeMTMSI)) {
-            AsnOutputStream aos = new AsnOutputStream();
-            resp.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(resp.getTagClass());
             p.setPrimitive(resp.getIsPrimitive());
             p.setTag(resp.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, resp);
             resultLast.setParameter(p);
         }
 
@@ -1768,14 +1695,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
         int version = this.appCntx.getApplicationContextVersion().getVersion();
         ResetRequestImpl req = new ResetRequestImpl(networkResource, hlrNumber, hlrList, version);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -1854,14 +1778,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
 
         RestoreDataRequestImpl req = new RestoreDataRequestImpl(imsi, lmsi, vlrCapability, extensionContainer, restorationIndicator);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -1896,14 +1817,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
 
         RestoreDataResponseImpl resp = new RestoreDataResponseImpl(hlrNumber, msNotReachable, extensionContainer);
 
-        AsnOutputStream aos = new AsnOutputStream();
-        resp.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(resp.getTagClass());
         p.setPrimitive(resp.getIsPrimitive());
         p.setTag(resp.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, resp);
         resultLast.setParameter(p);
 
         this.sendReturnResultLastComponent(resultLast);
@@ -1955,14 +1873,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
 
         ActivateTraceModeRequestImpl_Mobility req = new ActivateTraceModeRequestImpl_Mobility(imsi, traceReference, traceType, omcId, extensionContainer, traceReference2,
                 traceDepthList, traceNeTypeList, traceInterfaceList, traceEventList, traceCollectionEntity, mdtConfiguration);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -2011,14 +1926,11 @@ public class MAPDialogMobilityImpl extends MAPDialogImpl implements MAPDialogMob
             resultLast.setOperationCode(oc);
 
             ActivateTraceModeResponseImpl_Mobility req = new ActivateTraceModeResponseImpl_Mobility(extensionContainer, traceSupportIndicator);
-            AsnOutputStream aos = new AsnOutputStream();
-            req.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
             resultLast.setParameter(p);
         }
 
@@ -22,7 +22,6 @@
 
 package org.restcomm.protocols.ss7.map.service.oam;
 
-import org.mobicents.protocols.asn.AsnOutputStream;
 import org.restcomm.protocols.ss7.map.MAPDialogImpl;
 import org.restcomm.protocols.ss7.map.MAPProviderImpl;
 import org.restcomm.protocols.ss7.map.api.MAPApplicationContext;
@@ -47,6 +46,7 @@ import org.restcomm.protocols.ss7.map.api.service.oam.TraceReference2;
 import org.restcomm.protocols.ss7.map.api.service.oam.TraceType;
 import org.restcomm.protocols.ss7.tcap.api.TCAPException;
 import org.restcomm.protocols.ss7.tcap.api.tc.dialog.Dialog;
+import org.restcomm.protocols.ss7.tcap.asn.ParameterContent;
 import org.restcomm.protocols.ss7.tcap.asn.comp.Invoke;
 import org.restcomm.protocols.ss7.tcap.asn.comp.OperationCode;
 import org.restcomm.protocols.ss7.tcap.asn.comp.Parameter;
@@ -111,14 +111,11 @@ public class MAPDialogOamImpl extends MAPDialogImpl implements MAPDialogOam {
 
         ActivateTraceModeRequestImpl_Oam req = new ActivateTraceModeRequestImpl_Oam(imsi, traceReference, traceType, omcId, extensionContainer, traceReference2,
                 traceDepthList, traceNeTypeList, traceInterfaceList, traceEventList, traceCollectionEntity, mdtConfiguration);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -167,14 +164,11 @@ public class MAPDialogOamImpl extends MAPDialogImpl implements MAPDialogOam {
             resultLast.setOperationCode(oc);
 
             ActivateTraceModeResponseImpl_Oam req = new ActivateTraceModeResponseImpl_Oam(extensionContainer, traceSupportIndicator);
-            AsnOutputStream aos = new AsnOutputStream();
-            req.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
             resultLast.setParameter(p);
         }
 
@@ -203,14 +197,11 @@ public class MAPDialogOamImpl extends MAPDialogImpl implements MAPDialogOam {
         invoke.setOperationCode(oc);
 
         SendImsiRequestImpl req = new SendImsiRequestImpl(msisdn);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -242,14 +233,11 @@ public class MAPDialogOamImpl extends MAPDialogImpl implements MAPDialogOam {
         resultLast.setOperationCode(oc);
 
         SendImsiResponseImpl req = new SendImsiResponseImpl(imsi);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         resultLast.setParameter(p);
 
         this.sendReturnResultLastComponent(resultLast);
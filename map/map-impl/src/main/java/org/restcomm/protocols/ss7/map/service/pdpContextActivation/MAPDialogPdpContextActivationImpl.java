@@ -22,7 +22,6 @@
 
 package org.restcomm.protocols.ss7.map.service.pdpContextActivation;
 
-import org.mobicents.protocols.asn.AsnOutputStream;
 import org.restcomm.protocols.ss7.map.MAPDialogImpl;
 import org.restcomm.protocols.ss7.map.MAPProviderImpl;
 import org.restcomm.protocols.ss7.map.api.MAPApplicationContext;
@@ -39,6 +38,7 @@ import org.restcomm.protocols.ss7.map.api.service.pdpContextActivation.MAPDialog
 import org.restcomm.protocols.ss7.map.api.service.pdpContextActivation.MAPServicePdpContextActivation;
 import org.restcomm.protocols.ss7.tcap.api.TCAPException;
 import org.restcomm.protocols.ss7.tcap.api.tc.dialog.Dialog;
+import org.restcomm.protocols.ss7.tcap.asn.ParameterContent;
 import org.restcomm.protocols.ss7.tcap.asn.comp.Invoke;
 import org.restcomm.protocols.ss7.tcap.asn.comp.OperationCode;
 import org.restcomm.protocols.ss7.tcap.asn.comp.Parameter;
@@ -83,14 +83,11 @@ public class MAPDialogPdpContextActivationImpl extends MAPDialogImpl implements
         invoke.setOperationCode(oc);
 
         SendRoutingInfoForGprsRequestImpl req = new SendRoutingInfoForGprsRequestImpl(imsi, ggsnAddress, ggsnNumber, extensionContainer);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -125,14 +122,11 @@ public class MAPDialogPdpContextActivationImpl extends MAPDialogImpl implements
         resultLast.setOperationCode(oc);
 
         SendRoutingInfoForGprsResponseImpl resp = new SendRoutingInfoForGprsResponseImpl(sgsnAddress, ggsnAddress, mobileNotReachableReason, extensionContainer);
-        AsnOutputStream aos = new AsnOutputStream();
-        resp.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(resp.getTagClass());
         p.setPrimitive(resp.getIsPrimitive());
         p.setTag(resp.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, resp);
         resultLast.setParameter(p);
 
         this.sendReturnResultLastComponent(resultLast);
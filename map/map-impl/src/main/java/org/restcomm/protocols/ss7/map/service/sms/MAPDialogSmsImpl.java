@@ -22,7 +22,6 @@
 
 package org.restcomm.protocols.ss7.map.service.sms;
 
-import org.mobicents.protocols.asn.AsnOutputStream;
 import org.restcomm.protocols.ss7.map.MAPDialogImpl;
 import org.restcomm.protocols.ss7.map.MAPProviderImpl;
 import org.restcomm.protocols.ss7.map.api.MAPApplicationContext;
@@ -52,6 +51,7 @@ import org.restcomm.protocols.ss7.map.api.service.sms.SmsSignalInfo;
 import org.restcomm.protocols.ss7.tcap.api.TCAPException;
 import org.restcomm.protocols.ss7.tcap.api.tc.component.InvokeClass;
 import org.restcomm.protocols.ss7.tcap.api.tc.dialog.Dialog;
+import org.restcomm.protocols.ss7.tcap.asn.ParameterContent;
 import org.restcomm.protocols.ss7.tcap.asn.comp.Invoke;
 import org.restcomm.protocols.ss7.tcap.asn.comp.OperationCode;
 import org.restcomm.protocols.ss7.tcap.asn.comp.Parameter;
@@ -99,14 +99,11 @@ public class MAPDialogSmsImpl extends MAPDialogImpl implements MAPDialogSms {
 
         ForwardShortMessageRequestImpl req = new ForwardShortMessageRequestImpl(sm_RP_DA, sm_RP_OA, sm_RP_UI,
                 moreMessagesToSend);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -166,14 +163,11 @@ public class MAPDialogSmsImpl extends MAPDialogImpl implements MAPDialogSms {
 
         MoForwardShortMessageRequestImpl req = new MoForwardShortMessageRequestImpl(sm_RP_DA, sm_RP_OA, sm_RP_UI,
                 extensionContainer, imsi);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -210,14 +204,11 @@ public class MAPDialogSmsImpl extends MAPDialogImpl implements MAPDialogSms {
         if (sm_RP_UI != null || extensionContainer != null) {
 
             MoForwardShortMessageResponseImpl req = new MoForwardShortMessageResponseImpl(sm_RP_UI, extensionContainer);
-            AsnOutputStream aos = new AsnOutputStream();
-            req.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
             resultLast.setParameter(p);
         }
 
@@ -252,14 +243,11 @@ public class MAPDialogSmsImpl extends MAPDialogImpl implements MAPDialogSms {
 
             MtForwardShortMessageRequestImpl req = new MtForwardShortMessageRequestImpl(sm_RP_DA, sm_RP_OA, sm_RP_UI,
                     moreMessagesToSend, extensionContainer);
-            AsnOutputStream aos = new AsnOutputStream();
-            req.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
             invoke.setParameter(p);
 
             Long invokeId = this.tcapDialog.getNewInvokeId();
@@ -295,14 +283,11 @@ public class MAPDialogSmsImpl extends MAPDialogImpl implements MAPDialogSms {
         if (sm_RP_UI != null || extensionContainer != null) {
 
             MtForwardShortMessageResponseImpl resp = new MtForwardShortMessageResponseImpl(sm_RP_UI, extensionContainer);
-            AsnOutputStream aos = new AsnOutputStream();
-            resp.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(resp.getTagClass());
             p.setPrimitive(resp.getIsPrimitive());
             p.setTag(resp.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, resp);
             resultLast.setParameter(p);
         }
 
@@ -345,14 +330,11 @@ public class MAPDialogSmsImpl extends MAPDialogImpl implements MAPDialogSms {
             SendRoutingInfoForSMRequestImpl req = new SendRoutingInfoForSMRequestImpl(msisdn, sm_RP_PRI, serviceCentreAddress,
                     extensionContainer, gprsSupportIndicator, sM_RP_MTI, sM_RP_SMEA, smDeliveryNotIntended,
                     ipSmGwGuidanceIndicator, imsi, t4TriggerIndicator, singleAttemptDelivery, teleservice, correlationId);
-            AsnOutputStream aos = new AsnOutputStream();
-            req.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
             invoke.setParameter(p);
 
             Long invokeId = this.tcapDialog.getNewInvokeId();
@@ -388,14 +370,11 @@ public class MAPDialogSmsImpl extends MAPDialogImpl implements MAPDialogSms {
 
         SendRoutingInfoForSMResponseImpl resp = new SendRoutingInfoForSMResponseImpl(imsi, locationInfoWithLMSI,
                 extensionContainer, mwdSet, ipSmGwGuidance);
-        AsnOutputStream aos = new AsnOutputStream();
-        resp.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(resp.getTagClass());
         p.setPrimitive(resp.getIsPrimitive());
         p.setTag(resp.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, resp);
         resultLast.setParameter(p);
 
         this.sendReturnResultLastComponent(resultLast);
@@ -441,14 +420,11 @@ public class MAPDialogSmsImpl extends MAPDialogImpl implements MAPDialogSms {
                     .getApplicationContextVersion().getVersion(), msisdn, serviceCentreAddress, sMDeliveryOutcome,
                     absentSubscriberDiagnosticSM, extensionContainer, gprsSupportIndicator, deliveryOutcomeIndicator,
                     additionalSMDeliveryOutcome, additionalAbsentSubscriberDiagnosticSM);
-            AsnOutputStream aos = new AsnOutputStream();
-            req.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
             invoke.setParameter(p);
 
             Long invokeId = this.tcapDialog.getNewInvokeId();
@@ -486,14 +462,11 @@ public class MAPDialogSmsImpl extends MAPDialogImpl implements MAPDialogSms {
                 && storedMSISDN != null) {
             ReportSMDeliveryStatusResponseImpl resp = new ReportSMDeliveryStatusResponseImpl(vers.getVersion(), storedMSISDN,
                     extensionContainer);
-            AsnOutputStream aos = new AsnOutputStream();
-            resp.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(resp.getTagClass());
             p.setPrimitive(resp.getIsPrimitive());
             p.setTag(resp.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, resp);
             resultLast.setParameter(p);
         }
 
@@ -532,14 +505,11 @@ public class MAPDialogSmsImpl extends MAPDialogImpl implements MAPDialogSms {
 
             InformServiceCentreRequestImpl req = new InformServiceCentreRequestImpl(storedMSISDN, mwStatus, extensionContainer,
                     absentSubscriberDiagnosticSM, additionalAbsentSubscriberDiagnosticSM);
-            AsnOutputStream aos = new AsnOutputStream();
-            req.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
             invoke.setParameter(p);
 
             Long invokeId = this.tcapDialog.getNewInvokeId();
@@ -588,14 +558,11 @@ public class MAPDialogSmsImpl extends MAPDialogImpl implements MAPDialogSms {
             invoke.setOperationCode(oc);
 
             AlertServiceCentreRequestImpl req = new AlertServiceCentreRequestImpl(msisdn, serviceCentreAddress);
-            AsnOutputStream aos = new AsnOutputStream();
-            req.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
             invoke.setParameter(p);
 
             Long invokeId = this.tcapDialog.getNewInvokeId();
@@ -655,14 +622,11 @@ public class MAPDialogSmsImpl extends MAPDialogImpl implements MAPDialogSms {
         invoke.setOperationCode(oc);
 
         ReadyForSMRequestImpl req = new ReadyForSMRequestImpl(imsi, alertReason, alertReasonIndicator, extensionContainer, additionalAlertReasonIndicator);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -698,14 +662,11 @@ public class MAPDialogSmsImpl extends MAPDialogImpl implements MAPDialogSms {
         if (this.appCntx.getApplicationContextVersion().getVersion() >= 3 || extensionContainer != null) {
 
             ReadyForSMResponseImpl req = new ReadyForSMResponseImpl(extensionContainer);
-            AsnOutputStream aos = new AsnOutputStream();
-            req.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
             resultLast.setParameter(p);
         }
 
@@ -735,14 +696,11 @@ public class MAPDialogSmsImpl extends MAPDialogImpl implements MAPDialogSms {
         invoke.setOperationCode(oc);
 
         NoteSubscriberPresentRequestImpl req = new NoteSubscriberPresentRequestImpl(imsi);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
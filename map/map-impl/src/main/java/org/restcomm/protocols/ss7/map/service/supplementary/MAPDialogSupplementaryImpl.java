@@ -24,7 +24,6 @@ package org.restcomm.protocols.ss7.map.service.supplementary;
 
 import java.util.ArrayList;
 
-import org.mobicents.protocols.asn.AsnOutputStream;
 import org.restcomm.protocols.ss7.map.MAPDialogImpl;
 import org.restcomm.protocols.ss7.map.MAPProviderImpl;
 import org.restcomm.protocols.ss7.map.api.MAPApplicationContext;
@@ -51,6 +50,7 @@ import org.restcomm.protocols.ss7.map.api.service.supplementary.SSInfo;
 import org.restcomm.protocols.ss7.map.api.service.supplementary.SSStatus;
 import org.restcomm.protocols.ss7.tcap.api.TCAPException;
 import org.restcomm.protocols.ss7.tcap.api.tc.dialog.Dialog;
+import org.restcomm.protocols.ss7.tcap.asn.ParameterContent;
 import org.restcomm.protocols.ss7.tcap.asn.TcapFactory;
 import org.restcomm.protocols.ss7.tcap.asn.comp.Invoke;
 import org.restcomm.protocols.ss7.tcap.asn.comp.OperationCode;
@@ -105,14 +105,11 @@ public class MAPDialogSupplementaryImpl extends MAPDialogImpl implements MAPDial
 
         RegisterSSRequestImpl req = new RegisterSSRequestImpl(ssCode, basicService, forwardedToNumber, forwardedToSubaddress, noReplyConditionTime,
                 defaultPriority, nbrUser, longFTNSupported);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -145,14 +142,11 @@ public class MAPDialogSupplementaryImpl extends MAPDialogImpl implements MAPDial
 
         if (ssInfo != null) {
             RegisterSSResponseImpl req = new RegisterSSResponseImpl(ssInfo);
-            AsnOutputStream aos = new AsnOutputStream();
-            req.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
             resultLast.setParameter(p);
         }
 
@@ -181,14 +175,11 @@ public class MAPDialogSupplementaryImpl extends MAPDialogImpl implements MAPDial
         invoke.setOperationCode(oc);
 
         EraseSSRequestImpl req = new EraseSSRequestImpl(ssForBSCode);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -221,14 +212,11 @@ public class MAPDialogSupplementaryImpl extends MAPDialogImpl implements MAPDial
 
         if (ssInfo != null) {
             EraseSSResponseImpl req = new EraseSSResponseImpl(ssInfo);
-            AsnOutputStream aos = new AsnOutputStream();
-            req.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
             resultLast.setParameter(p);
         }
 
@@ -257,14 +245,11 @@ public class MAPDialogSupplementaryImpl extends MAPDialogImpl implements MAPDial
         invoke.setOperationCode(oc);
 
         ActivateSSRequestImpl req = new ActivateSSRequestImpl(ssForBSCode);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -297,14 +282,11 @@ public class MAPDialogSupplementaryImpl extends MAPDialogImpl implements MAPDial
 
         if (ssInfo != null) {
             ActivateSSResponseImpl req = new ActivateSSResponseImpl(ssInfo);
-            AsnOutputStream aos = new AsnOutputStream();
-            req.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
             resultLast.setParameter(p);
         }
 
@@ -333,14 +315,11 @@ public class MAPDialogSupplementaryImpl extends MAPDialogImpl implements MAPDial
         invoke.setOperationCode(oc);
 
         DeactivateSSRequestImpl req = new DeactivateSSRequestImpl(ssForBSCode);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -373,14 +352,11 @@ public class MAPDialogSupplementaryImpl extends MAPDialogImpl implements MAPDial
 
         if (ssInfo != null) {
             DeactivateSSResponseImpl req = new DeactivateSSResponseImpl(ssInfo);
-            AsnOutputStream aos = new AsnOutputStream();
-            req.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
             resultLast.setParameter(p);
         }
 
@@ -409,14 +385,11 @@ public class MAPDialogSupplementaryImpl extends MAPDialogImpl implements MAPDial
         invoke.setOperationCode(oc);
 
         InterrogateSSRequestImpl req = new InterrogateSSRequestImpl(ssForBSCode);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -448,14 +421,11 @@ public class MAPDialogSupplementaryImpl extends MAPDialogImpl implements MAPDial
         resultLast.setOperationCode(oc);
 
         InterrogateSSResponseImpl req = new InterrogateSSResponseImpl(ssStatus);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         resultLast.setParameter(p);
 
         this.sendReturnResultLastComponent(resultLast);
@@ -477,14 +447,11 @@ public class MAPDialogSupplementaryImpl extends MAPDialogImpl implements MAPDial
         resultLast.setOperationCode(oc);
 
         InterrogateSSResponseImpl req = new InterrogateSSResponseImpl(basicServiceGroupList, false);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         resultLast.setParameter(p);
 
         this.sendReturnResultLastComponent(resultLast);
@@ -506,14 +473,11 @@ public class MAPDialogSupplementaryImpl extends MAPDialogImpl implements MAPDial
         resultLast.setOperationCode(oc);
 
         InterrogateSSResponseImpl req = new InterrogateSSResponseImpl(forwardingFeatureList);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         resultLast.setParameter(p);
 
         this.sendReturnResultLastComponent(resultLast);
@@ -535,14 +499,11 @@ public class MAPDialogSupplementaryImpl extends MAPDialogImpl implements MAPDial
         resultLast.setOperationCode(oc);
 
         InterrogateSSResponseImpl req = new InterrogateSSResponseImpl(genericServiceInfo);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         resultLast.setParameter(p);
 
         this.sendReturnResultLastComponent(resultLast);
@@ -570,14 +531,11 @@ public class MAPDialogSupplementaryImpl extends MAPDialogImpl implements MAPDial
         invoke.setOperationCode(oc);
 
         GetPasswordRequestImpl req = new GetPasswordRequestImpl(guidanceInfo);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -610,14 +568,11 @@ public class MAPDialogSupplementaryImpl extends MAPDialogImpl implements MAPDial
         resultLast.setOperationCode(oc);
 
         GetPasswordResponseImpl req = new GetPasswordResponseImpl(password);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         resultLast.setParameter(p);
 
         this.sendReturnResultLastComponent(resultLast);
@@ -645,14 +600,11 @@ public class MAPDialogSupplementaryImpl extends MAPDialogImpl implements MAPDial
         invoke.setOperationCode(oc);
 
         RegisterPasswordRequestImpl req = new RegisterPasswordRequestImpl(ssCode);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -684,14 +636,11 @@ public class MAPDialogSupplementaryImpl extends MAPDialogImpl implements MAPDial
         resultLast.setOperationCode(oc);
 
         RegisterPasswordResponseImpl req = new RegisterPasswordResponseImpl(password);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         resultLast.setParameter(p);
 
         this.sendReturnResultLastComponent(resultLast);
@@ -714,14 +663,11 @@ public class MAPDialogSupplementaryImpl extends MAPDialogImpl implements MAPDial
 
         ProcessUnstructuredSSRequestImpl req = new ProcessUnstructuredSSRequestImpl(ussdDataCodingScheme, ussdString,
                 alertingPatter, msisdn);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -750,14 +696,11 @@ public class MAPDialogSupplementaryImpl extends MAPDialogImpl implements MAPDial
         returnResult.setOperationCode(oc);
 
         ProcessUnstructuredSSResponseImpl req = new ProcessUnstructuredSSResponseImpl(ussdDataCodingScheme, ussdString);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         returnResult.setParameter(p);
 
         this.sendReturnResultLastComponent((ReturnResultLast) returnResult);
@@ -783,14 +726,11 @@ public class MAPDialogSupplementaryImpl extends MAPDialogImpl implements MAPDial
         invoke.setOperationCode(oc);
 
         UnstructuredSSRequestImpl req = new UnstructuredSSRequestImpl(ussdDataCodingScheme, ussdString, alertingPatter, msisdn);
-        AsnOutputStream aos = new AsnOutputStream();
-        req.encodeData(aos);
-
         Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
         p.setTagClass(req.getTagClass());
         p.setPrimitive(req.getIsPrimitive());
         p.setTag(req.getTag());
-        p.setData(aos.toByteArray());
+        ParameterContent.setContent(p, req);
         invoke.setParameter(p);
 
         Long invokeId;
@@ -827,14 +767,11 @@ public class MAPDialogSupplementaryImpl extends MAPDialogImpl implements MAPDial
 
         if (ussdString != null) {
             UnstructuredSSRequestImpl req = new UnstructuredSSRequestImpl(ussdDataCodingScheme, ussdString, alertingPatter, msisdn);
-            AsnOutputStream aos = new AsnOutputStream();
-            req.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
             invoke.setParameter(p);
         }
 
@@ -865,14 +802,11 @@ public class MAPDialogSupplementaryImpl extends MAPDialogImpl implements MAPDial
 
         if (ussdString != null) {
             UnstructuredSSResponseImpl req = new UnstructuredSSResponseImpl(ussdDataCodingScheme, ussdString);
-            AsnOutputStream aos = new AsnOutputStream();
-            req.encodeData(aos);
-
             Parameter p = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createParameter();
             p.setTagClass(req.getTagClass());
             p.setPrimitive(req.getIsPrimitive());
             p.setTag(req.getTag());
-            p.setData(aos.toByteArray());
+            ParameterContent.setContent(p, req);
             returnResult.setParameter(p);
         }
 
@@ -24,7 +24,6 @@ package org.restcomm.protocols.ss7.map.smstpdu;
 
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
-import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
 
 import org.restcomm.protocols.ss7.map.api.MAPException;
@@ -34,10 +33,9 @@ import org.restcomm.protocols.ss7.map.api.smstpdu.Gsm7NationalLanguageIdentifier
 import org.restcomm.protocols.ss7.map.api.smstpdu.UserData;
 import org.restcomm.protocols.ss7.map.api.smstpdu.UserDataHeader;
 import org.restcomm.protocols.ss7.map.datacoding.GSMCharset;
-import org.restcomm.protocols.ss7.map.datacoding.GSMCharsetDecoder;
 import org.restcomm.protocols.ss7.map.datacoding.GSMCharsetDecodingData;
-import org.restcomm.protocols.ss7.map.datacoding.GSMCharsetEncoder;
 import org.restcomm.protocols.ss7.map.datacoding.GSMCharsetEncodingData;
+import org.restcomm.protocols.ss7.map.datacoding.Gsm7Codec;
 import org.restcomm.protocols.ss7.map.datacoding.Gsm7EncodingStyle;
 
 /**
@@ -162,24 +160,13 @@ public class UserDataImpl implements UserData {
 //                    }
 
                     GSMCharset cSet = obtainGsmCharacterSet(this.decodedUserDataHeader);
-                    GSMCharsetEncoder encoder = (GSMCharsetEncoder) cSet.newEncoder();
-                    encoder.setGSMCharsetEncodingData(new GSMCharsetEncodingData(Gsm7EncodingStyle.bit7_sms_style, buf2));
-                    ByteBuffer bb = null;
-                    try {
-                        bb = encoder.encode(CharBuffer.wrap(this.decodedMessage));
-                    } catch (Exception e) {
-                        // This can not occur
-                    }
-                    this.encodedUserDataLength = encoder.getGSMCharsetEncodingData().getTotalSeptetCount();
-                    if (bb != null) {
-                        this.encodedData = new byte[bb.limit()];
-                        bb.get(this.encodedData);
-                    } else {
-                        this.encodedData = new byte[0];
-                    }
+                    GSMCharsetEncodingData encodingData = new GSMCharsetEncodingData(Gsm7EncodingStyle.bit7_sms_style, buf2);
+                    this.encodedData = Gsm7Codec.encode(cSet, this.decodedMessage, encodingData);
+                    this.encodedUserDataLength = encodingData.getTotalSeptetCount();
                     break;
 
                 case GSM8:
+                    ByteBuffer bb;
                     if (gsm8Charset != null) {
                         bb = gsm8Charset.encode(this.decodedMessage);
                         this.encodedData = new byte[bb.limit()];
@@ -248,29 +235,21 @@ public class UserDataImpl implements UserData {
             switch (this.dataCodingScheme.getCharacterSet()) {
                 case GSM7:
                     GSMCharset cSet = obtainGsmCharacterSet(this.decodedUserDataHeader);
-                    GSMCharsetDecoder decoder = (GSMCharsetDecoder) cSet.newDecoder();
+                    GSMCharsetDecodingData decodingData;
                     if (offset > 0) {
                         int bitOffset = offset * 8;
                         int septetOffset = (bitOffset - 1) / 7 + 1;
-                        decoder.setGSMCharsetDecodingData(new GSMCharsetDecodingData(Gsm7EncodingStyle.bit7_sms_style,
-                                this.encodedUserDataLength, septetOffset));
+                        decodingData = new GSMCharsetDecodingData(Gsm7EncodingStyle.bit7_sms_style, this.encodedUserDataLength,
+                                septetOffset);
                     } else
-                        decoder.setGSMCharsetDecodingData(new GSMCharsetDecodingData(Gsm7EncodingStyle.bit7_sms_style,
-                                this.encodedUserDataLength, 0));
-                    ByteBuffer bb = ByteBuffer.wrap(this.encodedData);
-                    CharBuffer bf = null;
-                    try {
-                        bf = decoder.decode(bb);
-                    } catch (CharacterCodingException e) {
-                        // This can not occur
-                    }
-                    if (bf != null)
-                        this.decodedMessage = bf.toString();
-                    else
-                        this.decodedMessage = "";
+                        decodingData = new GSMCharsetDecodingData(Gsm7EncodingStyle.bit7_sms_style,
+                                this.encodedUserDataLength, 0);
+                    this.decodedMessage = Gsm7Codec.decode(cSet, this.encodedData, 0, this.encodedData.length, decodingData);
                     break;
 
                 case GSM8:
+                    ByteBuffer bb;
+                    CharBuffer bf;
                     if (gsm8Charset != null) {
                         byte[] buf = this.encodedData;
                         int len = this.encodedUserDataLength;
@@ -0,0 +1,199 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.map.datacoding;
+
+import static org.testng.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.restcomm.protocols.ss7.map.api.datacoding.NationalLanguageIdentifier;
+import org.testng.annotations.Test;
+
+/**
+ * Gsm7Codec must give the same results as GSMCharsetEncoder / GSMCharsetDecoder
+ */
+public class Gsm7CodecTest {
+
+    private static final Gsm7EncodingStyle[] styles = new Gsm7EncodingStyle[] { null, Gsm7EncodingStyle.bit7_sms_style,
+            Gsm7EncodingStyle.bit7_ussd_style, Gsm7EncodingStyle.bit8_smpp_style };
+
+    private GSMCharset[] getCharsets() {
+        return new GSMCharset[] { new GSMCharset("GSM", new String[] {}),
+                new GSMCharset("GSM", new String[] {}, GSMCharset.urduMap, GSMCharset.urduExtentionMap),
+                new GSMCharset("GSM", new String[] {}, GSMCharset.basicMap, null),
+                new GSMCharset("GSM", new String[] {}, NationalLanguageIdentifier.Turkish, NationalLanguageIdentifier.Turkish),
+                new GSMCharset("GSM", new String[] {}, NationalLanguageIdentifier.Portuguese, NationalLanguageIdentifier.Spanish),
+                new GSMCharset("GSM", new String[] {}, null, NationalLanguageIdentifier.Hindi) };
+    }
+
+    private String randomString(Random rnd, GSMCharset cs, int len) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < len; i++) {
+            int sel = rnd.nextInt(10);
+            if (sel < 6) {
+                sb.append((char) cs.mainTable[rnd.nextInt(128)]);
+            } else if (sel < 8) {
+                sb.append((char) GSMCharset.basicExtentionMap[rnd.nextInt(128)]);
+            } else if (sel < 9) {
+                sb.append('\r');
+            } else {
+                sb.append((char) rnd.nextInt(0x10000));
+            }
+        }
+        return sb.toString();
+    }
+
+    @Test(groups = { "functional.encode", "datacoding" })
+    public void testFindCode() throws Exception {
+        for (GSMCharset cs : getCharsets()) {
+            for (int c = 0; c < 0x10000; c++) {
+                int mainCode = -1;
+                for (int i = 0; i < cs.mainTable.length; i++) {
+                    if (cs.mainTable[i] == c) {
+                        mainCode = i;
+                        break;
+                    }
+                }
+                int extCode = -1;
+                if (cs.extensionTable != null) {
+                    for (int i = 0; i < cs.mainTable.length; i++) {
+                        if (c != 0 && cs.extensionTable[i] == c) {
+                            extCode = i;
+                            break;
+                        }
+                    }
+                }
+                assertEquals(cs.findMainCode((char) c), mainCode);
+                assertEquals(cs.findExtensionCode((char) c), extCode);
+            }
+        }
+    }
+
+    @Test(groups = { "functional.encode", "datacoding" })
+    public void testEncode() throws Exception {
+        Random rnd = new Random(125);
+        for (GSMCharset cs : getCharsets()) {
+            for (Gsm7EncodingStyle style : styles) {
+                for (int leadingLen = 0; leadingLen <= 8; leadingLen++) {
+                    byte[] leadingBuffer = null;
+                    if (leadingLen > 0 && style != null) {
+                        leadingBuffer = new byte[leadingLen];
+                        rnd.nextBytes(leadingBuffer);
+                    }
+                    for (int len = 1; len <= 40; len++) {
+                        String s = randomString(rnd, cs, len);
+
+                        GSMCharsetEncoder encoder = (GSMCharsetEncoder) cs.newEncoder();
+                        GSMCharsetEncodingData encData1 = style != null ? new GSMCharsetEncodingData(style, leadingBuffer) : null;
+                        encoder.setGSMCharsetEncodingData(encData1);
+                        ByteBuffer bb = encoder.encode(CharBuffer.wrap(s));
+                        byte[] expected = new byte[bb.limit()];
+                        bb.get(expected);
+
+                        GSMCharsetEncodingData encData2 = style != null ? new GSMCharsetEncodingData(style, leadingBuffer) : null;
+                        assertEquals(Gsm7Codec.getEncodedLength(cs, s, encData2), expected.length);
+                        byte[] res = Gsm7Codec.encode(cs, s, encData2);
+                        assertEquals(res, expected);
+                        if (style != null)
+                            assertEquals(encData2.getTotalSeptetCount(), encData1.getTotalSeptetCount());
+
+                        ByteBuffer out = ByteBuffer.allocate(expected.length + 5);
+                        out.put((byte) 1);
+                        Gsm7Codec.encode(cs, s, encData2, out);
+                        assertEquals(out.position(), expected.length + 1);
+                        assertEquals(Arrays.copyOfRange(out.array(), 1, out.position()), expected);
+
+                        out = ByteBuffer.allocateDirect(expected.length);
+                        Gsm7Codec.encode(cs, s, encData2, out);
+                        out.flip();
+                        res = new byte[out.limit()];
+                        out.get(res);
+                        assertEquals(res, expected);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test(groups = { "functional.decode", "datacoding" })
+    public void testDecode() throws Exception {
+        Random rnd = new Random(126);
+        for (GSMCharset cs : getCharsets()) {
+            for (Gsm7EncodingStyle style : styles) {
+                for (int len = 0; len <= 40; len++) {
+                    for (int i = 0; i < 4; i++) {
+                        byte[] data = new byte[len];
+                        rnd.nextBytes(data);
+                        if (i == 1 && len > 0)
+                            data[len - 1] = 0x1A;
+                        GSMCharsetDecodingData decData = null;
+                        if (style != null) {
+                            int totalSeptetCount = i < 2 ? Integer.MAX_VALUE : (i == 2 ? -1 : rnd.nextInt(len + 5));
+                            decData = new GSMCharsetDecodingData(style, totalSeptetCount, i < 2 ? 0 : rnd.nextInt(8));
+                        }
+
+                        GSMCharsetDecoder decoder = (GSMCharsetDecoder) cs.newDecoder();
+                        decoder.setGSMCharsetDecodingData(decData);
+                        String expected = decoder.decode(ByteBuffer.wrap(data)).toString();
+
+                        assertEquals(Gsm7Codec.decode(cs, data, 0, len, decData), expected);
+
+                        byte[] data2 = new byte[len + 3];
+                        System.arraycopy(data, 0, data2, 2, len);
+                        char[] out = new char[Gsm7Codec.getMaxDecodedLength(len, decData) + 1];
+                        int cnt = Gsm7Codec.decode(cs, data2, 2, len, decData, out, 1);
+                        assertEquals(new String(out, 1, cnt), expected);
+
+                        ByteBuffer in = ByteBuffer.allocateDirect(len);
+                        in.put(data);
+                        in.flip();
+                        assertEquals(Gsm7Codec.decode(cs, in, decData), expected);
+                        assertEquals(in.remaining(), 0);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test(groups = { "functional.encode", "functional.decode", "datacoding" })
+    public void testEncodeDecode() throws Exception {
+        GSMCharset cs = new GSMCharset("GSM", new String[] {});
+        String s = "Test {1234567} [€] \\^~|\r";
+
+        GSMCharsetEncodingData encData = new GSMCharsetEncodingData(Gsm7EncodingStyle.bit7_ussd_style, null);
+        byte[] data = Gsm7Codec.encode(cs, s, encData);
+        assertEquals(encData.getTotalSeptetCount(), 33);
+        GSMCharsetDecodingData decData = new GSMCharsetDecodingData(Gsm7EncodingStyle.bit7_ussd_style, Integer.MAX_VALUE, 0);
+        assertEquals(Gsm7Codec.decode(cs, data, 0, data.length, decData), s);
+
+        byte[] udh = new byte[] { 5, 0, 3, 1, 2, 1 };
+        encData = new GSMCharsetEncodingData(Gsm7EncodingStyle.bit7_sms_style, udh);
+        data = Gsm7Codec.encode(cs, s, encData);
+        assertEquals(Arrays.copyOf(data, udh.length), udh);
+        decData = new GSMCharsetDecodingData(Gsm7EncodingStyle.bit7_sms_style, encData.getTotalSeptetCount(), 7);
+        assertEquals(Gsm7Codec.decode(cs, data, 0, data.length, decData), s);
+    }
+}
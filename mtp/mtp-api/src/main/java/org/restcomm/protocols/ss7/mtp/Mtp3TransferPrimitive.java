@@ -22,6 +22,8 @@
 
 package org.restcomm.protocols.ss7.mtp;
 
+import io.netty.buffer.ByteBuf;
+
 /**
  * @author sergey vetyutnev
  * @author amit bhayani
@@ -35,7 +37,11 @@ public class Mtp3TransferPrimitive {
     protected final int opc;
     protected final int dpc;
     protected final int sls;
-    protected final byte[] data;
+    protected byte[] data;
+    // zero-copy mode: a retained part of a received buffer that contains the MSU data, data is created from it on demand
+    protected ByteBuf dataBuf;
+    // the received buffer has been released, its data is no longer available
+    private boolean released;
 
     private final RoutingLabelFormat pointCodeFormat;
 
@@ -52,6 +58,18 @@ public class Mtp3TransferPrimitive {
         this.pointCodeFormat = pointCodeFormat;
     }
 
+    /**
+     * Creates a primitive that refers to a part of a received buffer instead of a copy of MSU data. The primitive takes
+     * the ownership of the passed (retained) buffer, the buffer is released by {@link #release()} after the primitive is
+     * delivered to MTP3 users. A primitive of this kind is valid only inside of
+     * {@link Mtp3UserPartListener#onMtp3TransferMessage(Mtp3TransferPrimitive)}.
+     */
+    protected Mtp3TransferPrimitive(int si, int ni, int mp, int opc, int dpc, int sls, ByteBuf dataBuf,
+            RoutingLabelFormat pointCodeFormat) {
+        this(si, ni, mp, opc, dpc, sls, (byte[]) null, pointCodeFormat);
+        this.dataBuf = dataBuf;
+    }
+
     public int getSi() {
         return this.si;
     }
@@ -76,19 +94,71 @@ public class Mtp3TransferPrimitive {
         return this.sls;
     }
 
+    /**
+     * @return MSU data. For a primitive that refers to a received buffer the data is copied from the buffer at the first
+     *         invocation
+     * @throws IllegalStateException if the primitive refers to a received buffer that has been released before the data was
+     *         copied
+     */
     public byte[] getData() {
+        this.checkReleased();
+        if (this.data == null && this.dataBuf != null) {
+            byte[] res = new byte[this.dataBuf.readableBytes()];
+            this.dataBuf.getBytes(this.dataBuf.readerIndex(), res);
+            this.data = res;
+        }
         return this.data;
     }
 
+    /**
+     * @return a part of a received buffer that contains MSU data (its readable bytes) or null if the primitive does not refer
+     *         to a buffer
+     */
+    public ByteBuf getDataBuf() {
+        return this.dataBuf;
+    }
+
+    /**
+     * @throws IllegalStateException if the primitive refers to a received buffer that has been released before the data was
+     *         copied
+     */
+    public int getDataLength() {
+        this.checkReleased();
+        if (this.data != null)
+            return this.data.length;
+        if (this.dataBuf != null)
+            return this.dataBuf.readableBytes();
+        return 0;
+    }
+
+    /**
+     * Releases a received buffer that the primitive refers to. Does nothing if the primitive does not refer to a buffer. After
+     * this {@link #getData()} and {@link #getDataLength()} fail unless the data has been copied before.
+     */
+    public void release() {
+        ByteBuf buf = this.dataBuf;
+        if (buf != null) {
+            this.dataBuf = null;
+            this.released = true;
+            buf.release();
+        }
+    }
+
+    private void checkReleased() {
+        if (this.released && this.data == null)
+            throw new IllegalStateException("MSU data buffer of the primitive has been released");
+    }
+
     public byte[] encodeMtp3() {
 
         byte[] res = null;
         int ssi = 0;
+        byte[] data = this.getData();
 
         switch (this.pointCodeFormat) {
             case ITU:
 
-                res = new byte[this.data.length + 5];
+                res = new byte[data.length + 5];
 
                 // sio
                 ssi = (this.ni & 0x03) << 2 | (this.mp & 0x03);
@@ -101,12 +171,12 @@ public class Mtp3TransferPrimitive {
                 res[4] = (byte) (((this.opc >> 10) & 0x0F) | ((this.sls & 0x0F) << 4));
 
                 // msu data
-                System.arraycopy(this.data, 0, res, 5, this.data.length);
+                System.arraycopy(data, 0, res, 5, data.length);
 
                 break;
 
             case ANSI_Sls8Bit:
-                res = new byte[this.data.length + 8];
+                res = new byte[data.length + 8];
 
                 // sio
                 ssi = (this.ni & 0x03) << 2 | (this.mp & 0x03);
@@ -123,12 +193,12 @@ public class Mtp3TransferPrimitive {
                 res[7] = (byte) this.sls;
 
                 // msu data
-                System.arraycopy(this.data, 0, res, 8, this.data.length);
+                System.arraycopy(data, 0, res, 8, data.length);
 
                 break;
 
             case ANSI_Sls5Bit:
-                res = new byte[this.data.length + 8];
+                res = new byte[data.length + 8];
 
                 // sio
                 ssi = (this.ni & 0x03) << 2 | (this.mp & 0x03);
@@ -145,7 +215,7 @@ public class Mtp3TransferPrimitive {
                 res[7] = (byte) (this.sls & 0x1F);
 
                 // msu data
-                System.arraycopy(this.data, 0, res, 8, this.data.length);
+                System.arraycopy(data, 0, res, 8, data.length);
 
                 break;
 
@@ -168,9 +238,11 @@ public class Mtp3TransferPrimitive {
         sb.append(", SLS=");
         sb.append(this.sls);
 
-        if (this.data != null) {
+        if (this.data != null || this.dataBuf != null) {
             sb.append(", MsgLen=");
-            sb.append(this.data.length);
+            sb.append(this.getDataLength());
+        } else if (this.released) {
+            sb.append(", MsgLen=released");
         }
 
         sb.append(", NI=");
@@ -21,6 +21,8 @@
  */
 package org.restcomm.protocols.ss7.mtp;
 
+import io.netty.buffer.ByteBuf;
+
 /**
  *
  * @author amit bhayani
@@ -40,6 +42,16 @@ public class Mtp3TransferPrimitiveFactory {
         return mtp3TransferPrimitive;
     }
 
+    /**
+     * Creates a primitive that refers to a part of a received buffer (zero-copy mode), the primitive takes the ownership of
+     * the passed retained buffer
+     */
+    public Mtp3TransferPrimitive createMtp3TransferPrimitive(int si, int ni, int mp, int opc, int dpc, int sls, ByteBuf data) {
+        Mtp3TransferPrimitive mtp3TransferPrimitive = new Mtp3TransferPrimitive(si, ni, mp, opc, dpc, sls, data,
+                this.pointCodeFormat);
+        return mtp3TransferPrimitive;
+    }
+
     public Mtp3TransferPrimitive createMtp3TransferPrimitive(byte[] msg) {
         Mtp3TransferPrimitive mtp3TransferPrimitive = null;
 
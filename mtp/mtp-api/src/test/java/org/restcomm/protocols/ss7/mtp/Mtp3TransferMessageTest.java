@@ -24,6 +24,10 @@ package org.restcomm.protocols.ss7.mtp;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 
 import java.util.Arrays;
 
@@ -136,4 +140,29 @@ public class Mtp3TransferMessageTest {
         assertTrue(Arrays.equals(res, this.getAnsiMsg(false)));
   }
 
+    @Test(groups = { "Mtp3TransferMessageTest", "release" })
+    public void testRelease() throws Exception {
+        Mtp3TransferPrimitiveFactory factory = new Mtp3TransferPrimitiveFactory(RoutingLabelFormat.ITU);
+        ByteBuf buf = Unpooled.wrappedBuffer(this.getData());
+        Mtp3TransferPrimitive msg = factory.createMtp3TransferPrimitive(3, 2, 0, 2000, 1000, 10, buf);
+        assertEquals(msg.getDataLength(), 9);
+
+        msg.release();
+        assertEquals(buf.refCnt(), 0);
+        try {
+            msg.getData();
+            fail("getData() must fail after the buffer is released");
+        } catch (IllegalStateException e) {
+        }
+
+        // data that is copied before releasing stays available
+        buf = Unpooled.wrappedBuffer(this.getData());
+        msg = factory.createMtp3TransferPrimitive(3, 2, 0, 2000, 1000, 10, buf);
+        byte[] data = msg.getData();
+        msg.release();
+        assertEquals(buf.refCnt(), 0);
+        assertTrue(Arrays.equals(msg.getData(), data));
+        assertEquals(msg.getDataLength(), 9);
+    }
+
 }
@@ -1242,13 +1242,27 @@ public class Mtp2 {
     // //////////////////////
     // Timers and actions //
     // //////////////////////
+    /**
+     * All timer tasks of a link have the same affinity, so they are executed sequentially by a LaneScheduler
+     */
+    private abstract class LinkTask extends Task {
+        public LinkTask(Scheduler scheduler) {
+            super(scheduler);
+        }
+
+        @Override
+        public int getAffinity() {
+            return System.identityHashCode(Mtp2.this);
+        }
+    }
+
     private T2Action t2Action;
     private T3Action t3Action;
     private T4Action t4Action;
     private T7Action t7Action;
     private T17Action t17Action;
 
-    private class T2Action extends Task {
+    private class T2Action extends LinkTask {
         private int ttl;
 
         public T2Action(Scheduler scheduler) {
@@ -1296,7 +1310,7 @@ public class Mtp2 {
         }
     }
 
-    private class T3Action extends Task {
+    private class T3Action extends LinkTask {
         private int ttl;
 
         public T3Action(Scheduler scheduler) {
@@ -1343,7 +1357,7 @@ public class Mtp2 {
         }
     }
 
-    private class T4Action extends Task {
+    private class T4Action extends LinkTask {
         private int ttl;
 
         public T4Action(Scheduler scheduler) {
@@ -1397,7 +1411,7 @@ public class Mtp2 {
         }
     }
 
-    private class T7Action extends Task {
+    private class T7Action extends LinkTask {
         private int ttl;
 
         public T7Action(Scheduler scheduler) {
@@ -1427,7 +1441,7 @@ public class Mtp2 {
         }
     }
 
-    private class T17Action extends Task {
+    private class T17Action extends LinkTask {
         private int ttl;
 
         public T17Action(Scheduler scheduler) {
@@ -585,6 +585,14 @@ public class Mtp3 implements Runnable {
             return scheduler.HEARTBEAT_QUEUE;
         }
 
+        /**
+         * SLTM test is executed in the lane of its link timers
+         */
+        @Override
+        public int getAffinity() {
+            return System.identityHashCode(link);
+        }
+
         /**
          * This methods should be called to acknowledge that current tests is passed.
          *
@@ -25,14 +25,15 @@ package org.restcomm.protocols.ss7.mtp;
 import io.netty.util.concurrent.DefaultThreadFactory;
 
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.log4j.Logger;
 import org.restcomm.protocols.ss7.ss7ext.Ss7ExtInterface;
 import org.restcomm.protocols.ss7.ss7ext.Ss7ExtInterfaceDefault;
+import org.restcomm.ss7.congestion.AdaptiveCongestionController;
 import org.restcomm.ss7.congestion.ExecutorCongestionMonitor;
 import org.restcomm.ss7.congestion.ExecutorCongestionMonitorImpl;
 
@@ -64,15 +65,18 @@ public abstract class Mtp3UserPartBaseImpl implements Mtp3UserPart {
     private RoutingLabelFormat routingLabelFormat = RoutingLabelFormat.ITU;
     // If set to true, lowest bit of SLS is used for loadbalancing between Linkset else highest bit of SLS is used.
     private boolean useLsbForLinksetSelection = false;
+    // If set to true, the congestion level of the delivery executor is provided by AdaptiveCongestionController that
+    // samples the lane sojourn time every adaptiveCongestionSamplePeriod milliseconds instead of the delay thresholds
+    private boolean adaptiveCongestionControl = false;
+    private int adaptiveCongestionSamplePeriod = 5;
 
     protected boolean isStarted = false;
 
     private CopyOnWriteArrayList<Mtp3UserPartListener> userListeners = new CopyOnWriteArrayList<Mtp3UserPartListener>();
-    // a thread pool for delivering Mtp3TransferMessage messages
-    private ExecutorService[] msgDeliveryExecutors;
+    // a thread pool for delivering Mtp3TransferMessage messages, one lane per SLS
+    private SlsLaneExecutor<Mtp3TransferPrimitive, Object> msgDeliveryExecutor;
     // a thread for delivering PAUSE, RESUME and STATUS messages
     private ScheduledExecutorService msgDeliveryExecutorSystem;
-    private int[] slsTable = null;
     private ExecutorCongestionMonitorImpl executorCongestionMonitor = null;
 
     private Mtp3TransferPrimitiveFactory mtp3TransferPrimitiveFactory = null;
@@ -112,6 +116,29 @@ public abstract class Mtp3UserPartBaseImpl implements Mtp3UserPart {
         this.userListeners.remove(listener);
     }
 
+    public boolean isAdaptiveCongestionControl() {
+        return adaptiveCongestionControl;
+    }
+
+    public void setAdaptiveCongestionControl(boolean adaptiveCongestionControl) throws Exception {
+        if (this.isStarted)
+            throw new Exception("AdaptiveCongestionControl parameter can be updated only when MTP3 is NOT running");
+
+        this.adaptiveCongestionControl = adaptiveCongestionControl;
+    }
+
+    public int getAdaptiveCongestionSamplePeriod() {
+        return adaptiveCongestionSamplePeriod;
+    }
+
+    public void setAdaptiveCongestionSamplePeriod(int adaptiveCongestionSamplePeriod) throws Exception {
+        if (this.isStarted)
+            throw new Exception("AdaptiveCongestionSamplePeriod parameter can be updated only when MTP3 is NOT running");
+
+        if (adaptiveCongestionSamplePeriod > 0 && adaptiveCongestionSamplePeriod <= 1000)
+            this.adaptiveCongestionSamplePeriod = adaptiveCongestionSamplePeriod;
+    }
+
     @Override
     public RoutingLabelFormat getRoutingLabelFormat() {
         return this.routingLabelFormat;
@@ -198,25 +225,29 @@ public abstract class Mtp3UserPartBaseImpl implements Mtp3UserPart {
                 throw new Exception("Invalid SLS length");
         }
 
-        this.slsTable = new int[maxSls];
-
         this.mtp3TransferPrimitiveFactory = new Mtp3TransferPrimitiveFactory(this.routingLabelFormat);
 
-        this.createSLSTable(this.deliveryTransferMessageThreadCount);
-
-        this.msgDeliveryExecutors = new ExecutorService[this.deliveryTransferMessageThreadCount];
-        for (int i = 0; i < this.deliveryTransferMessageThreadCount; i++) {
-            this.msgDeliveryExecutors[i] = Executors.newFixedThreadPool(1, new DefaultThreadFactory("Mtp3-DeliveryExecutor-"
-                    + i));
-        }
+        this.msgDeliveryExecutor = new SlsLaneExecutor<Mtp3TransferPrimitive, Object>(this.maxSls,
+                this.deliveryTransferMessageThreadCount, SlsLaneExecutor.DEFAULT_LANE_CAPACITY, new DefaultThreadFactory(
+                        "Mtp3-DeliveryExecutor"), new MsgTransferDeliveryHandler());
         this.msgDeliveryExecutorSystem = Executors.newSingleThreadScheduledExecutor(new DefaultThreadFactory(
                 "Mtp3-DeliveryExecutorSystem"));
 
-        this.executorCongestionMonitor = new ExecutorCongestionMonitorImpl(productName, msgDeliveryExecutors);
+        if (this.adaptiveCongestionControl) {
+            this.executorCongestionMonitor = new ExecutorCongestionMonitorImpl(productName, msgDeliveryExecutor,
+                    new AdaptiveCongestionController());
+        } else {
+            this.executorCongestionMonitor = new ExecutorCongestionMonitorImpl(productName, msgDeliveryExecutor);
+        }
 
         this.isStarted = true;
 
-        this.startThreadMonitoring();
+        if (this.adaptiveCongestionControl) {
+            this.msgDeliveryExecutorSystem.scheduleWithFixedDelay(new AdaptiveCongestionMonitorHandler(),
+                    this.adaptiveCongestionSamplePeriod, this.adaptiveCongestionSamplePeriod, TimeUnit.MILLISECONDS);
+        } else {
+            this.startThreadMonitoring();
+        }
     }
 
     public void stop() throws Exception {
@@ -226,9 +257,8 @@ public abstract class Mtp3UserPartBaseImpl implements Mtp3UserPart {
 
         this.isStarted = false;
 
-        for (ExecutorService es : this.msgDeliveryExecutors) {
-            es.shutdown();
-        }
+        // primitives that are still queued are passed to MsgTransferDeliveryHandler that drops them and releases their buffers
+        this.msgDeliveryExecutor.shutdown();
         this.msgDeliveryExecutorSystem.shutdown();
         this.executorCongestionMonitor = null;
     }
@@ -250,13 +280,18 @@ public abstract class Mtp3UserPartBaseImpl implements Mtp3UserPart {
      */
     protected void sendTransferMessageToLocalUser(Mtp3TransferPrimitive msg, int seqControl) {
         if (this.isStarted) {
-            MsgTransferDeliveryHandler hdl = new MsgTransferDeliveryHandler(msg);
-
-            seqControl = seqControl & slsFilter;
-            this.msgDeliveryExecutors[this.slsTable[seqControl]].execute(hdl);
+            try {
+                this.msgDeliveryExecutor.execute(seqControl & slsFilter, msg, null);
+            } catch (RejectedExecutionException e) {
+                // stop() has been invoked concurrently
+                logger.error(String.format(
+                        "Received Mtp3TransferPrimitive=%s but Mtp3UserPart is stopping. Message will be dropped", msg));
+                msg.release();
+            }
         } else {
             logger.error(String.format(
                     "Received Mtp3TransferPrimitive=%s but Mtp3UserPart is not started. Message will be dropped", msg));
+            msg.release();
         }
     }
 
@@ -300,37 +335,26 @@ public abstract class Mtp3UserPartBaseImpl implements Mtp3UserPart {
         }
     }
 
-    private void createSLSTable(int minimumBoundThread) {
-        int stream = 0;
-        for (int i = 0; i < maxSls; i++) {
-            if (stream >= minimumBoundThread) {
-                stream = 0;
-            }
-            slsTable[i] = stream++;
-        }
-    }
-
-    private class MsgTransferDeliveryHandler implements Runnable {
-
-        private Mtp3TransferPrimitive msg;
-
-        public MsgTransferDeliveryHandler(Mtp3TransferPrimitive msg) {
-            this.msg = msg;
-        }
+    private class MsgTransferDeliveryHandler implements SlsLaneExecutor.Handler<Mtp3TransferPrimitive, Object> {
 
         @Override
-        public void run() {
-            if (isStarted) {
-                try {
-                    for (Mtp3UserPartListener lsn : userListeners) {
-                        lsn.onMtp3TransferMessage(this.msg);
+        public void onMessage(Mtp3TransferPrimitive msg, Object context) {
+            try {
+                if (isStarted) {
+                    try {
+                        for (Mtp3UserPartListener lsn : userListeners) {
+                            lsn.onMtp3TransferMessage(msg);
+                        }
+                    } catch (Throwable e) {
+                        logger.error("Exception while delivering a system messages to the MTP3-user: " + e.getMessage(), e);
                     }
-                } catch (Throwable e) {
-                    logger.error("Exception while delivering a system messages to the MTP3-user: " + e.getMessage(), e);
+                } else {
+                    logger.error(String.format(
+                            "Received Mtp3TransferPrimitive=%s but Mtp3UserPart is not started. Message will be dropped", msg));
                 }
-            } else {
-                logger.error(String.format(
-                        "Received Mtp3TransferPrimitive=%s but Mtp3UserPart is not started. Message will be dropped", msg));
+            } finally {
+                // a received buffer (zero-copy mode) is released after all MTP3 users have processed the message
+                msg.release();
             }
         }
     }
@@ -373,4 +397,14 @@ public abstract class Mtp3UserPartBaseImpl implements Mtp3UserPart {
             startThreadMonitoring();
         }
     }
+
+    private class AdaptiveCongestionMonitorHandler implements Runnable {
+        @Override
+        public void run() {
+            ExecutorCongestionMonitorImpl monitor = executorCongestionMonitor;
+            if (isStarted && monitor != null) {
+                monitor.monitor();
+            }
+        }
+    }
 }
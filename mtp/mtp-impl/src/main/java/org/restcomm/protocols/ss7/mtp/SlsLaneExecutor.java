@@ -0,0 +1,380 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.mtp;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.log4j.Logger;
+import org.restcomm.ss7.congestion.LaneExecutor;
+
+/**
+ * <p>
+ * Delivery executor that keeps the order of messages per SLS. Each SLS (after applying of slsFilter) has its own lane with a
+ * preallocated ring buffer of (message, context) pairs, so no Runnable and no queue node is allocated per delivered message.
+ * A ring buffer is doubled if it is full, messages are never dropped. A grown ring buffer returns to the initial capacity when
+ * the lane becomes empty, so a burst does not keep its memory.
+ * </p>
+ * <p>
+ * A lane that has messages is scheduled into the queue of its home worker (lane modulo worker count) and is processed by one
+ * worker at a time. A worker processes up to {@link #BATCH_SIZE} messages of a lane and then puts the lane (if it is still
+ * not empty) at the end of the home queue, so one hot SLS does not delay other lanes of the same worker. An idle worker steals
+ * whole lanes from queues of busy workers.
+ * </p>
+ * <p>
+ * {@link #shutdown()} works like {@link java.util.concurrent.ExecutorService#shutdown()}: new messages are rejected, messages
+ * that are already queued are still delivered to the handler and then workers exit.
+ * </p>
+ *
+ * @param <A> message type
+ * @param <B> context type (for example a listener the message must be delivered to), may be unused
+ */
+public class SlsLaneExecutor<A, B> implements LaneExecutor {
+
+    private static final Logger logger = Logger.getLogger(SlsLaneExecutor.class);
+
+    public static final int DEFAULT_LANE_CAPACITY = 256;
+    protected static final int BATCH_SIZE = 64;
+    // a worker that has nothing to do re-checks queues with this period even if nobody has woken it up
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    // marks a control Runnable stored instead of a message
+    private static final Object TASK = new Object();
+
+    /**
+     * Consumer of delivered messages. It is invoked from worker threads.
+     */
+    public interface Handler<A, B> {
+        void onMessage(A message, B context);
+    }
+
+    private final Handler<A, B> handler;
+    private final Lane[] lanes;
+    private final Worker[] workers;
+    private volatile boolean started = true;
+    // set after all messages accepted before shutdown are queued, workers exit when there are no scheduled lanes
+    private volatile boolean closed;
+
+    public SlsLaneExecutor(int laneCount, int workerCount, int laneCapacity, ThreadFactory threadFactory, Handler<A, B> handler) {
+        if (laneCount < 1 || workerCount < 1 || laneCapacity < 1)
+            throw new IllegalArgumentException("laneCount, workerCount and laneCapacity must be positive");
+
+        this.handler = handler;
+
+        this.workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            this.workers[i] = new Worker(this, laneCount);
+        }
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            this.lanes[i] = new Lane(i, this.workers[i % workerCount], laneCapacity);
+        }
+        for (int i = 0; i < workerCount; i++) {
+            this.workers[i].thread = threadFactory.newThread(this.workers[i]);
+        }
+        for (int i = 0; i < workerCount; i++) {
+            this.workers[i].thread.start();
+        }
+    }
+
+    /**
+     * Queues a message for delivering. Messages of one lane are delivered in the order of this method invoking.
+     *
+     * @param lane lane index (usually SLS), it is taken modulo lane count
+     */
+    public void execute(int lane, A message, B context) {
+        this.offer(this.lanes[(lane & 0x7fffffff) % this.lanes.length], message, context);
+    }
+
+    @Override
+    public void execute(int lane, Runnable task) {
+        this.offer(this.lanes[(lane & 0x7fffffff) % this.lanes.length], task, TASK);
+    }
+
+    @Override
+    public int getLaneCount() {
+        return this.lanes.length;
+    }
+
+    @Override
+    public int getLaneQueueDepth(int lane) {
+        return this.lanes[lane].size;
+    }
+
+    @Override
+    public long getLaneSojournTime(int lane) {
+        Lane l = this.lanes[lane];
+        long now = System.nanoTime();
+        synchronized (l) {
+            if (l.size == 0)
+                return 0;
+            return now - l.enqueueTime[l.head];
+        }
+    }
+
+    int getLaneCapacity(int lane) {
+        Lane l = this.lanes[lane];
+        synchronized (l) {
+            return l.first.length;
+        }
+    }
+
+    public int getWorkerCount() {
+        return this.workers.length;
+    }
+
+    public boolean isStarted() {
+        return this.started;
+    }
+
+    /**
+     * Stops accepting of messages. Messages that are already queued are delivered, after this workers exit. Does not wait for
+     * the delivering, see {@link #awaitTermination(long, TimeUnit)}.
+     */
+    public void shutdown() {
+        this.started = false;
+        // an offer that has seen the started flag before it was reset has queued its message when the lane monitor is released
+        for (Lane lane : this.lanes) {
+            synchronized (lane) {
+            }
+        }
+        this.closed = true;
+        for (Worker worker : this.workers) {
+            LockSupport.unpark(worker.thread);
+        }
+    }
+
+    /**
+     * Waits till workers have delivered queued messages and exited after {@link #shutdown()}.
+     *
+     * @return true if all workers have exited, false if the timeout has elapsed before
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Worker worker : this.workers) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining > 0)
+                worker.thread.join(remaining);
+            if (worker.thread.isAlive())
+                return false;
+        }
+        return true;
+    }
+
+    private boolean isIdle() {
+        for (Lane lane : this.lanes) {
+            synchronized (lane) {
+                if (lane.scheduled)
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    private void offer(Lane lane, Object a, Object b) {
+        long now = System.nanoTime();
+        boolean schedule;
+        synchronized (lane) {
+            if (!this.started)
+                throw new RejectedExecutionException("SlsLaneExecutor is shut down");
+            lane.put(a, b, now);
+            schedule = !lane.scheduled;
+            if (schedule)
+                lane.scheduled = true;
+        }
+        if (schedule)
+            this.schedule(lane);
+    }
+
+    private void schedule(Lane lane) {
+        Worker home = lane.home;
+        // a lane is present in at most one worker queue, so a queue with capacity of lane count never overflows
+        home.queue.offer(lane);
+        if (home.parked) {
+            LockSupport.unpark(home.thread);
+        } else {
+            // the home worker is busy, let an idle one steal the lane
+            for (Worker worker : this.workers) {
+                if (worker.parked) {
+                    LockSupport.unpark(worker.thread);
+                    break;
+                }
+            }
+        }
+    }
+
+    private Lane steal(Worker thief) {
+        for (Worker worker : this.workers) {
+            if (worker != thief) {
+                Lane lane = worker.queue.poll();
+                if (lane != null)
+                    return lane;
+            }
+        }
+        return null;
+    }
+
+    private void process(Lane lane) {
+        Object a;
+        Object b;
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            synchronized (lane) {
+                if (lane.size == 0) {
+                    lane.scheduled = false;
+                    return;
+                }
+                a = lane.first[lane.head];
+                b = lane.second[lane.head];
+                lane.removeFirst();
+            }
+            try {
+                if (b == TASK) {
+                    ((Runnable) a).run();
+                } else {
+                    this.deliver(a, b);
+                }
+            } catch (Throwable e) {
+                logger.error("Exception while delivering of a message: " + e.getMessage(), e);
+            }
+        }
+        synchronized (lane) {
+            if (lane.size == 0) {
+                lane.scheduled = false;
+                return;
+            }
+        }
+        this.schedule(lane);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void deliver(Object a, Object b) {
+        this.handler.onMessage((A) a, (B) b);
+    }
+
+    private static final class Lane {
+        private final int index;
+        private final Worker home;
+        private final int initialCapacity;
+        private Object[] first;
+        private Object[] second;
+        // System.nanoTime() of queuing, used for the sojourn time measuring
+        private long[] enqueueTime;
+        private int head;
+        private volatile int size;
+        private boolean scheduled;
+
+        Lane(int index, Worker home, int capacity) {
+            this.index = index;
+            this.home = home;
+            this.initialCapacity = capacity;
+            this.first = new Object[capacity];
+            this.second = new Object[capacity];
+            this.enqueueTime = new long[capacity];
+        }
+
+        void put(Object a, Object b, long now) {
+            int capacity = this.first.length;
+            if (this.size == capacity) {
+                Object[] newFirst = new Object[capacity * 2];
+                Object[] newSecond = new Object[capacity * 2];
+                long[] newEnqueueTime = new long[capacity * 2];
+                for (int i = 0; i < capacity; i++) {
+                    int pos = (this.head + i) % capacity;
+                    newFirst[i] = this.first[pos];
+                    newSecond[i] = this.second[pos];
+                    newEnqueueTime[i] = this.enqueueTime[pos];
+                }
+                this.first = newFirst;
+                this.second = newSecond;
+                this.enqueueTime = newEnqueueTime;
+                this.head = 0;
+                capacity *= 2;
+            }
+            int pos = (this.head + this.size) % capacity;
+            this.first[pos] = a;
+            this.second[pos] = b;
+            this.enqueueTime[pos] = now;
+            this.size++;
+        }
+
+        void removeFirst() {
+            this.first[this.head] = null;
+            this.second[this.head] = null;
+            this.head = (this.head + 1) % this.first.length;
+            this.size--;
+            if (this.size == 0 && this.first.length > this.initialCapacity) {
+                // the burst is over, return to the initial capacity
+                this.first = new Object[this.initialCapacity];
+                this.second = new Object[this.initialCapacity];
+                this.enqueueTime = new long[this.initialCapacity];
+                this.head = 0;
+            }
+        }
+
+
+        @Override
+        public String toString() {
+            return "Lane-" + this.index;
+        }
+    }
+
+    private static final class Worker implements Runnable {
+        private final SlsLaneExecutor<?, ?> executor;
+        private final ArrayBlockingQueue<Lane> queue;
+        private Thread thread;
+        private volatile boolean parked;
+
+        Worker(SlsLaneExecutor<?, ?> executor, int laneCount) {
+            this.executor = executor;
+            this.queue = new ArrayBlockingQueue<Lane>(laneCount);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Lane lane = this.queue.poll();
+                if (lane == null)
+                    lane = executor.steal(this);
+                if (lane == null) {
+                    // after shutdown a worker exits when messages of all lanes are delivered
+                    if (executor.closed && executor.isIdle())
+                        break;
+                    this.parked = true;
+                    // re-check after publishing of the parked flag, a producer may have missed it
+                    lane = this.queue.poll();
+                    if (lane == null)
+                        lane = executor.steal(this);
+                    if (lane == null)
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    this.parked = false;
+                    if (lane == null)
+                        continue;
+                }
+                executor.process(lane);
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.mtp;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.restcomm.ss7.congestion.AdaptiveCongestionController;
+import org.restcomm.ss7.congestion.ExecutorCongestionMonitorImpl;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for {@link AdaptiveCongestionController} driven by {@link SlsLaneExecutor} sojourn times
+ */
+public class AdaptiveCongestionControlTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testDecreaseAndRecovery() {
+        AdaptiveCongestionController controller = new AdaptiveCongestionController();
+        long now = 1;
+
+        // below the target - no congestion
+        for (int i = 0; i < 10; i++) {
+            controller.sample(MS, 1, now);
+            now += 5 * MS;
+        }
+        assertEquals(controller.getAdmissionProbability(), 1.0, 0.0);
+        assertEquals(controller.getLevel(), 0);
+
+        // above the target, but shorter than the interval - no reaction
+        for (int i = 0; i < 10; i++) {
+            controller.sample(20 * MS, 100, now);
+            now += 5 * MS;
+        }
+        assertEquals(controller.getAdmissionProbability(), 1.0, 0.0);
+
+        // above the target for a long time - the admission goes down to the min value
+        for (int i = 0; i < 1000; i++) {
+            controller.sample(20 * MS, 100, now);
+            now += 5 * MS;
+        }
+        assertEquals(controller.getAdmissionProbability(), AdaptiveCongestionController.DEFAULT_MIN_ADMISSION_PROBABILITY,
+                0.000001);
+        assertEquals(controller.getLevel(), 2);
+
+        // overload
+        controller.sample(AdaptiveCongestionController.DEFAULT_OVERLOAD_SOJOURN_TIME, 1000, now);
+        now += 5 * MS;
+        assertEquals(controller.getLevel(), 3);
+
+        // the queue is drained - additive increase
+        controller.sample(0, 0, now);
+        now += 5 * MS;
+        assertEquals(controller.getLevel(), 1);
+        for (int i = 0; i < 100; i++) {
+            controller.sample(0, 0, now);
+            now += 5 * MS;
+        }
+        assertEquals(controller.getAdmissionProbability(), 1.0, 0.0);
+        assertEquals(controller.getLevel(), 0);
+        assertTrue(controller.admit());
+    }
+
+    @Test
+    public void testZeroNanoTime() {
+        AdaptiveCongestionController controller = new AdaptiveCongestionController();
+        // System.nanoTime() may be any value: the congestion starts so that the decrease time falls on 0
+        long now = -controller.getInterval();
+
+        controller.sample(0, 0, now - 5 * MS);
+        while (now <= 0) {
+            controller.sample(20 * MS, 100, now);
+            now += MS;
+        }
+        assertTrue(controller.getAdmissionProbability() < 1.0);
+
+        // a sample at 0 is used for the gradient of the next one
+        controller.reset();
+        controller.sample(0, 0, 0);
+        controller.sample(4 * MS, 40, 5 * MS);
+        assertTrue(controller.getPredictedSojournTime() > 4 * MS);
+    }
+
+    @Test
+    public void testPrediction() {
+        AdaptiveCongestionController controller = new AdaptiveCongestionController();
+        long now = 1;
+
+        // the sojourn time is still below the target but is growing fast
+        for (int i = 0; i < 4; i++) {
+            controller.sample(i * MS, i * 10, now);
+            now += 5 * MS;
+        }
+        assertTrue(controller.getSojournTime() < controller.getTarget());
+        assertTrue(controller.getPredictedSojournTime() > controller.getTarget());
+
+        controller.reset();
+        assertEquals(controller.getPredictedSojournTime(), 0);
+        assertEquals(controller.getAdmissionProbability(), 1.0, 0.0);
+    }
+
+    @Test
+    public void testLaneSojournTime() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        SlsLaneExecutor<Integer, Object> executor = new SlsLaneExecutor<Integer, Object>(2, 1, 4,
+                Executors.defaultThreadFactory(), new SlsLaneExecutor.Handler<Integer, Object>() {
+                    @Override
+                    public void onMessage(Integer message, Object context) {
+                        try {
+                            release.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                        }
+                    }
+                });
+        try {
+            assertEquals(executor.getLaneSojournTime(0), 0);
+
+            ExecutorCongestionMonitorImpl monitor = new ExecutorCongestionMonitorImpl("Test", executor,
+                    new AdaptiveCongestionController(MS, 10 * MS, 0, 1000 * MS, 0.02, 0.5, 0.05));
+            for (int i = 0; i < 3; i++) {
+                executor.execute(0, i, null);
+            }
+            Thread.sleep(50);
+            assertTrue(executor.getLaneSojournTime(0) >= 40 * MS);
+            assertEquals(executor.getLaneSojournTime(1), 0);
+
+            for (int i = 0; i < 10; i++) {
+                monitor.monitor();
+                Thread.sleep(5);
+            }
+            assertTrue(monitor.getAdmissionProbability() < 1.0);
+            assertTrue(monitor.getAlarmLevel() > 0);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.mtp;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+/**
+ * Tests for delivering of MTP-TRANSFER primitives by {@link Mtp3UserPartBaseImpl}
+ */
+public class Mtp3UserPartBaseImplTest {
+
+    private static class Mtp3UserPartImpl extends Mtp3UserPartBaseImpl {
+        Mtp3UserPartImpl() {
+            super("Mtp3UserPartBaseImplTest", null);
+        }
+
+        @Override
+        public int getMaxUserDataLength(int dpc) {
+            return 1000;
+        }
+
+        @Override
+        public void sendMessage(Mtp3TransferPrimitive msg) throws IOException {
+        }
+    }
+
+    @Test
+    public void testStopReleasesQueuedPrimitives() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        Mtp3UserPartImpl mtp3UserPart = new Mtp3UserPartImpl();
+        mtp3UserPart.setDeliveryMessageThreadCount(1);
+        mtp3UserPart.addMtp3UserPartListener(new Mtp3UserPartListener() {
+            @Override
+            public void onMtp3TransferMessage(Mtp3TransferPrimitive msg) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                }
+            }
+
+            @Override
+            public void onMtp3PauseMessage(Mtp3PausePrimitive msg) {
+            }
+
+            @Override
+            public void onMtp3ResumeMessage(Mtp3ResumePrimitive msg) {
+            }
+
+            @Override
+            public void onMtp3StatusMessage(Mtp3StatusPrimitive msg) {
+            }
+
+            @Override
+            public void onMtp3EndCongestionMessage(Mtp3EndCongestionPrimitive msg) {
+            }
+        });
+        mtp3UserPart.start();
+
+        List<ByteBuf> buffers = new ArrayList<ByteBuf>();
+        Mtp3TransferPrimitiveFactory factory = mtp3UserPart.getMtp3TransferPrimitiveFactory();
+        try {
+            for (int i = 0; i < 10; i++) {
+                ByteBuf buf = Unpooled.wrappedBuffer(new byte[] { 1, 2, 3 });
+                buffers.add(buf);
+                mtp3UserPart.sendTransferMessageToLocalUser(factory.createMtp3TransferPrimitive(3, 2, 0, 1, 2, i, buf), i);
+            }
+            mtp3UserPart.stop();
+
+            // a primitive that is received after stop is released at once
+            ByteBuf buf = Unpooled.wrappedBuffer(new byte[] { 1, 2, 3 });
+            mtp3UserPart.sendTransferMessageToLocalUser(factory.createMtp3TransferPrimitive(3, 2, 0, 1, 2, 0, buf), 0);
+            assertEquals(buf.refCnt(), 0);
+        } finally {
+            release.countDown();
+        }
+
+        // primitives that were queued at stop are released by the delivery workers
+        long deadline = System.currentTimeMillis() + 10000;
+        for (ByteBuf buf : buffers) {
+            while (buf.refCnt() != 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(buf.refCnt(), 0);
+        }
+        assertTrue(System.currentTimeMillis() < deadline);
+    }
+}
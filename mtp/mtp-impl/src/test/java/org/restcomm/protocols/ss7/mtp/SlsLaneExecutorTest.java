@@ -0,0 +1,215 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.mtp;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+/**
+ * Tests for {@link SlsLaneExecutor}
+ */
+public class SlsLaneExecutorTest {
+
+    @Test
+    public void testOrderPerLane() throws Exception {
+        final int laneCount = 16;
+        final int perLane = 2000;
+        final List<List<Integer>> received = new ArrayList<List<Integer>>();
+        for (int i = 0; i < laneCount; i++) {
+            received.add(new ArrayList<Integer>());
+        }
+        final CountDownLatch done = new CountDownLatch(laneCount * perLane);
+
+        // a small initial lane capacity forces ring buffers growing
+        SlsLaneExecutor<Integer, Integer> executor = new SlsLaneExecutor<Integer, Integer>(laneCount, 4, 8,
+                Executors.defaultThreadFactory(), new SlsLaneExecutor.Handler<Integer, Integer>() {
+                    @Override
+                    public void onMessage(Integer message, Integer lane) {
+                        List<Integer> list = received.get(lane);
+                        synchronized (list) {
+                            list.add(message);
+                        }
+                        done.countDown();
+                    }
+                });
+        try {
+            for (int i = 0; i < perLane; i++) {
+                for (int lane = 0; lane < laneCount; lane++) {
+                    executor.execute(lane, i, lane);
+                }
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+
+            for (int lane = 0; lane < laneCount; lane++) {
+                List<Integer> list = received.get(lane);
+                synchronized (list) {
+                    assertEquals(list.size(), perLane);
+                    for (int i = 0; i < perLane; i++) {
+                        assertEquals((int) list.get(i), i);
+                    }
+                }
+                assertEquals(executor.getLaneQueueDepth(lane), 0);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testHotLaneDoesNotBlockOtherLanes() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch otherDelivered = new CountDownLatch(1);
+
+        // lanes 0 and 2 have the same home worker
+        SlsLaneExecutor<Integer, Object> executor = new SlsLaneExecutor<Integer, Object>(4, 2, 4,
+                Executors.defaultThreadFactory(), new SlsLaneExecutor.Handler<Integer, Object>() {
+                    @Override
+                    public void onMessage(Integer message, Object context) {
+                        if (message == 0) {
+                            try {
+                                release.await(10, TimeUnit.SECONDS);
+                            } catch (InterruptedException e) {
+                            }
+                        } else {
+                            otherDelivered.countDown();
+                        }
+                    }
+                });
+        try {
+            for (int i = 0; i < 10; i++) {
+                executor.execute(0, 0, null);
+            }
+            Thread.sleep(100);
+            assertEquals(executor.getLaneQueueDepth(0), 9);
+
+            executor.execute(2, 2, null);
+            assertTrue(otherDelivered.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testTask() throws Exception {
+        final CountDownLatch done = new CountDownLatch(3);
+        SlsLaneExecutor<Integer, Object> executor = new SlsLaneExecutor<Integer, Object>(3, 1,
+                SlsLaneExecutor.DEFAULT_LANE_CAPACITY, Executors.defaultThreadFactory(),
+                new SlsLaneExecutor.Handler<Integer, Object>() {
+                    @Override
+                    public void onMessage(Integer message, Object context) {
+                    }
+                });
+        try {
+            assertEquals(executor.getLaneCount(), 3);
+            for (int i = 0; i < 3; i++) {
+                executor.execute(i, new Runnable() {
+                    @Override
+                    public void run() {
+                        done.countDown();
+                    }
+                });
+            }
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testShutdownDeliversQueuedMessages() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger delivered = new AtomicInteger();
+        SlsLaneExecutor<Integer, Object> executor = new SlsLaneExecutor<Integer, Object>(4, 2, 4,
+                Executors.defaultThreadFactory(), new SlsLaneExecutor.Handler<Integer, Object>() {
+                    @Override
+                    public void onMessage(Integer message, Object context) {
+                        try {
+                            release.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                        }
+                        delivered.incrementAndGet();
+                    }
+                });
+        try {
+            for (int i = 0; i < 100; i++) {
+                executor.execute(i, i, null);
+            }
+            executor.shutdown();
+            assertFalse(executor.isStarted());
+            try {
+                executor.execute(0, 100, null);
+                fail("A message must be rejected after shutdown");
+            } catch (RejectedExecutionException e) {
+            }
+            assertFalse(executor.awaitTermination(100, TimeUnit.MILLISECONDS));
+        } finally {
+            release.countDown();
+        }
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(delivered.get(), 100);
+    }
+
+    @Test
+    public void testLaneShrinksAfterBurst() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(100);
+        SlsLaneExecutor<Integer, Object> executor = new SlsLaneExecutor<Integer, Object>(1, 1, 4,
+                Executors.defaultThreadFactory(), new SlsLaneExecutor.Handler<Integer, Object>() {
+                    @Override
+                    public void onMessage(Integer message, Object context) {
+                        try {
+                            release.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                        }
+                        done.countDown();
+                    }
+                });
+        try {
+            for (int i = 0; i < 100; i++) {
+                executor.execute(0, i, null);
+            }
+            assertTrue(executor.getLaneCapacity(0) >= 99);
+
+            release.countDown();
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(executor.getLaneQueueDepth(0), 0);
+            assertEquals(executor.getLaneCapacity(0), 4);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+}
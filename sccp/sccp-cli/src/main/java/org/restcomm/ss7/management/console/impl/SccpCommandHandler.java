@@ -65,6 +65,18 @@ public class SccpCommandHandler extends CommandHandlerWithHelp {
         lmr.addChild("delete");
         lmr.addChild("show");
 
+        Node address = parent.addChild("address");
+        address.addChild("create");
+        address.addChild("modify");
+        address.addChild("delete");
+        address.addChild("show");
+
+        Node rule = parent.addChild("rule");
+        rule.addChild("create");
+        rule.addChild("modify");
+        rule.addChild("delete");
+        rule.addChild("show");
+
         Node csp = parent.addChild("csp");
         csp.addChild("create");
         csp.addChild("modify");
@@ -0,0 +1,401 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.sccp.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javolution.util.FastMap;
+import javolution.xml.XMLObjectReader;
+import javolution.xml.XMLObjectWriter;
+import javolution.xml.stream.XMLStreamException;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.restcomm.protocols.ss7.indicator.RoutingIndicator;
+import org.restcomm.protocols.ss7.sccp.LoadSharingAlgorithm;
+import org.restcomm.protocols.ss7.sccp.OriginationType;
+import org.restcomm.protocols.ss7.sccp.RemoteSignalingPointCode;
+import org.restcomm.protocols.ss7.sccp.RemoteSubSystem;
+import org.restcomm.protocols.ss7.sccp.Rule;
+import org.restcomm.protocols.ss7.sccp.RuleType;
+import org.restcomm.protocols.ss7.sccp.impl.message.SccpAddressedMessageImpl;
+import org.restcomm.protocols.ss7.sccp.impl.oam.SccpOAMMessage;
+import org.restcomm.protocols.ss7.sccp.impl.router.GlobalTitleRuleTrie;
+import org.restcomm.protocols.ss7.sccp.impl.router.RoutingAddressMap;
+import org.restcomm.protocols.ss7.sccp.impl.router.RuleImpl;
+import org.restcomm.protocols.ss7.sccp.impl.router.RuleMap;
+import org.restcomm.protocols.ss7.sccp.parameter.GlobalTitle;
+import org.restcomm.protocols.ss7.sccp.parameter.RefusalCauseValue;
+import org.restcomm.protocols.ss7.sccp.parameter.ReturnCauseValue;
+import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
+
+/**
+ * GT translation function of the SCCP stack. It is used by SccpStackImpl when no other sccp-ext module is configured.
+ *
+ * <p>
+ * GT translation rules and their primary / secondary addresses are configured by CLI and stored into the SCCP management
+ * configuration file together with other SCCP stack settings. Rules are compiled into a {@link GlobalTitleRuleTrie} and every
+ * configuration change replaces the rule maps and the compiled trie (copy-on-write), so the translation function reads them
+ * without any locking.
+ * </p>
+ * <p>
+ * Rule types: SOLITARY - only the primary address is used, DOMINANT - the secondary address is used when the primary one is
+ * not available, LOADSHARED - traffic is shared between both addresses by an SLS bit (see {@link LoadSharingAlgorithm}),
+ * BROADCAST - a message is sent to both addresses.
+ * </p>
+ *
+ */
+public class GlobalTitleTranslationImpl extends Ss7ExtSccpDetailedInterfaceDefault {
+
+    private static final String RULE = "rule";
+    private static final String ROUTING_ADDRESS = "routingAddress";
+
+    private Logger logger;
+    private SccpStackImpl sccpStackImpl;
+
+    private RuleMap rules = new RuleMap();
+    private RoutingAddressMap routingAddresses = new RoutingAddressMap();
+    private volatile GlobalTitleRuleTrie ruleTrie = GlobalTitleRuleTrie.EMPTY;
+
+    @Override
+    public void init(SccpStackImpl sccpStackImpl) {
+        super.init(sccpStackImpl);
+        this.logger = Logger.getLogger(GlobalTitleTranslationImpl.class.getCanonicalName() + "-" + sccpStackImpl.getName());
+        this.sccpStackImpl = sccpStackImpl;
+    }
+
+    public Rule getRule(int id) {
+        return this.rules.get(id);
+    }
+
+    public Map<Integer, Rule> getRules() {
+        Map<Integer, Rule> rulesTmp = new HashMap<Integer, Rule>();
+        rulesTmp.putAll(this.rules);
+        return rulesTmp;
+    }
+
+    public SccpAddress getRoutingAddress(int id) {
+        return this.routingAddresses.get(id);
+    }
+
+    public Map<Integer, SccpAddress> getRoutingAddresses() {
+        Map<Integer, SccpAddress> routingAddressesTmp = new HashMap<Integer, SccpAddress>();
+        routingAddressesTmp.putAll(this.routingAddresses);
+        return routingAddressesTmp;
+    }
+
+    public void addRule(int id, RuleType ruleType, LoadSharingAlgorithm algo, OriginationType originationType,
+            SccpAddress pattern, String mask, int pAddressId, int sAddressId, Integer newCallingPartyAddressId, int networkId,
+            SccpAddress patternCallingAddress) throws Exception {
+        if (this.getRule(id) != null) {
+            throw new Exception(SccpOAMMessage.RULE_ALREADY_EXIST);
+        }
+
+        this.putRule(id, new RuleImpl(ruleType, algo, originationType, pattern, mask, pAddressId, sAddressId,
+                newCallingPartyAddressId, networkId, patternCallingAddress));
+    }
+
+    public void modifyRule(int id, RuleType ruleType, LoadSharingAlgorithm algo, OriginationType originationType,
+            SccpAddress pattern, String mask, int pAddressId, int sAddressId, Integer newCallingPartyAddressId, int networkId,
+            SccpAddress patternCallingAddress) throws Exception {
+        if (this.getRule(id) == null) {
+            throw new Exception(String.format(SccpOAMMessage.RULE_DOESNT_EXIST, this.sccpStackImpl.getName()));
+        }
+
+        this.putRule(id, new RuleImpl(ruleType, algo, originationType, pattern, mask, pAddressId, sAddressId,
+                newCallingPartyAddressId, networkId, patternCallingAddress));
+    }
+
+    private void putRule(int id, RuleImpl rule) throws Exception {
+        rule.setRuleId(id);
+        rule.validate();
+
+        int maskSections = rule.getMask().split(RuleImpl.SECTION_SEPARATOR).length;
+        SccpAddress pAddress = this.getRoutingAddress(rule.getPrimaryAddressId());
+        if (pAddress == null) {
+            throw new Exception(String.format(SccpOAMMessage.NO_PRIMARY_ADDRESS, rule.getPrimaryAddressId()));
+        }
+        if (!this.checkSections(pAddress, maskSections)) {
+            throw new Exception(SccpOAMMessage.SEC_MISMATCH_PRIMADDRESS);
+        }
+        if (rule.getSecondaryAddressId() >= 0) {
+            SccpAddress sAddress = this.getRoutingAddress(rule.getSecondaryAddressId());
+            if (sAddress == null) {
+                throw new Exception(String.format(SccpOAMMessage.NO_BACKUP_ADDRESS, rule.getSecondaryAddressId()));
+            }
+            if (!this.checkSections(sAddress, maskSections)) {
+                throw new Exception(SccpOAMMessage.SEC_MISMATCH_SECADDRESS);
+            }
+        }
+        if (rule.getNewCallingPartyAddressId() != null && this.getRoutingAddress(rule.getNewCallingPartyAddressId()) == null) {
+            throw new Exception(String.format(SccpOAMMessage.ADDRESS_DOESNT_EXIST, this.sccpStackImpl.getName()));
+        }
+
+        synchronized (this) {
+            RuleMap newRules = new RuleMap();
+            newRules.putAll(this.rules);
+            newRules.put(id, rule);
+            this.setRules(newRules);
+            this.sccpStackImpl.store();
+        }
+    }
+
+    private boolean checkSections(SccpAddress address, int maskSections) {
+        GlobalTitle gt = address.getGlobalTitle();
+        if (gt == null || gt.getDigits() == null)
+            return true;
+        return gt.getDigits().split(RuleImpl.SECTION_SEPARATOR).length == maskSections;
+    }
+
+    public void removeRule(int id) throws Exception {
+        if (this.getRule(id) == null) {
+            throw new Exception(String.format(SccpOAMMessage.RULE_DOESNT_EXIST, this.sccpStackImpl.getName()));
+        }
+
+        synchronized (this) {
+            RuleMap newRules = new RuleMap();
+            newRules.putAll(this.rules);
+            newRules.remove(id);
+            this.setRules(newRules);
+            this.sccpStackImpl.store();
+        }
+    }
+
+    public void addRoutingAddress(int id, SccpAddress routingAddress) throws Exception {
+        if (this.getRoutingAddress(id) != null) {
+            throw new Exception(SccpOAMMessage.ADDRESS_ALREADY_EXIST);
+        }
+
+        this.putRoutingAddress(id, routingAddress);
+    }
+
+    public void modifyRoutingAddress(int id, SccpAddress routingAddress) throws Exception {
+        if (this.getRoutingAddress(id) == null) {
+            throw new Exception(String.format(SccpOAMMessage.ADDRESS_DOESNT_EXIST, this.sccpStackImpl.getName()));
+        }
+
+        this.putRoutingAddress(id, routingAddress);
+    }
+
+    private void putRoutingAddress(int id, SccpAddress routingAddress) throws Exception {
+        synchronized (this) {
+            RoutingAddressMap newRoutingAddresses = new RoutingAddressMap();
+            newRoutingAddresses.putAll(this.routingAddresses);
+            newRoutingAddresses.put(id, routingAddress);
+            this.routingAddresses = newRoutingAddresses;
+            this.sccpStackImpl.store();
+        }
+    }
+
+    public void removeRoutingAddress(int id) throws Exception {
+        if (this.getRoutingAddress(id) == null) {
+            throw new Exception(String.format(SccpOAMMessage.ADDRESS_DOESNT_EXIST, this.sccpStackImpl.getName()));
+        }
+
+        synchronized (this) {
+            for (FastMap.Entry<Integer, RuleImpl> e = this.rules.head(), end = this.rules.tail(); (e = e.getNext()) != end;) {
+                RuleImpl rule = e.getValue();
+                if (rule.getPrimaryAddressId() == id || rule.getSecondaryAddressId() == id
+                        || (rule.getNewCallingPartyAddressId() != null && rule.getNewCallingPartyAddressId() == id)) {
+                    throw new Exception(String.format(SccpOAMMessage.ADDRESS_USED_BY_RULE, e.getKey()));
+                }
+            }
+
+            RoutingAddressMap newRoutingAddresses = new RoutingAddressMap();
+            newRoutingAddresses.putAll(this.routingAddresses);
+            newRoutingAddresses.remove(id);
+            this.routingAddresses = newRoutingAddresses;
+            this.sccpStackImpl.store();
+        }
+    }
+
+    private void setRules(RuleMap newRules) {
+        this.rules = newRules;
+        this.ruleTrie = GlobalTitleRuleTrie.compile(newRules);
+    }
+
+    @Override
+    public void removeAllResourses() {
+        synchronized (this) {
+            if (this.rules.size() == 0 && this.routingAddresses.size() == 0)
+                // no resources allocated - nothing to do
+                return;
+
+            this.setRules(new RuleMap());
+            this.routingAddresses = new RoutingAddressMap();
+
+            // We store the cleared state
+            this.sccpStackImpl.store();
+        }
+    }
+
+    @Override
+    public void storeExt(XMLObjectWriter writer) throws XMLStreamException {
+        writer.write(this.routingAddresses, ROUTING_ADDRESS, RoutingAddressMap.class);
+        writer.write(this.rules, RULE, RuleMap.class);
+    }
+
+    @Override
+    public void loadExt(XMLObjectReader reader) throws XMLStreamException {
+        RoutingAddressMap routingAddressesTmp = reader.read(ROUTING_ADDRESS, RoutingAddressMap.class);
+        RuleMap rulesTmp = reader.read(RULE, RuleMap.class);
+
+        synchronized (this) {
+            if (routingAddressesTmp != null)
+                this.routingAddresses = routingAddressesTmp;
+            if (rulesTmp != null)
+                this.setRules(rulesTmp);
+        }
+    }
+
+    @Override
+    public int findDpsForAddresses(SccpAddress calledPartyAddress, SccpAddress callingPartyAddress, int msgNetworkId) {
+        Rule rule = this.ruleTrie.find(calledPartyAddress, callingPartyAddress, false, msgNetworkId);
+        if (rule == null)
+            return -1;
+        SccpAddress pAddress = this.routingAddresses.get(rule.getPrimaryAddressId());
+        if (pAddress == null)
+            return -1;
+        return pAddress.getSignalingPointCode();
+    }
+
+    @Override
+    public void translationFunction(SccpRoutingCtxInterface ctx, SccpAddressedMessageImpl msg) throws Exception {
+        SccpAddress calledPartyAddress = msg.getCalledPartyAddress();
+        Rule rule = this.ruleTrie.find(calledPartyAddress, msg.getCallingPartyAddress(), msg.getIsMtpOriginated(),
+                msg.getNetworkId());
+        if (rule == null) {
+            if (logger.isEnabledFor(Level.WARN)) {
+                logger.warn(String.format("Received SccpMessage=%s for Translation but no matching Rule found for local routing",
+                        msg));
+            }
+            ctx.sendSccpError(msg, ReturnCauseValue.NO_TRANSLATION_FOR_ADDRESS, RefusalCauseValue.DESTINATION_ADDRESS_UNKNOWN);
+            return;
+        }
+
+        RoutingAddressMap addresses = this.routingAddresses;
+        SccpAddress pAddress = addresses.get(rule.getPrimaryAddressId());
+        SccpAddress sAddress = rule.getSecondaryAddressId() >= 0 ? addresses.get(rule.getSecondaryAddressId()) : null;
+        if (pAddress == null || (rule.getRuleType() != RuleType.SOLITARY && sAddress == null)) {
+            if (logger.isEnabledFor(Level.WARN)) {
+                logger.warn(String.format("Received SccpMessage=%s for Translation but no primary / secondary address defined for Rule=%s",
+                        msg, rule));
+            }
+            ctx.sendSccpError(msg, ReturnCauseValue.SCCP_FAILURE, RefusalCauseValue.SCCP_FAILURE);
+            return;
+        }
+
+        if (rule.getNewCallingPartyAddressId() != null) {
+            SccpAddress newCallingPartyAddress = addresses.get(rule.getNewCallingPartyAddressId());
+            if (newCallingPartyAddress != null) {
+                msg.setCallingPartyAddress(newCallingPartyAddress);
+            }
+        }
+
+        switch (rule.getRuleType()) {
+            case SOLITARY:
+                this.route(ctx, msg, rule, pAddress);
+                break;
+            case DOMINANT:
+                if (this.isAddressAvailable(pAddress) || !this.isAddressAvailable(sAddress)) {
+                    this.route(ctx, msg, rule, pAddress);
+                } else {
+                    this.route(ctx, msg, rule, sAddress);
+                }
+                break;
+            case LOADSHARED:
+                boolean pAvailable = this.isAddressAvailable(pAddress);
+                boolean sAvailable = this.isAddressAvailable(sAddress);
+                if (pAvailable && sAvailable) {
+                    this.route(ctx, msg, rule, this.selectSecondary(rule.getLoadSharingAlgorithm(), msg.getSls()) ? sAddress
+                            : pAddress);
+                } else {
+                    this.route(ctx, msg, rule, pAvailable || !sAvailable ? pAddress : sAddress);
+                }
+                break;
+            case BROADCAST:
+                // routing changes the called party address of a message and the message may still be in a delivery queue,
+                // so each destination gets its own message
+                SccpAddressedMessageImpl copy = msg.copyForRouting();
+                this.route(ctx, msg, rule, pAddress);
+                this.route(ctx, copy, rule, sAddress);
+                break;
+        }
+    }
+
+    private void route(SccpRoutingCtxInterface ctx, SccpAddressedMessageImpl msg, Rule rule, SccpAddress address)
+            throws Exception {
+        SccpAddress translatedAddress = rule.translate(msg.getCalledPartyAddress(), address);
+        translatedAddress.setTranslated(true);
+        msg.setCalledPartyAddress(translatedAddress);
+
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("Matching Rule=%s for SccpMessage=%s, translated CalledPartyAddress=%s", rule, msg,
+                    translatedAddress));
+        }
+
+        ctx.routeAddressed(msg);
+    }
+
+    private boolean selectSecondary(LoadSharingAlgorithm algo, int sls) {
+        int bit;
+        switch (algo) {
+            case Bit1:
+                bit = 1;
+                break;
+            case Bit2:
+                bit = 2;
+                break;
+            case Bit3:
+                bit = 3;
+                break;
+            case Bit4:
+                bit = 4;
+                break;
+            default:
+                bit = 0;
+                break;
+        }
+        return ((sls >> bit) & 0x01) != 0;
+    }
+
+    private boolean isAddressAvailable(SccpAddress address) {
+        int pc = address.getSignalingPointCode();
+        if (this.sccpStackImpl.getRouter().spcIsLocal(pc))
+            return true;
+
+        RemoteSignalingPointCode remoteSpc = this.sccpStackImpl.getSccpResource().getRemoteSpcByPC(pc);
+        if (remoteSpc == null || remoteSpc.isRemoteSpcProhibited())
+            return false;
+
+        int ssn = address.getSubsystemNumber();
+        if (ssn > 1 && address.getAddressIndicator().getRoutingIndicator() == RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN) {
+            RemoteSubSystem remoteSsn = this.sccpStackImpl.getSccpResource().getRemoteSsn(pc, ssn);
+            if (remoteSsn != null && remoteSsn.isRemoteSsnProhibited())
+                return false;
+        }
+        return true;
+    }
+
+}
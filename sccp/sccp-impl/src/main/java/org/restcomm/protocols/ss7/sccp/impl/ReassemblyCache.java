@@ -0,0 +1,313 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.sccp.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.restcomm.protocols.ss7.sccp.impl.message.SccpSegmentableMessageImpl;
+import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
+
+/**
+ * Store of in-flight XUDT / XUDTS / LUDT reassembly processes.
+ *
+ * A process is keyed by the segmentation local reference and the calling party address. Lookups do not allocate a key object
+ * and do not lock the store. The state of a process (the first segment message and its accumulated data) is guarded by the
+ * {@link Reassembly} instance, so only segments of the same message are serialized.
+ *
+ * Expiry of processes is made by a timing wheel: every process is put into the bucket of the first tick that is not earlier
+ * than its deadline and {@link #expire(long)} that is invoked periodically by one thread drains only the buckets of passed
+ * ticks. So a process expires not later than one tick after its deadline.
+ */
+public class ReassemblyCache {
+
+    public static final long TICK_DURATION = 500; // milliseconds
+    private static final int WHEEL_SIZE = 64;
+
+    private static final ThreadLocal<Key> lookupKeys = new ThreadLocal<Key>() {
+        @Override
+        protected Key initialValue() {
+            return new Key();
+        }
+    };
+
+    private final ConcurrentHashMap<Key, Reassembly> processes = new ConcurrentHashMap<Key, Reassembly>();
+    private final ConcurrentLinkedQueue<Reassembly>[] wheel;
+    private volatile long lastTick = -1;
+
+    // metrics
+    private final AtomicInteger inFlightCount = new AtomicInteger();
+    private final AtomicLong startedCount = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public ReassemblyCache() {
+        this.wheel = new ConcurrentLinkedQueue[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            this.wheel[i] = new ConcurrentLinkedQueue<Reassembly>();
+        }
+    }
+
+    /**
+     * Registers a reassembly process for the first segment. The segment must be already prepared by
+     * {@link SccpSegmentableMessageImpl#setReceivedFirstSegment()}. A previous process with the same key is cancelled.
+     *
+     * @return the registered process or null if the message has no calling party address (reassembly is impossible)
+     */
+    public Reassembly start(int segmentationLocalRef, SccpSegmentableMessageImpl firstSegment, long timeout) {
+        return this.start(segmentationLocalRef, firstSegment, timeout, System.currentTimeMillis());
+    }
+
+    Reassembly start(int segmentationLocalRef, SccpSegmentableMessageImpl firstSegment, long timeout, long now) {
+        SccpAddress callingPartyAddress = firstSegment.getCallingPartyAddress();
+        if (callingPartyAddress == null)
+            return null;
+
+        Key key = new Key();
+        key.localRef = segmentationLocalRef;
+        key.callingPartyAddress = callingPartyAddress;
+        Reassembly r = new Reassembly(key, firstSegment, now + timeout);
+
+        this.startedCount.incrementAndGet();
+        Reassembly prev = this.processes.put(key, r);
+        if (prev != null) {
+            prev.cancel();
+            this.failedCount.incrementAndGet();
+        } else {
+            this.inFlightCount.incrementAndGet();
+        }
+        this.schedule(r);
+        return r;
+    }
+
+    private void schedule(Reassembly r) {
+        // the first tick that is not earlier than the deadline, but not a tick that has been already drained
+        long tick = (r.deadline + TICK_DURATION - 1) / TICK_DURATION;
+        long last = this.lastTick;
+        if (last >= 0 && tick <= last)
+            tick = last + 1;
+        this.wheel[(int) tick & (WHEEL_SIZE - 1)].add(r);
+    }
+
+    /**
+     * @return an active reassembly process for a non-first segment or null if it is not found
+     */
+    public Reassembly get(int segmentationLocalRef, SccpAddress callingPartyAddress) {
+        if (callingPartyAddress == null)
+            return null;
+
+        Key key = lookupKeys.get();
+        key.localRef = segmentationLocalRef;
+        key.callingPartyAddress = callingPartyAddress;
+        Reassembly r = this.processes.get(key);
+        key.callingPartyAddress = null;
+        return r;
+    }
+
+    /**
+     * Removes a process after the last segment is received. Must be invoked inside of synchronized(r).
+     *
+     * @return false if the process has been already removed (expired or replaced)
+     */
+    public boolean complete(Reassembly r) {
+        if (!this.remove(r))
+            return false;
+        this.completedCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Removes and cancels a process after a reassembly failure (for example segments order violation). Must be invoked
+     * inside of synchronized(r).
+     *
+     * @return false if the process has been already removed (expired or replaced)
+     */
+    public boolean fail(Reassembly r) {
+        if (!this.remove(r))
+            return false;
+        r.firstSegment.cancelSegmentation();
+        this.failedCount.incrementAndGet();
+        return true;
+    }
+
+    private boolean remove(Reassembly r) {
+        if (!r.active || !this.processes.remove(r.key, r))
+            return false;
+        r.active = false;
+        this.inFlightCount.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * Removes and cancels processes whose deadline has passed. Must be invoked periodically (with the period that is not
+     * greater than {@link #TICK_DURATION}) by a single thread.
+     *
+     * @return first segment messages of expired processes
+     */
+    public List<SccpSegmentableMessageImpl> expire(long now) {
+        long tick = now / TICK_DURATION;
+        if (this.lastTick < 0 || tick - this.lastTick > WHEEL_SIZE)
+            this.lastTick = tick - WHEEL_SIZE;
+
+        List<SccpSegmentableMessageImpl> res = null;
+        for (long t = this.lastTick + 1; t <= tick; t++) {
+            ConcurrentLinkedQueue<Reassembly> bucket = this.wheel[(int) t & (WHEEL_SIZE - 1)];
+            // processes that are added during the drain (and belong to next rounds) are processed at the next tick
+            for (int i = bucket.size(); i > 0; i--) {
+                Reassembly r = bucket.poll();
+                if (r == null)
+                    break;
+                if (!r.active)
+                    continue;
+                if (r.deadline > now) {
+                    // the process belongs to one of next wheel rounds
+                    bucket.add(r);
+                    continue;
+                }
+
+                synchronized (r) {
+                    if (!this.remove(r))
+                        continue;
+                    r.firstSegment.cancelSegmentation();
+                }
+                this.timeoutCount.incrementAndGet();
+                if (res == null)
+                    res = new ArrayList<SccpSegmentableMessageImpl>();
+                res.add(r.firstSegment);
+            }
+        }
+        this.lastTick = tick;
+
+        if (res == null)
+            return Collections.emptyList();
+        return res;
+    }
+
+    /**
+     * Cancels all processes (when the stack is stopping)
+     */
+    public void clear() {
+        for (Reassembly r : this.processes.values()) {
+            synchronized (r) {
+                if (this.remove(r))
+                    r.firstSegment.cancelSegmentation();
+            }
+        }
+        for (ConcurrentLinkedQueue<Reassembly> bucket : this.wheel) {
+            bucket.clear();
+        }
+        this.lastTick = -1;
+    }
+
+    public int size() {
+        return this.processes.size();
+    }
+
+    /**
+     * @return the count of reassembly processes that are waiting for next segments
+     */
+    public int getInFlightCount() {
+        return this.inFlightCount.get();
+    }
+
+    public long getStartedCount() {
+        return this.startedCount.get();
+    }
+
+    public long getCompletedCount() {
+        return this.completedCount.get();
+    }
+
+    /**
+     * @return the count of processes that have been cancelled because of segments order violation or a repeated first
+     *         segment
+     */
+    public long getFailedCount() {
+        return this.failedCount.get();
+    }
+
+    public long getTimeoutCount() {
+        return this.timeoutCount.get();
+    }
+
+    private static final class Key {
+        private int localRef;
+        private SccpAddress callingPartyAddress;
+
+        @Override
+        public int hashCode() {
+            return 31 * this.callingPartyAddress.hashCode() + this.localRef;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key) obj;
+            return other.localRef == this.localRef && this.callingPartyAddress.equals(other.callingPartyAddress);
+        }
+    }
+
+    /**
+     * Reassembly process of a segmented message
+     */
+    public static final class Reassembly {
+        private final Key key;
+        private final SccpSegmentableMessageImpl firstSegment;
+        private final long deadline;
+        private volatile boolean active = true;
+
+        private Reassembly(Key key, SccpSegmentableMessageImpl firstSegment, long deadline) {
+            this.key = key;
+            this.firstSegment = firstSegment;
+            this.deadline = deadline;
+        }
+
+        public SccpSegmentableMessageImpl getFirstSegment() {
+            return this.firstSegment;
+        }
+
+        /**
+         * @return false if the process has been completed, failed or expired
+         */
+        public boolean isActive() {
+            return this.active;
+        }
+
+        private void cancel() {
+            synchronized (this) {
+                if (this.active) {
+                    this.active = false;
+                    this.firstSegment.cancelSegmentation();
+                }
+            }
+        }
+    }
+}
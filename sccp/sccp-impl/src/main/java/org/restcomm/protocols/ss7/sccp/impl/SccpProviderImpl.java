@@ -45,6 +45,7 @@ import org.restcomm.protocols.ss7.sccp.impl.message.SccpDataMessageImpl;
 import org.restcomm.protocols.ss7.sccp.impl.message.SccpNoticeMessageImpl;
 import org.restcomm.protocols.ss7.sccp.impl.parameter.LocalReferenceImpl;
 import org.restcomm.protocols.ss7.sccp.impl.parameter.ParameterFactoryImpl;
+import org.restcomm.protocols.ss7.sccp.impl.parameter.SccpAddressCache;
 import org.restcomm.protocols.ss7.sccp.message.MessageFactory;
 import org.restcomm.protocols.ss7.sccp.message.SccpDataMessage;
 import org.restcomm.protocols.ss7.sccp.message.SccpNoticeMessage;
@@ -79,7 +80,7 @@ public class SccpProviderImpl implements SccpProvider, Serializable {
     SccpProviderImpl(SccpStackImpl stack) {
         this.stack = stack;
         this.messageFactory = stack.messageFactory;
-        this.parameterFactory = new ParameterFactoryImpl();
+        this.parameterFactory = new ParameterFactoryImpl(SccpAddressCache.DEFAULT_CAPACITY);
     }
 
     public MessageFactory getMessageFactory() {
@@ -218,6 +219,9 @@ public class SccpProviderImpl implements SccpProvider, Serializable {
             if (ecm != null)
                 res.add(ecm);
         }
+        ExecutorCongestionMonitor sccpEcm = this.stack.getMsgDeliveryCongestionMonitor();
+        if (sccpEcm != null)
+            res.add(sccpEcm);
 
         ExecutorCongestionMonitor[] ress = new ExecutorCongestionMonitor[res.size()];
         res.toArray(ress);
@@ -31,6 +31,7 @@ import org.restcomm.protocols.ss7.mtp.Mtp3;
 import org.restcomm.protocols.ss7.mtp.Mtp3TransferPrimitive;
 import org.restcomm.protocols.ss7.mtp.Mtp3TransferPrimitiveFactory;
 import org.restcomm.protocols.ss7.mtp.Mtp3UserPart;
+import org.restcomm.protocols.ss7.mtp.SlsLaneExecutor;
 import org.restcomm.protocols.ss7.sccp.LongMessageRule;
 import org.restcomm.protocols.ss7.sccp.LongMessageRuleType;
 import org.restcomm.protocols.ss7.sccp.Mtp3ServiceAccessPoint;
@@ -103,6 +104,7 @@ public class SccpRoutingControl implements SccpRoutingCtxInterface {
 
     private MessageFactoryImpl messageFactory;
     private ConcurrentHashMap<Integer, AtomicInteger> opcSscCounters = new ConcurrentHashMap<Integer, AtomicInteger>();
+    private final SccpTransferDeliveryHandler transferDeliveryHandler = new SccpTransferDeliveryHandler();
 
     public SccpRoutingControl(SccpProviderImpl sccpProviderImpl, SccpStackImpl sccpStackImpl) {
         this.messageFactory = sccpStackImpl.messageFactory;
@@ -913,9 +915,7 @@ public class SccpRoutingControl implements SccpRoutingCtxInterface {
         } else {
             // we need to make asynch delivering for local user originated messages
             int seqControl = msg.getSls();
-            SccpTransferDeliveryHandler hdl = new SccpTransferDeliveryHandler(msg, listener);
-            seqControl = seqControl & this.sccpStackImpl.slsFilter;
-            this.sccpStackImpl.msgDeliveryExecutors[this.sccpStackImpl.slsTable[seqControl]].execute(hdl);
+            this.sccpStackImpl.msgDeliveryExecutor.execute(seqControl & this.sccpStackImpl.slsFilter, msg, listener);
         }
     }
 
@@ -1183,17 +1183,14 @@ public class SccpRoutingControl implements SccpRoutingCtxInterface {
         return ((SccpConnReferencedMessageImpl)msg).getSourceLocalReferenceNumber().getValue() == conn.getRemoteReference().getValue();
     }
 
-    private class SccpTransferDeliveryHandler implements Runnable {
-        private SccpMessage msg;
-        private SccpListener listener;
+    protected SlsLaneExecutor.Handler<SccpMessage, SccpListener> getTransferDeliveryHandler() {
+        return this.transferDeliveryHandler;
+    }
 
-        public SccpTransferDeliveryHandler(SccpMessage msg, SccpListener listener) {
-            this.msg = msg;
-            this.listener = listener;
-        }
+    private class SccpTransferDeliveryHandler implements SlsLaneExecutor.Handler<SccpMessage, SccpListener> {
 
         @Override
-        public void run() {
+        public void onMessage(SccpMessage msg, SccpListener listener) {
             if (sccpStackImpl.isStarted()) {
                 try {
                     if (msg instanceof SccpDataMessage) {
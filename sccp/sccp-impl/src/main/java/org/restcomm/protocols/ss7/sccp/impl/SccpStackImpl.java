@@ -22,6 +22,8 @@
 
 package org.restcomm.protocols.ss7.sccp.impl;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
 import io.netty.util.concurrent.DefaultThreadFactory;
 import javolution.text.TextBuilder;
 import javolution.util.FastMap;
@@ -42,6 +44,7 @@ import org.restcomm.protocols.ss7.mtp.Mtp3StatusPrimitive;
 import org.restcomm.protocols.ss7.mtp.Mtp3TransferPrimitive;
 import org.restcomm.protocols.ss7.mtp.Mtp3UserPart;
 import org.restcomm.protocols.ss7.mtp.Mtp3UserPartListener;
+import org.restcomm.protocols.ss7.mtp.SlsLaneExecutor;
 import org.restcomm.protocols.ss7.sccp.LongMessageRule;
 import org.restcomm.protocols.ss7.sccp.LongMessageRuleType;
 import org.restcomm.protocols.ss7.sccp.MaxConnectionCountReached;
@@ -50,6 +53,7 @@ import org.restcomm.protocols.ss7.sccp.RemoteSignalingPointCode;
 import org.restcomm.protocols.ss7.sccp.Router;
 import org.restcomm.protocols.ss7.sccp.SccpCongestionControlAlgo;
 import org.restcomm.protocols.ss7.sccp.SccpConnectionState;
+import org.restcomm.protocols.ss7.sccp.SccpListener;
 import org.restcomm.protocols.ss7.sccp.SccpManagementEventListener;
 import org.restcomm.protocols.ss7.sccp.SccpProtocolVersion;
 import org.restcomm.protocols.ss7.sccp.SccpProvider;
@@ -65,6 +69,7 @@ import org.restcomm.protocols.ss7.sccp.impl.parameter.SccpAddressImpl;
 import org.restcomm.protocols.ss7.sccp.impl.parameter.SegmentationImpl;
 import org.restcomm.protocols.ss7.sccp.impl.router.RouterImpl;
 import org.restcomm.protocols.ss7.sccp.message.SccpConnMessage;
+import org.restcomm.protocols.ss7.sccp.message.SccpMessage;
 import org.restcomm.protocols.ss7.sccp.parameter.GlobalTitle;
 import org.restcomm.protocols.ss7.sccp.parameter.LocalReference;
 import org.restcomm.protocols.ss7.sccp.parameter.ProtocolClass;
@@ -73,6 +78,9 @@ import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
 import org.restcomm.protocols.ss7.scheduler.Scheduler;
 import org.restcomm.protocols.ss7.ss7ext.Ss7ExtInterface;
 import org.restcomm.protocols.ss7.ss7ext.Ss7ExtSccpInterface;
+import org.restcomm.ss7.congestion.AdaptiveCongestionController;
+import org.restcomm.ss7.congestion.ExecutorCongestionMonitor;
+import org.restcomm.ss7.congestion.ExecutorCongestionMonitorImpl;
 
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
@@ -81,11 +89,11 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -208,6 +216,10 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
     // SccpListener's for SCCP user -> SCCP -> SCCP user transit (without MTP part)
     protected int deliveryTransferMessageThreadCount = 4;
     protected int timerExecutorsThreadCount = 10;
+    // If set to true, the congestion of msgDeliveryExecutor is measured by AdaptiveCongestionController (the lane sojourn
+    // time is sampled every adaptiveCongestionSamplePeriod milliseconds) and is taken into account by SCCP users like TCAP
+    protected boolean adaptiveCongestionControl = false;
+    protected int adaptiveCongestionSamplePeriod = 5;
 
     private boolean previewMode = false;
 
@@ -230,12 +242,13 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
 
     protected FastMap<Integer, Mtp3UserPart> mtp3UserParts = new FastMap<Integer, Mtp3UserPart>();
     protected ScheduledExecutorService timerExecutors;
-    protected FastMap<MessageReassemblyProcess, SccpSegmentableMessageImpl> reassemplyCache = new FastMap<MessageReassemblyProcess, SccpSegmentableMessageImpl>();
+    protected ReassemblyCache reassemblyCache = new ReassemblyCache();
 
-    // executors for delivering messages SCCP user -> SCCP -> SCCP user (for messages that are not from or to MTP part)
-    protected ExecutorService[] msgDeliveryExecutors;
+    // executor for delivering messages SCCP user -> SCCP -> SCCP user (for messages that are not from or to MTP part), one
+    // lane per SLS
+    protected SlsLaneExecutor<SccpMessage, SccpListener> msgDeliveryExecutor;
     protected int slsFilter = 0x0f;
-    protected int[] slsTable = null;
+    protected ExecutorCongestionMonitorImpl msgDeliveryCongestionMonitor;
 
     // protected int localSpc;
     // protected int ni = 2;
@@ -267,6 +280,9 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
 
     public SccpStackImpl(Scheduler scheduler, String name, Ss7ExtInterface ss7ExtInterface) {
         this.scheduler = scheduler;
+        // the name is set before the extension is initialized, the extension uses it in its logger name
+        this.name = name;
+        this.logger = Logger.getLogger(SccpStackImpl.class.getCanonicalName() + "-" + this.name);
 
         Ss7ExtSccpInterface ss7ExtSccpInterface = null;
         if (ss7ExtInterface != null)
@@ -274,15 +290,12 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
         if (ss7ExtSccpInterface != null && ss7ExtSccpInterface instanceof Ss7ExtSccpDetailedInterface) {
             ss7ExtSccpDetailedInterface = (Ss7ExtSccpDetailedInterface) ss7ExtSccpInterface;
         } else {
-            ss7ExtSccpDetailedInterface = new Ss7ExtSccpDetailedInterfaceDefault();
+            ss7ExtSccpDetailedInterface = new GlobalTitleTranslationImpl();
         }
         ss7ExtSccpDetailedInterface.init(this);
 
         binding.setClassAttribute(CLASS_ATTRIBUTE);
 
-        this.name = name;
-        this.logger = Logger.getLogger(SccpStackImpl.class.getCanonicalName() + "-" + this.name);
-
         this.messageFactory = new MessageFactoryImpl(this);
         this.sccpProvider = new SccpProviderImpl(this);
 
@@ -420,6 +433,37 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
             this.deliveryTransferMessageThreadCount = deliveryMessageThreadCount;
     }
 
+    public boolean isAdaptiveCongestionControl() {
+        return adaptiveCongestionControl;
+    }
+
+    public void setAdaptiveCongestionControl(boolean adaptiveCongestionControl) throws Exception {
+        if (this.isStarted())
+            throw new Exception("AdaptiveCongestionControl parameter can be updated only when SCCP stack is NOT running");
+
+        this.adaptiveCongestionControl = adaptiveCongestionControl;
+    }
+
+    public int getAdaptiveCongestionSamplePeriod() {
+        return adaptiveCongestionSamplePeriod;
+    }
+
+    public void setAdaptiveCongestionSamplePeriod(int adaptiveCongestionSamplePeriod) throws Exception {
+        if (this.isStarted())
+            throw new Exception("AdaptiveCongestionSamplePeriod parameter can be updated only when SCCP stack is NOT running");
+
+        if (adaptiveCongestionSamplePeriod > 0 && adaptiveCongestionSamplePeriod <= 1000)
+            this.adaptiveCongestionSamplePeriod = adaptiveCongestionSamplePeriod;
+    }
+
+    /**
+     * @return the adaptive congestion monitor of the SCCP transit delivery executor or null if the adaptive congestion control
+     *         is not enabled
+     */
+    public ExecutorCongestionMonitor getMsgDeliveryCongestionMonitor() {
+        return msgDeliveryCongestionMonitor;
+    }
+
     public int getTimerExecutorsThreadCount() {
         return timerExecutorsThreadCount;
     }
@@ -825,13 +869,20 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
         return (this.selectorCounter == 1);
     }
 
-    protected void createSLSTable(int maxSls, int minimumBoundThread) {
-        int stream = 0;
-        for (int i = 0; i < maxSls; i++) {
-            if (stream >= minimumBoundThread) {
-                stream = 0;
-            }
-            slsTable[i] = stream++;
+    protected void startMsgDeliveryExecutor() {
+        // TODO: we do it for ITU standard, may be we may configure it for other standard's (different SLS count) maxSls and
+        // slsFilter values initiating
+        int maxSls = 16;
+        slsFilter = 0x0f;
+        this.msgDeliveryExecutor = new SlsLaneExecutor<SccpMessage, SccpListener>(maxSls,
+                this.deliveryTransferMessageThreadCount, SlsLaneExecutor.DEFAULT_LANE_CAPACITY, new DefaultThreadFactory(
+                        "SccpTransit-DeliveryExecutor"), this.sccpRoutingControl.getTransferDeliveryHandler());
+
+        if (this.adaptiveCongestionControl) {
+            this.msgDeliveryCongestionMonitor = new ExecutorCongestionMonitorImpl("SccpTransit-" + this.name,
+                    this.msgDeliveryExecutor, new AdaptiveCongestionController());
+            this.timerExecutors.scheduleWithFixedDelay(new AdaptiveCongestionMonitorTask(), this.adaptiveCongestionSamplePeriod,
+                    this.adaptiveCongestionSamplePeriod, TimeUnit.MILLISECONDS);
         }
     }
 
@@ -882,19 +933,11 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
         logger.info("Starting MSU handler...");
 
         this.timerExecutors = Executors.newScheduledThreadPool(timerExecutorsThreadCount);
+        this.timerExecutors.scheduleWithFixedDelay(new ReassemblyExpiryTask(), ReassemblyCache.TICK_DURATION,
+                ReassemblyCache.TICK_DURATION, TimeUnit.MILLISECONDS);
 
         // initiating of SCCP delivery executors
-        // TODO: we do it for ITU standard, may be we may configure it for other standard's (different SLS count) maxSls and
-        // slsFilter values initiating
-        int maxSls = 16;
-        slsFilter = 0x0f;
-        this.slsTable = new int[maxSls];
-        this.createSLSTable(maxSls, this.deliveryTransferMessageThreadCount);
-        this.msgDeliveryExecutors = new ExecutorService[this.deliveryTransferMessageThreadCount];
-        for (int i = 0; i < this.deliveryTransferMessageThreadCount; i++) {
-            this.msgDeliveryExecutors[i] = Executors.newFixedThreadPool(1, new DefaultThreadFactory(
-                    "SccpTransit-DeliveryExecutor-" + i));
-        }
+        this.startMsgDeliveryExecutor();
 
         for (FastMap.Entry<Integer, Mtp3UserPart> e = this.mtp3UserParts.head(), end = this.mtp3UserParts.tail(); (e = e
                 .getNext()) != end;) {
@@ -925,12 +968,11 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
 
         ss7ExtSccpDetailedInterface.stopExt();
 
-        if (this.msgDeliveryExecutors != null) {
-            for (ExecutorService es : this.msgDeliveryExecutors) {
-                es.shutdown();
-            }
-            this.msgDeliveryExecutors = null;
+        if (this.msgDeliveryExecutor != null) {
+            this.msgDeliveryExecutor.shutdown();
+            this.msgDeliveryExecutor = null;
         }
+        this.msgDeliveryCongestionMonitor = null;
 
         for (SccpManagementEventListener lstr : this.sccpProvider.managementEventListeners) {
             try {
@@ -956,10 +998,8 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
 
         this.router.stop();
 
-        synchronized (reassemplyCache) {
-            this.timerExecutors.shutdownNow();
-            reassemplyCache.clear();
-        }
+        this.timerExecutors.shutdownNow();
+        this.reassemblyCache.clear();
 
         this.store();
 
@@ -1111,8 +1151,8 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
 
         try {
             int fieldsLen = 0;
-            byte[] cdp = ((SccpAddressImpl) calledPartyAddress).encode(isRemoveSpc(), this.getSccpProtocolVersion());
-            byte[] cnp = ((SccpAddressImpl) callingPartyAddress).encode(isRemoveSpc(), this.getSccpProtocolVersion());
+            byte[] cdp = ((SccpAddressImpl) calledPartyAddress).getEncoded(isRemoveSpc(), this.getSccpProtocolVersion());
+            byte[] cnp = ((SccpAddressImpl) callingPartyAddress).getEncoded(isRemoveSpc(), this.getSccpProtocolVersion());
             switch (lmrt) {
                 case LONG_MESSAGE_FORBBIDEN:
                     fieldsLen = calculateUdtFieldsLengthWithoutData(cdp.length, cnp.length);
@@ -1306,6 +1346,9 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
                     return;
                 }
 
+                // the primitive can be sent asynchronously, so data of a primitive that refers to a received buffer (zero-copy
+                // mode) is copied before the buffer is released
+                mtp3Msg.getData();
                 mup.sendMessage(mtp3Msg);
                 return;
             }
@@ -1319,8 +1362,15 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
             }
 
             // decoding of a message
-            ByteArrayInputStream bais = new ByteArrayInputStream(mtp3Msg.getData());
-            DataInputStream in = new DataInputStream(bais);
+            InputStream is;
+            ByteBuf dataBuf = mtp3Msg.getDataBuf();
+            if (dataBuf != null) {
+                // zero-copy mode: the message is decoded directly from the received buffer
+                is = new ByteBufInputStream(dataBuf.duplicate());
+            } else {
+                is = new ByteArrayInputStream(mtp3Msg.getData());
+            }
+            DataInputStream in = new DataInputStream(is);
             int mt = in.readUnsignedByte();
             msg = ((MessageFactoryImpl) sccpProvider.getMessageFactory()).createMessage(mt, mtp3Msg.getOpc(), mtp3Msg.getDpc(), mtp3Msg.getSls(), in,
                     this.sccpProtocolVersion, 0);
@@ -1371,24 +1421,14 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
 
                             // first segment
                             sgmMsg.setReceivedFirstSegment();
-                            MessageReassemblyProcess msp = new MessageReassemblyProcess(segm.getSegmentationLocalRef(),
-                                    sgmMsg.getCallingPartyAddress());
-                            synchronized (this.reassemplyCache) {
-                                this.reassemplyCache.put(msp, sgmMsg);
-                            }
-                            sgmMsg.setMessageReassemblyProcess(msp);
-                            msp.startTimer();
+                            this.reassemblyCache.start(segm.getSegmentationLocalRef(), sgmMsg, this.reassemblyTimerDelay);
                             return;
                         } else {
 
                             // nonfirst segment
-                            MessageReassemblyProcess msp = new MessageReassemblyProcess(segm.getSegmentationLocalRef(),
+                            ReassemblyCache.Reassembly reassembly = this.reassemblyCache.get(segm.getSegmentationLocalRef(),
                                     sgmMsg.getCallingPartyAddress());
-                            SccpSegmentableMessageImpl sgmMsgFst = null;
-                            synchronized (this.reassemplyCache) {
-                                sgmMsgFst = this.reassemplyCache.get(msp);
-                            }
-                            if (sgmMsgFst == null) {
+                            if (reassembly == null) {
                                 // previous segments cache is not found -
                                 // discard a segment
                                 if (logger.isEnabledFor(Level.WARN)) {
@@ -1398,14 +1438,31 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
                                 }
                                 return;
                             }
-                            if (sgmMsgFst.getRemainingSegments() - 1 != segm.getRemainingSegments()) {
-                                // segments bad order
-                                synchronized (this.reassemplyCache) {
-                                    this.reassemplyCache.remove(msp);
-                                    MessageReassemblyProcess mspMain = sgmMsgFst.getMessageReassemblyProcess();
-                                    if (mspMain != null)
-                                        mspMain.stopTimer();
+                            SccpSegmentableMessageImpl sgmMsgFst = reassembly.getFirstSegment();
+                            boolean badOrder = false;
+                            synchronized (reassembly) {
+                                if (!reassembly.isActive()) {
+                                    // the process has just expired
+                                    return;
                                 }
+                                if (sgmMsgFst.getRemainingSegments() - 1 != segm.getRemainingSegments()) {
+                                    // segments bad order
+                                    if (!this.reassemblyCache.fail(reassembly))
+                                        return;
+                                    badOrder = true;
+                                } else if (sgmMsgFst.getRemainingSegments() == 1) {
+                                    // last segment
+                                    if (!this.reassemblyCache.complete(reassembly))
+                                        return;
+                                    sgmMsgFst.setReceivedNextSegment(sgmMsg);
+                                    msg = sgmMsgFst;
+                                } else {
+                                    // not last segment
+                                    sgmMsgFst.setReceivedNextSegment(sgmMsg);
+                                    return;
+                                }
+                            }
+                            if (badOrder) {
                                 if (logger.isEnabledFor(Level.WARN)) {
                                     logger.warn(String
                                             .format("Reassembly function failure: when receiving a next segment message order is missing. SccpMessageSegment=%s",
@@ -1414,25 +1471,6 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
                                 this.sccpRoutingControl.sendSccpError(sgmMsgFst, ReturnCauseValue.CANNOT_REASEMBLE, null);
                                 return;
                             }
-
-                            if (sgmMsgFst.getRemainingSegments() == 1) {
-                                // last segment
-                                synchronized (this.reassemplyCache) {
-                                    MessageReassemblyProcess mspMain = sgmMsgFst.getMessageReassemblyProcess();
-                                    if (mspMain != null)
-                                        mspMain.stopTimer();
-                                    this.reassemplyCache.remove(msp);
-                                }
-                                if (sgmMsgFst.getRemainingSegments() != 1)
-                                    return;
-
-                                sgmMsgFst.setReceivedNextSegment(sgmMsg);
-                                msg = sgmMsgFst;
-                            } else {
-                                // not last segment
-                                sgmMsgFst.setReceivedNextSegment(sgmMsg);
-                                return;
-                            }
                         }
                     }
                 }
@@ -1469,65 +1507,54 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
         }
     }
 
-    public class MessageReassemblyProcess implements Runnable {
-        private int segmentationLocalRef;
-        private SccpAddress callingPartyAddress;
-
-        private Future timer;
+    /**
+     * Periodic task that expires reassembly processes whose timer has passed
+     */
+    private class ReassemblyExpiryTask implements Runnable {
 
-        public MessageReassemblyProcess(int segmentationLocalRef, SccpAddress callingPartyAddress) {
-            this.segmentationLocalRef = segmentationLocalRef;
-            this.callingPartyAddress = callingPartyAddress;
+        public void run() {
+            List<SccpSegmentableMessageImpl> expired = reassemblyCache.expire(System.currentTimeMillis());
+            for (SccpSegmentableMessageImpl msg : expired) {
+                try {
+                    sccpRoutingControl.sendSccpError(msg, ReturnCauseValue.CANNOT_REASEMBLE, null);
+                } catch (Exception e) {
+                    logger.warn("IOException when sending an error message", e);
+                }
+            }
         }
+    }
 
-        @Override
-        public boolean equals(Object obj) {
-            if (obj == null)
-                return false;
-            if (!(obj instanceof MessageReassemblyProcess))
-                return false;
-            MessageReassemblyProcess x = (MessageReassemblyProcess) obj;
-            if (this.segmentationLocalRef != x.segmentationLocalRef)
-                return false;
-
-            if (this.callingPartyAddress == null || x.callingPartyAddress == null)
-                return false;
+    private class AdaptiveCongestionMonitorTask implements Runnable {
 
-            return this.callingPartyAddress.equals(x.callingPartyAddress);
-        }
-
-        @Override
-        public int hashCode() {
-            return this.segmentationLocalRef;
+        public void run() {
+            ExecutorCongestionMonitorImpl monitor = msgDeliveryCongestionMonitor;
+            if (monitor != null && isStarted()) {
+                monitor.monitor();
+            }
         }
+    }
 
-        public void startTimer() {
-            this.timer = timerExecutors.schedule(this, reassemblyTimerDelay, TimeUnit.MILLISECONDS);
-        }
+    /**
+     * @return the count of reassembly processes of segmented messages that are waiting for next segments
+     */
+    public int getReassemblyInFlightCount() {
+        return this.reassemblyCache.getInFlightCount();
+    }
 
-        public void stopTimer() {
-            if (this.timer != null) {
-                this.timer.cancel(false);
-                this.timer = null;
-            }
-        }
+    public long getReassemblyStartedCount() {
+        return this.reassemblyCache.getStartedCount();
+    }
 
-        public void run() {
-            SccpSegmentableMessageImpl msg = null;
-            synchronized (reassemplyCache) {
-                msg = reassemplyCache.remove(this);
-                if (msg == null)
-                    return;
+    public long getReassemblyCompletedCount() {
+        return this.reassemblyCache.getCompletedCount();
+    }
 
-                msg.cancelSegmentation();
-            }
+    public long getReassemblyFailedCount() {
+        return this.reassemblyCache.getFailedCount();
+    }
 
-            try {
-                sccpRoutingControl.sendSccpError(msg, ReturnCauseValue.CANNOT_REASEMBLE, null);
-            } catch (Exception e) {
-                logger.warn("IOException when sending an error message", e);
-            }
-        }
+    public long getReassemblyTimeoutCount() {
+        return this.reassemblyCache.getTimeoutCount();
     }
 
     /**
@@ -1577,6 +1604,8 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
             writer.write(this.sstTimerDuration_Max, SST_TIMER_DURATION_MAX, Integer.class);
             writer.write(this.sstTimerDuration_IncreaseFactor, SST_TIMER_DURATION_INCREASE_FACTOR, Double.class);
 
+            this.ss7ExtSccpDetailedInterface.storeExt(writer);
+
             writer.close();
         } catch (Exception e) {
             this.logger.error(
@@ -1691,6 +1720,8 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
             if (vald != null)
                 this.sstTimerDuration_IncreaseFactor = vald;
 
+            this.ss7ExtSccpDetailedInterface.loadExt(reader);
+
             reader.close();
 
     }
@@ -23,6 +23,9 @@
 package org.restcomm.protocols.ss7.sccp.impl;
 
 import javolution.util.FastMap;
+import javolution.xml.XMLObjectReader;
+import javolution.xml.XMLObjectWriter;
+import javolution.xml.stream.XMLStreamException;
 
 import org.restcomm.protocols.ss7.sccp.NetworkIdState;
 import org.restcomm.protocols.ss7.sccp.RemoteSccpStatus;
@@ -68,6 +71,22 @@ public interface Ss7ExtSccpDetailedInterface extends Ss7ExtSccpInterface {
      */
     void removeAllResourses();
 
+    /**
+     * Storing of sccp-ext configuration into the sccp stack configuration file (invoked at the end of SccpStackImpl.store())
+     * @param writer
+     * @throws XMLStreamException
+     */
+    default void storeExt(XMLObjectWriter writer) throws XMLStreamException {
+    }
+
+    /**
+     * Loading of sccp-ext configuration from the sccp stack configuration file (invoked at the end of SccpStackImpl.load())
+     * @param reader
+     * @throws XMLStreamException
+     */
+    default void loadExt(XMLObjectReader reader) throws XMLStreamException {
+    }
+
     /**
      * Getting of dpc o which a message will be routed depending on calledPartyAddress, callingPartyAddress andmsgNetworkId
      * @param calledPartyAddress
@@ -27,7 +27,7 @@ import org.restcomm.protocols.ss7.sccp.message.SccpAddressedMessage;
 import org.restcomm.protocols.ss7.sccp.parameter.HopCounter;
 import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
 
-public abstract class SccpAddressedMessageImpl extends SccpMessageImpl implements SccpAddressedMessage {
+public abstract class SccpAddressedMessageImpl extends SccpMessageImpl implements SccpAddressedMessage, Cloneable {
 
     protected SccpAddress calledParty;
     protected SccpAddress callingParty;
@@ -82,4 +82,20 @@ public abstract class SccpAddressedMessageImpl extends SccpMessageImpl implement
         }
         return true;
     }
+
+    /**
+     * Returns a copy of the message that can be routed independently of this one: routing changes the called party address
+     * and the hop counter of the copy only. Other parameters and the user data are shared.
+     */
+    public SccpAddressedMessageImpl copyForRouting() {
+        SccpAddressedMessageImpl copy;
+        try {
+            copy = (SccpAddressedMessageImpl) this.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        if (this.hopCounter != null)
+            copy.hopCounter = new HopCounterImpl(this.hopCounter.getValue());
+        return copy;
+    }
 }
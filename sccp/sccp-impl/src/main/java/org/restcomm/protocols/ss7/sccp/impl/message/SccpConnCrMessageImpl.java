@@ -31,6 +31,7 @@ import org.restcomm.protocols.ss7.sccp.impl.parameter.CreditImpl;
 import org.restcomm.protocols.ss7.sccp.impl.parameter.HopCounterImpl;
 import org.restcomm.protocols.ss7.sccp.impl.parameter.ImportanceImpl;
 import org.restcomm.protocols.ss7.sccp.impl.parameter.LocalReferenceImpl;
+import org.restcomm.protocols.ss7.sccp.impl.parameter.ParameterFactoryImpl;
 import org.restcomm.protocols.ss7.sccp.impl.parameter.ProtocolClassImpl;
 import org.restcomm.protocols.ss7.sccp.impl.parameter.SccpAddressImpl;
 import org.restcomm.protocols.ss7.sccp.message.ParseException;
@@ -321,6 +322,10 @@ public class SccpConnCrMessageImpl extends SccpAddressedMessageImpl implements S
     }
 
     protected SccpAddress createAddress(byte[] buffer, ParameterFactory factory, SccpProtocolVersion sccpProtocolVersion) throws ParseException {
+        if (factory instanceof ParameterFactoryImpl) {
+            // buffer is a fresh copy of the address parameter, so the cache may keep it
+            return ((ParameterFactoryImpl) factory).decodeSccpAddress(buffer, sccpProtocolVersion);
+        }
         SccpAddressImpl addressImpl = new SccpAddressImpl();
         addressImpl.decode(buffer, factory, sccpProtocolVersion);
         return addressImpl;
@@ -22,7 +22,9 @@
 
 package org.restcomm.protocols.ss7.sccp.impl.message;
 
-import java.io.ByteArrayOutputStream;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -34,6 +36,7 @@ import org.restcomm.protocols.ss7.sccp.SccpProtocolVersion;
 import org.restcomm.protocols.ss7.sccp.impl.SccpStackImpl;
 import org.restcomm.protocols.ss7.sccp.impl.parameter.HopCounterImpl;
 import org.restcomm.protocols.ss7.sccp.impl.parameter.ImportanceImpl;
+import org.restcomm.protocols.ss7.sccp.impl.parameter.ParameterFactoryImpl;
 import org.restcomm.protocols.ss7.sccp.impl.parameter.SccpAddressImpl;
 import org.restcomm.protocols.ss7.sccp.impl.parameter.SegmentationImpl;
 import org.restcomm.protocols.ss7.sccp.message.ParseException;
@@ -303,8 +306,9 @@ public abstract class SccpDataNoticeTemplateMessageImpl extends SccpSegmentableM
             if (!this.getSecondParamaterPresent())
                 return new EncodingResultData(EncodingResult.ProtocolClassMissing, null, null, null);
 
-            byte[] cdp = ((SccpAddressImpl) super.calledParty).encode(sccpStackImpl.isRemoveSpc(), sccpStackImpl.getSccpProtocolVersion());
-            byte[] cnp = ((SccpAddressImpl) super.callingParty).encode(sccpStackImpl.isRemoveSpc(), sccpStackImpl.getSccpProtocolVersion());
+            // cached encoded addresses, they are written into the message buffer without intermediate copies
+            byte[] cdp = ((SccpAddressImpl) super.calledParty).getEncoded(sccpStackImpl.isRemoveSpc(), sccpStackImpl.getSccpProtocolVersion());
+            byte[] cnp = ((SccpAddressImpl) super.callingParty).getEncoded(sccpStackImpl.isRemoveSpc(), sccpStackImpl.getSccpProtocolVersion());
 
             if (longMessageRuleType == null)
                 longMessageRuleType = LongMessageRuleType.LONG_MESSAGE_FORBBIDEN;
@@ -340,34 +344,34 @@ public abstract class SccpDataNoticeTemplateMessageImpl extends SccpSegmentableM
                     return new EncodingResultData(EncodingResult.ReturnFailure, null, null, ReturnCauseValue.SEG_NOT_SUPPORTED);
                 }
 
-                ByteArrayOutputStream out = new ByteArrayOutputStream(fieldsLen + bf.length);
+                ByteBuf out = allocate(fieldsLen + bf.length);
 
                 if (isServiceMessage)
                     this.type = SccpMessage.MESSAGE_TYPE_UDTS;
                 else
                     this.type = SccpMessage.MESSAGE_TYPE_UDT;
-                out.write(this.type);
-                out.write(this.getSecondParamaterData(removeSPC, sccpProtocolVersion));
+                out.writeByte(this.type);
+                out.writeBytes(this.getSecondParamaterData(removeSPC, sccpProtocolVersion));
 
                 int len = 3;
-                out.write(len);
+                out.writeByte(len);
 
                 len = (cdp.length + 3);
-                out.write(len);
+                out.writeByte(len);
 
                 len += (cnp.length);
-                out.write(len);
+                out.writeByte(len);
 
-                out.write((byte) cdp.length);
-                out.write(cdp);
+                out.writeByte((byte) cdp.length);
+                out.writeBytes(cdp);
 
-                out.write((byte) cnp.length);
-                out.write(cnp);
+                out.writeByte((byte) cnp.length);
+                out.writeBytes(cnp);
 
-                out.write((byte) bf.length);
-                out.write(bf);
+                out.writeByte((byte) bf.length);
+                out.writeBytes(bf);
 
-                return new EncodingResultData(EncodingResult.Success, out.toByteArray(), null, null);
+                return new EncodingResultData(EncodingResult.Success, out.array(), null, null);
             } else if (longMessageRuleType == LongMessageRuleType.XUDT_ENABLED) {
 
                 // use XUDT / XUDTS
@@ -392,52 +396,52 @@ public abstract class SccpDataNoticeTemplateMessageImpl extends SccpSegmentableM
 
                 if (bf.length <= availLenX && bf.length <= sccpStackImpl.getZMarginXudtMessage()) {
                     // one segment
-                    ByteArrayOutputStream out = new ByteArrayOutputStream(fieldsLenX + bf.length);
+                    ByteBuf out = allocate(fieldsLenX + bf.length);
 
-                    out.write(this.type);
+                    out.writeByte(this.type);
 
-                    out.write(this.getSecondParamaterData(removeSPC, sccpProtocolVersion));
-                    out.write(this.hopCounter.getValue());
+                    out.writeBytes(this.getSecondParamaterData(removeSPC, sccpProtocolVersion));
+                    out.writeByte(this.hopCounter.getValue());
 
                     // we have 4 pointers, cdp,cnp,data and optionalm, cdp starts after 4 octests than
                     int len = 4;
-                    out.write(len);
+                    out.writeByte(len);
 
                     len += cdp.length;
-                    out.write(len);
+                    out.writeByte(len);
 
                     len += cnp.length;
-                    out.write(len);
+                    out.writeByte(len);
                     boolean optionalPresent = false;
                     if (importance != null) {
                         len += (bf.length);
-                        out.write(len);
+                        out.writeByte(len);
                         optionalPresent = true;
                     } else {
                         // in case there is no optional
-                        out.write(0);
+                        out.writeByte(0);
                     }
 
-                    out.write((byte) cdp.length);
-                    out.write(cdp);
+                    out.writeByte((byte) cdp.length);
+                    out.writeBytes(cdp);
 
-                    out.write((byte) cnp.length);
-                    out.write(cnp);
+                    out.writeByte((byte) cnp.length);
+                    out.writeBytes(cnp);
 
-                    out.write((byte) bf.length);
-                    out.write(bf);
+                    out.writeByte((byte) bf.length);
+                    out.writeBytes(bf);
 
                     if (importance != null) {
-                        out.write(Importance.PARAMETER_CODE);
+                        out.writeByte(Importance.PARAMETER_CODE);
                         byte[] b = importance.encode(removeSPC, sccpProtocolVersion);
-                        out.write(b.length);
-                        out.write(b);
+                        out.writeByte(b.length);
+                        out.writeBytes(b);
                     }
 
                     if (optionalPresent)
-                        out.write(0x00);
+                        out.writeByte(0x00);
 
-                    return new EncodingResultData(EncodingResult.Success, out.toByteArray(), null, null);
+                    return new EncodingResultData(EncodingResult.Success, out.array(), null, null);
                 } else {
                     // several segments
                     if (bf.length > availLenXSegm * 16) {
@@ -489,51 +493,51 @@ public abstract class SccpDataNoticeTemplateMessageImpl extends SccpSegmentableM
                             last = bf.length;
                         int mLen = last - fst;
 
-                        ByteArrayOutputStream out = new ByteArrayOutputStream(fieldsLenXSegm + mLen);
+                        ByteBuf out = allocate(fieldsLenXSegm + mLen);
 
-                        out.write(this.type);
+                        out.writeByte(this.type);
 
-                        out.write(this.getSecondParamaterData(removeSPC, sccpProtocolVersion));
-                        out.write(this.hopCounter.getValue());
+                        out.writeBytes(this.getSecondParamaterData(removeSPC, sccpProtocolVersion));
+                        out.writeByte(this.hopCounter.getValue());
 
                         // we have 4 pointers, cdp,cnp,data and optionalm, cdp starts after 4 octests than
                         int len = 4;
-                        out.write(len);
+                        out.writeByte(len);
 
                         len += cdp.length;
-                        out.write(len);
+                        out.writeByte(len);
 
                         len += cnp.length;
-                        out.write(len);
+                        out.writeByte(len);
 
                         len += (mLen);
-                        out.write(len);
+                        out.writeByte(len);
 
-                        out.write((byte) cdp.length);
-                        out.write(cdp);
+                        out.writeByte((byte) cdp.length);
+                        out.writeBytes(cdp);
 
-                        out.write((byte) cnp.length);
-                        out.write(cnp);
+                        out.writeByte((byte) cnp.length);
+                        out.writeBytes(cnp);
 
-                        out.write((byte) mLen);
-                        out.write(bf, fst, mLen);
+                        out.writeByte((byte) mLen);
+                        out.writeBytes(bf, fst, mLen);
 
-                        out.write(Segmentation.PARAMETER_CODE);
+                        out.writeByte(Segmentation.PARAMETER_CODE);
                         segmentation.setRemainingSegments((byte) (segmentation.getRemainingSegments() - 1));
                         byte[] b = segmentation.encode(removeSPC, sccpProtocolVersion);
-                        out.write(b.length);
-                        out.write(b);
+                        out.writeByte(b.length);
+                        out.writeBytes(b);
                         segmentation.setFirstSegIndication(false);
 
                         if (importanceBuf != null) {
-                            out.write(Importance.PARAMETER_CODE);
-                            out.write(importanceBuf.length);
-                            out.write(importanceBuf);
+                            out.writeByte(Importance.PARAMETER_CODE);
+                            out.writeByte(importanceBuf.length);
+                            out.writeBytes(importanceBuf);
                         }
 
-                        out.write(0x00);
+                        out.writeByte(0x00);
 
-                        res.add(out.toByteArray());
+                        res.add(out.array());
                     }
 
                     return new EncodingResultData(EncodingResult.Success, null, res, null);
@@ -563,71 +567,82 @@ public abstract class SccpDataNoticeTemplateMessageImpl extends SccpSegmentableM
                     return new EncodingResultData(EncodingResult.ReturnFailure, null, null, ReturnCauseValue.SEG_FAILURE);
                 }
 
-                ByteArrayOutputStream out = new ByteArrayOutputStream(fieldsLenL + bf.length);
+                ByteBuf out = allocate(fieldsLenL + bf.length);
 
-                out.write(this.type);
+                out.writeByte(this.type);
 
-                out.write(this.getSecondParamaterData(removeSPC, sccpProtocolVersion));
-                out.write(this.hopCounter.getValue());
+                out.writeBytes(this.getSecondParamaterData(removeSPC, sccpProtocolVersion));
+                out.writeByte(this.hopCounter.getValue());
 
                 // we have 4 pointers, cdp,cnp,data and optionalm, cdp starts after 8 octests than
                 int len = 7;
-                out.write(len & 0xFF);
-                out.write((len >> 8) & 0xFF);
+                out.writeByte(len & 0xFF);
+                out.writeByte((len >> 8) & 0xFF);
 
                 len += cdp.length - 1;
-                out.write(len & 0xFF);
-                out.write((len >> 8) & 0xFF);
+                out.writeByte(len & 0xFF);
+                out.writeByte((len >> 8) & 0xFF);
 
                 len += cnp.length - 1;
-                out.write(len & 0xFF);
-                out.write((len >> 8) & 0xFF);
+                out.writeByte(len & 0xFF);
+                out.writeByte((len >> 8) & 0xFF);
                 boolean optionalPresent = false;
                 if (importance != null || segmentation != null) {
                     len += (bf.length);
-                    out.write(len & 0xFF);
-                    out.write((len >> 8) & 0xFF);
+                    out.writeByte(len & 0xFF);
+                    out.writeByte((len >> 8) & 0xFF);
                     optionalPresent = true;
                 } else {
                     // in case there is no optional
-                    out.write(0);
-                    out.write(0);
+                    out.writeByte(0);
+                    out.writeByte(0);
                 }
 
-                out.write((byte) cdp.length);
-                out.write(cdp);
+                out.writeByte((byte) cdp.length);
+                out.writeBytes(cdp);
 
-                out.write((byte) cnp.length);
-                out.write(cnp);
+                out.writeByte((byte) cnp.length);
+                out.writeBytes(cnp);
 
-                out.write(bf.length & 0xFF);
-                out.write((bf.length >> 8) & 0xFF);
-                out.write(bf);
+                out.writeByte(bf.length & 0xFF);
+                out.writeByte((bf.length >> 8) & 0xFF);
+                out.writeBytes(bf);
 
                 if (segmentation != null) {
-                    out.write(Segmentation.PARAMETER_CODE);
+                    out.writeByte(Segmentation.PARAMETER_CODE);
                     byte[] b = segmentation.encode(removeSPC, sccpProtocolVersion);
-                    out.write(b.length);
-                    out.write(b);
+                    out.writeByte(b.length);
+                    out.writeBytes(b);
                 }
                 if (importance != null) {
-                    out.write(Importance.PARAMETER_CODE);
+                    out.writeByte(Importance.PARAMETER_CODE);
                     byte[] b = importance.encode(removeSPC, sccpProtocolVersion);
-                    out.write(b.length);
-                    out.write(b);
+                    out.writeByte(b.length);
+                    out.writeBytes(b);
                 }
 
                 if (optionalPresent)
-                    out.write(0x00);
+                    out.writeByte(0x00);
 
-                return new EncodingResultData(EncodingResult.Success, out.toByteArray(), null, null);
+                return new EncodingResultData(EncodingResult.Success, out.array(), null, null);
             }
-        } catch (IOException e) {
+        } catch (IndexOutOfBoundsException e) {
             throw new ParseException(e);
         }
     }
 
+    /**
+     * Creates a buffer that is backed by an array of exactly the message length
+     */
+    private static ByteBuf allocate(int messageLength) {
+        return Unpooled.wrappedBuffer(new byte[messageLength]).clear();
+    }
+
     protected SccpAddress createAddress(byte[] buffer, ParameterFactory factory, SccpProtocolVersion sccpProtocolVersion) throws ParseException {
+        if (factory instanceof ParameterFactoryImpl) {
+            // buffer is a fresh copy of the address parameter, so the cache may keep it
+            return ((ParameterFactoryImpl) factory).decodeSccpAddress(buffer, sccpProtocolVersion);
+        }
         SccpAddressImpl addressImpl = new SccpAddressImpl();
         addressImpl.decode(buffer, factory, sccpProtocolVersion);
         return addressImpl;
@@ -22,10 +22,9 @@
 
 package org.restcomm.protocols.ss7.sccp.impl.message;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 
-import org.restcomm.protocols.ss7.sccp.impl.SccpStackImpl;
 import org.restcomm.protocols.ss7.sccp.impl.parameter.SegmentationImpl;
 import org.restcomm.protocols.ss7.sccp.parameter.HopCounter;
 import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
@@ -45,9 +44,8 @@ public abstract class SccpSegmentableMessageImpl extends SccpAddressedMessageImp
 
     protected boolean isFullyRecieved;
     protected int remainingSegments;
-    protected ByteArrayOutputStream buffer;
-
-    protected SccpStackImpl.MessageReassemblyProcess mrp;
+    // data of received segments, a segment data is not copied till the last segment is received
+    protected CompositeByteBuf buffer;
 
     protected SccpSegmentableMessageImpl(int maxDataLen, int type, int outgoingSls, int localSsn,
             SccpAddress calledParty, SccpAddress callingParty, byte[] data, HopCounter hopCounter) {
@@ -92,39 +90,35 @@ public abstract class SccpSegmentableMessageImpl extends SccpAddressedMessageImp
             return;
 
         this.remainingSegments = this.segmentation.getRemainingSegments();
-        this.buffer = new ByteArrayOutputStream(this.data.length * (this.remainingSegments + 1));
-        try {
-            this.buffer.write(this.data);
-        } catch (IOException e) {
-            // this can not occur
-            e.printStackTrace();
-        }
+        this.buffer = Unpooled.compositeBuffer(this.remainingSegments + 1);
+        this.addSegment(this.data);
     }
 
     public void setReceivedNextSegment(SccpSegmentableMessageImpl nextSegement) {
-        try {
-            this.buffer.write(nextSegement.data);
-        } catch (IOException e) {
-            // this can not occur
-            e.printStackTrace();
-        }
+        this.addSegment(nextSegement.data);
 
         if (--this.remainingSegments == 0) {
-            this.data = this.buffer.toByteArray();
+            this.data = new byte[this.buffer.readableBytes()];
+            this.buffer.getBytes(this.buffer.readerIndex(), this.data);
+            this.buffer.release();
+            this.buffer = null;
             this.isFullyRecieved = true;
         }
     }
 
+    private void addSegment(byte[] segmentData) {
+        if (segmentData == null || segmentData.length == 0)
+            return;
+        this.buffer.addComponent(Unpooled.wrappedBuffer(segmentData));
+        this.buffer.writerIndex(this.buffer.writerIndex() + segmentData.length);
+    }
+
     public void cancelSegmentation() {
         this.remainingSegments = -1;
         this.isFullyRecieved = false;
-    }
-
-    public SccpStackImpl.MessageReassemblyProcess getMessageReassemblyProcess() {
-        return mrp;
-    }
-
-    public void setMessageReassemblyProcess(SccpStackImpl.MessageReassemblyProcess mrp) {
-        this.mrp = mrp;
+        if (this.buffer != null) {
+            this.buffer.release();
+            this.buffer = null;
+        }
     }
 }
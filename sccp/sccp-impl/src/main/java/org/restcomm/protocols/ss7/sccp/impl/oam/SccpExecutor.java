@@ -25,16 +25,28 @@ package org.restcomm.protocols.ss7.sccp.impl.oam;
 import javolution.util.FastMap;
 
 import org.apache.log4j.Logger;
+import org.restcomm.protocols.ss7.indicator.AddressIndicator;
+import org.restcomm.protocols.ss7.indicator.NatureOfAddress;
+import org.restcomm.protocols.ss7.indicator.NumberingPlan;
 import org.restcomm.protocols.ss7.sccp.ConcernedSignalingPointCode;
+import org.restcomm.protocols.ss7.sccp.LoadSharingAlgorithm;
 import org.restcomm.protocols.ss7.sccp.LongMessageRule;
 import org.restcomm.protocols.ss7.sccp.LongMessageRuleType;
 import org.restcomm.protocols.ss7.sccp.Mtp3Destination;
 import org.restcomm.protocols.ss7.sccp.Mtp3ServiceAccessPoint;
+import org.restcomm.protocols.ss7.sccp.OriginationType;
 import org.restcomm.protocols.ss7.sccp.RemoteSignalingPointCode;
 import org.restcomm.protocols.ss7.sccp.RemoteSubSystem;
+import org.restcomm.protocols.ss7.sccp.Rule;
+import org.restcomm.protocols.ss7.sccp.RuleType;
 import org.restcomm.protocols.ss7.sccp.SccpCongestionControlAlgo;
 import org.restcomm.protocols.ss7.sccp.SccpProtocolVersion;
+import org.restcomm.protocols.ss7.sccp.impl.GlobalTitleTranslationImpl;
 import org.restcomm.protocols.ss7.sccp.impl.SccpStackImpl;
+import org.restcomm.protocols.ss7.sccp.parameter.GlobalTitle;
+import org.restcomm.protocols.ss7.sccp.parameter.ParameterFactory;
+import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
+import org.restcomm.protocols.ss7.ss7ext.Ss7ExtSccpInterface;
 import org.restcomm.ss7.management.console.ShellExecutor;
 
 import java.util.Arrays;
@@ -106,6 +118,10 @@ public class SccpExecutor implements ShellExecutor {
                 return this.manageRss(options);
             } else if (firstOption.equals("lmr")) {
                 return this.manageLmr(options);
+            } else if (firstOption.equals("rule")) {
+                return this.manageRule(options);
+            } else if (firstOption.equals("address")) {
+                return this.manageAddress(options);
             } else if (firstOption.equals("sap")) {
                 return this.manageSap(options);
             } else if (firstOption.equals("dest")) {
@@ -743,6 +759,398 @@ public class SccpExecutor implements ShellExecutor {
         return SccpOAMMessage.INVALID_COMMAND;
     }
 
+    private String manageRule(String[] options) throws Exception {
+        // Minimum 3 needed. Show
+        if (options.length < 3) {
+            return SccpOAMMessage.INVALID_COMMAND;
+        }
+
+        String command = options[2];
+
+        if (command == null) {
+            return SccpOAMMessage.INVALID_COMMAND;
+        }
+
+        if (command.equals("create") || command.equals("modify")) {
+            // sccp rule create <id> <mask> <address-indicator> <point-code> <subsystem-number> <translation-type>
+            // <numbering-plan> <nature-of-address> <digits> <rule-type> <primary-address-id> backup-addressid <backup-address-id>
+            // loadsharing-algo <loadsharing-algo> newcgparty-addressid <new-callingparty-address-id>
+            // origination-type <origination-type> networkid <network-id> stackname <stack-name>
+            if (options.length < 14) {
+                return SccpOAMMessage.INVALID_COMMAND;
+            }
+
+            int ruleId = Integer.parseInt(options[3]);
+            String mask = options[4];
+            int ai = Integer.parseInt(options[5]);
+            int pc = Integer.parseInt(options[6]);
+            int ssn = Integer.parseInt(options[7]);
+            int tt = Integer.parseInt(options[8]);
+            int np = Integer.parseInt(options[9]);
+            int nai = Integer.parseInt(options[10]);
+            String digits = options[11];
+            RuleType ruleType = RuleType.getInstance(options[12]);
+            int pAddressId = Integer.parseInt(options[13]);
+
+            int sAddressId = -1;
+            LoadSharingAlgorithm algo = LoadSharingAlgorithm.Undefined;
+            Integer newCallingPartyAddressId = null;
+            OriginationType originationType = OriginationType.ALL;
+            int networkId = 0;
+
+            int count = 14;
+
+            while (count < options.length) {
+                String key = options[count++];
+                if (key == null) {
+                    return SccpOAMMessage.INVALID_COMMAND;
+                }
+
+                if (key.equals("stackname")) {
+                    String m3uaStackName = options[count++];
+
+                    SccpStackImpl sccpStaclImpl = this.sccpStacks.get(m3uaStackName);
+
+                    if (sccpStaclImpl == null) {
+                        return String.format(SccpOAMMessage.NO_SCCP_MANAGEMENT_BEAN_FOR_NAME, m3uaStackName);
+                    }
+
+                    this.sccpStack = sccpStaclImpl;
+                } else if (key.equals("backup-addressid")) {
+                    sAddressId = Integer.parseInt(options[count++]);
+                } else if (key.equals("loadsharing-algo")) {
+                    algo = LoadSharingAlgorithm.getInstance(options[count++]);
+                    if (algo == null) {
+                        return SccpOAMMessage.INVALID_COMMAND;
+                    }
+                } else if (key.equals("newcgparty-addressid")) {
+                    newCallingPartyAddressId = Integer.valueOf(options[count++]);
+                } else if (key.equals("origination-type")) {
+                    originationType = OriginationType.getInstance(options[count++]);
+                } else if (key.equals("networkid")) {
+                    networkId = Integer.parseInt(options[count++]);
+                } else {
+                    return SccpOAMMessage.INVALID_COMMAND;
+                }
+            }
+
+            this.setDefaultValue();
+
+            GlobalTitleTranslationImpl gtt = this.getGlobalTitleTranslation();
+            if (gtt == null) {
+                return String.format(SccpOAMMessage.NO_SCCP_EXT_MODULE, this.sccpStack.getName());
+            }
+
+            SccpAddress pattern = this.createSccpAddress(ai, pc, ssn, tt, np, nai, digits);
+            if (command.equals("create")) {
+                gtt.addRule(ruleId, ruleType, algo, originationType, pattern, mask, pAddressId, sAddressId,
+                        newCallingPartyAddressId, networkId, null);
+                return String.format(SccpOAMMessage.RULE_SUCCESSFULLY_ADDED, this.sccpStack.getName());
+            } else {
+                gtt.modifyRule(ruleId, ruleType, algo, originationType, pattern, mask, pAddressId, sAddressId,
+                        newCallingPartyAddressId, networkId, null);
+                return String.format(SccpOAMMessage.RULE_SUCCESSFULLY_MODIFIED, this.sccpStack.getName());
+            }
+        } else if (command.equals("delete")) {
+            // sccp rule delete <id> stackname <stack-name>
+
+            if (options.length < 4) {
+                return SccpOAMMessage.INVALID_COMMAND;
+            }
+            int ruleId = Integer.parseInt(options[3]);
+            int count = 4;
+            while (count < options.length) {
+                String key = options[count++];
+                if (key == null) {
+                    return SccpOAMMessage.INVALID_COMMAND;
+                }
+
+                if (key.equals("stackname")) {
+                    String m3uaStackName = options[count++];
+
+                    SccpStackImpl sccpStaclImpl = this.sccpStacks.get(m3uaStackName);
+
+                    if (sccpStaclImpl == null) {
+                        return String.format(SccpOAMMessage.NO_SCCP_MANAGEMENT_BEAN_FOR_NAME, m3uaStackName);
+                    }
+
+                    this.sccpStack = sccpStaclImpl;
+                } else {
+                    return SccpOAMMessage.INVALID_COMMAND;
+                }
+            }
+
+            this.setDefaultValue();
+
+            GlobalTitleTranslationImpl gtt = this.getGlobalTitleTranslation();
+            if (gtt == null) {
+                return String.format(SccpOAMMessage.NO_SCCP_EXT_MODULE, this.sccpStack.getName());
+            }
+
+            gtt.removeRule(ruleId);
+            return String.format(SccpOAMMessage.RULE_SUCCESSFULLY_REMOVED, this.sccpStack.getName());
+        } else if (command.equals("show")) {
+            // sccp rule show id <id> stackname <stack-name>
+
+            int count = 3;
+            int ruleId = -1;
+            while (count < options.length) {
+                String key = options[count++];
+                if (key == null) {
+                    return SccpOAMMessage.INVALID_COMMAND;
+                }
+
+                if (key.equals("stackname")) {
+                    String m3uaStackName = options[count++];
+
+                    SccpStackImpl sccpStaclImpl = this.sccpStacks.get(m3uaStackName);
+
+                    if (sccpStaclImpl == null) {
+                        return String.format(SccpOAMMessage.NO_SCCP_MANAGEMENT_BEAN_FOR_NAME, m3uaStackName);
+                    }
+
+                    this.sccpStack = sccpStaclImpl;
+                } else if (key.equals("id")) {
+                    ruleId = Integer.parseInt(options[count++]);
+                } else {
+                    return SccpOAMMessage.INVALID_COMMAND;
+                }
+            }
+
+            this.setDefaultValue();
+
+            GlobalTitleTranslationImpl gtt = this.getGlobalTitleTranslation();
+            if (gtt == null) {
+                return String.format(SccpOAMMessage.NO_SCCP_EXT_MODULE, this.sccpStack.getName());
+            }
+
+            if (ruleId != -1) {
+                Rule rule = gtt.getRule(ruleId);
+                if (rule == null) {
+                    return String.format(SccpOAMMessage.RULE_DOESNT_EXIST, this.sccpStack.getName());
+                }
+                return rule.toString();
+            }
+
+            Map<Integer, Rule> idVsRule = gtt.getRules();
+            if (idVsRule.size() == 0) {
+                return String.format(SccpOAMMessage.RULE_DOESNT_EXIST, this.sccpStack.getName());
+            }
+
+            StringBuffer sb = new StringBuffer();
+            for (Integer e : idVsRule.keySet()) {
+                sb.append("key=");
+                sb.append(e);
+                sb.append("  ");
+                sb.append(idVsRule.get(e));
+                sb.append("\n");
+            }
+            return sb.toString();
+        }
+
+        return SccpOAMMessage.INVALID_COMMAND;
+    }
+
+    private String manageAddress(String[] options) throws Exception {
+        // Minimum 3 needed. Show
+        if (options.length < 3) {
+            return SccpOAMMessage.INVALID_COMMAND;
+        }
+
+        String command = options[2];
+
+        if (command == null) {
+            return SccpOAMMessage.INVALID_COMMAND;
+        }
+
+        if (command.equals("create") || command.equals("modify")) {
+            // sccp address create <id> <address-indicator> <point-code> <subsystem-number> <translation-type>
+            // <numbering-plan> <nature-of-address> <digits> stackname <stack-name>
+            if (options.length < 11) {
+                return SccpOAMMessage.INVALID_COMMAND;
+            }
+
+            int addressId = Integer.parseInt(options[3]);
+            int ai = Integer.parseInt(options[4]);
+            int pc = Integer.parseInt(options[5]);
+            int ssn = Integer.parseInt(options[6]);
+            int tt = Integer.parseInt(options[7]);
+            int np = Integer.parseInt(options[8]);
+            int nai = Integer.parseInt(options[9]);
+            String digits = options[10];
+
+            int count = 11;
+
+            while (count < options.length) {
+                String key = options[count++];
+                if (key == null) {
+                    return SccpOAMMessage.INVALID_COMMAND;
+                }
+
+                if (key.equals("stackname")) {
+                    String m3uaStackName = options[count++];
+
+                    SccpStackImpl sccpStaclImpl = this.sccpStacks.get(m3uaStackName);
+
+                    if (sccpStaclImpl == null) {
+                        return String.format(SccpOAMMessage.NO_SCCP_MANAGEMENT_BEAN_FOR_NAME, m3uaStackName);
+                    }
+
+                    this.sccpStack = sccpStaclImpl;
+                } else {
+                    return SccpOAMMessage.INVALID_COMMAND;
+                }
+            }
+
+            this.setDefaultValue();
+
+            GlobalTitleTranslationImpl gtt = this.getGlobalTitleTranslation();
+            if (gtt == null) {
+                return String.format(SccpOAMMessage.NO_SCCP_EXT_MODULE, this.sccpStack.getName());
+            }
+
+            SccpAddress address = this.createSccpAddress(ai, pc, ssn, tt, np, nai, digits);
+            if (command.equals("create")) {
+                gtt.addRoutingAddress(addressId, address);
+                return String.format(SccpOAMMessage.ADDRESS_SUCCESSFULLY_ADDED, this.sccpStack.getName());
+            } else {
+                gtt.modifyRoutingAddress(addressId, address);
+                return String.format(SccpOAMMessage.ADDRESS_SUCCESSFULLY_MODIFIED, this.sccpStack.getName());
+            }
+        } else if (command.equals("delete")) {
+            // sccp address delete <id> stackname <stack-name>
+
+            if (options.length < 4) {
+                return SccpOAMMessage.INVALID_COMMAND;
+            }
+            int addressId = Integer.parseInt(options[3]);
+            int count = 4;
+            while (count < options.length) {
+                String key = options[count++];
+                if (key == null) {
+                    return SccpOAMMessage.INVALID_COMMAND;
+                }
+
+                if (key.equals("stackname")) {
+                    String m3uaStackName = options[count++];
+
+                    SccpStackImpl sccpStaclImpl = this.sccpStacks.get(m3uaStackName);
+
+                    if (sccpStaclImpl == null) {
+                        return String.format(SccpOAMMessage.NO_SCCP_MANAGEMENT_BEAN_FOR_NAME, m3uaStackName);
+                    }
+
+                    this.sccpStack = sccpStaclImpl;
+                } else {
+                    return SccpOAMMessage.INVALID_COMMAND;
+                }
+            }
+
+            this.setDefaultValue();
+
+            GlobalTitleTranslationImpl gtt = this.getGlobalTitleTranslation();
+            if (gtt == null) {
+                return String.format(SccpOAMMessage.NO_SCCP_EXT_MODULE, this.sccpStack.getName());
+            }
+
+            gtt.removeRoutingAddress(addressId);
+            return String.format(SccpOAMMessage.ADDRESS_SUCCESSFULLY_DELETED, this.sccpStack.getName());
+        } else if (command.equals("show")) {
+            // sccp address show id <id> stackname <stack-name>
+
+            int count = 3;
+            int addressId = -1;
+            while (count < options.length) {
+                String key = options[count++];
+                if (key == null) {
+                    return SccpOAMMessage.INVALID_COMMAND;
+                }
+
+                if (key.equals("stackname")) {
+                    String m3uaStackName = options[count++];
+
+                    SccpStackImpl sccpStaclImpl = this.sccpStacks.get(m3uaStackName);
+
+                    if (sccpStaclImpl == null) {
+                        return String.format(SccpOAMMessage.NO_SCCP_MANAGEMENT_BEAN_FOR_NAME, m3uaStackName);
+                    }
+
+                    this.sccpStack = sccpStaclImpl;
+                } else if (key.equals("id")) {
+                    addressId = Integer.parseInt(options[count++]);
+                } else {
+                    return SccpOAMMessage.INVALID_COMMAND;
+                }
+            }
+
+            this.setDefaultValue();
+
+            GlobalTitleTranslationImpl gtt = this.getGlobalTitleTranslation();
+            if (gtt == null) {
+                return String.format(SccpOAMMessage.NO_SCCP_EXT_MODULE, this.sccpStack.getName());
+            }
+
+            if (addressId != -1) {
+                SccpAddress address = gtt.getRoutingAddress(addressId);
+                if (address == null) {
+                    return String.format(SccpOAMMessage.ADDRESS_DOESNT_EXIST, this.sccpStack.getName());
+                }
+                return address.toString();
+            }
+
+            Map<Integer, SccpAddress> idVsAddress = gtt.getRoutingAddresses();
+            if (idVsAddress.size() == 0) {
+                return String.format(SccpOAMMessage.ADDRESS_DOESNT_EXIST, this.sccpStack.getName());
+            }
+
+            StringBuffer sb = new StringBuffer();
+            for (Integer e : idVsAddress.keySet()) {
+                sb.append("key=");
+                sb.append(e);
+                sb.append("  ");
+                sb.append(idVsAddress.get(e));
+                sb.append("\n");
+            }
+            return sb.toString();
+        }
+
+        return SccpOAMMessage.INVALID_COMMAND;
+    }
+
+    private GlobalTitleTranslationImpl getGlobalTitleTranslation() {
+        Ss7ExtSccpInterface ss7ExtSccpInterface = this.sccpStack.getSs7ExtSccpInterface();
+        if (ss7ExtSccpInterface instanceof GlobalTitleTranslationImpl) {
+            return (GlobalTitleTranslationImpl) ss7ExtSccpInterface;
+        }
+        return null;
+    }
+
+    private SccpAddress createSccpAddress(int ai, int pc, int ssn, int tt, int np, int nai, String digits) {
+        ParameterFactory factory = this.sccpStack.getSccpProvider().getParameterFactory();
+        AddressIndicator addressIndicator = new AddressIndicator((byte) ai, SccpProtocolVersion.ITU);
+
+        GlobalTitle gt;
+        switch (addressIndicator.getGlobalTitleIndicator()) {
+            case GLOBAL_TITLE_INCLUDES_NATURE_OF_ADDRESS_INDICATOR_ONLY:
+                gt = factory.createGlobalTitle(digits, NatureOfAddress.valueOf(nai));
+                break;
+            case GLOBAL_TITLE_INCLUDES_TRANSLATION_TYPE_ONLY:
+                gt = factory.createGlobalTitle(digits, tt);
+                break;
+            case GLOBAL_TITLE_INCLUDES_TRANSLATION_TYPE_NUMBERING_PLAN_AND_ENCODING_SCHEME:
+                gt = factory.createGlobalTitle(digits, tt, NumberingPlan.valueOf(np), null);
+                break;
+            case GLOBAL_TITLE_INCLUDES_TRANSLATION_TYPE_NUMBERING_PLAN_ENCODING_SCHEME_AND_NATURE_OF_ADDRESS:
+                gt = factory.createGlobalTitle(digits, tt, NumberingPlan.valueOf(np), null, NatureOfAddress.valueOf(nai));
+                break;
+            default:
+                gt = null;
+                break;
+        }
+
+        return factory.createSccpAddress(addressIndicator.getRoutingIndicator(), gt, pc, ssn);
+    }
+
     private String manageSap(String[] options) throws Exception {
         // Minimum 3 needed. Show
         if (options.length < 3) {
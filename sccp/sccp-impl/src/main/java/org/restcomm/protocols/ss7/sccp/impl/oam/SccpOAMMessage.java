@@ -54,6 +54,8 @@ public interface SccpOAMMessage {
 
     String ADDRESS_SUCCESSFULLY_DELETED = "Address successfully deleted from stack=%s";
 
+    String ADDRESS_USED_BY_RULE = "Address is used by rule id=%d";
+
     String SERVER_ERROR = "Server Error";
 
     String NO_PRIMARY_ADDRESS = "No primary address defined for id=%d";
@@ -26,6 +26,8 @@ import org.restcomm.protocols.ss7.indicator.GlobalTitleIndicator;
 import org.restcomm.protocols.ss7.indicator.NatureOfAddress;
 import org.restcomm.protocols.ss7.indicator.NumberingPlan;
 import org.restcomm.protocols.ss7.indicator.RoutingIndicator;
+import org.restcomm.protocols.ss7.sccp.SccpProtocolVersion;
+import org.restcomm.protocols.ss7.sccp.message.ParseException;
 import org.restcomm.protocols.ss7.sccp.parameter.EncodingScheme;
 import org.restcomm.protocols.ss7.sccp.parameter.GlobalTitle;
 import org.restcomm.protocols.ss7.sccp.parameter.GlobalTitle0001;
@@ -47,6 +49,39 @@ import org.restcomm.protocols.ss7.sccp.parameter.Segmentation;
  */
 public class ParameterFactoryImpl implements ParameterFactory {
 
+    // shared decoded addresses, null when the factory is not used for message decoding
+    private final SccpAddressCache addressCache;
+
+    public ParameterFactoryImpl() {
+        this.addressCache = null;
+    }
+
+    public ParameterFactoryImpl(int addressCacheCapacity) {
+        this.addressCache = addressCacheCapacity > 0 ? new SccpAddressCache(addressCacheCapacity) : null;
+    }
+
+    /**
+     * Decodes an address body taken from a message. If the factory has an address cache an already seen address is
+     * returned as a shared instance.
+     *
+     * @param data encoded address body, the array must not be modified after this call
+     * @param sccpProtocolVersion
+     * @return
+     * @throws ParseException
+     */
+    public SccpAddressImpl decodeSccpAddress(byte[] data, SccpProtocolVersion sccpProtocolVersion) throws ParseException {
+        if (this.addressCache != null) {
+            return this.addressCache.decode(data, this, sccpProtocolVersion);
+        }
+        SccpAddressImpl address = new SccpAddressImpl();
+        address.decode(data, this, sccpProtocolVersion);
+        return address;
+    }
+
+    public SccpAddressCache getAddressCache() {
+        return addressCache;
+    }
+
     public SccpAddress createSccpAddress(RoutingIndicator ri, GlobalTitle gt, int dpc, int ssn) {
         return new SccpAddressImpl(ri, gt, dpc, ssn);
     }
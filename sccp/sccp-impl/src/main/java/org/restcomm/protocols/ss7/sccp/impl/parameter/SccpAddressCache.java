@@ -0,0 +1,145 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.restcomm.protocols.ss7.sccp.impl.parameter;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.restcomm.protocols.ss7.sccp.SccpProtocolVersion;
+import org.restcomm.protocols.ss7.sccp.message.ParseException;
+import org.restcomm.protocols.ss7.sccp.parameter.ParameterFactory;
+
+/**
+ * Bounded cache of decoded SCCP addresses keyed by their raw bytes. Traffic of a node uses a small set of called and
+ * calling party addresses, so decoding of an already seen address returns the shared instance instead of a new address with
+ * new GlobalTitle and digits String. A shared instance keeps its encoded form, see {@link SccpAddressImpl#getEncoded}, so
+ * sending it back costs a plain byte copy.
+ *
+ * The cache consists of several segments to reduce lock contention, every segment is a LRU map that evicts the least
+ * recently used address when it is full. Shared addresses must not be modified.
+ */
+public class SccpAddressCache {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    private static final int SEGMENT_COUNT = 16;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+    public SccpAddressCache(int capacity) {
+        int segmentCapacity = Math.max(1, (capacity + SEGMENT_COUNT - 1) / SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    /**
+     * Returns an address for the encoded address body. The data array is owned by the cache after this call.
+     *
+     * @param data
+     * @param factory
+     * @param sccpProtocolVersion
+     * @return
+     * @throws ParseException
+     */
+    public SccpAddressImpl decode(byte[] data, ParameterFactory factory, SccpProtocolVersion sccpProtocolVersion)
+            throws ParseException {
+        Key key = new Key(data, sccpProtocolVersion);
+        Segment segment = segments[(key.hash ^ (key.hash >>> 16)) & (SEGMENT_COUNT - 1)];
+        SccpAddressImpl address;
+        synchronized (segment) {
+            address = segment.get(key);
+        }
+        if (address != null) {
+            return address;
+        }
+
+        // decoding is done outside of the lock, two threads may decode the same address and the later one wins
+        address = new SccpAddressImpl();
+        address.decode(data, factory, sccpProtocolVersion);
+        synchronized (segment) {
+            segment.put(key, address);
+        }
+        return address;
+    }
+
+    public int size() {
+        int res = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                res += segment.size();
+            }
+        }
+        return res;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    private static final class Key {
+        private final byte[] data;
+        private final SccpProtocolVersion sccpProtocolVersion;
+        private final int hash;
+
+        private Key(byte[] data, SccpProtocolVersion sccpProtocolVersion) {
+            this.data = data;
+            this.sccpProtocolVersion = sccpProtocolVersion;
+            this.hash = 31 * Arrays.hashCode(data) + sccpProtocolVersion.ordinal();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key) obj;
+            return hash == other.hash && sccpProtocolVersion == other.sccpProtocolVersion && Arrays.equals(data, other.data);
+        }
+    }
+
+    private static final class Segment extends LinkedHashMap<Key, SccpAddressImpl> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, SccpAddressImpl> eldest) {
+            return size() > capacity;
+        }
+    }
+}
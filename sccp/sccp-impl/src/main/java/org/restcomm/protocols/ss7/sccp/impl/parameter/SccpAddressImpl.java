@@ -66,6 +66,9 @@ public class SccpAddressImpl extends AbstractParameter implements XMLSerializabl
     // If this SccpAddress is translated address
     private boolean translated;
 
+    // encoded form for the last used encoding options, a dialog sends all its messages with the same addresses
+    private transient volatile EncodedAddress encoded;
+
     public SccpAddressImpl() {
     }
 
@@ -163,11 +166,13 @@ public class SccpAddressImpl extends AbstractParameter implements XMLSerializabl
             impl.ssn = xml.getAttribute(SUBSYSTEM_NUMBER).toInt();
             impl.ai = xml.get(AI, AddressIndicator.class);
             impl.gt = xml.get(GLOBAL_TITLE);
+            impl.encoded = null;
         }
     };
 
     @Override
     public void decode(final InputStream bin, ParameterFactory factory, SccpProtocolVersion sccpProtocolVersion) throws ParseException {
+        this.encoded = null;
         try {
             int b = bin.read() & 0xff;
             this.ai = new AddressIndicator((byte) b, sccpProtocolVersion);
@@ -272,8 +277,37 @@ public class SccpAddressImpl extends AbstractParameter implements XMLSerializabl
 
     @Override
     public byte[] encode(boolean removeSPC, SccpProtocolVersion sccpProtocolVersion) throws ParseException {
-        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        this.encode(baos, removeSPC, sccpProtocolVersion);
-        return baos.toByteArray();
+        return this.getEncoded(removeSPC, sccpProtocolVersion).clone();
+    }
+
+    /**
+     * Returns the encoded address body. The array is cached and shared, it must not be modified.
+     *
+     * @param removeSPC
+     * @param sccpProtocolVersion
+     * @return
+     * @throws ParseException
+     */
+    public byte[] getEncoded(boolean removeSPC, SccpProtocolVersion sccpProtocolVersion) throws ParseException {
+        EncodedAddress res = this.encoded;
+        if (res == null || res.removeSPC != removeSPC || res.sccpProtocolVersion != sccpProtocolVersion) {
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream(16);
+            this.encode(baos, removeSPC, sccpProtocolVersion);
+            res = new EncodedAddress(removeSPC, sccpProtocolVersion, baos.toByteArray());
+            this.encoded = res;
+        }
+        return res.data;
+    }
+
+    private static final class EncodedAddress {
+        private final boolean removeSPC;
+        private final SccpProtocolVersion sccpProtocolVersion;
+        private final byte[] data;
+
+        private EncodedAddress(boolean removeSPC, SccpProtocolVersion sccpProtocolVersion, byte[] data) {
+            this.removeSPC = removeSPC;
+            this.sccpProtocolVersion = sccpProtocolVersion;
+            this.data = data;
+        }
     }
 }
@@ -0,0 +1,212 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.sccp.impl.router;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.restcomm.protocols.ss7.sccp.Rule;
+import org.restcomm.protocols.ss7.sccp.parameter.GlobalTitle;
+import org.restcomm.protocols.ss7.sccp.parameter.GlobalTitle0001;
+import org.restcomm.protocols.ss7.sccp.parameter.GlobalTitle0010;
+import org.restcomm.protocols.ss7.sccp.parameter.GlobalTitle0011;
+import org.restcomm.protocols.ss7.sccp.parameter.GlobalTitle0100;
+import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
+
+/**
+ * Compiled set of GT translation rules.
+ *
+ * Rules are grouped by GT indicator, translation type, numbering plan, nature of address and networkId. Each group is a digit
+ * trie that is built from rule pattern digits, so a lookup walks the called party digits only once and its cost does not
+ * depend on the count of configured rules. Exact digits are preferred to "?" and "?" is preferred to "*" at every trie level,
+ * a rule with a lower ruleId wins for the same pattern digits. Candidate rules are finally checked by
+ * {@link Rule#matches(SccpAddress, SccpAddress, boolean, int)} (SSN, calling party pattern, origination type).
+ *
+ * An instance is immutable, every rule set change compiles a new one.
+ *
+ */
+public final class GlobalTitleRuleTrie {
+
+    public static final GlobalTitleRuleTrie EMPTY = new GlobalTitleRuleTrie(new HashMap<Long, Node>());
+
+    private static final int DIGIT_COUNT = 16;
+    private static final Rule[] NO_RULES = new Rule[0];
+
+    private final Map<Long, Node> roots;
+    private final int ruleCount;
+
+    private GlobalTitleRuleTrie(Map<Long, Node> roots) {
+        this.roots = roots;
+        int cnt = 0;
+        for (Node node : roots.values()) {
+            cnt += node.count();
+        }
+        this.ruleCount = cnt;
+    }
+
+    public static GlobalTitleRuleTrie compile(Map<Integer, ? extends Rule> rules) {
+        Map<Long, Node> roots = new HashMap<Long, Node>();
+        // rules are added in ruleId order
+        for (Rule rule : new TreeMap<Integer, Rule>(rules).values()) {
+            GlobalTitle gt = rule.getPattern().getGlobalTitle();
+            Long key = globalTitleKey(gt, rule.getNetworkId());
+            Node node = roots.get(key);
+            if (node == null) {
+                node = new Node();
+                roots.put(key, node);
+            }
+
+            String digits = gt.getDigits();
+            boolean wildcard = false;
+            for (int i = 0; i < digits.length() && !wildcard; i++) {
+                char c = digits.charAt(i);
+                if (c == '/')
+                    continue;
+                if (c == RuleImpl.WILDCARD_ANY) {
+                    node.anyRules = add(node.anyRules, rule);
+                    wildcard = true;
+                } else if (c == RuleImpl.WILDCARD_SINGLE) {
+                    if (node.singleChild == null)
+                        node.singleChild = new Node();
+                    node = node.singleChild;
+                } else {
+                    int d = Character.digit(c, 16);
+                    if (node.children == null)
+                        node.children = new Node[DIGIT_COUNT];
+                    if (node.children[d] == null)
+                        node.children[d] = new Node();
+                    node = node.children[d];
+                }
+            }
+            if (!wildcard)
+                node.exactRules = add(node.exactRules, rule);
+        }
+        return new GlobalTitleRuleTrie(roots);
+    }
+
+    /**
+     * Returns the rule for the called party address or null if no rule matches
+     */
+    public Rule find(SccpAddress calledPartyAddress, SccpAddress callingPartyAddress, boolean isMtpOriginated, int msgNetworkId) {
+        GlobalTitle gt = calledPartyAddress.getGlobalTitle();
+        if (gt == null || gt.getDigits() == null)
+            return null;
+        Node root = this.roots.get(globalTitleKey(gt, msgNetworkId));
+        if (root == null)
+            return null;
+        return root.find(gt.getDigits(), 0, calledPartyAddress, callingPartyAddress, isMtpOriginated, msgNetworkId);
+    }
+
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    /**
+     * Packs GT indicator, translation type, numbering plan, nature of address and networkId into one key
+     */
+    protected static long globalTitleKey(GlobalTitle gt, int networkId) {
+        long key = ((long) networkId << 32) | (gt.getGlobalTitleIndicator().getValue() << 24);
+        switch (gt.getGlobalTitleIndicator()) {
+            case GLOBAL_TITLE_INCLUDES_NATURE_OF_ADDRESS_INDICATOR_ONLY:
+                key |= ((GlobalTitle0001) gt).getNatureOfAddress().getValue();
+                break;
+            case GLOBAL_TITLE_INCLUDES_TRANSLATION_TYPE_ONLY:
+                key |= ((GlobalTitle0010) gt).getTranslationType() << 8;
+                break;
+            case GLOBAL_TITLE_INCLUDES_TRANSLATION_TYPE_NUMBERING_PLAN_AND_ENCODING_SCHEME:
+                GlobalTitle0011 gt0011 = (GlobalTitle0011) gt;
+                key |= (gt0011.getNumberingPlan().getValue() << 16) | (gt0011.getTranslationType() << 8);
+                break;
+            case GLOBAL_TITLE_INCLUDES_TRANSLATION_TYPE_NUMBERING_PLAN_ENCODING_SCHEME_AND_NATURE_OF_ADDRESS:
+                GlobalTitle0100 gt0100 = (GlobalTitle0100) gt;
+                key |= (gt0100.getNumberingPlan().getValue() << 16) | (gt0100.getTranslationType() << 8)
+                        | gt0100.getNatureOfAddress().getValue();
+                break;
+            default:
+                break;
+        }
+        return key;
+    }
+
+    private static Rule[] add(Rule[] rules, Rule rule) {
+        Rule[] res = new Rule[rules.length + 1];
+        System.arraycopy(rules, 0, res, 0, rules.length);
+        res[rules.length] = rule;
+        return res;
+    }
+
+    private static Rule firstMatch(Rule[] rules, SccpAddress calledPartyAddress, SccpAddress callingPartyAddress,
+            boolean isMtpOriginated, int msgNetworkId) {
+        for (Rule rule : rules) {
+            if (rule.matches(calledPartyAddress, callingPartyAddress, isMtpOriginated, msgNetworkId))
+                return rule;
+        }
+        return null;
+    }
+
+    private static class Node {
+        private Node[] children;
+        private Node singleChild;
+        private Rule[] exactRules = NO_RULES;
+        private Rule[] anyRules = NO_RULES;
+
+        private Rule find(String digits, int pos, SccpAddress calledPartyAddress, SccpAddress callingPartyAddress,
+                boolean isMtpOriginated, int msgNetworkId) {
+            Rule rule;
+            if (pos == digits.length()) {
+                rule = firstMatch(this.exactRules, calledPartyAddress, callingPartyAddress, isMtpOriginated, msgNetworkId);
+                if (rule != null)
+                    return rule;
+            } else {
+                int d = Character.digit(digits.charAt(pos), 16);
+                if (d >= 0 && this.children != null && this.children[d] != null) {
+                    rule = this.children[d].find(digits, pos + 1, calledPartyAddress, callingPartyAddress, isMtpOriginated,
+                            msgNetworkId);
+                    if (rule != null)
+                        return rule;
+                }
+                if (this.singleChild != null) {
+                    rule = this.singleChild.find(digits, pos + 1, calledPartyAddress, callingPartyAddress, isMtpOriginated,
+                            msgNetworkId);
+                    if (rule != null)
+                        return rule;
+                }
+            }
+            return firstMatch(this.anyRules, calledPartyAddress, callingPartyAddress, isMtpOriginated, msgNetworkId);
+        }
+
+        private int count() {
+            int cnt = this.exactRules.length + this.anyRules.length;
+            if (this.singleChild != null)
+                cnt += this.singleChild.count();
+            if (this.children != null) {
+                for (Node child : this.children) {
+                    if (child != null)
+                        cnt += child.count();
+                }
+            }
+            return cnt;
+        }
+    }
+}
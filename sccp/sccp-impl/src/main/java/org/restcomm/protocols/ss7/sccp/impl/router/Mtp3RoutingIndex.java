@@ -0,0 +1,313 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.sccp.impl.router;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import javolution.util.FastMap;
+
+import org.restcomm.protocols.ss7.sccp.LongMessageRule;
+import org.restcomm.protocols.ss7.sccp.Mtp3Destination;
+import org.restcomm.protocols.ss7.sccp.Mtp3ServiceAccessPoint;
+
+/**
+ * Compiled lookup tables of Mtp3ServiceAccessPoints and LongMessageRules.
+ *
+ * DPC ranges of all Mtp3Destinations (and of LongMessageRules) are split into not overlapping elementary intervals, every
+ * interval keeps candidates that cover it in the configuration order (a SAP order and then a destination order inside a
+ * SAP). So a lookup is a binary search over interval bounds plus checking of SLS ranges of a few candidates, the result is
+ * the same as the one of a linear scan over the configuration. Incoming messages are resolved by an OPC (and local GT digits)
+ * group first and then by the same interval search inside the group.
+ *
+ * An instance is immutable, every configuration change compiles a new one.
+ *
+ */
+public final class Mtp3RoutingIndex {
+
+    public static final Mtp3RoutingIndex EMPTY = compile(new FastMap<Integer, Mtp3ServiceAccessPoint>(),
+            new FastMap<Integer, LongMessageRule>());
+
+    private final IntervalIndex outgoing;
+    private final IntervalIndex longMessageRules;
+    // sorted OPC values of SAPs and incoming lookup groups for them
+    private final int[] opcs;
+    private final OpcGroup[] opcGroups;
+    private final int sapCount;
+
+    private Mtp3RoutingIndex(IntervalIndex outgoing, IntervalIndex longMessageRules, int[] opcs, OpcGroup[] opcGroups,
+            int sapCount) {
+        this.outgoing = outgoing;
+        this.longMessageRules = longMessageRules;
+        this.opcs = opcs;
+        this.opcGroups = opcGroups;
+        this.sapCount = sapCount;
+    }
+
+    /**
+     * Compiles the index. Both maps must be iterated in the configuration order (FastMap insertion order).
+     */
+    public static Mtp3RoutingIndex compile(FastMap<Integer, Mtp3ServiceAccessPoint> saps,
+            FastMap<Integer, LongMessageRule> lmrs) {
+        IntervalIndex.Builder outgoing = new IntervalIndex.Builder();
+        Map<Integer, OpcGroup.Builder> groups = new HashMap<Integer, OpcGroup.Builder>();
+        for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = saps.head(), end = saps.tail(); (e = e.getNext()) != end;) {
+            Mtp3ServiceAccessPoint sap = e.getValue();
+            OpcGroup.Builder group = groups.get(sap.getOpc());
+            if (group == null) {
+                group = new OpcGroup.Builder();
+                groups.put(sap.getOpc(), group);
+            }
+            IntervalIndex.Builder incoming = group.forLocalGtDigits(sap.getLocalGtDigits());
+
+            for (Mtp3Destination dest : destinations(sap)) {
+                outgoing.add(dest.getFirstDpc(), dest.getLastDpc(), new Candidate(sap, dest));
+                incoming.add(dest.getFirstDpc(), dest.getLastDpc(), new Candidate(sap, dest));
+            }
+        }
+
+        IntervalIndex.Builder lmrIndex = new IntervalIndex.Builder();
+        for (FastMap.Entry<Integer, LongMessageRule> e = lmrs.head(), end = lmrs.tail(); (e = e.getNext()) != end;) {
+            LongMessageRule rule = e.getValue();
+            lmrIndex.add(rule.getFirstSpc(), rule.getLastSpc(), rule);
+        }
+
+        int[] opcs = new int[groups.size()];
+        int i = 0;
+        for (Integer opc : groups.keySet()) {
+            opcs[i++] = opc;
+        }
+        Arrays.sort(opcs);
+        OpcGroup[] opcGroups = new OpcGroup[opcs.length];
+        for (i = 0; i < opcs.length; i++) {
+            opcGroups[i] = groups.get(opcs[i]).build();
+        }
+
+        return new Mtp3RoutingIndex(outgoing.build(), lmrIndex.build(), opcs, opcGroups, saps.size());
+    }
+
+    private static List<Mtp3Destination> destinations(Mtp3ServiceAccessPoint sap) {
+        List<Mtp3Destination> res = new ArrayList<Mtp3Destination>();
+        // getMtp3Destinations() returns a HashMap copy, a destination order is taken from the SAP itself
+        if (sap instanceof Mtp3ServiceAccessPointImpl) {
+            FastMap<Integer, Mtp3Destination> dpcList = ((Mtp3ServiceAccessPointImpl) sap).getDpcList();
+            for (FastMap.Entry<Integer, Mtp3Destination> e = dpcList.head(), end = dpcList.tail(); (e = e.getNext()) != end;) {
+                res.add(e.getValue());
+            }
+        } else {
+            res.addAll(sap.getMtp3Destinations().values());
+        }
+        return res;
+    }
+
+    public LongMessageRule findLongMessageRule(int dpc) {
+        Object[] candidates = this.longMessageRules.candidates(dpc);
+        if (candidates == null)
+            return null;
+        return (LongMessageRule) candidates[0];
+    }
+
+    public Mtp3ServiceAccessPoint findMtp3ServiceAccessPoint(int dpc, int sls) {
+        Object[] candidates = this.outgoing.candidates(dpc);
+        if (candidates != null) {
+            for (Object o : candidates) {
+                Candidate c = (Candidate) o;
+                if (c.dest.match(dpc, sls))
+                    return c.sap;
+            }
+        }
+        return null;
+    }
+
+    public Mtp3ServiceAccessPoint findMtp3ServiceAccessPoint(int dpc, int sls, int networkId) {
+        Object[] candidates = this.outgoing.candidates(dpc);
+        if (candidates != null) {
+            for (Object o : candidates) {
+                Candidate c = (Candidate) o;
+                if (c.sap.getNetworkId() == networkId && c.dest.match(dpc, sls))
+                    return c.sap;
+            }
+        }
+        return null;
+    }
+
+    public Mtp3ServiceAccessPoint findMtp3ServiceAccessPointForIncMes(int localPC, int remotePC, String localGtDigits) {
+        int i = Arrays.binarySearch(this.opcs, localPC);
+        if (i < 0)
+            return null;
+        OpcGroup group = this.opcGroups[i];
+
+        // a first step - sap's with LocalGtDigits
+        if (localGtDigits != null && localGtDigits.length() > 0) {
+            IntervalIndex index = group.byLocalGtDigits.get(localGtDigits);
+            if (index != null) {
+                Object[] candidates = index.candidates(remotePC);
+                if (candidates != null)
+                    return ((Candidate) candidates[0]).sap;
+            }
+        }
+
+        // a second step - sap's without LocalGtDigits
+        Object[] candidates = group.noLocalGtDigits.candidates(remotePC);
+        if (candidates != null)
+            return ((Candidate) candidates[0]).sap;
+        return null;
+    }
+
+    public boolean spcIsLocal(int spc) {
+        return Arrays.binarySearch(this.opcs, spc) >= 0;
+    }
+
+    public int getSapCount() {
+        return sapCount;
+    }
+
+    private static final class Candidate {
+        private final Mtp3ServiceAccessPoint sap;
+        private final Mtp3Destination dest;
+
+        private Candidate(Mtp3ServiceAccessPoint sap, Mtp3Destination dest) {
+            this.sap = sap;
+            this.dest = dest;
+        }
+    }
+
+    /**
+     * SAPs that have the same OPC
+     */
+    private static final class OpcGroup {
+        private final Map<String, IntervalIndex> byLocalGtDigits;
+        private final IntervalIndex noLocalGtDigits;
+
+        private OpcGroup(Map<String, IntervalIndex> byLocalGtDigits, IntervalIndex noLocalGtDigits) {
+            this.byLocalGtDigits = byLocalGtDigits;
+            this.noLocalGtDigits = noLocalGtDigits;
+        }
+
+        private static final class Builder {
+            private final Map<String, IntervalIndex.Builder> byLocalGtDigits = new HashMap<String, IntervalIndex.Builder>();
+            private final IntervalIndex.Builder noLocalGtDigits = new IntervalIndex.Builder();
+
+            private IntervalIndex.Builder forLocalGtDigits(String localGtDigits) {
+                if (localGtDigits == null || localGtDigits.length() == 0)
+                    return this.noLocalGtDigits;
+                IntervalIndex.Builder res = this.byLocalGtDigits.get(localGtDigits);
+                if (res == null) {
+                    res = new IntervalIndex.Builder();
+                    this.byLocalGtDigits.put(localGtDigits, res);
+                }
+                return res;
+            }
+
+            private OpcGroup build() {
+                Map<String, IntervalIndex> byGt = new HashMap<String, IntervalIndex>();
+                for (Map.Entry<String, IntervalIndex.Builder> e : this.byLocalGtDigits.entrySet()) {
+                    byGt.put(e.getKey(), e.getValue().build());
+                }
+                return new OpcGroup(byGt, this.noLocalGtDigits.build());
+            }
+        }
+    }
+
+    /**
+     * Elementary intervals of int ranges. An interval i covers values from starts[i] till starts[i + 1] - 1 (the last one -
+     * till Integer.MAX_VALUE), candidates[i] are values of ranges that cover the interval in the order they were added or null
+     * if no range covers it.
+     */
+    static final class IntervalIndex {
+        private final int[] starts;
+        private final Object[][] candidates;
+
+        private IntervalIndex(int[] starts, Object[][] candidates) {
+            this.starts = starts;
+            this.candidates = candidates;
+        }
+
+        Object[] candidates(int value) {
+            int i = Arrays.binarySearch(this.starts, value);
+            if (i < 0) {
+                // the interval that precedes the insertion point
+                i = -i - 2;
+                if (i < 0)
+                    return null;
+            }
+            return this.candidates[i];
+        }
+
+        static final class Builder {
+            private final List<int[]> ranges = new ArrayList<int[]>();
+            private final List<Object> values = new ArrayList<Object>();
+
+            void add(int first, int last, Object value) {
+                if (first > last)
+                    // such range never matches
+                    return;
+                this.ranges.add(new int[] { first, last });
+                this.values.add(value);
+            }
+
+            IntervalIndex build() {
+                TreeSet<Integer> bounds = new TreeSet<Integer>();
+                for (int[] range : this.ranges) {
+                    bounds.add(range[0]);
+                    if (range[1] != Integer.MAX_VALUE)
+                        bounds.add(range[1] + 1);
+                }
+                int[] starts = new int[bounds.size()];
+                int i = 0;
+                for (Integer b : bounds) {
+                    starts[i++] = b;
+                }
+
+                List<List<Object>> lists = new ArrayList<List<Object>>(starts.length);
+                for (i = 0; i < starts.length; i++) {
+                    lists.add(null);
+                }
+                for (int j = 0; j < this.ranges.size(); j++) {
+                    int[] range = this.ranges.get(j);
+                    int k = Arrays.binarySearch(starts, range[0]);
+                    for (; k < starts.length && starts[k] <= range[1]; k++) {
+                        List<Object> lst = lists.get(k);
+                        if (lst == null) {
+                            lst = new ArrayList<Object>(2);
+                            lists.set(k, lst);
+                        }
+                        lst.add(this.values.get(j));
+                    }
+                }
+
+                Object[][] candidates = new Object[starts.length][];
+                for (i = 0; i < starts.length; i++) {
+                    List<Object> lst = lists.get(i);
+                    if (lst != null)
+                        candidates[i] = lst.toArray();
+                }
+                return new IntervalIndex(starts, candidates);
+            }
+        }
+    }
+}
@@ -57,6 +57,8 @@ public class Mtp3ServiceAccessPointImpl implements Mtp3ServiceAccessPoint, XMLSe
     private String localGtDigits;
 
     private Mtp3DestinationMap<Integer, Mtp3Destination> dpcList = new Mtp3DestinationMap<Integer, Mtp3Destination>();
+    // the router that owns this sap, its routing index is rebuilt after every change of the sap
+    private RouterImpl router;
 
     public Mtp3ServiceAccessPointImpl() {
     }
@@ -77,6 +79,16 @@ public class Mtp3ServiceAccessPointImpl implements Mtp3ServiceAccessPoint, XMLSe
         this.stackName = stackName;
     }
 
+    void setRouter(RouterImpl router) {
+        this.router = router;
+    }
+
+    private void onRoutingChanged() {
+        RouterImpl r = this.router;
+        if (r != null)
+            r.rebuildRoutingIndex();
+    }
+
     public int getMtp3Id() {
         return mtp3Id;
     }
@@ -100,6 +112,7 @@ public class Mtp3ServiceAccessPointImpl implements Mtp3ServiceAccessPoint, XMLSe
 
     public void setLocalGtDigits(String val) {
         localGtDigits = val;
+        this.onRoutingChanged();
     }
 
     public Mtp3Destination getMtp3Destination(int destId) {
@@ -127,6 +140,7 @@ public class Mtp3ServiceAccessPointImpl implements Mtp3ServiceAccessPoint, XMLSe
             newDpcList.put(destId, dest);
             this.dpcList = newDpcList;
         }
+        this.onRoutingChanged();
     }
 
     public void modifyMtp3Destination(int destId, int firstDpc, int lastDpc, int firstSls, int lastSls, int slsMask)
@@ -143,6 +157,7 @@ public class Mtp3ServiceAccessPointImpl implements Mtp3ServiceAccessPoint, XMLSe
             newDpcList.put(destId, dest);
             this.dpcList = newDpcList;
         }
+        this.onRoutingChanged();
     }
 
     public void removeMtp3Destination(int destId) throws Exception {
@@ -157,6 +172,11 @@ public class Mtp3ServiceAccessPointImpl implements Mtp3ServiceAccessPoint, XMLSe
             newDpcList.remove(destId);
             this.dpcList = newDpcList;
         }
+        this.onRoutingChanged();
+    }
+
+    FastMap<Integer, Mtp3Destination> getDpcList() {
+        return this.dpcList;
     }
 
     public boolean matches(int dpc, int sls) {
@@ -191,6 +191,8 @@ public class RouterImpl implements Router {
 
     private LongMessageRuleMap<Integer, LongMessageRule> longMessageRules = new LongMessageRuleMap<Integer, LongMessageRule>();
     private Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint> saps = new Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint>();
+    // compiled from saps and longMessageRules, it is replaced after every configuration change
+    private volatile Mtp3RoutingIndex routingIndex = Mtp3RoutingIndex.EMPTY;
 
     private final String name;
     private final SccpStack sccpStack;
@@ -237,61 +239,19 @@ public class RouterImpl implements Router {
     }
 
     public LongMessageRule findLongMessageRule(int dpc) {
-        for (FastMap.Entry<Integer, LongMessageRule> e = this.longMessageRules.head(), end = this.longMessageRules.tail(); (e = e
-                .getNext()) != end;) {
-            LongMessageRule rule = e.getValue();
-            if (rule.matches(dpc)) {
-                return rule;
-            }
-        }
-        return null;
+        return this.routingIndex.findLongMessageRule(dpc);
     }
 
     public Mtp3ServiceAccessPoint findMtp3ServiceAccessPoint(int dpc, int sls) {
-        for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = this.saps.head(), end = this.saps.tail(); (e = e.getNext()) != end;) {
-            Mtp3ServiceAccessPoint sap = e.getValue();
-            if (sap.matches(dpc, sls)) {
-                return sap;
-            }
-        }
-        return null;
+        return this.routingIndex.findMtp3ServiceAccessPoint(dpc, sls);
     }
 
     public Mtp3ServiceAccessPoint findMtp3ServiceAccessPoint(int dpc, int sls, int networkId) {
-        for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = this.saps.head(), end = this.saps.tail(); (e = e.getNext()) != end;) {
-            Mtp3ServiceAccessPoint sap = e.getValue();
-            if (sap.matches(dpc, sls)) {
-                if (sap.getNetworkId() == networkId) {
-                    return sap;
-                }
-            }
-        }
-        return null;
+        return this.routingIndex.findMtp3ServiceAccessPoint(dpc, sls, networkId);
     }
 
     public Mtp3ServiceAccessPoint findMtp3ServiceAccessPointForIncMes(int localPC, int remotePC, String localGtDigits) {
-        // a first step - sap's with LocalGtDigits
-        for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = this.saps.head(), end = this.saps.tail(); (e = e.getNext()) != end;) {
-            Mtp3ServiceAccessPoint sap = e.getValue();
-            if (sap.getLocalGtDigits() != null && sap.getLocalGtDigits().length() > 0) {
-                if (sap.getOpc() == localPC && sap.matches(remotePC)
-                        && (localGtDigits != null && localGtDigits.equals(sap.getLocalGtDigits()))) {
-                    return sap;
-                }
-            }
-        }
-
-        // a second step - sap's without LocalGtDigits
-        for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = this.saps.head(), end = this.saps.tail(); (e = e.getNext()) != end;) {
-            Mtp3ServiceAccessPoint sap = e.getValue();
-            if (sap.getLocalGtDigits() == null || sap.getLocalGtDigits().length() == 0) {
-                if (sap.getOpc() == localPC && sap.matches(remotePC)) {
-                    return sap;
-                }
-            }
-        }
-
-        return null;
+        return this.routingIndex.findMtp3ServiceAccessPointForIncMes(localPC, remotePC, localGtDigits);
     }
 
     public LongMessageRule getLongMessageRule(int id) {
@@ -304,13 +264,15 @@ public class RouterImpl implements Router {
 
     @Override
     public boolean spcIsLocal(int spc) {
-        for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = this.saps.head(), end = this.saps.tail(); (e = e.getNext()) != end;) {
-            Mtp3ServiceAccessPoint sap = e.getValue();
-            if (sap.getOpc() == spc) {
-                return true;
-            }
-        }
-        return false;
+        return this.routingIndex.spcIsLocal(spc);
+    }
+
+    /**
+     * Compiles the routing index from the current configuration, it is also invoked by a sap after a change of its
+     * destinations
+     */
+    synchronized void rebuildRoutingIndex() {
+        this.routingIndex = Mtp3RoutingIndex.compile(this.saps, this.longMessageRules);
     }
 
     public Map<Integer, LongMessageRule> getLongMessageRules() {
@@ -337,6 +299,7 @@ public class RouterImpl implements Router {
             newLongMessageRule.putAll(this.longMessageRules);
             newLongMessageRule.put(id, longMessageRule);
             this.longMessageRules = newLongMessageRule;
+            this.rebuildRoutingIndex();
             this.store();
         }
     }
@@ -353,6 +316,7 @@ public class RouterImpl implements Router {
             newLongMessageRule.putAll(this.longMessageRules);
             newLongMessageRule.put(id, longMessageRule);
             this.longMessageRules = newLongMessageRule;
+            this.rebuildRoutingIndex();
             this.store();
         }
     }
@@ -378,6 +342,7 @@ public class RouterImpl implements Router {
             newLongMessageRule.putAll(this.longMessageRules);
             newLongMessageRule.put(id, longMessageRule);
             this.longMessageRules = newLongMessageRule;
+            this.rebuildRoutingIndex();
             this.store();
         }
     }
@@ -393,6 +358,7 @@ public class RouterImpl implements Router {
             newLongMessageRule.putAll(this.longMessageRules);
             newLongMessageRule.remove(id);
             this.longMessageRules = newLongMessageRule;
+            this.rebuildRoutingIndex();
             this.store();
         }
     }
@@ -403,9 +369,10 @@ public class RouterImpl implements Router {
         if (sap == null) {
             throw new Exception(String.format(SccpOAMMessage.SAP_DOESNT_EXIST, name));
         }
-        // TODO Synchronize??
-        sap.addMtp3Destination(destId, firstDpc, lastDpc, firstSls, lastSls, slsMask);
-        this.store();
+        synchronized (this) {
+            sap.addMtp3Destination(destId, firstDpc, lastDpc, firstSls, lastSls, slsMask);
+            this.store();
+        }
     }
 
     public void modifyMtp3Destination(int sapId, int destId, int firstDpc, int lastDpc, int firstSls, int lastSls, int slsMask)
@@ -415,9 +382,10 @@ public class RouterImpl implements Router {
         if (sap == null) {
             throw new Exception(String.format(SccpOAMMessage.SAP_DOESNT_EXIST, name));
         }
-        // TODO Synchronize??
-        sap.modifyMtp3Destination(destId, firstDpc, lastDpc, firstSls, lastSls, slsMask);
-        this.store();
+        synchronized (this) {
+            sap.modifyMtp3Destination(destId, firstDpc, lastDpc, firstSls, lastSls, slsMask);
+            this.store();
+        }
     }
 
     public void modifyMtp3Destination(int sapId, int destId, Integer firstDpc, Integer lastDpc, Integer firstSls, Integer lastSls, Integer slsMask)
@@ -442,8 +410,10 @@ public class RouterImpl implements Router {
         if(slsMask == null)
             slsMask = dest.getSlsMask();
 
-        sap.modifyMtp3Destination(destId, firstDpc, lastDpc, firstSls, lastSls, slsMask);
-        this.store();
+        synchronized (this) {
+            sap.modifyMtp3Destination(destId, firstDpc, lastDpc, firstSls, lastSls, slsMask);
+            this.store();
+        }
     }
 
     public void removeMtp3Destination(int sapId, int destId) throws Exception {
@@ -453,8 +423,10 @@ public class RouterImpl implements Router {
             throw new Exception(String.format(SccpOAMMessage.SAP_DOESNT_EXIST, name));
         }
 
-        sap.removeMtp3Destination(destId);
-        this.store();
+        synchronized (this) {
+            sap.removeMtp3Destination(destId);
+            this.store();
+        }
     }
 
     public void addMtp3ServiceAccessPoint(int id, int mtp3Id, int opc, int ni, int networkId, String localGtDigits) throws Exception {
@@ -472,11 +444,13 @@ public class RouterImpl implements Router {
 
 
         Mtp3ServiceAccessPointImpl sap = new Mtp3ServiceAccessPointImpl(mtp3Id, opc, ni, this.name, networkId, localGtDigits);
+        sap.setRouter(this);
         synchronized (this) {
             Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint> newSap = new Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint>();
             newSap.putAll(this.saps);
             newSap.put(id, sap);
             this.saps = newSap;
+            this.rebuildRoutingIndex();
             this.store();
         }
     }
@@ -494,11 +468,13 @@ public class RouterImpl implements Router {
             localGtDigits = null;
 
         Mtp3ServiceAccessPointImpl sap = new Mtp3ServiceAccessPointImpl(mtp3Id, opc, ni, this.name, networkId, localGtDigits);
+        sap.setRouter(this);
         synchronized (this) {
             Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint> newSap = new Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint>();
             newSap.putAll(this.saps);
             newSap.put(id, sap);
             this.saps = newSap;
+            this.rebuildRoutingIndex();
             this.store();
         }
     }
@@ -528,13 +504,14 @@ public class RouterImpl implements Router {
             localGtDigits = sap.getLocalGtDigits();
 
         Mtp3ServiceAccessPointImpl newSap = new Mtp3ServiceAccessPointImpl(mtp3Id, opc, ni, this.name, networkId, localGtDigits);
+        newSap.setRouter(this);
 
         synchronized (this) {
             Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint> newSaps = new Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint>();
             newSaps.putAll(this.saps);
             newSaps.put(id, newSap);
             this.saps = newSaps;
-            this.store();
+            this.rebuildRoutingIndex();
             this.store();
         }
     }
@@ -551,6 +528,7 @@ public class RouterImpl implements Router {
             newSap.putAll(this.saps);
             newSap.remove(id);
             this.saps = newSap;
+            this.rebuildRoutingIndex();
             this.store();
         }
     }
@@ -564,6 +542,7 @@ public class RouterImpl implements Router {
 
             longMessageRules = new LongMessageRuleMap<Integer, LongMessageRule>();
             saps = new Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint>();
+            this.rebuildRoutingIndex();
 
             // We store the cleared state
             this.store();
@@ -709,7 +688,9 @@ public class RouterImpl implements Router {
         for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = this.saps.head(), end = this.saps.tail(); (e = e.getNext()) != end;) {
             Mtp3ServiceAccessPoint sap = e.getValue();
             ((Mtp3ServiceAccessPointImpl)sap).setStackName(name);
+            ((Mtp3ServiceAccessPointImpl)sap).setRouter(this);
         }
+        this.rebuildRoutingIndex();
 
         reader.close();
 
@@ -749,7 +730,9 @@ public class RouterImpl implements Router {
         for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = this.saps.head(), end = this.saps.tail(); (e = e.getNext()) != end;) {
             Mtp3ServiceAccessPoint sap = e.getValue();
             ((Mtp3ServiceAccessPointImpl)sap).setStackName(name);
+            ((Mtp3ServiceAccessPointImpl)sap).setRouter(this);
         }
+        this.rebuildRoutingIndex();
 
         reader.close();
 
@@ -799,7 +782,9 @@ public class RouterImpl implements Router {
         for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = this.saps.head(), end = this.saps.tail(); (e = e.getNext()) != end;) {
             Mtp3ServiceAccessPoint sap = e.getValue();
             ((Mtp3ServiceAccessPointImpl)sap).setStackName(name);
+            ((Mtp3ServiceAccessPointImpl)sap).setRouter(this);
         }
+        this.rebuildRoutingIndex();
 
         reader.close();
     }
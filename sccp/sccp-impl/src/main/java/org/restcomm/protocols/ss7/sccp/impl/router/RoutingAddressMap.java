@@ -0,0 +1,60 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.sccp.impl.router;
+
+import javolution.util.FastMap;
+import javolution.xml.XMLFormat;
+import javolution.xml.stream.XMLStreamException;
+
+import org.restcomm.protocols.ss7.sccp.impl.parameter.SccpAddressImpl;
+import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
+
+/**
+ * Primary / secondary / new calling party addresses of GT translation rules (addressId - address)
+ *
+ */
+public class RoutingAddressMap extends FastMap<Integer, SccpAddress> {
+
+    private static final String ID = "id";
+    private static final String VALUE = "value";
+
+    protected static final XMLFormat<RoutingAddressMap> XML = new XMLFormat<RoutingAddressMap>(RoutingAddressMap.class) {
+
+        @Override
+        public void write(RoutingAddressMap obj, OutputElement xml) throws XMLStreamException {
+            for (FastMap.Entry<Integer, SccpAddress> e = obj.head(), end = obj.tail(); (e = e.getNext()) != end;) {
+                xml.add(e.getKey(), ID, Integer.class);
+                xml.add((SccpAddressImpl) e.getValue(), VALUE, SccpAddressImpl.class);
+            }
+        }
+
+        @Override
+        public void read(InputElement xml, RoutingAddressMap obj) throws XMLStreamException {
+            while (xml.hasNext()) {
+                Integer id = xml.get(ID, Integer.class);
+                SccpAddress address = xml.get(VALUE, SccpAddressImpl.class);
+                obj.put(id, address);
+            }
+        }
+    };
+}
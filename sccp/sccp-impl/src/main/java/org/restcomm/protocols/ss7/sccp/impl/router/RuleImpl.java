@@ -0,0 +1,369 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.sccp.impl.router;
+
+import javolution.xml.XMLFormat;
+import javolution.xml.XMLSerializable;
+import javolution.xml.stream.XMLStreamException;
+
+import org.restcomm.protocols.ss7.indicator.RoutingIndicator;
+import org.restcomm.protocols.ss7.sccp.LoadSharingAlgorithm;
+import org.restcomm.protocols.ss7.sccp.OriginationType;
+import org.restcomm.protocols.ss7.sccp.Rule;
+import org.restcomm.protocols.ss7.sccp.RuleType;
+import org.restcomm.protocols.ss7.sccp.impl.oam.SccpOAMMessage;
+import org.restcomm.protocols.ss7.sccp.impl.parameter.ParameterFactoryImpl;
+import org.restcomm.protocols.ss7.sccp.impl.parameter.SccpAddressImpl;
+import org.restcomm.protocols.ss7.sccp.parameter.GlobalTitle;
+import org.restcomm.protocols.ss7.sccp.parameter.GlobalTitle0001;
+import org.restcomm.protocols.ss7.sccp.parameter.GlobalTitle0010;
+import org.restcomm.protocols.ss7.sccp.parameter.GlobalTitle0011;
+import org.restcomm.protocols.ss7.sccp.parameter.GlobalTitle0100;
+import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
+
+/**
+ * GT translation rule.
+ *
+ * <p>
+ * Pattern GT digits may be divided into sections by "/". Inside of a section "?" matches any one digit and "*" matches all
+ * remaining digits (it may be used only at the end of the pattern). The mask has the same count of sections, each of them is
+ * "K" (keep the digits of the called party address that match this section) or "R" (replace them by the same section of
+ * the primary / secondary address digits, "-" stands for an empty section).
+ * </p>
+ *
+ */
+public class RuleImpl implements Rule, XMLSerializable {
+    private static final String RULE_TYPE = "ruleType";
+    private static final String LS_ALGO = "loadSharingAlgo";
+    private static final String ORIGINATION_TYPE = "originationType";
+    private static final String MASK = "mask";
+    private static final String PRIMARY_ADDRESS = "paddress";
+    private static final String SECONDARY_ADDRESS = "saddress";
+    private static final String NEW_CALLING_PARTY_ADDRESS = "ncpaddress";
+    private static final String NETWORK_ID = "networkId";
+    private static final String PATTERN = "patternSccpAddress";
+    private static final String PATTERN_CALLING_ADDRESS = "patternCallingAddress";
+
+    public static final String SECTION_SEPARATOR = "/";
+    public static final String MASK_KEEP = "K";
+    public static final String MASK_REPLACE = "R";
+    public static final String EMPTY_SECTION = "-";
+    public static final char WILDCARD_ANY = '*';
+    public static final char WILDCARD_SINGLE = '?';
+
+    private static final ParameterFactoryImpl parameterFactory = new ParameterFactoryImpl();
+
+    private int ruleId;
+    private RuleType ruleType = RuleType.SOLITARY;
+    private LoadSharingAlgorithm loadSharingAlgo = LoadSharingAlgorithm.Undefined;
+    private OriginationType originationType = OriginationType.ALL;
+    private SccpAddress pattern;
+    private String mask;
+    private int primaryAddressId;
+    private int secondaryAddressId = -1;
+    private Integer newCallingPartyAddressId;
+    private int networkId;
+    private SccpAddress patternCallingAddress;
+
+    private String[] patternSections;
+    private String[] maskSections;
+
+    public RuleImpl() {
+    }
+
+    public RuleImpl(RuleType ruleType, LoadSharingAlgorithm loadSharingAlgo, OriginationType originationType, SccpAddress pattern,
+            String mask, int primaryAddressId, int secondaryAddressId, Integer newCallingPartyAddressId, int networkId,
+            SccpAddress patternCallingAddress) {
+        this.ruleType = ruleType;
+        this.loadSharingAlgo = loadSharingAlgo != null ? loadSharingAlgo : LoadSharingAlgorithm.Undefined;
+        this.originationType = originationType != null ? originationType : OriginationType.ALL;
+        this.pattern = pattern;
+        this.mask = mask;
+        this.primaryAddressId = primaryAddressId;
+        this.secondaryAddressId = secondaryAddressId;
+        this.newCallingPartyAddressId = newCallingPartyAddressId;
+        this.networkId = networkId;
+        this.patternCallingAddress = patternCallingAddress;
+
+        this.configure();
+    }
+
+    private void configure() {
+        GlobalTitle gt = this.pattern != null ? this.pattern.getGlobalTitle() : null;
+        this.patternSections = gt != null ? gt.getDigits().split(SECTION_SEPARATOR) : new String[0];
+        this.maskSections = this.mask != null ? this.mask.split(SECTION_SEPARATOR) : new String[0];
+    }
+
+    /**
+     * Checks the rule consistency: a pattern GT must be present, a mask must consist of "K" / "R" sections and its section
+     * count must match to the section count of pattern digits
+     *
+     * @throws Exception
+     */
+    public void validate() throws Exception {
+        if (this.pattern == null || this.pattern.getGlobalTitle() == null || this.pattern.getGlobalTitle().getDigits() == null) {
+            throw new Exception(SccpOAMMessage.INVALID_COMMAND);
+        }
+        for (String s : this.maskSections) {
+            if (!MASK_KEEP.equals(s) && !MASK_REPLACE.equals(s)) {
+                throw new Exception(SccpOAMMessage.INVALID_MASK);
+            }
+        }
+        if (this.maskSections.length != this.patternSections.length) {
+            throw new Exception(SccpOAMMessage.SEC_MISMATCH_PATTERN);
+        }
+        if (this.ruleType != RuleType.SOLITARY && this.secondaryAddressId < 0) {
+            throw new Exception(SccpOAMMessage.RULETYPE_NOT_SOLI_SEC_ADD_MANDATORY);
+        }
+
+        String digits = this.pattern.getGlobalTitle().getDigits();
+        for (int i = 0; i < digits.length(); i++) {
+            char c = digits.charAt(i);
+            if (c == WILDCARD_ANY) {
+                if (i != digits.length() - 1) {
+                    throw new Exception(SccpOAMMessage.INVALID_COMMAND);
+                }
+            } else if (c != WILDCARD_SINGLE && c != '/' && Character.digit(c, 16) < 0) {
+                throw new Exception(SccpOAMMessage.INVALID_COMMAND);
+            }
+        }
+    }
+
+    public int getRuleId() {
+        return ruleId;
+    }
+
+    public void setRuleId(int ruleId) {
+        this.ruleId = ruleId;
+    }
+
+    public String getMask() {
+        return mask;
+    }
+
+    public RuleType getRuleType() {
+        return ruleType;
+    }
+
+    public LoadSharingAlgorithm getLoadSharingAlgorithm() {
+        return loadSharingAlgo;
+    }
+
+    public SccpAddress getPattern() {
+        return pattern;
+    }
+
+    public int getPrimaryAddressId() {
+        return primaryAddressId;
+    }
+
+    public int getSecondaryAddressId() {
+        return secondaryAddressId;
+    }
+
+    public Integer getNewCallingPartyAddressId() {
+        return newCallingPartyAddressId;
+    }
+
+    public OriginationType getOriginationType() {
+        return originationType;
+    }
+
+    public int getNetworkId() {
+        return networkId;
+    }
+
+    public SccpAddress getPatternCallingAddress() {
+        return patternCallingAddress;
+    }
+
+    public boolean matches(SccpAddress address, SccpAddress callingAddress, boolean isMtpOriginated, int msgNetworkId) {
+        switch (this.originationType) {
+            case LOCAL:
+                if (isMtpOriginated)
+                    return false;
+                break;
+            case REMOTE:
+                if (!isMtpOriginated)
+                    return false;
+                break;
+            default:
+                break;
+        }
+
+        if (this.networkId != msgNetworkId)
+            return false;
+
+        if (!matchesAddress(this.pattern, address))
+            return false;
+
+        if (this.patternCallingAddress != null) {
+            if (callingAddress == null || !matchesAddress(this.patternCallingAddress, callingAddress))
+                return false;
+        }
+
+        return true;
+    }
+
+    private static boolean matchesAddress(SccpAddress pattern, SccpAddress address) {
+        int ssn = pattern.getSubsystemNumber();
+        if (ssn > 0 && ssn != address.getSubsystemNumber())
+            return false;
+
+        GlobalTitle patternGt = pattern.getGlobalTitle();
+        if (patternGt == null)
+            return true;
+        GlobalTitle gt = address.getGlobalTitle();
+        if (gt == null || gt.getDigits() == null)
+            return false;
+        if (GlobalTitleRuleTrie.globalTitleKey(patternGt, 0) != GlobalTitleRuleTrie.globalTitleKey(gt, 0))
+            return false;
+
+        return matchesDigits(patternGt.getDigits(), gt.getDigits());
+    }
+
+    /**
+     * Returns true if digits match to pattern digits ("/" separators are ignored)
+     *
+     * @param pattern
+     * @param digits
+     * @return
+     */
+    public static boolean matchesDigits(String pattern, String digits) {
+        int len = digits.length();
+        int j = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '/')
+                continue;
+            if (c == WILDCARD_ANY)
+                return true;
+            if (j >= len)
+                return false;
+            if (c != WILDCARD_SINGLE && Character.toUpperCase(c) != Character.toUpperCase(digits.charAt(j)))
+                return false;
+            j++;
+        }
+        return j == len;
+    }
+
+    public SccpAddress translate(SccpAddress address, SccpAddress ruleAddress) {
+        int ssn = ruleAddress.getSubsystemNumber() > 0 ? ruleAddress.getSubsystemNumber() : address.getSubsystemNumber();
+        GlobalTitle ruleGt = ruleAddress.getGlobalTitle();
+        if (ruleGt == null) {
+            // the primary / secondary address has no GT - routing on DPC and SSN
+            return parameterFactory.createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null,
+                    ruleAddress.getSignalingPointCode(), ssn);
+        }
+
+        String digits = this.translateDigits(address.getGlobalTitle().getDigits(), ruleGt.getDigits());
+        return parameterFactory.createSccpAddress(ruleAddress.getAddressIndicator().getRoutingIndicator(),
+                createGlobalTitle(ruleGt, digits), ruleAddress.getSignalingPointCode(), ssn);
+    }
+
+    private String translateDigits(String digits, String ruleDigits) {
+        String[] ruleSections = ruleDigits.split(SECTION_SEPARATOR);
+        StringBuilder sb = new StringBuilder(digits.length() + ruleDigits.length());
+        int pos = 0;
+        for (int i = 0; i < this.patternSections.length; i++) {
+            String ps = this.patternSections[i];
+            int end = ps.indexOf(WILDCARD_ANY) >= 0 ? digits.length() : Math.min(pos + ps.length(), digits.length());
+            if (MASK_KEEP.equals(this.maskSections[i])) {
+                sb.append(digits, pos, end);
+            } else if (i < ruleSections.length && !EMPTY_SECTION.equals(ruleSections[i])) {
+                sb.append(ruleSections[i]);
+            }
+            pos = end;
+        }
+        return sb.toString();
+    }
+
+    private static GlobalTitle createGlobalTitle(GlobalTitle ruleGt, String digits) {
+        switch (ruleGt.getGlobalTitleIndicator()) {
+            case GLOBAL_TITLE_INCLUDES_NATURE_OF_ADDRESS_INDICATOR_ONLY:
+                return parameterFactory.createGlobalTitle(digits, ((GlobalTitle0001) ruleGt).getNatureOfAddress());
+            case GLOBAL_TITLE_INCLUDES_TRANSLATION_TYPE_ONLY:
+                return parameterFactory.createGlobalTitle(digits, ((GlobalTitle0010) ruleGt).getTranslationType());
+            case GLOBAL_TITLE_INCLUDES_TRANSLATION_TYPE_NUMBERING_PLAN_AND_ENCODING_SCHEME:
+                GlobalTitle0011 gt0011 = (GlobalTitle0011) ruleGt;
+                return parameterFactory.createGlobalTitle(digits, gt0011.getTranslationType(), gt0011.getNumberingPlan(), null);
+            case GLOBAL_TITLE_INCLUDES_TRANSLATION_TYPE_NUMBERING_PLAN_ENCODING_SCHEME_AND_NATURE_OF_ADDRESS:
+                GlobalTitle0100 gt0100 = (GlobalTitle0100) ruleGt;
+                return parameterFactory.createGlobalTitle(digits, gt0100.getTranslationType(), gt0100.getNumberingPlan(), null,
+                        gt0100.getNatureOfAddress());
+            default:
+                return parameterFactory.createGlobalTitle(digits);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuffer sb = new StringBuffer();
+        sb.append("ruleId=").append(this.ruleId).append(", ruleType=").append(this.ruleType).append(", loadSharingAlgo=")
+                .append(this.loadSharingAlgo).append(", originationType=").append(this.originationType).append(", mask=")
+                .append(this.mask).append(", pattern=").append(this.pattern).append(", primaryAddressId=")
+                .append(this.primaryAddressId).append(", secondaryAddressId=").append(this.secondaryAddressId);
+        if (this.newCallingPartyAddressId != null)
+            sb.append(", newCallingPartyAddressId=").append(this.newCallingPartyAddressId);
+        sb.append(", networkId=").append(this.networkId);
+        if (this.patternCallingAddress != null)
+            sb.append(", patternCallingAddress=").append(this.patternCallingAddress);
+        return sb.toString();
+    }
+
+    protected static final XMLFormat<RuleImpl> XML = new XMLFormat<RuleImpl>(RuleImpl.class) {
+
+        public void write(RuleImpl ai, OutputElement xml) throws XMLStreamException {
+            xml.setAttribute(RULE_TYPE, ai.ruleType.toString());
+            xml.setAttribute(LS_ALGO, ai.loadSharingAlgo.toString());
+            xml.setAttribute(ORIGINATION_TYPE, ai.originationType.toString());
+            xml.setAttribute(MASK, ai.mask);
+            xml.setAttribute(PRIMARY_ADDRESS, ai.primaryAddressId);
+            xml.setAttribute(SECONDARY_ADDRESS, ai.secondaryAddressId);
+            if (ai.newCallingPartyAddressId != null)
+                xml.setAttribute(NEW_CALLING_PARTY_ADDRESS, ai.newCallingPartyAddressId.intValue());
+            xml.setAttribute(NETWORK_ID, ai.networkId);
+
+            xml.add((SccpAddressImpl) ai.pattern, PATTERN, SccpAddressImpl.class);
+            if (ai.patternCallingAddress != null)
+                xml.add((SccpAddressImpl) ai.patternCallingAddress, PATTERN_CALLING_ADDRESS, SccpAddressImpl.class);
+        }
+
+        public void read(InputElement xml, RuleImpl ai) throws XMLStreamException {
+            ai.ruleType = RuleType.valueOf(xml.getAttribute(RULE_TYPE).toString());
+            ai.loadSharingAlgo = LoadSharingAlgorithm.valueOf(xml.getAttribute(LS_ALGO).toString());
+            ai.originationType = OriginationType.valueOf(xml.getAttribute(ORIGINATION_TYPE).toString());
+            ai.mask = xml.getAttribute(MASK).toString();
+            ai.primaryAddressId = xml.getAttribute(PRIMARY_ADDRESS).toInt();
+            ai.secondaryAddressId = xml.getAttribute(SECONDARY_ADDRESS).toInt();
+            int ncpaddress = xml.getAttribute(NEW_CALLING_PARTY_ADDRESS, -1);
+            ai.newCallingPartyAddressId = ncpaddress >= 0 ? ncpaddress : null;
+            ai.networkId = xml.getAttribute(NETWORK_ID).toInt();
+
+            ai.pattern = xml.get(PATTERN, SccpAddressImpl.class);
+            ai.patternCallingAddress = xml.get(PATTERN_CALLING_ADDRESS, SccpAddressImpl.class);
+
+            ai.configure();
+        }
+    };
+}
@@ -0,0 +1,58 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.sccp.impl.router;
+
+import javolution.util.FastMap;
+import javolution.xml.XMLFormat;
+import javolution.xml.stream.XMLStreamException;
+
+/**
+ * GT translation rules (ruleId - rule)
+ *
+ */
+public class RuleMap extends FastMap<Integer, RuleImpl> {
+
+    private static final String ID = "id";
+    private static final String VALUE = "value";
+
+    protected static final XMLFormat<RuleMap> XML = new XMLFormat<RuleMap>(RuleMap.class) {
+
+        @Override
+        public void write(RuleMap obj, OutputElement xml) throws XMLStreamException {
+            for (FastMap.Entry<Integer, RuleImpl> e = obj.head(), end = obj.tail(); (e = e.getNext()) != end;) {
+                xml.add(e.getKey(), ID, Integer.class);
+                xml.add(e.getValue(), VALUE, RuleImpl.class);
+            }
+        }
+
+        @Override
+        public void read(InputElement xml, RuleMap obj) throws XMLStreamException {
+            while (xml.hasNext()) {
+                Integer id = xml.get(ID, Integer.class);
+                RuleImpl rule = xml.get(VALUE, RuleImpl.class);
+                rule.setRuleId(id);
+                obj.put(id, rule);
+            }
+        }
+    };
+}
@@ -0,0 +1,313 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.sccp.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javolution.xml.XMLObjectReader;
+import javolution.xml.XMLObjectWriter;
+
+import org.restcomm.protocols.ss7.Util;
+import org.restcomm.protocols.ss7.indicator.RoutingIndicator;
+import org.restcomm.protocols.ss7.sccp.LoadSharingAlgorithm;
+import org.restcomm.protocols.ss7.sccp.OriginationType;
+import org.restcomm.protocols.ss7.sccp.Rule;
+import org.restcomm.protocols.ss7.sccp.RuleType;
+import org.restcomm.protocols.ss7.sccp.impl.message.SccpAddressedMessageImpl;
+import org.restcomm.protocols.ss7.sccp.impl.parameter.ParameterFactoryImpl;
+import org.restcomm.protocols.ss7.sccp.impl.parameter.SccpAddressImpl;
+import org.restcomm.protocols.ss7.sccp.parameter.RefusalCauseValue;
+import org.restcomm.protocols.ss7.sccp.parameter.ReturnCauseValue;
+import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for the routing of messages by GT translation rules
+ */
+public class GlobalTitleTranslationImplTest {
+
+    private ParameterFactoryImpl parameterFactory = new ParameterFactoryImpl();
+    private SccpStackImpl stack;
+    private GlobalTitleTranslationImpl gtt;
+    private List<SccpAddressedMessageImpl> routed;
+    private SccpRoutingCtxInterface ctx;
+
+    @BeforeMethod
+    public void setUp() {
+        this.stack = new SccpStackImpl("GlobalTitleTranslationImplTest", null);
+        this.gtt = (GlobalTitleTranslationImpl) this.stack.getSs7ExtSccpInterface();
+        this.routed = Collections.synchronizedList(new ArrayList<SccpAddressedMessageImpl>());
+        this.ctx = new SccpRoutingCtxInterface() {
+            @Override
+            public void sendSccpError(SccpAddressedMessageImpl msg, ReturnCauseValue returnCauseInt,
+                    RefusalCauseValue refusalCauseInt) throws Exception {
+                throw new AssertionError("Unexpected error " + returnCauseInt + " for " + msg);
+            }
+
+            @Override
+            public void routeAddressed(SccpAddressedMessageImpl msg) throws Exception {
+                routed.add(msg);
+            }
+        };
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        if (this.stack.isStarted()) {
+            this.stack.removeAllResourses();
+            this.stack.stop();
+        }
+    }
+
+    /**
+     * Starts the stack with remote signaling points 1 and 2 and routing addresses 1 and 2 that point to them
+     */
+    private void startStack() throws Exception {
+        this.stack.setPersistDir(Util.getTmpTestDir());
+        this.stack.start();
+        this.stack.removeAllResourses();
+
+        this.stack.getSccpResource().addRemoteSpc(1, 1, 0, 0);
+        this.stack.getSccpResource().addRemoteSpc(2, 2, 0, 0);
+        this.gtt.addRoutingAddress(1, new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 1, 8));
+        this.gtt.addRoutingAddress(2, new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 2, 8));
+    }
+
+    private void setProhibited(int pc, boolean prohibited) {
+        ((RemoteSignalingPointCodeImpl) this.stack.getSccpResource().getRemoteSpcByPC(pc)).setRemoteSpcProhibited(prohibited);
+    }
+
+    private SccpAddressedMessageImpl createMessage(String digits, int sls) {
+        SccpAddressedMessageImpl msg = (SccpAddressedMessageImpl) this.stack.getSccpProvider().getMessageFactory()
+                .createDataMessageClass1(this.createGtAddress(digits), this.createGtAddress("2222"), new byte[] { 1, 2, 3 },
+                        0, 8, true, null, null);
+        msg.setSls(sls);
+        return msg;
+    }
+
+    /**
+     * Translates a message and returns DPC of the routed message
+     */
+    private int route(String digits, int sls) throws Exception {
+        this.routed.clear();
+        this.gtt.translationFunction(this.ctx, this.createMessage(digits, sls));
+        assertEquals(this.routed.size(), 1);
+        return this.routed.get(0).getCalledPartyAddress().getSignalingPointCode();
+    }
+
+    private SccpAddress createGtAddress(String digits) {
+        return new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_GLOBAL_TITLE, this.parameterFactory.createGlobalTitle(
+                digits, 1), 0, 8);
+    }
+
+    @Test(groups = { "gtt", "functional" })
+    public void testRuleId() throws Exception {
+        this.gtt.addRoutingAddress(1, new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 1, 8));
+        this.gtt.addRule(5, RuleType.SOLITARY, LoadSharingAlgorithm.Undefined, OriginationType.ALL,
+                this.createGtAddress("1111*"), "K", 1, -1, null, 0, null);
+        assertEquals(this.gtt.getRule(5).getRuleId(), 5);
+
+        this.gtt.modifyRule(5, RuleType.SOLITARY, LoadSharingAlgorithm.Undefined, OriginationType.ALL,
+                this.createGtAddress("2222*"), "K", 1, -1, null, 0, null);
+        assertEquals(this.gtt.getRule(5).getRuleId(), 5);
+        assertEquals(this.gtt.getRules().get(5).getRuleId(), 5);
+    }
+
+    @Test(groups = { "gtt", "functional" })
+    public void testSolitary() throws Exception {
+        this.startStack();
+        this.gtt.addRule(1, RuleType.SOLITARY, LoadSharingAlgorithm.Undefined, OriginationType.ALL,
+                this.createGtAddress("1111*"), "K", 1, -1, null, 0, null);
+
+        assertEquals(this.route("11112", 0), 1);
+        // no backup address - the primary one is used even if it is prohibited
+        this.setProhibited(1, true);
+        assertEquals(this.route("11112", 0), 1);
+    }
+
+    @Test(groups = { "gtt", "functional" })
+    public void testDominant() throws Exception {
+        this.startStack();
+        this.gtt.addRule(1, RuleType.DOMINANT, LoadSharingAlgorithm.Undefined, OriginationType.ALL,
+                this.createGtAddress("1111*"), "K", 1, 2, null, 0, null);
+
+        assertEquals(this.route("11112", 0), 1);
+        assertEquals(this.route("11112", 1), 1);
+        this.setProhibited(1, true);
+        assertEquals(this.route("11112", 0), 2);
+        // both are prohibited - the primary one
+        this.setProhibited(2, true);
+        assertEquals(this.route("11112", 0), 1);
+        this.setProhibited(1, false);
+        assertEquals(this.route("11112", 0), 1);
+    }
+
+    @Test(groups = { "gtt", "functional" })
+    public void testLoadshared() throws Exception {
+        this.startStack();
+        this.gtt.addRule(1, RuleType.LOADSHARED, LoadSharingAlgorithm.Bit2, OriginationType.ALL,
+                this.createGtAddress("1111*"), "K", 1, 2, null, 0, null);
+
+        // the SLS bit 2 selects the address
+        assertEquals(this.route("11112", 0), 1);
+        assertEquals(this.route("11112", 3), 1);
+        assertEquals(this.route("11112", 4), 2);
+        assertEquals(this.route("11112", 7), 2);
+
+        this.setProhibited(2, true);
+        assertEquals(this.route("11112", 4), 1);
+        this.setProhibited(2, false);
+        this.setProhibited(1, true);
+        assertEquals(this.route("11112", 0), 2);
+        assertEquals(this.route("11112", 4), 2);
+    }
+
+    @Test(groups = { "gtt", "functional" })
+    public void testStoreLoad() throws Exception {
+        this.gtt.addRoutingAddress(1, new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 1, 8));
+        this.gtt.addRoutingAddress(2, new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_GLOBAL_TITLE,
+                this.parameterFactory.createGlobalTitle("99/-", 1), 2, 6));
+        this.gtt.addRoutingAddress(3, this.createGtAddress("3333"));
+        this.gtt.addRule(1, RuleType.DOMINANT, LoadSharingAlgorithm.Undefined, OriginationType.REMOTE,
+                this.createGtAddress("12/34*"), "R/K", 2, 1, 3, 0, null);
+        this.gtt.addRule(2, RuleType.LOADSHARED, LoadSharingAlgorithm.Bit3, OriginationType.ALL,
+                this.createGtAddress("5?5*"), "K", 1, 1, null, 1, this.createGtAddress("77*"));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        XMLObjectWriter writer = XMLObjectWriter.newInstance(output);
+        writer.setBinding(SccpStackImpl.binding);
+        this.gtt.storeExt(writer);
+        writer.close();
+
+        GlobalTitleTranslationImpl gtt2 = new GlobalTitleTranslationImpl();
+        XMLObjectReader reader = XMLObjectReader.newInstance(new ByteArrayInputStream(output.toByteArray()));
+        reader.setBinding(SccpStackImpl.binding);
+        gtt2.loadExt(reader);
+        reader.close();
+
+        assertEquals(gtt2.getRoutingAddresses().size(), 3);
+        for (int id = 1; id <= 3; id++) {
+            assertEquals(gtt2.getRoutingAddress(id), this.gtt.getRoutingAddress(id));
+        }
+        assertEquals(gtt2.getRules().size(), 2);
+        for (int id = 1; id <= 2; id++) {
+            Rule rule = gtt2.getRule(id);
+            assertEquals(rule.getRuleId(), id);
+            assertEquals(rule.toString(), this.gtt.getRule(id).toString());
+        }
+
+        // the loaded rules are compiled
+        assertEquals(gtt2.findDpsForAddresses(this.createGtAddress("12345"), null, 0), 2);
+        assertEquals(gtt2.findDpsForAddresses(this.createGtAddress("5556"), this.createGtAddress("778"), 1), 1);
+        assertEquals(gtt2.findDpsForAddresses(this.createGtAddress("5556"), this.createGtAddress("778"), 0), -1);
+    }
+
+    @Test(groups = { "gtt", "functional" })
+    public void testConcurrentChange() throws Exception {
+        this.gtt.addRoutingAddress(1, new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 1, 8));
+        this.gtt.addRoutingAddress(2, new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 2, 8));
+        this.gtt.addRoutingAddress(3, new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 3, 8));
+        this.gtt.addRule(1, RuleType.SOLITARY, LoadSharingAlgorithm.Undefined, OriginationType.ALL,
+                this.createGtAddress("1*"), "K", 1, -1, null, 0, null);
+
+        final int threadCount = 4;
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        final CountDownLatch finished = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        while (running.get()) {
+                            SccpAddressedMessageImpl msg = createMessage("123456", 0);
+                            gtt.translationFunction(ctx, msg);
+                            int dpc = msg.getCalledPartyAddress().getSignalingPointCode();
+                            if (dpc < 1 || dpc > 3)
+                                throw new AssertionError("Unexpected dpc " + dpc);
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    } finally {
+                        finished.countDown();
+                    }
+                }
+            }.start();
+        }
+
+        // rule changes replace the compiled trie while messages are translated
+        for (int i = 0; i < 200; i++) {
+            this.gtt.modifyRule(1, RuleType.SOLITARY, LoadSharingAlgorithm.Undefined, OriginationType.ALL,
+                    this.createGtAddress("1*"), "K", i % 2 == 0 ? 2 : 1, -1, null, 0, null);
+            this.gtt.addRule(2, RuleType.SOLITARY, LoadSharingAlgorithm.Undefined, OriginationType.ALL,
+                    this.createGtAddress("123456"), "K", 3, -1, null, 0, null);
+            this.gtt.removeRule(2);
+        }
+        running.set(false);
+
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertEquals(errors.size(), 0, "Errors: " + errors);
+        assertTrue(this.routed.size() > 0);
+        assertNull(this.gtt.getRule(2));
+        assertEquals(this.gtt.getRule(1).getPrimaryAddressId(), 1);
+    }
+
+    @Test(groups = { "gtt", "functional" })
+    public void testBroadcast() throws Exception {
+        this.gtt.addRoutingAddress(1, new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 1, 8));
+        this.gtt.addRoutingAddress(2, new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 2, 8));
+        this.gtt.addRule(1, RuleType.BROADCAST, LoadSharingAlgorithm.Undefined, OriginationType.ALL,
+                this.createGtAddress("1111*"), "K", 1, 2, null, 0, null);
+
+        SccpAddress calledParty = this.createGtAddress("111111");
+        SccpAddressedMessageImpl msg = (SccpAddressedMessageImpl) this.stack.getSccpProvider().getMessageFactory().createDataMessageClass1(
+                calledParty, this.createGtAddress("2222"), new byte[] { 1, 2, 3 }, 0, 8, true, null, null);
+        this.gtt.translationFunction(this.ctx, msg);
+
+        // each destination gets its own message, routing of the second one does not change the first one
+        assertEquals(this.routed.size(), 2);
+        SccpAddressedMessageImpl msg1 = this.routed.get(0);
+        SccpAddressedMessageImpl msg2 = this.routed.get(1);
+        assertSame(msg1, msg);
+        assertNotSame(msg2, msg);
+        assertEquals(msg1.getCalledPartyAddress().getSignalingPointCode(), 1);
+        assertEquals(msg2.getCalledPartyAddress().getSignalingPointCode(), 2);
+        assertSame(msg2.getCallingPartyAddress(), msg1.getCallingPartyAddress());
+    }
+
+}
@@ -0,0 +1,180 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.sccp.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+
+import org.restcomm.protocols.ss7.indicator.RoutingIndicator;
+import org.restcomm.protocols.ss7.sccp.impl.message.MessageFactoryImpl;
+import org.restcomm.protocols.ss7.sccp.impl.message.SccpSegmentableMessageImpl;
+import org.restcomm.protocols.ss7.sccp.impl.parameter.SccpAddressImpl;
+import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for the store of SCCP reassembly processes
+ */
+public class ReassemblyCacheTest {
+
+    private MessageFactoryImpl messageFactory;
+    private SccpAddress calledParty;
+    private ReassemblyCache cache;
+
+    @BeforeMethod
+    public void setUp() {
+        this.messageFactory = new MessageFactoryImpl(new SccpStackImpl("ReassemblyCacheTest", null));
+        this.calledParty = new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 1, 8);
+        this.cache = new ReassemblyCache();
+    }
+
+    private SccpSegmentableMessageImpl createSegment(SccpAddress callingParty) {
+        return (SccpSegmentableMessageImpl) this.messageFactory.createDataMessageClass1(this.calledParty, callingParty,
+                new byte[] { 1, 2, 3 }, 0, 8, false, null, null);
+    }
+
+    private SccpAddress createAddress(int pc, int ssn) {
+        return new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, pc, ssn);
+    }
+
+    @Test(groups = { "reassembly", "functional" })
+    public void testExpiry() throws Exception {
+        long now = 100000;
+        ReassemblyCache.Reassembly r1 = this.cache.start(1, this.createSegment(this.createAddress(2, 8)), 15000, now);
+        // the deadline is not at a tick boundary
+        ReassemblyCache.Reassembly r2 = this.cache.start(2, this.createSegment(this.createAddress(2, 8)), 15100, now);
+        // the deadline is farther than one wheel round
+        ReassemblyCache.Reassembly r3 = this.cache.start(3, this.createSegment(this.createAddress(2, 8)), 45000, now);
+        assertEquals(this.cache.getInFlightCount(), 3);
+
+        for (long t = now; t < now + 15000; t += ReassemblyCache.TICK_DURATION) {
+            assertTrue(this.cache.expire(t).isEmpty());
+        }
+        assertTrue(r1.isActive());
+
+        List<SccpSegmentableMessageImpl> expired = this.cache.expire(now + 15000);
+        assertEquals(expired.size(), 1);
+        assertSame(expired.get(0), r1.getFirstSegment());
+        assertFalse(r1.isActive());
+        assertEquals(r1.getFirstSegment().getRemainingSegments(), -1);
+        assertTrue(r2.isActive());
+
+        expired = this.cache.expire(now + 15000 + ReassemblyCache.TICK_DURATION);
+        assertEquals(expired.size(), 1);
+        assertSame(expired.get(0), r2.getFirstSegment());
+
+        for (long t = now + 16000; t < now + 45000; t += ReassemblyCache.TICK_DURATION) {
+            assertTrue(this.cache.expire(t).isEmpty());
+        }
+        assertTrue(r3.isActive());
+        expired = this.cache.expire(now + 45000);
+        assertEquals(expired.size(), 1);
+        assertSame(expired.get(0), r3.getFirstSegment());
+
+        assertEquals(this.cache.getInFlightCount(), 0);
+        assertEquals(this.cache.getTimeoutCount(), 3);
+        assertEquals(this.cache.size(), 0);
+    }
+
+    @Test(groups = { "reassembly", "functional" })
+    public void testHashCollision() throws Exception {
+        SccpAddress a1 = this.createAddress(1, 40);
+        SccpAddress a2 = this.createAddress(2, 9);
+        assertEquals(a1.hashCode(), a2.hashCode());
+        assertFalse(a1.equals(a2));
+
+        ReassemblyCache.Reassembly r1 = this.cache.start(5, this.createSegment(a1), 15000);
+        ReassemblyCache.Reassembly r2 = this.cache.start(5, this.createSegment(a2), 15000);
+        assertTrue(r1.isActive());
+        assertTrue(r2.isActive());
+        assertSame(this.cache.get(5, a1), r1);
+        assertSame(this.cache.get(5, a2), r2);
+        assertNull(this.cache.get(6, a1));
+        assertEquals(this.cache.getInFlightCount(), 2);
+        assertEquals(this.cache.getFailedCount(), 0);
+    }
+
+    @Test(groups = { "reassembly", "functional" })
+    public void testReplace() throws Exception {
+        SccpAddress a1 = this.createAddress(1, 8);
+        ReassemblyCache.Reassembly r1 = this.cache.start(5, this.createSegment(a1), 15000);
+        ReassemblyCache.Reassembly r2 = this.cache.start(5, this.createSegment(this.createAddress(1, 8)), 15000);
+
+        assertFalse(r1.isActive());
+        assertEquals(r1.getFirstSegment().getRemainingSegments(), -1);
+        assertSame(this.cache.get(5, a1), r2);
+        assertEquals(this.cache.getStartedCount(), 2);
+        assertEquals(this.cache.getFailedCount(), 1);
+        assertEquals(this.cache.getInFlightCount(), 1);
+    }
+
+    @Test(groups = { "reassembly", "functional" })
+    public void testCompleteAndFail() throws Exception {
+        long now = 100000;
+        SccpAddress a1 = this.createAddress(1, 8);
+        ReassemblyCache.Reassembly r1 = this.cache.start(1, this.createSegment(a1), 15000, now);
+        ReassemblyCache.Reassembly r2 = this.cache.start(2, this.createSegment(a1), 15000, now);
+        ReassemblyCache.Reassembly r3 = this.cache.start(3, this.createSegment(a1), 10000, now);
+
+        synchronized (r1) {
+            assertTrue(this.cache.complete(r1));
+        }
+        assertNull(this.cache.get(1, a1));
+        synchronized (r2) {
+            assertTrue(this.cache.fail(r2));
+        }
+        assertEquals(r2.getFirstSegment().getRemainingSegments(), -1);
+        assertNull(this.cache.get(2, a1));
+
+        assertEquals(this.cache.expire(now + 10000).size(), 1);
+        synchronized (r3) {
+            assertFalse(this.cache.complete(r3));
+        }
+
+        // completed and failed processes do not expire
+        assertTrue(this.cache.expire(now + 20000).isEmpty());
+
+        assertEquals(this.cache.getStartedCount(), 3);
+        assertEquals(this.cache.getCompletedCount(), 1);
+        assertEquals(this.cache.getFailedCount(), 1);
+        assertEquals(this.cache.getTimeoutCount(), 1);
+        assertEquals(this.cache.getInFlightCount(), 0);
+    }
+
+    @Test(groups = { "reassembly", "functional" })
+    public void testClear() throws Exception {
+        ReassemblyCache.Reassembly r1 = this.cache.start(1, this.createSegment(this.createAddress(1, 8)), 15000);
+        assertNull(this.cache.start(2, this.createSegment(null), 15000));
+
+        this.cache.clear();
+        assertFalse(r1.isActive());
+        assertEquals(this.cache.getInFlightCount(), 0);
+        assertEquals(this.cache.size(), 0);
+    }
+}
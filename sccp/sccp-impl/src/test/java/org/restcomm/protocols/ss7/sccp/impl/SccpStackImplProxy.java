@@ -22,11 +22,8 @@
 
 package org.restcomm.protocols.ss7.sccp.impl;
 
-import io.netty.util.concurrent.DefaultThreadFactory;
-
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 import javolution.util.FastMap;
@@ -120,15 +117,7 @@ public class SccpStackImplProxy extends SccpStackImpl {
         // this.mtp3UserPart.addMtp3UserPartListener(this);
         // initiating of SCCP delivery executors
 
-        int maxSls = 16;
-        slsFilter = 0x0f;
-        this.slsTable = new int[maxSls];
-        this.createSLSTable(maxSls, this.deliveryTransferMessageThreadCount);
-        this.msgDeliveryExecutors = new ExecutorService[this.deliveryTransferMessageThreadCount];
-        for (int i = 0; i < this.deliveryTransferMessageThreadCount; i++) {
-            this.msgDeliveryExecutors[i] = Executors.newFixedThreadPool(1, new DefaultThreadFactory(
-                    "SccpTransit-DeliveryExecutor-" + i));
-        }
+        this.startMsgDeliveryExecutor();
 
         ss7ExtSccpDetailedInterface.startExtAfter(this.router, this.sccpManagement);
 
@@ -136,7 +125,7 @@ public class SccpStackImplProxy extends SccpStackImpl {
     }
 
     public int getReassemplyCacheSize() {
-        return reassemplyCache.size();
+        return reassemblyCache.size();
     }
 
     @Override
@@ -0,0 +1,94 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.restcomm.protocols.ss7.sccp.impl.parameter;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.restcomm.protocols.ss7.sccp.SccpProtocolVersion;
+import org.testng.annotations.Test;
+
+/**
+ * Test for the cache of decoded SCCP addresses
+ */
+public class SccpAddressCacheTest {
+
+    private byte[] data = new byte[] { 0x12, (byte) 0x92, 0x00, 0x11, 0x04, (byte) 0x97, 0x20, (byte) 0x73, 0x00, (byte) 0x92,
+            0x09 };
+
+    @Test(groups = { "parameter", "functional.decode" })
+    public void testSharedInstance() throws Exception {
+        ParameterFactoryImpl factory = new ParameterFactoryImpl(SccpAddressCache.DEFAULT_CAPACITY);
+
+        SccpAddressImpl a1 = factory.decodeSccpAddress(data.clone(), SccpProtocolVersion.ITU);
+        SccpAddressImpl a2 = factory.decodeSccpAddress(data.clone(), SccpProtocolVersion.ITU);
+        assertSame(a1, a2);
+        assertEquals(a1.getSubsystemNumber(), 146);
+        assertEquals(a1.getGlobalTitle().getDigits(), "79023700299");
+        assertTrue(Arrays.equals(a1.getEncoded(false, SccpProtocolVersion.ITU), data));
+
+        // the same bytes mean another address in ANSI
+        SccpAddressImpl a3 = factory.decodeSccpAddress(data.clone(), SccpProtocolVersion.ANSI);
+        assertNotSame(a1, a3);
+        assertEquals(factory.getAddressCache().size(), 2);
+    }
+
+    @Test(groups = { "parameter", "functional.decode" })
+    public void testNoCache() throws Exception {
+        ParameterFactoryImpl factory = new ParameterFactoryImpl();
+
+        SccpAddressImpl a1 = factory.decodeSccpAddress(data.clone(), SccpProtocolVersion.ITU);
+        SccpAddressImpl a2 = factory.decodeSccpAddress(data.clone(), SccpProtocolVersion.ITU);
+        assertNotSame(a1, a2);
+        assertEquals(a1, a2);
+    }
+
+    @Test(groups = { "parameter", "functional.decode" })
+    public void testEviction() throws Exception {
+        // one address per segment
+        SccpAddressCache cache = new SccpAddressCache(16);
+        ParameterFactoryImpl factory = new ParameterFactoryImpl();
+
+        SccpAddressImpl first = cache.decode(createAddress(1), factory, SccpProtocolVersion.ITU);
+        for (int i = 2; i <= 1000; i++) {
+            cache.decode(createAddress(i), factory, SccpProtocolVersion.ITU);
+        }
+        assertTrue(cache.size() <= 16);
+        assertNotSame(cache.decode(createAddress(1), factory, SccpProtocolVersion.ITU), first);
+
+        // the recently used address stays in its segment
+        SccpAddressImpl recent = cache.decode(createAddress(2000), factory, SccpProtocolVersion.ITU);
+        assertSame(cache.decode(createAddress(2000), factory, SccpProtocolVersion.ITU), recent);
+
+        cache.clear();
+        assertEquals(cache.size(), 0);
+    }
+
+    private byte[] createAddress(int pc) {
+        // route on PC and SSN, PC and SSN present
+        return new byte[] { 0x43, (byte) pc, (byte) ((pc >> 8) & 0x3f), 8 };
+    }
+}
@@ -224,6 +224,34 @@ public class SccpAddressTest {
         assertEquals(a1.hashCode(), a2.hashCode());
     }
 
+    @Test(groups = { "parameter", "functional.encode" })
+    public void testEncodedCache() throws Exception {
+        GlobalTitle gt = factory.createGlobalTitle("79023700299", 0, NumberingPlan.ISDN_TELEPHONY, null,
+                NatureOfAddress.INTERNATIONAL);
+        SccpAddressImpl address = (SccpAddressImpl) factory.createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_GLOBAL_TITLE,
+                gt, 146, 8);
+
+        byte[] encoded = address.getEncoded(false, SccpProtocolVersion.ITU);
+        assertTrue(encoded == address.getEncoded(false, SccpProtocolVersion.ITU));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        address.encode(out, false, SccpProtocolVersion.ITU);
+        assertTrue(Arrays.equals(encoded, out.toByteArray()));
+
+        // encode() returns a private copy
+        byte[] copy = address.encode(false, SccpProtocolVersion.ITU);
+        assertFalse(copy == encoded);
+        assertTrue(Arrays.equals(copy, encoded));
+
+        // other encoding options are not served from the cache
+        byte[] removedSpc = address.getEncoded(true, SccpProtocolVersion.ITU);
+        assertEquals(removedSpc.length, encoded.length - 2);
+        assertTrue(Arrays.equals(address.getEncoded(false, SccpProtocolVersion.ITU), encoded));
+
+        // decoding of a new value drops the cached value
+        address.decode(new ByteArrayInputStream(data), factory, SccpProtocolVersion.ITU);
+        assertTrue(Arrays.equals(address.getEncoded(false, SccpProtocolVersion.ITU), data));
+    }
+
     @Test
     public void testSerialization() throws Exception {
 
@@ -0,0 +1,237 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.sccp.impl.router;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.restcomm.protocols.ss7.indicator.NatureOfAddress;
+import org.restcomm.protocols.ss7.indicator.NumberingPlan;
+import org.restcomm.protocols.ss7.indicator.RoutingIndicator;
+import org.restcomm.protocols.ss7.sccp.LoadSharingAlgorithm;
+import org.restcomm.protocols.ss7.sccp.OriginationType;
+import org.restcomm.protocols.ss7.sccp.Rule;
+import org.restcomm.protocols.ss7.sccp.RuleType;
+import org.restcomm.protocols.ss7.sccp.impl.parameter.ParameterFactoryImpl;
+import org.restcomm.protocols.ss7.sccp.impl.parameter.SccpAddressImpl;
+import org.restcomm.protocols.ss7.sccp.parameter.GlobalTitle;
+import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for {@link GlobalTitleRuleTrie} and the digits translation of {@link RuleImpl}
+ */
+public class GlobalTitleRuleTrieTest {
+
+    private ParameterFactoryImpl parameterFactory = new ParameterFactoryImpl();
+    private Map<Integer, RuleImpl> rules;
+
+    @BeforeMethod
+    public void setUp() {
+        this.rules = new HashMap<Integer, RuleImpl>();
+    }
+
+    private SccpAddress createAddress(GlobalTitle gt) {
+        return new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_GLOBAL_TITLE, gt, 0, 0);
+    }
+
+    private SccpAddress createAddress(String digits) {
+        return this.createAddress(this.parameterFactory.createGlobalTitle(digits, 0, NumberingPlan.ISDN_TELEPHONY, null,
+                NatureOfAddress.INTERNATIONAL));
+    }
+
+    private RuleImpl addRule(int id, GlobalTitle gt, String mask, OriginationType originationType, int networkId) {
+        RuleImpl rule = new RuleImpl(RuleType.SOLITARY, LoadSharingAlgorithm.Undefined, originationType,
+                this.createAddress(gt), mask, 1, -1, null, networkId, null);
+        rule.setRuleId(id);
+        this.rules.put(id, rule);
+        return rule;
+    }
+
+    private RuleImpl addRule(int id, String digits) {
+        String mask = "K";
+        for (int i = digits.split(RuleImpl.SECTION_SEPARATOR).length; i > 1; i--)
+            mask += "/K";
+        return this.addRule(id, this.createAddress(digits).getGlobalTitle(), mask, OriginationType.ALL, 0);
+    }
+
+    private Rule find(String digits) {
+        return GlobalTitleRuleTrie.compile(this.rules).find(this.createAddress(digits), null, false, 0);
+    }
+
+    @Test(groups = { "gtt", "functional" })
+    public void testPrecedence() throws Exception {
+        RuleImpl any = this.addRule(1, "*");
+        RuleImpl prefix = this.addRule(2, "123*");
+        RuleImpl single = this.addRule(3, "12?4");
+        RuleImpl exact = this.addRule(4, "1234");
+        RuleImpl shortPrefix = this.addRule(5, "1*");
+        RuleImpl longPrefix = this.addRule(6, "129*");
+
+        assertEquals(GlobalTitleRuleTrie.compile(this.rules).getRuleCount(), 6);
+
+        // exact digits before "?" before "*"
+        assertSame(this.find("1234"), exact);
+        assertSame(this.find("1244"), single);
+        assertSame(this.find("12345"), prefix);
+        // the longest "*" prefix wins
+        assertSame(this.find("1299"), longPrefix);
+        assertSame(this.find("1555"), shortPrefix);
+        assertSame(this.find("9"), any);
+
+        // precedence is per trie level: the exact digit "3" of "123*" is preferred to "?" of "12?4"
+        this.rules.remove(4);
+        assertSame(this.find("1234"), prefix);
+        this.rules.remove(2);
+        assertSame(this.find("1234"), single);
+        this.rules.remove(3);
+        assertSame(this.find("1234"), shortPrefix);
+        this.rules.remove(1);
+        assertNull(this.find("9"));
+
+        // a pattern without "*" matches only digits of the same length
+        this.rules.clear();
+        this.addRule(1, "12?4");
+        assertNull(this.find("124"));
+        assertNull(this.find("12345"));
+        assertTrue(RuleImpl.matchesDigits("12?4", "12a4"));
+        assertFalse(RuleImpl.matchesDigits("12?4", "1234a"));
+    }
+
+    @Test(groups = { "gtt", "functional" })
+    public void testRuleOrder() throws Exception {
+        GlobalTitle gt = this.createAddress("1234*").getGlobalTitle();
+        RuleImpl local = this.addRule(1, gt, "K", OriginationType.LOCAL, 0);
+        RuleImpl all = this.addRule(2, gt, "K", OriginationType.ALL, 0);
+
+        // the lower ruleId wins for the same pattern, candidates are checked by Rule.matches()
+        GlobalTitleRuleTrie trie = GlobalTitleRuleTrie.compile(this.rules);
+        assertSame(trie.find(this.createAddress("12345"), null, false, 0), local);
+        assertSame(trie.find(this.createAddress("12345"), null, true, 0), all);
+
+        // a calling party pattern
+        this.rules.clear();
+        RuleImpl calling = new RuleImpl(RuleType.SOLITARY, LoadSharingAlgorithm.Undefined, OriginationType.ALL,
+                this.createAddress("1*"), "K", 1, -1, null, 0, this.createAddress("55*"));
+        calling.setRuleId(1);
+        this.rules.put(1, calling);
+        this.addRule(2, "1*");
+        trie = GlobalTitleRuleTrie.compile(this.rules);
+        assertSame(trie.find(this.createAddress("123"), this.createAddress("556"), false, 0), calling);
+        assertSame(trie.find(this.createAddress("123"), this.createAddress("666"), false, 0), this.rules.get(2));
+        assertSame(trie.find(this.createAddress("123"), null, false, 0), this.rules.get(2));
+    }
+
+    @Test(groups = { "gtt", "functional" })
+    public void testGlobalTitleKey() throws Exception {
+        RuleImpl tt0 = this.addRule(1, this.parameterFactory.createGlobalTitle("1*", 0, NumberingPlan.ISDN_TELEPHONY, null,
+                NatureOfAddress.INTERNATIONAL), "K", OriginationType.ALL, 0);
+        RuleImpl tt1 = this.addRule(2, this.parameterFactory.createGlobalTitle("1*", 1, NumberingPlan.ISDN_TELEPHONY, null,
+                NatureOfAddress.INTERNATIONAL), "K", OriginationType.ALL, 0);
+        RuleImpl national = this.addRule(3, this.parameterFactory.createGlobalTitle("1*", 0, NumberingPlan.ISDN_TELEPHONY,
+                null, NatureOfAddress.NATIONAL), "K", OriginationType.ALL, 0);
+        RuleImpl generic = this.addRule(4, this.parameterFactory.createGlobalTitle("1*", 0, NumberingPlan.GENERIC, null,
+                NatureOfAddress.INTERNATIONAL), "K", OriginationType.ALL, 0);
+        RuleImpl network1 = this.addRule(5, this.parameterFactory.createGlobalTitle("1*", 0, NumberingPlan.ISDN_TELEPHONY,
+                null, NatureOfAddress.INTERNATIONAL), "K", OriginationType.ALL, 1);
+        RuleImpl nai = this.addRule(6, this.parameterFactory.createGlobalTitle("1*", NatureOfAddress.INTERNATIONAL), "K",
+                OriginationType.ALL, 0);
+        GlobalTitleRuleTrie trie = GlobalTitleRuleTrie.compile(this.rules);
+
+        assertSame(trie.find(this.createAddress("123"), null, false, 0), tt0);
+        assertSame(trie.find(this.createAddress(this.parameterFactory.createGlobalTitle("123", 1,
+                NumberingPlan.ISDN_TELEPHONY, null, NatureOfAddress.INTERNATIONAL)), null, false, 0), tt1);
+        assertSame(trie.find(this.createAddress(this.parameterFactory.createGlobalTitle("123", 0,
+                NumberingPlan.ISDN_TELEPHONY, null, NatureOfAddress.NATIONAL)), null, false, 0), national);
+        assertSame(trie.find(this.createAddress(this.parameterFactory.createGlobalTitle("123", 0, NumberingPlan.GENERIC,
+                null, NatureOfAddress.INTERNATIONAL)), null, false, 0), generic);
+        assertSame(trie.find(this.createAddress("123"), null, false, 1), network1);
+        assertSame(trie.find(this.createAddress(this.parameterFactory.createGlobalTitle("123",
+                NatureOfAddress.INTERNATIONAL)), null, false, 0), nai);
+
+        // no rules for a networkId / translation type
+        assertNull(trie.find(this.createAddress("123"), null, false, 2));
+        assertNull(trie.find(this.createAddress(this.parameterFactory.createGlobalTitle("123", 5)), null, false, 0));
+        // no GT
+        assertNull(trie.find(new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 1, 8), null, false,
+                0));
+    }
+
+    @Test(groups = { "gtt", "functional" })
+    public void testSectionsAndMask() throws Exception {
+        RuleImpl rule = this.addRule(1, this.createAddress("12/34*").getGlobalTitle(), "R/K", OriginationType.ALL, 0);
+        rule.validate();
+        // sections separators are ignored when matching
+        assertSame(this.find("12345"), rule);
+        assertNull(this.find("1335"));
+
+        SccpAddress called = this.createAddress("12345");
+        SccpAddress translated = rule.translate(called, new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_GLOBAL_TITLE,
+                this.parameterFactory.createGlobalTitle("99/-", 0, NumberingPlan.ISDN_TELEPHONY, null,
+                        NatureOfAddress.INTERNATIONAL), 2, 8));
+        assertEquals(translated.getGlobalTitle().getDigits(), "99345");
+        assertEquals(translated.getSignalingPointCode(), 2);
+        assertEquals(translated.getSubsystemNumber(), 8);
+
+        rule = this.addRule(2, this.createAddress("12/34*").getGlobalTitle(), "K/R", OriginationType.ALL, 0);
+        translated = rule.translate(called, new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_GLOBAL_TITLE,
+                this.parameterFactory.createGlobalTitle("-/77", 0, NumberingPlan.ISDN_TELEPHONY, null,
+                        NatureOfAddress.INTERNATIONAL), 2, 0));
+        assertEquals(translated.getGlobalTitle().getDigits(), "1277");
+        // SSN of the called party address is kept when the rule address has no SSN
+        assertEquals(translated.getSubsystemNumber(), 0);
+
+        // the rule address without GT - routing on DPC and SSN
+        translated = rule.translate(called, new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 3, 6));
+        assertNull(translated.getGlobalTitle());
+        assertEquals(translated.getSignalingPointCode(), 3);
+        assertEquals(translated.getSubsystemNumber(), 6);
+    }
+
+    @Test(groups = { "gtt", "functional" })
+    public void testValidate() throws Exception {
+        this.checkInvalid(this.addRule(1, this.createAddress("12/34*").getGlobalTitle(), "K", OriginationType.ALL, 0));
+        this.checkInvalid(this.addRule(2, this.createAddress("1234").getGlobalTitle(), "X", OriginationType.ALL, 0));
+        this.checkInvalid(this.addRule(3, this.createAddress("12*4").getGlobalTitle(), "K", OriginationType.ALL, 0));
+        this.checkInvalid(new RuleImpl(RuleType.DOMINANT, LoadSharingAlgorithm.Undefined, OriginationType.ALL,
+                this.createAddress("1*"), "K", 1, -1, null, 0, null));
+        this.addRule(4, this.createAddress("12/?4/*").getGlobalTitle(), "K/R/K", OriginationType.ALL, 0).validate();
+    }
+
+    private void checkInvalid(RuleImpl rule) {
+        try {
+            rule.validate();
+        } catch (Exception e) {
+            return;
+        }
+        throw new AssertionError("Rule must be invalid: " + rule);
+    }
+
+}
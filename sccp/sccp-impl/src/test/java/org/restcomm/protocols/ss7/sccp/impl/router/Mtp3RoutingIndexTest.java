@@ -0,0 +1,187 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.sccp.impl.router;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Random;
+
+import javolution.util.FastMap;
+
+import org.restcomm.protocols.ss7.sccp.LongMessageRule;
+import org.restcomm.protocols.ss7.sccp.LongMessageRuleType;
+import org.restcomm.protocols.ss7.sccp.Mtp3ServiceAccessPoint;
+import org.restcomm.protocols.ss7.sccp.impl.Mtp3UserPartImpl;
+import org.restcomm.protocols.ss7.sccp.impl.SccpStackImpl;
+import org.testng.annotations.Test;
+
+/**
+ * Checks that {@link Mtp3RoutingIndex} gives the same results as a linear scan over the configuration
+ */
+public class Mtp3RoutingIndexTest {
+
+    @Test
+    public void testSimple() throws Exception {
+        FastMap<Integer, Mtp3ServiceAccessPoint> saps = new FastMap<Integer, Mtp3ServiceAccessPoint>();
+        FastMap<Integer, LongMessageRule> lmrs = new FastMap<Integer, LongMessageRule>();
+
+        Mtp3ServiceAccessPointImpl sap1 = new Mtp3ServiceAccessPointImpl(1, 11, 2, "test", 0, null);
+        sap1.addMtp3Destination(1, 100, 199, 0, 7, 255);
+        sap1.addMtp3Destination(2, 150, 160, 0, 255, 255);
+        Mtp3ServiceAccessPointImpl sap2 = new Mtp3ServiceAccessPointImpl(1, 12, 2, "test", 1, "1111");
+        sap2.addMtp3Destination(1, 150, 250, 0, 255, 255);
+        saps.put(1, sap1);
+        saps.put(2, sap2);
+        lmrs.put(1, new LongMessageRuleImpl(200, 300, LongMessageRuleType.XUDT_ENABLED));
+
+        Mtp3RoutingIndex index = Mtp3RoutingIndex.compile(saps, lmrs);
+
+        assertSame(index.findMtp3ServiceAccessPoint(100, 3), sap1);
+        assertNull(index.findMtp3ServiceAccessPoint(100, 8));
+        assertSame(index.findMtp3ServiceAccessPoint(155, 8), sap1);
+        assertSame(index.findMtp3ServiceAccessPoint(170, 8), sap2);
+        assertSame(index.findMtp3ServiceAccessPoint(155, 8, 1), sap2);
+        assertNull(index.findMtp3ServiceAccessPoint(99, 0));
+        assertNull(index.findMtp3ServiceAccessPoint(251, 0));
+
+        assertSame(index.findMtp3ServiceAccessPointForIncMes(11, 120, null), sap1);
+        assertNull(index.findMtp3ServiceAccessPointForIncMes(12, 170, null));
+        assertSame(index.findMtp3ServiceAccessPointForIncMes(12, 170, "1111"), sap2);
+        assertNull(index.findMtp3ServiceAccessPointForIncMes(13, 170, "1111"));
+
+        assertTrue(index.spcIsLocal(11));
+        assertFalse(index.spcIsLocal(13));
+
+        assertNull(index.findLongMessageRule(199));
+        assertEquals(index.findLongMessageRule(300).getFirstSpc(), 200);
+        assertNull(Mtp3RoutingIndex.EMPTY.findMtp3ServiceAccessPoint(1, 1));
+    }
+
+    @Test
+    public void testDirectSapChange() throws Exception {
+        String name = "Mtp3RoutingIndexTest";
+        SccpStackImpl sccpStack = new SccpStackImpl(name, null);
+        RouterImpl router = new RouterImpl(name, sccpStack);
+        router.start();
+        router.removeAllResourses();
+        sccpStack.setMtp3UserPart(1, new Mtp3UserPartImpl(null));
+
+        try {
+            router.addMtp3ServiceAccessPoint(1, 1, 11, 2, 0, null);
+            router.addMtp3Destination(1, 1, 100, 199, 0, 255, 255);
+            Mtp3ServiceAccessPoint sap = router.getMtp3ServiceAccessPoint(1);
+            assertSame(router.findMtp3ServiceAccessPoint(150, 0), sap);
+            assertNull(router.findMtp3ServiceAccessPoint(250, 0));
+
+            // the sap is changed directly, not via the router
+            sap.addMtp3Destination(2, 200, 299, 0, 255, 255);
+            assertSame(router.findMtp3ServiceAccessPoint(250, 0), sap);
+            assertSame(router.findMtp3ServiceAccessPointForIncMes(11, 250, null), sap);
+
+            sap.modifyMtp3Destination(2, 300, 399, 0, 255, 255);
+            assertNull(router.findMtp3ServiceAccessPoint(250, 0));
+            assertSame(router.findMtp3ServiceAccessPoint(350, 0), sap);
+
+            sap.removeMtp3Destination(1);
+            assertNull(router.findMtp3ServiceAccessPoint(150, 0));
+            assertSame(router.findMtp3ServiceAccessPoint(350, 0), sap);
+
+            ((Mtp3ServiceAccessPointImpl) sap).setLocalGtDigits("1111");
+            assertNull(router.findMtp3ServiceAccessPointForIncMes(11, 350, null));
+            assertSame(router.findMtp3ServiceAccessPointForIncMes(11, 350, "1111"), sap);
+        } finally {
+            router.removeAllResourses();
+            router.stop();
+        }
+    }
+
+    @Test
+    public void testRandomAgainstLinearScan() throws Exception {
+        Random rnd = new Random(7);
+        FastMap<Integer, Mtp3ServiceAccessPoint> saps = new FastMap<Integer, Mtp3ServiceAccessPoint>();
+        for (int i = 0; i < 50; i++) {
+            String gt = rnd.nextInt(3) == 0 ? "" + rnd.nextInt(3) : null;
+            Mtp3ServiceAccessPointImpl sap = new Mtp3ServiceAccessPointImpl(1, rnd.nextInt(4), 2, "test", rnd.nextInt(2), gt);
+            for (int j = 0; j < 5; j++) {
+                int firstDpc = rnd.nextInt(1000);
+                int firstSls = rnd.nextInt(16);
+                sap.addMtp3Destination(j, firstDpc, firstDpc + rnd.nextInt(50), firstSls, firstSls + rnd.nextInt(16), 15);
+            }
+            saps.put(i, sap);
+        }
+        FastMap<Integer, LongMessageRule> lmrs = new FastMap<Integer, LongMessageRule>();
+        for (int i = 0; i < 20; i++) {
+            int first = rnd.nextInt(1000);
+            lmrs.put(i, new LongMessageRuleImpl(first, first + rnd.nextInt(100), LongMessageRuleType.LUDT_ENABLED));
+        }
+
+        Mtp3RoutingIndex index = Mtp3RoutingIndex.compile(saps, lmrs);
+        assertEquals(index.getSapCount(), 50);
+
+        for (int dpc = -1; dpc < 1100; dpc++) {
+            int sls = rnd.nextInt(256);
+            int opc = rnd.nextInt(5);
+            String gt = "" + rnd.nextInt(3);
+
+            assertSame(index.findMtp3ServiceAccessPoint(dpc, sls), linearFind(saps, dpc, sls, -1));
+            assertSame(index.findMtp3ServiceAccessPoint(dpc, sls, 1), linearFind(saps, dpc, sls, 1));
+            assertSame(index.findMtp3ServiceAccessPointForIncMes(opc, dpc, gt), linearFindForIncMes(saps, opc, dpc, gt));
+            assertSame(index.findLongMessageRule(dpc), linearFindLongMessageRule(lmrs, dpc));
+        }
+    }
+
+    private static Mtp3ServiceAccessPoint linearFind(FastMap<Integer, Mtp3ServiceAccessPoint> saps, int dpc, int sls,
+            int networkId) {
+        for (Mtp3ServiceAccessPoint sap : saps.values()) {
+            if (sap.matches(dpc, sls) && (networkId < 0 || sap.getNetworkId() == networkId))
+                return sap;
+        }
+        return null;
+    }
+
+    private static Mtp3ServiceAccessPoint linearFindForIncMes(FastMap<Integer, Mtp3ServiceAccessPoint> saps, int localPC,
+            int remotePC, String localGtDigits) {
+        for (Mtp3ServiceAccessPoint sap : saps.values()) {
+            if (sap.getLocalGtDigits() != null && sap.getOpc() == localPC && sap.matches(remotePC)
+                    && localGtDigits.equals(sap.getLocalGtDigits()))
+                return sap;
+        }
+        for (Mtp3ServiceAccessPoint sap : saps.values()) {
+            if (sap.getLocalGtDigits() == null && sap.getOpc() == localPC && sap.matches(remotePC))
+                return sap;
+        }
+        return null;
+    }
+
+    private static LongMessageRule linearFindLongMessageRule(FastMap<Integer, LongMessageRule> lmrs, int dpc) {
+        for (LongMessageRule rule : lmrs.values()) {
+            if (rule.matches(dpc))
+                return rule;
+        }
+        return null;
+    }
+}
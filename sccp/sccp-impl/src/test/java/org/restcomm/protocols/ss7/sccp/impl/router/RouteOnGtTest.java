@@ -26,6 +26,10 @@ import static org.testng.Assert.assertEquals;
 
 import org.restcomm.protocols.ss7.Util;
 import org.restcomm.protocols.ss7.indicator.RoutingIndicator;
+import org.restcomm.protocols.ss7.sccp.LoadSharingAlgorithm;
+import org.restcomm.protocols.ss7.sccp.OriginationType;
+import org.restcomm.protocols.ss7.sccp.RuleType;
+import org.restcomm.protocols.ss7.sccp.impl.GlobalTitleTranslationImpl;
 import org.restcomm.protocols.ss7.sccp.impl.Mtp3UserPartImpl;
 import org.restcomm.protocols.ss7.sccp.impl.SccpHarness;
 import org.restcomm.protocols.ss7.sccp.impl.SccpStackImpl;
@@ -138,7 +142,45 @@ public class RouteOnGtTest extends SccpHarness {
         SccpMessage mes1 = u1.getMessages().get(0);
         SccpNoticeMessage mes11 = (SccpNoticeMessage) mes1;
         ReturnCause returnCause = mes11.getReturnCause();
-        assertEquals(returnCause.getValue(), ReturnCauseValue.ERR_IN_LOCAL_PROCESSING);
+        assertEquals(returnCause.getValue(), ReturnCauseValue.NO_TRANSLATION_FOR_ADDRESS);
+    }
+
+    @Test(groups = { "SccpMessage", "functional.transfer" })
+    public void testSendTranslated() throws Exception {
+        a1 = sccpProvider1.getParameterFactory().createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, getStack1PC(), 8);
+        a2 = sccpProvider1.getParameterFactory().createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, getStack2PC(), 8);
+
+        User u1 = new User(sccpStack1.getSccpProvider(), a1, a2, getSSN());
+        User u2 = new User(sccpStack2.getSccpProvider(), a2, a1, getSSN());
+
+        u1.register();
+        u2.register();
+
+        GlobalTitleTranslationImpl gtt = (GlobalTitleTranslationImpl) sccpStack1.getSs7ExtSccpInterface();
+        gtt.addRoutingAddress(1, a2);
+        SccpAddress pattern = sccpProvider1.getParameterFactory().createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_GLOBAL_TITLE,
+                sccpProvider1.getParameterFactory().createGlobalTitle("1111*", 1), 0, 0);
+        gtt.addRule(1, RuleType.SOLITARY, LoadSharingAlgorithm.Undefined, OriginationType.ALL, pattern, "K", 1, -1, null, 0,
+                null);
+
+        SccpAddress a3 = sccpProvider1.getParameterFactory().createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_GLOBAL_TITLE,
+                sccpProvider1.getParameterFactory().createGlobalTitle("111111", 1), 0, 0);
+
+        SccpDataMessage message = this.sccpProvider1.getMessageFactory().createDataMessageClass1(a3, a1, getDataSrc(), 0, 8,
+                true, null, null);
+        sccpProvider1.send(message);
+        Thread.sleep(100);
+        assertEquals(u1.getMessages().size(), 0);
+        assertEquals(u2.getMessages().size(), 1);
+
+        // the rule no longer matches once the digits differ in the fixed part
+        a3 = sccpProvider1.getParameterFactory().createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_GLOBAL_TITLE,
+                sccpProvider1.getParameterFactory().createGlobalTitle("112111", 1), 0, 0);
+        message = this.sccpProvider1.getMessageFactory().createDataMessageClass1(a3, a1, getDataSrc(), 0, 8, true, null, null);
+        sccpProvider1.send(message);
+        Thread.sleep(100);
+        assertEquals(u1.getMessages().size(), 1);
+        assertEquals(u2.getMessages().size(), 1);
     }
 
     @Test(groups = { "SccpMessage", "functional.transfer" })
@@ -0,0 +1,327 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.scheduler;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.log4j.Logger;
+
+/**
+ * <p>
+ * Scheduler without the global 4 ms stage barrier. Tasks are executed by per-core lanes, a task lane is selected by
+ * {@link Task#getAffinity()}, so tasks of one circuit / link are executed sequentially in the submitting order. Each lane
+ * executes a task as soon as it is submitted, a task of a lower queue index (MANAGEMENT_QUEUE ... L2WRITE_QUEUE) is taken
+ * before tasks of upper queues, so the queue priorities are kept, but a slow task stalls only its own lane.
+ * </p>
+ * <p>
+ * The heartbeat queue is executed every 100 ms (HEARTBEAT_CYCLES * CYCLE_DURATION) as in {@link Scheduler}, because timers
+ * count heartbeats.
+ * </p>
+ *
+ */
+public class LaneScheduler extends Scheduler {
+
+    public static final long HEARTBEAT_PERIOD = CYCLE_DURATION * HEARTBEAT_CYCLES;
+
+    private static final Logger logger = Logger.getLogger(LaneScheduler.class);
+
+    private final Lane[] lanes;
+
+    private volatile boolean isActive;
+
+    private final AtomicLong executedCount = new AtomicLong();
+    private final AtomicLong worstExecutionTime = new AtomicLong();
+
+    /**
+     * Creates new instance of scheduler with a lane per available processor.
+     */
+    public LaneScheduler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates new instance of scheduler.
+     *
+     * @param laneCount count of lanes (threads)
+     */
+    public LaneScheduler(int laneCount) {
+        super(false);
+        if (laneCount < 1)
+            throw new IllegalArgumentException("laneCount must be positive");
+
+        lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++)
+            lanes[i] = new Lane("Scheduler-Lane-" + i);
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    private Lane lane(Task task) {
+        int h = task.getAffinity();
+        h ^= (h >>> 16);
+        return lanes[(h & 0x7FFFFFFF) % lanes.length];
+    }
+
+    @Override
+    public void submit(Task task, Integer index) {
+        task.activate(false);
+        lane(task).offer(task, index);
+    }
+
+    @Override
+    public void submitHeatbeat(Task task) {
+        task.activate(true);
+        lane(task).offerHeartbeat(task);
+    }
+
+    @Override
+    public void start() {
+        if (this.isActive)
+            return;
+
+        if (getClock() == null) {
+            throw new IllegalStateException("Clock is not set");
+        }
+
+        this.isActive = true;
+
+        logger.info("Starting " + lanes.length + " lanes");
+
+        long heartbeatStart = System.nanoTime() + HEARTBEAT_PERIOD;
+        for (Lane lane : lanes)
+            lane.activate(heartbeatStart);
+
+        logger.info("Started ");
+    }
+
+    @Override
+    public void stop() {
+        if (!this.isActive) {
+            return;
+        }
+        this.isActive = false;
+
+        for (Lane lane : lanes)
+            lane.shutdown();
+        for (Lane lane : lanes) {
+            lane.join(1000);
+            lane.clear();
+        }
+    }
+
+    @Override
+    public void notifyCompletion() {
+        // there is no stage barrier
+    }
+
+    /**
+     * Shows the share of task executions that took longer than CYCLE_DURATION.
+     *
+     * @return the miss rate value;
+     */
+    @Override
+    public double getMissRate() {
+        long executed = executedCount.get();
+        return executed == 0 ? 0 : cycleOverrunCount.get() / (double) executed;
+    }
+
+    /**
+     * @return the worst task execution time (microseconds) since the last statistics reset
+     */
+    @Override
+    public long getWorstExecutionTime() {
+        return worstExecutionTime.get() / 1000;
+    }
+
+    @Override
+    public void resetStatistics() {
+        super.resetStatistics();
+        executedCount.set(0);
+        worstExecutionTime.set(0);
+    }
+
+    /**
+     * A lane with own priority queues and an own heartbeat queue. A new lane thread is created at every start of the
+     * scheduler, so the scheduler can be restarted after stop.
+     */
+    private class Lane implements Runnable {
+        private final String name;
+        @SuppressWarnings("unchecked")
+        private final ConcurrentLinkedQueue<Task>[] queues = new ConcurrentLinkedQueue[QUEUE_COUNT];
+        private final ConcurrentLinkedQueue<Task> heartbeatQueue = new ConcurrentLinkedQueue<Task>();
+        // heartbeat tasks that are submitted during a heartbeat round are queued after the marker for the next round
+        private final Task heartbeatMarker = new Task(LaneScheduler.this) {
+            @Override
+            public int getQueueNumber() {
+                return HEARTBEAT_QUEUE;
+            }
+
+            @Override
+            public long perform() {
+                return 0;
+            }
+        };
+
+        // the current lane thread, null when the scheduler is stopped
+        private volatile Thread thread;
+        // a lane thread that is shutting down
+        private Thread stopped;
+        private volatile boolean waiting;
+        private long nextHeartbeat;
+
+        public Lane(String name) {
+            this.name = name;
+            for (int i = 0; i < queues.length; i++)
+                queues[i] = new ConcurrentLinkedQueue<Task>();
+        }
+
+        public void activate(long heartbeatStart) {
+            this.nextHeartbeat = heartbeatStart;
+            this.thread = new Thread(this, name);
+            this.thread.start();
+        }
+
+        public void offer(Task task, int index) {
+            if (!task.storedInLaneQueue())
+                return;
+            task.setSubmitTime(System.nanoTime());
+            queues[index].offer(task);
+            Thread t = thread;
+            if (waiting && t != null)
+                LockSupport.unpark(t);
+        }
+
+        public void offerHeartbeat(Task task) {
+            if (task.storedInLaneHeartbeat())
+                heartbeatQueue.offer(task);
+        }
+
+        @Override
+        public void run() {
+            Thread current = Thread.currentThread();
+            // a thread of a previous start exits even if it was stuck in a task longer than stop() waited for it
+            while (thread == current) {
+                long now = System.nanoTime();
+                if (now - nextHeartbeat >= 0) {
+                    updateQueueLag(HEARTBEAT_QUEUE, now - nextHeartbeat);
+                    executeHeartbeat();
+                    // fixed rate, timers count heartbeats
+                    nextHeartbeat += HEARTBEAT_PERIOD;
+                    continue;
+                }
+
+                if (executeNext(now))
+                    continue;
+
+                waiting = true;
+                if (isEmpty())
+                    LockSupport.parkNanos(this, nextHeartbeat - now);
+                waiting = false;
+            }
+        }
+
+        /**
+         * Executes the first task of the highest priority non empty queue
+         *
+         * @return false if all queues are empty
+         */
+        private boolean executeNext(long now) {
+            for (int i = 0; i < queues.length; i++) {
+                Task task = queues[i].poll();
+                if (task != null) {
+                    task.removeFromLaneQueue();
+                    updateQueueLag(i, now - task.getSubmitTime());
+                    execute(task);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isEmpty() {
+            for (int i = 0; i < queues.length; i++) {
+                if (!queues[i].isEmpty())
+                    return false;
+            }
+            return true;
+        }
+
+        private void executeHeartbeat() {
+            heartbeatQueue.offer(heartbeatMarker);
+            Task task;
+            while ((task = heartbeatQueue.poll()) != null && task != heartbeatMarker) {
+                task.removeFromLaneHeartbeat();
+                execute(task);
+            }
+        }
+
+        private void execute(Task task) {
+            long start = System.nanoTime();
+            task.run();
+            long duration = System.nanoTime() - start;
+
+            executedCount.incrementAndGet();
+            if (duration > CYCLE_DURATION)
+                cycleOverrunCount.incrementAndGet();
+            long prev;
+            while (duration > (prev = worstExecutionTime.get())) {
+                if (worstExecutionTime.compareAndSet(prev, duration))
+                    break;
+            }
+        }
+
+        private void clear() {
+            for (int i = 0; i < queues.length; i++) {
+                Task task;
+                while ((task = queues[i].poll()) != null)
+                    task.removeFromLaneQueue();
+            }
+            Task task;
+            while ((task = heartbeatQueue.poll()) != null)
+                task.removeFromLaneHeartbeat();
+        }
+
+        private void shutdown() {
+            Thread t = thread;
+            this.thread = null;
+            if (t != null)
+                LockSupport.unpark(t);
+            this.stopped = t;
+        }
+
+        private void join(long millis) {
+            Thread t = stopped;
+            if (t == null)
+                return;
+            try {
+                t.join(millis);
+            } catch (InterruptedException e) {
+            }
+            stopped = null;
+        }
+    }
+}
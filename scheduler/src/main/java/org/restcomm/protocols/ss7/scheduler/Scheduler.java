@@ -28,6 +28,8 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Implements scheduler with multi-level priority queue.
@@ -73,11 +75,21 @@ public class Scheduler implements SchedulerMBean {
 
     public static final Integer HEARTBEAT_QUEUE = -1;
 
+    // scheduler cycle duration (nanoseconds), heartbeat queue is executed every HEARTBEAT_CYCLES cycles
+    public static final long CYCLE_DURATION = 4000000L;
+    public static final int HEARTBEAT_CYCLES = 25;
+
+    protected static final int QUEUE_COUNT = 11;
+
+    // max queue lags (nanoseconds), the last element is for the heartbeat queue
+    protected final AtomicLongArray queueLag = new AtomicLongArray(QUEUE_COUNT + 1);
+    protected final AtomicLong cycleOverrunCount = new AtomicLong();
+
     // The clock for time measurement
     private Clock clock;
 
     // priority queue
-    protected OrderedTaskQueue[] taskQueues = new OrderedTaskQueue[11];
+    protected OrderedTaskQueue[] taskQueues = new OrderedTaskQueue[QUEUE_COUNT];
 
     protected OrderedTaskQueue heartBeatQueue;
     // CPU bound threads
@@ -92,6 +104,19 @@ public class Scheduler implements SchedulerMBean {
      * Creates new instance of scheduler.
      */
     public Scheduler() {
+        this(true);
+    }
+
+    /**
+     * Creates new instance of scheduler.
+     *
+     * @param createCpuThread false for subclasses that execute tasks by own threads and override submit / start / stop:
+     *        the priority queues and the executor thread (with its thread pool) are not created then
+     */
+    protected Scheduler(boolean createCpuThread) {
+        if (!createCpuThread)
+            return;
+
         for (int i = 0; i < taskQueues.length; i++)
             taskQueues[i] = new OrderedTaskQueue();
 
@@ -193,6 +218,33 @@ public class Scheduler implements SchedulerMBean {
         return 0;
     }
 
+    public long getQueueLag(int queue) {
+        return queueLag.get(queueLagIndex(queue)) / 1000;
+    }
+
+    public long getCycleOverrunCount() {
+        return cycleOverrunCount.get();
+    }
+
+    public void resetStatistics() {
+        for (int i = 0; i < queueLag.length(); i++)
+            queueLag.set(i, 0);
+        cycleOverrunCount.set(0);
+    }
+
+    protected void updateQueueLag(int queue, long lag) {
+        int index = queueLagIndex(queue);
+        long prev;
+        while (lag > (prev = queueLag.get(index))) {
+            if (queueLag.compareAndSet(index, prev, lag))
+                break;
+        }
+    }
+
+    private static int queueLagIndex(int queue) {
+        return queue == HEARTBEAT_QUEUE ? QUEUE_COUNT : queue;
+    }
+
     public void notifyCompletion() {
         cpuThread.notifyCompletion();
     }
@@ -235,6 +287,7 @@ public class Scheduler implements SchedulerMBean {
 
             while (active) {
                 while (currQueue <= L2WRITE_QUEUE) {
+                    updateQueueLag(currQueue, System.nanoTime() - cycleStart);
                     synchronized (LOCK) {
                         if (executeQueue(taskQueues[currQueue]))
                             try {
@@ -247,8 +300,9 @@ public class Scheduler implements SchedulerMBean {
                     currQueue++;
                 }
 
-                runIndex = (runIndex + 1) % 25;
+                runIndex = (runIndex + 1) % HEARTBEAT_CYCLES;
                 if (runIndex == 0) {
+                    updateQueueLag(HEARTBEAT_QUEUE, System.nanoTime() - cycleStart);
                     synchronized (LOCK) {
                         if (executeQueue(heartBeatQueue))
                             try {
@@ -261,17 +315,19 @@ public class Scheduler implements SchedulerMBean {
 
                 // sleep till next cycle
                 cycleDuration = System.nanoTime() - cycleStart;
-                if (cycleDuration < 4000000L) {
+                if (cycleDuration < CYCLE_DURATION) {
                     try {
-                        sleep(4L - cycleDuration / 1000000L, (int) ((4000000L - cycleDuration) % 1000000L));
+                        sleep(4L - cycleDuration / 1000000L, (int) ((CYCLE_DURATION - cycleDuration) % 1000000L));
                     } catch (InterruptedException e) {
                         // lets continue
                     }
+                } else {
+                    cycleOverrunCount.incrementAndGet();
                 }
 
                 // new cycle starts , updating cycle start time by 4ms
                 // cycleDuration2=System.nanoTime() - cycleStart;
-                cycleStart = cycleStart + 4000000L;
+                cycleStart = cycleStart + CYCLE_DURATION;
                 currQueue = MANAGEMENT_QUEUE;
 
                 // if(cycleDuration2>4100000L)
@@ -34,4 +34,20 @@ public interface SchedulerMBean {
 
     long getWorstExecutionTime();
 
+    /**
+     * Max lag (microseconds) between a moment when a task of the queue is ready for execution and a moment when the task
+     * execution starts, since the last statistics reset
+     *
+     * @param queue the queue index (0-10 or HEARTBEAT_QUEUE)
+     */
+    long getQueueLag(int queue);
+
+    /**
+     * Count of overruns since the last statistics reset: scheduler cycles (or task executions for LaneScheduler) that took
+     * longer than the 4 ms cycle
+     */
+    long getCycleOverrunCount();
+
+    void resetStatistics();
+
 }
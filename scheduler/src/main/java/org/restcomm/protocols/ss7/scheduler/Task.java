@@ -40,6 +40,11 @@ public abstract class Task implements Runnable {
     private AtomicBoolean inQueue0 = new AtomicBoolean(false);
     private AtomicBoolean inQueue1 = new AtomicBoolean(false);
 
+    // LaneScheduler queuing state
+    private final AtomicBoolean inLaneQueue = new AtomicBoolean(false);
+    private final AtomicBoolean inLaneHeartbeat = new AtomicBoolean(false);
+    private volatile long submitTime;
+
     public Task(Scheduler scheduler) {
         this.scheduler = scheduler;
     }
@@ -72,6 +77,41 @@ public abstract class Task implements Runnable {
         return inQueue1.get();
     }
 
+    /**
+     * Affinity of this task. {@link LaneScheduler} executes tasks with the same affinity in one lane, so they are never
+     * executed in parallel and keep the submitting order. By default every task has its own affinity, tasks of one circuit or
+     * of one link should return the same value.
+     *
+     * @return the affinity value
+     */
+    public int getAffinity() {
+        return System.identityHashCode(this);
+    }
+
+    boolean storedInLaneQueue() {
+        return inLaneQueue.compareAndSet(false, true);
+    }
+
+    void removeFromLaneQueue() {
+        inLaneQueue.set(false);
+    }
+
+    boolean storedInLaneHeartbeat() {
+        return inLaneHeartbeat.compareAndSet(false, true);
+    }
+
+    void removeFromLaneHeartbeat() {
+        inLaneHeartbeat.set(false);
+    }
+
+    void setSubmitTime(long submitTime) {
+        this.submitTime = submitTime;
+    }
+
+    long getSubmitTime() {
+        return submitTime;
+    }
+
     /**
      * Current queue of this task.
      *
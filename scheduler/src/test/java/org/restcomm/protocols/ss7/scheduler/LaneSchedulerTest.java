@@ -0,0 +1,238 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.scheduler;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for {@link LaneScheduler}
+ */
+public class LaneSchedulerTest {
+
+    private LaneScheduler scheduler;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        scheduler = new LaneScheduler(4);
+        scheduler.setClock(new DefaultClock());
+        scheduler.start();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    public void testAffinityOrder() throws Exception {
+        final int circuitCount = 16;
+        final int perCircuit = 1000;
+        final List<List<Integer>> received = new ArrayList<List<Integer>>();
+        for (int i = 0; i < circuitCount; i++)
+            received.add(new ArrayList<Integer>());
+        final CountDownLatch done = new CountDownLatch(circuitCount * perCircuit);
+
+        for (int i = 0; i < perCircuit; i++) {
+            for (int cic = 0; cic < circuitCount; cic++) {
+                scheduler.submit(new OrderTask(scheduler, cic, i, received.get(cic), done), Scheduler.L4READ_QUEUE);
+            }
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        for (int cic = 0; cic < circuitCount; cic++) {
+            List<Integer> list = received.get(cic);
+            assertEquals(list.size(), perCircuit);
+            for (int i = 0; i < perCircuit; i++)
+                assertEquals((int) list.get(i), i);
+        }
+    }
+
+    @Test
+    public void testSlowTaskDoesNotBlockOtherLanes() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch otherDone = new CountDownLatch(1);
+
+        Task slow = new TestTask(scheduler, 0) {
+            @Override
+            public long perform() {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                }
+                return 0;
+            }
+        };
+        // affinity 1 is served by another lane
+        Task other = new TestTask(scheduler, 1) {
+            @Override
+            public long perform() {
+                otherDone.countDown();
+                return 0;
+            }
+        };
+
+        try {
+            scheduler.submit(slow, Scheduler.L2READ_QUEUE);
+            Thread.sleep(20);
+            scheduler.submit(other, Scheduler.L2WRITE_QUEUE);
+            assertTrue(otherDone.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+        Thread.sleep(20);
+        assertTrue(scheduler.getCycleOverrunCount() >= 1);
+        assertTrue(scheduler.getWorstExecutionTime() >= Scheduler.CYCLE_DURATION / 1000);
+
+        scheduler.resetStatistics();
+        assertEquals(scheduler.getCycleOverrunCount(), 0);
+        assertEquals(scheduler.getQueueLag(Scheduler.L2READ_QUEUE), 0);
+    }
+
+    @Test
+    public void testHeartbeat() throws Exception {
+        final AtomicInteger count = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(1);
+        Task timer = new TestTask(scheduler, 0) {
+            @Override
+            public long perform() {
+                if (count.incrementAndGet() < 5)
+                    scheduler.submitHeatbeat(this);
+                else
+                    done.countDown();
+                return 0;
+            }
+        };
+
+        long start = System.nanoTime();
+        scheduler.submitHeatbeat(timer);
+        // submitting twice does not lead to double execution
+        scheduler.submitHeatbeat(timer);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        long duration = System.nanoTime() - start;
+
+        // a heartbeat task is executed once per HEARTBEAT_PERIOD
+        assertTrue(duration >= 4 * LaneScheduler.HEARTBEAT_PERIOD);
+        Thread.sleep(LaneScheduler.HEARTBEAT_PERIOD * 2 / 1000000);
+        assertEquals(count.get(), 5);
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        final AtomicInteger count = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(1);
+        Task cancelled = new TestTask(scheduler, 0) {
+            @Override
+            public long perform() {
+                count.incrementAndGet();
+                return 0;
+            }
+        };
+        Task marker = new TestTask(scheduler, 0) {
+            @Override
+            public long perform() {
+                done.countDown();
+                return 0;
+            }
+        };
+
+        scheduler.submitHeatbeat(cancelled);
+        cancelled.cancel();
+        scheduler.submitHeatbeat(marker);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(count.get(), 0);
+    }
+
+    @Test
+    public void testRestart() throws Exception {
+        scheduler.stop();
+        scheduler.start();
+
+        for (int round = 0; round < 2; round++) {
+            final CountDownLatch done = new CountDownLatch(scheduler.getLaneCount());
+            for (int i = 0; i < scheduler.getLaneCount(); i++) {
+                scheduler.submit(new TestTask(scheduler, i) {
+                    @Override
+                    public long perform() {
+                        done.countDown();
+                        return 0;
+                    }
+                }, Scheduler.L4READ_QUEUE);
+            }
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+
+            scheduler.stop();
+            scheduler.start();
+        }
+    }
+
+    private abstract static class TestTask extends Task {
+        private final int affinity;
+
+        TestTask(Scheduler scheduler, int affinity) {
+            super(scheduler);
+            this.affinity = affinity;
+        }
+
+        @Override
+        public int getAffinity() {
+            return affinity;
+        }
+
+        @Override
+        public int getQueueNumber() {
+            return Scheduler.L4READ_QUEUE;
+        }
+    }
+
+    private static class OrderTask extends TestTask {
+        private final int value;
+        private final List<Integer> received;
+        private final CountDownLatch done;
+
+        OrderTask(Scheduler scheduler, int affinity, int value, List<Integer> received, CountDownLatch done) {
+            super(scheduler, affinity);
+            this.value = value;
+            this.received = received;
+            this.done = done;
+        }
+
+        @Override
+        public long perform() {
+            // lanes execute tasks of one affinity sequentially, no synchronization is needed
+            received.add(value);
+            done.countDown();
+            return 0;
+        }
+    }
+}
@@ -58,6 +58,7 @@ import org.restcomm.protocols.ss7.mtp.RoutingLabelFormat;
 import org.restcomm.protocols.ss7.sccp.impl.SccpStackImpl;
 import org.restcomm.protocols.ss7.sccp.impl.oam.SccpExecutor;
 import org.restcomm.protocols.ss7.scheduler.DefaultClock;
+import org.restcomm.protocols.ss7.scheduler.LaneScheduler;
 import org.restcomm.protocols.ss7.scheduler.Scheduler;
 import org.restcomm.protocols.ss7.tcap.TCAPStackImpl;
 import org.restcomm.protocols.ss7.tcap.api.TCAPStack;
@@ -193,7 +194,11 @@ public class SS7ExtensionService implements SS7ServiceInterface,Service<SS7Servi
         // Scheduler
         schedulerMBean = null;
         try {
-            schedulerMBean = new Scheduler();
+            if (getPropertyBoolean("SS7Scheduler", "laneScheduler", false))
+                schedulerMBean = new LaneScheduler(getPropertyInt("SS7Scheduler", "laneCount",
+                        Runtime.getRuntime().availableProcessors()));
+            else
+                schedulerMBean = new Scheduler();
             schedulerMBean.setClock(ss7Clock);
         } catch (Exception e) {
             throw new StartException("SS7Scheduler MBean creating is failed: " + e.getMessage(), e);
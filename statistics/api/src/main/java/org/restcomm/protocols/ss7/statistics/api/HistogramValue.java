@@ -0,0 +1,99 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.statistics.api;
+
+/**
+*
+* A snapshot of a latency histogram for one campaign period: count of recorded values, min / max / mean and
+* the values at 50%, 99% and 99.9% percentiles. Percentile values have a relative error below 1/64.
+*
+*/
+public class HistogramValue {
+
+    private long count;
+    private long min;
+    private long max;
+    private double mean;
+    private long p50;
+    private long p99;
+    private long p999;
+
+    public HistogramValue(long count, long min, long max, double mean, long p50, long p99, long p999) {
+        this.count = count;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p99 = p99;
+        this.p999 = p999;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getP999() {
+        return p999;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("count=");
+        sb.append(count);
+        sb.append(", min=");
+        sb.append(min);
+        sb.append(", p50=");
+        sb.append(p50);
+        sb.append(", p99=");
+        sb.append(p99);
+        sb.append(", p999=");
+        sb.append(p999);
+        sb.append(", max=");
+        sb.append(max);
+        sb.append(", mean=");
+        sb.append(String.format("%.1f", mean));
+        return sb.toString();
+    }
+
+}
@@ -44,4 +44,6 @@ public interface StatCounterCollection {
 
     void updateData(String newVal);
 
+    void updateData(String name, long newVal);
+
 }
@@ -35,4 +35,6 @@ public interface StatResult {
 
     FastMap<String, LongValue> getStringLongValue();
 
+    FastMap<String, HistogramValue> getStringHistogramValue();
+
 }
@@ -0,0 +1,147 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.statistics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.restcomm.protocols.ss7.statistics.api.HistogramValue;
+
+/**
+*
+* Log-linear histogram of non negative long values (HdrHistogram-like layout). Values below 128 have own buckets, every
+* further power of two range is split into 64 linear sub-buckets, so a reported percentile value differs from a recorded
+* value by less than 1/64. Values above highestTrackableValue are recorded as highestTrackableValue.
+*
+* record() is lock-free and does not allocate, snapshotAndReset() is expected to be invoked rarely (at a campaign restart).
+*
+*/
+public class LogLinearHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_BITS = SUB_BUCKET_BITS - 1;
+
+    private final long highestTrackableValue;
+    private final AtomicLongArray counts;
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong();
+
+    public LogLinearHistogram(long highestTrackableValue) {
+        if (highestTrackableValue < 1)
+            throw new IllegalArgumentException("highestTrackableValue must be positive");
+
+        this.highestTrackableValue = highestTrackableValue;
+        this.counts = new AtomicLongArray(bucketIndex(highestTrackableValue) + 1);
+    }
+
+    public long getHighestTrackableValue() {
+        return highestTrackableValue;
+    }
+
+    protected static int bucketIndex(long value) {
+        int shift = 63 - Long.numberOfLeadingZeros(value | (SUB_BUCKET_COUNT - 1)) - SUB_BUCKET_HALF_BITS;
+        return (shift << SUB_BUCKET_HALF_BITS) + (int) (value >>> shift);
+    }
+
+    protected static long highestEquivalentValue(int index) {
+        int shift = index < SUB_BUCKET_COUNT ? 0 : (index >> SUB_BUCKET_HALF_BITS) - 1;
+        long subBucket = index - (shift << SUB_BUCKET_HALF_BITS);
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    public void record(long value) {
+        if (value < 0)
+            value = 0;
+        else if (value > highestTrackableValue)
+            value = highestTrackableValue;
+
+        counts.incrementAndGet(bucketIndex(value));
+        sum.addAndGet(value);
+
+        long cur;
+        while (value < (cur = min.get()) && !min.compareAndSet(cur, value))
+            ;
+        while (value > (cur = max.get()) && !max.compareAndSet(cur, value))
+            ;
+    }
+
+    /**
+     * Returns a snapshot of recorded values and resets the histogram. Values that are recorded concurrently with this
+     * call are accounted either in the returned snapshot or in the next one.
+     *
+     * @return a snapshot or null if no value has been recorded since the last reset
+     */
+    public HistogramValue snapshotAndReset() {
+        int len = counts.length();
+        long[] snapshot = new long[len];
+        long total = 0;
+        for (int i = 0; i < len; i++) {
+            long cnt = counts.getAndSet(i, 0);
+            snapshot[i] = cnt;
+            total += cnt;
+        }
+        long mn = min.getAndSet(Long.MAX_VALUE);
+        long mx = max.getAndSet(0);
+        long sm = sum.getAndSet(0);
+
+        if (total == 0)
+            return null;
+        if (mn > mx)
+            mn = mx;
+
+        return new HistogramValue(total, mn, mx, (double) sm / total, valueAtPercentile(snapshot, total, 50.0, mn, mx),
+                valueAtPercentile(snapshot, total, 99.0, mn, mx), valueAtPercentile(snapshot, total, 99.9, mn, mx));
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        sum.set(0);
+        min.set(Long.MAX_VALUE);
+        max.set(0);
+    }
+
+    private static long valueAtPercentile(long[] snapshot, long total, double percentile, long mn, long mx) {
+        long countAtPercentile = (long) Math.ceil(total * percentile / 100.0);
+        if (countAtPercentile < 1)
+            countAtPercentile = 1;
+
+        long acc = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            acc += snapshot[i];
+            if (acc >= countAtPercentile) {
+                long val = highestEquivalentValue(i);
+                if (val > mx)
+                    return mx;
+                if (val < mn)
+                    return mn;
+                return val;
+            }
+        }
+        return mx;
+    }
+
+}
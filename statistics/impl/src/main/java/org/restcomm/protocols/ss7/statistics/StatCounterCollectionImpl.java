@@ -33,14 +33,19 @@ import org.restcomm.protocols.ss7.statistics.api.StatResult;
 
 /**
 *
+* Campaigns are changed under the lock, updateData() reads a copy-on-write array of campaigns without locking.
+*
 * @author sergey vetyutnev
 *
 */
 public class StatCounterCollectionImpl implements StatCounterCollection {
 
+    private static final StatDataCollectorAbstractImpl[] EMPTY = new StatDataCollectorAbstractImpl[0];
+
     private String counterName;
     private StatDataCollectorType type;
     private FastMap<String, StatDataCollectorAbstractImpl> coll = new FastMap<String, StatDataCollectorAbstractImpl>();
+    private volatile StatDataCollectorAbstractImpl[] collectors = EMPTY;
 
     public StatCounterCollectionImpl(String counterName, StatDataCollectorType type) {
         this.counterName = counterName;
@@ -65,6 +70,9 @@ public class StatCounterCollectionImpl implements StatCounterCollection {
             for (String s : toDel) {
                 coll.remove(s);
             }
+            if (toDel.size() > 0) {
+                this.collectors = coll.values().toArray(new StatDataCollectorAbstractImpl[coll.size()]);
+            }
         }
     }
 
@@ -88,9 +96,14 @@ public class StatCounterCollectionImpl implements StatCounterCollection {
                     sdc = new StringLongMap(campaignName);
                     sdc.reset();
                     break;
+                case StringHistogramMap:
+                    sdc = new StringHistogramMap(campaignName);
+                    sdc.reset();
+                    break;
                 }
                 if (sdc != null) {
                     coll.put(campaignName, sdc);
+                    this.collectors = coll.values().toArray(new StatDataCollectorAbstractImpl[coll.size()]);
                 }
                 return null;
             }
@@ -99,21 +112,22 @@ public class StatCounterCollectionImpl implements StatCounterCollection {
 
     @Override
     public void updateData(long newVal) {
-        synchronized (this) {
-            for (String s : coll.keySet()) {
-                StatDataCollectorAbstractImpl d = coll.get(s);
-                d.updateData(newVal);
-            }
+        for (StatDataCollectorAbstractImpl d : this.collectors) {
+            d.updateData(newVal);
         }
     }
 
     @Override
     public void updateData(String newVal) {
-        synchronized (this) {
-            for (String s : coll.keySet()) {
-                StatDataCollectorAbstractImpl d = coll.get(s);
-                d.updateData(newVal);
-            }
+        for (StatDataCollectorAbstractImpl d : this.collectors) {
+            d.updateData(newVal);
+        }
+    }
+
+    @Override
+    public void updateData(String name, long newVal) {
+        for (StatDataCollectorAbstractImpl d : this.collectors) {
+            d.updateData(name, newVal);
         }
     }
 
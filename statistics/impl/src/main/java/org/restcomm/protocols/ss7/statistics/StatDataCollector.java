@@ -47,4 +47,6 @@ public interface StatDataCollector {
 
     void updateData(String newVal);
 
+    void updateData(String name, long newVal);
+
 }
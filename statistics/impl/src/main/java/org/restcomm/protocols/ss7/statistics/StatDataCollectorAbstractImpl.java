@@ -57,6 +57,8 @@ public abstract class StatDataCollectorAbstractImpl implements StatDataCollector
 
     public abstract void updateData(String newVal);
 
+    public abstract void updateData(String name, long newVal);
+
     public abstract StatDataCollectorType getStatDataCollectorType();
 
 }
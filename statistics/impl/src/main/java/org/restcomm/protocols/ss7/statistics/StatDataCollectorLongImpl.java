@@ -23,9 +23,12 @@
 package org.restcomm.protocols.ss7.statistics;
 
 import java.util.Date;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.function.LongBinaryOperator;
 
 import javolution.util.FastMap;
 
+import org.restcomm.protocols.ss7.statistics.api.HistogramValue;
 import org.restcomm.protocols.ss7.statistics.api.LongValue;
 import org.restcomm.protocols.ss7.statistics.api.StatResult;
 
@@ -36,19 +39,38 @@ import org.restcomm.protocols.ss7.statistics.api.StatResult;
 */
 public abstract class StatDataCollectorLongImpl extends StatDataCollectorAbstractImpl {
 
-    protected long val;
+    // striped, so concurrent updates do not contend
+    protected final LongAccumulator val;
 
-    public StatDataCollectorLongImpl(String campaignName) {
+    public StatDataCollectorLongImpl(String campaignName, LongBinaryOperator accumulatorFunction, long identity) {
         super(campaignName);
+        this.val = new LongAccumulator(accumulatorFunction, identity);
     }
 
     public StatResult restartAndGet() {
-        StatResultLong res = new StatResultLong(val);
+        StatResultLong res = new StatResultLong(val.getThenReset());
         this.sessionStartTime = new Date();
-        this.reset();
         return res;
     }
 
+    @Override
+    protected void reset() {
+        val.reset();
+    }
+
+    @Override
+    public void updateData(long newVal) {
+        val.accumulate(newVal);
+    }
+
+    @Override
+    public void updateData(String newVal) {
+    }
+
+    @Override
+    public void updateData(String name, long newVal) {
+    }
+
     public class StatResultLong implements StatResult {
 
         private long val;
@@ -67,5 +89,10 @@ public abstract class StatDataCollectorLongImpl extends StatDataCollectorAbstrac
             return null;
         }
 
+        @Override
+        public FastMap<String, HistogramValue> getStringHistogramValue() {
+            return null;
+        }
+
     }
 }
@@ -32,18 +32,7 @@ import org.restcomm.protocols.ss7.statistics.api.StatDataCollectorType;
 public class StatDataCollectorMax extends StatDataCollectorLongImpl {
 
     public StatDataCollectorMax(String name) {
-        super(name);
-    }
-
-    @Override
-    protected void reset() {
-        val = Long.MIN_VALUE;
-    }
-
-    @Override
-    public void updateData(long newVal) {
-        if (val < newVal)
-            val = newVal;
+        super(name, Math::max, Long.MIN_VALUE);
     }
 
     @Override
@@ -51,8 +40,4 @@ public class StatDataCollectorMax extends StatDataCollectorLongImpl {
         return StatDataCollectorType.MAX;
     }
 
-    @Override
-    public void updateData(String newVal) {
-    }
-
 }
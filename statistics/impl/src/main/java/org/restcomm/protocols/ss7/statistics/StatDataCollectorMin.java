@@ -32,18 +32,7 @@ import org.restcomm.protocols.ss7.statistics.api.StatDataCollectorType;
 public class StatDataCollectorMin extends StatDataCollectorLongImpl {
 
     public StatDataCollectorMin(String name) {
-        super(name);
-    }
-
-    @Override
-    protected void reset() {
-        val = Long.MAX_VALUE;
-    }
-
-    @Override
-    public void updateData(long newVal) {
-        if (val > newVal)
-            val = newVal;
+        super(name, Math::min, Long.MAX_VALUE);
     }
 
     @Override
@@ -51,8 +40,4 @@ public class StatDataCollectorMin extends StatDataCollectorLongImpl {
         return StatDataCollectorType.MIN;
     }
 
-    @Override
-    public void updateData(String newVal) {
-    }
-
 }
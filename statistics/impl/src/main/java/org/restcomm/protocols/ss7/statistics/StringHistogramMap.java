@@ -0,0 +1,118 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.statistics;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javolution.util.FastMap;
+
+import org.restcomm.protocols.ss7.statistics.api.HistogramValue;
+import org.restcomm.protocols.ss7.statistics.api.LongValue;
+import org.restcomm.protocols.ss7.statistics.api.StatDataCollectorType;
+import org.restcomm.protocols.ss7.statistics.api.StatResult;
+
+/**
+*
+* Latency histograms per a String key. Like in StringLongMap keys are kept between campaign restarts, so an update is a
+* lock-free map lookup and a histogram record without allocation. Values are expected in milliseconds, values longer than
+* one day are accounted as one day. restartAndGet() takes a snapshot of non empty histograms and resets them.
+*
+*/
+public class StringHistogramMap extends StatDataCollectorAbstractImpl {
+
+    public static final long HIGHEST_TRACKABLE_VALUE = 24 * 3600 * 1000L;
+
+    private final ConcurrentHashMap<String, LogLinearHistogram> data = new ConcurrentHashMap<String, LogLinearHistogram>();
+
+    public StringHistogramMap(String campaignName) {
+        super(campaignName);
+    }
+
+    public StatResult restartAndGet() {
+        FastMap<String, HistogramValue> snapshot = new FastMap<String, HistogramValue>();
+        for (Map.Entry<String, LogLinearHistogram> e : this.data.entrySet()) {
+            HistogramValue val = e.getValue().snapshotAndReset();
+            if (val != null) {
+                snapshot.put(e.getKey(), val);
+            }
+        }
+        this.sessionStartTime = new Date();
+        return new StatResultStringHistogramMap(snapshot);
+    }
+
+    protected void reset() {
+        this.data.clear();
+    }
+
+    @Override
+    public void updateData(long newVal) {
+    }
+
+    @Override
+    public void updateData(String newVal) {
+    }
+
+    @Override
+    public void updateData(String name, long newVal) {
+        LogLinearHistogram val = data.get(name);
+        if (val == null) {
+            LogLinearHistogram newHistogram = new LogLinearHistogram(HIGHEST_TRACKABLE_VALUE);
+            val = data.putIfAbsent(name, newHistogram);
+            if (val == null)
+                val = newHistogram;
+        }
+        val.record(newVal);
+    }
+
+    @Override
+    public StatDataCollectorType getStatDataCollectorType() {
+        return StatDataCollectorType.StringHistogramMap;
+    }
+
+    public class StatResultStringHistogramMap implements StatResult {
+
+        private FastMap<String, HistogramValue> data;
+
+        public StatResultStringHistogramMap(FastMap<String, HistogramValue> data) {
+            this.data = data;
+        }
+
+        @Override
+        public long getLongValue() {
+            return 0;
+        }
+
+        @Override
+        public FastMap<String, LongValue> getStringLongValue() {
+            return null;
+        }
+
+        @Override
+        public FastMap<String, HistogramValue> getStringHistogramValue() {
+            return data;
+        }
+
+    }
+}
@@ -22,38 +22,49 @@
 
 package org.restcomm.protocols.ss7.statistics;
 
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
 import javolution.util.FastMap;
 
+import org.restcomm.protocols.ss7.statistics.api.HistogramValue;
 import org.restcomm.protocols.ss7.statistics.api.LongValue;
 import org.restcomm.protocols.ss7.statistics.api.StatDataCollectorType;
 import org.restcomm.protocols.ss7.statistics.api.StatResult;
 
 /**
 *
+* Counters per a String key. Keys are kept between campaign restarts (they are a limited set like operation codes or ACNs),
+* so an update is a lock-free map lookup and a striped counter increment. restartAndGet() takes a snapshot of non zero counters
+* and resets them.
+*
 * @author sergey vetyutnev
 *
 */
 public class StringLongMap extends StatDataCollectorAbstractImpl {
 
-    private FastMap<String, LongValue> data = new FastMap<String, LongValue>();
+    private final ConcurrentHashMap<String, LongAdder> data = new ConcurrentHashMap<String, LongAdder>();
 
     public StringLongMap(String campaignName) {
         super(campaignName);
     }
 
     public StatResult restartAndGet() {
-        synchronized (this) {
-            StatResultStringLongMap res = new StatResultStringLongMap(this.data);
-            this.data = new FastMap<String, LongValue>();
-            this.reset();
-            return res;
+        FastMap<String, LongValue> snapshot = new FastMap<String, LongValue>();
+        for (Map.Entry<String, LongAdder> e : this.data.entrySet()) {
+            long val = e.getValue().sumThenReset();
+            if (val != 0) {
+                snapshot.put(e.getKey(), new LongValue(val));
+            }
         }
+        this.sessionStartTime = new Date();
+        return new StatResultStringLongMap(snapshot);
     }
 
     protected void reset() {
-        synchronized (this) {
-            this.data.clear();
-        }
+        this.data.clear();
     }
 
     @Override
@@ -62,14 +73,18 @@ public class StringLongMap extends StatDataCollectorAbstractImpl {
 
     @Override
     public void updateData(String name) {
-        synchronized (this) {
-            LongValue val = data.get(name);
-            if (val == null) {
-                val = new LongValue();
-                data.put(name, val);
-            }
-            val.updateValue();
+        LongAdder val = data.get(name);
+        if (val == null) {
+            LongAdder newVal = new LongAdder();
+            val = data.putIfAbsent(name, newVal);
+            if (val == null)
+                val = newVal;
         }
+        val.increment();
+    }
+
+    @Override
+    public void updateData(String name, long newVal) {
     }
 
     @Override
@@ -95,5 +110,10 @@ public class StringLongMap extends StatDataCollectorAbstractImpl {
             return data;
         }
 
+        @Override
+        public FastMap<String, HistogramValue> getStringHistogramValue() {
+            return null;
+        }
+
     }
 }
@@ -623,6 +623,8 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
         stopNetworkIdStateList();
 
         this._EXECUTOR.shutdown();
+        if (memoryCongestionMonitor != null)
+            memoryCongestionMonitor.stop();
         this.sccpProvider.deregisterSccpListener(ssn);
 
         List<Integer> extraSsns = this.stack.getExtraSsns();
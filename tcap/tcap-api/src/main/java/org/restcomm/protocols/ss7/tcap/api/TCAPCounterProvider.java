@@ -25,6 +25,7 @@ package org.restcomm.protocols.ss7.tcap.api;
 import java.util.Map;
 import java.util.UUID;
 
+import org.restcomm.protocols.ss7.statistics.api.HistogramValue;
 import org.restcomm.protocols.ss7.statistics.api.LongValue;
 
 /**
@@ -167,6 +168,21 @@ public interface TCAPCounterProvider {
      */
     long getCurrentDialogsCount();
 
+    /**
+     * return a current count of scheduled dialog idle and invoke timers
+     */
+    long getActiveTimersCount();
+
+    /**
+     * return a max lateness of fired dialog idle and invoke timers since stack start (in milliseconds)
+     */
+    long getMaxTimerLateness();
+
+    /**
+     * return an average lateness of fired dialog idle and invoke timers since stack start (in milliseconds)
+     */
+    double getAverageTimerLateness();
+
     /**
      * return a count of all established Dialogs since stack start
      */
@@ -240,6 +256,19 @@ public interface TCAPCounterProvider {
      */
     Map<String,LongValue> getIncomingRejectPerProblem(String compainName);
 
+    /**
+     * return a histogram (count, min, max, mean, p50, p99, p999) of durations of released structured Dialogs per
+     * ApplicationContextNames (in string form, in milliseconds)
+     * Dialogs without ApplicationContextName will be assigned into empty string group ("")
+     */
+    Map<String,HistogramValue> getDialogsDurationPerApplicatioContextName(String compainName);
+
+    /**
+     * return a histogram (count, min, max, mean, p50, p99, p999) of latencies between sending of an Invoke and receiving of
+     * ReturtResultLast or ReturtError for it per OperationCodes (in milliseconds)
+     */
+    Map<String,HistogramValue> getInvokeLatencyPerOperationCode(String compainName);
+
 
     /**
      * return A max count of networkID areas that are not available
@@ -87,6 +87,10 @@ public class TcapCommandHandler extends CommandHandlerWithHelp {
         get.addChild("blockingincomingtcapmessages");
         get.addChild("slsrange");
 
+        Node latency = parent.addChild("latency");
+        latency.addChild("dialogduration");
+        latency.addChild("invoke");
+
     };
 
     public TcapCommandHandler() {
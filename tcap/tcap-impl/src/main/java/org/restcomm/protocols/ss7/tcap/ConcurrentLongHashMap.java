@@ -0,0 +1,334 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tcap;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Concurrent map with primitive long keys that is used as a dialog table (local dialog id -> dialog) by TCAP, MAP and CAP
+ * providers instead of ConcurrentHashMap&lt;Long, ...&gt;. Unlike ConcurrentHashMap it does not need a boxed Long key
+ * for a lookup and does not create a node object per entry: keys and values are stored in two arrays of an open
+ * addressing (linear probing) hash table.
+ *
+ * The map is split into segments. A segment and a slot of an entry are taken directly from bits of the key: local dialog
+ * ids are allocated sequentially, so their low bits are evenly distributed and neighbour ids do not collide. Lookups are
+ * lock-free (an optimistic read of a segment StampedLock that falls back to a read lock only when the segment has been
+ * modified concurrently), updates take a write lock of one segment. Removal uses backward shift deletion, so there are no
+ * tombstones and lookup cost does not degrade after many add / remove cycles.
+ *
+ * Null values are not permitted.
+ *
+ * @param <V> value type
+ */
+public class ConcurrentLongHashMap<V> {
+
+    public static final int DEFAULT_SEGMENT_COUNT = 16;
+    public static final int DEFAULT_INITIAL_CAPACITY = 1024;
+
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+
+    private final Segment<V>[] segments;
+    private final int segmentMask;
+    private final int segmentBits;
+
+    public ConcurrentLongHashMap() {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_SEGMENT_COUNT);
+    }
+
+    /**
+     * @param initialCapacity expected entry count
+     * @param segmentCount count of segments (concurrency level), it is rounded up to a power of 2
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongHashMap(int initialCapacity, int segmentCount) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("InitialCapacity must not be negative");
+        if (segmentCount < 1 || segmentCount > (1 << 16))
+            throw new IllegalArgumentException("SegmentCount must be between 1 and 65536");
+
+        int segCnt = 1;
+        int bits = 0;
+        while (segCnt < segmentCount) {
+            segCnt <<= 1;
+            bits++;
+        }
+        this.segmentMask = segCnt - 1;
+        this.segmentBits = bits;
+
+        int segCapacity = MIN_SEGMENT_CAPACITY;
+        while (segCapacity * Segment.FILL_FACTOR < (double) initialCapacity / segCnt)
+            segCapacity <<= 1;
+
+        this.segments = new Segment[segCnt];
+        for (int i = 0; i < segCnt; i++) {
+            this.segments[i] = new Segment<V>(segCapacity, bits);
+        }
+    }
+
+    private Segment<V> segmentFor(long key) {
+        return this.segments[(int) key & this.segmentMask];
+    }
+
+    private long hash(long key) {
+        return key >>> this.segmentBits;
+    }
+
+    public V get(long key) {
+        return this.segmentFor(key).get(key, this.hash(key));
+    }
+
+    /**
+     * @return a previous value for the key or null
+     */
+    public V put(long key, V value) {
+        if (value == null)
+            throw new NullPointerException("Value must not be null");
+        return this.segmentFor(key).put(key, this.hash(key), value, false);
+    }
+
+    /**
+     * @return a current value for the key or null if the value has been added
+     */
+    public V putIfAbsent(long key, V value) {
+        if (value == null)
+            throw new NullPointerException("Value must not be null");
+        return this.segmentFor(key).put(key, this.hash(key), value, true);
+    }
+
+    /**
+     * @return a removed value or null
+     */
+    public V remove(long key) {
+        return this.segmentFor(key).remove(key, this.hash(key));
+    }
+
+    public boolean containsKey(long key) {
+        return this.get(key) != null;
+    }
+
+    public int size() {
+        int res = 0;
+        for (Segment<V> seg : this.segments) {
+            res += seg.size;
+        }
+        return res;
+    }
+
+    public boolean isEmpty() {
+        for (Segment<V> seg : this.segments) {
+            if (seg.size != 0)
+                return false;
+        }
+        return true;
+    }
+
+    public void clear() {
+        for (Segment<V> seg : this.segments) {
+            seg.clear();
+        }
+    }
+
+    /**
+     * @return the total count of slots in all segments (for memory footprint estimation)
+     */
+    public long getCapacity() {
+        long res = 0;
+        for (Segment<V> seg : this.segments) {
+            res += seg.table.keys.length;
+        }
+        return res;
+    }
+
+    private static final class Table {
+        final long[] keys;
+        final Object[] values;
+        final int mask;
+
+        Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+            this.mask = capacity - 1;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class Segment<V> extends StampedLock {
+
+        static final double FILL_FACTOR = 0.66;
+
+        private final int initialCapacity;
+        private final int segmentBits;
+        volatile Table table;
+        volatile int size;
+        private int resizeThreshold;
+
+        Segment(int capacity, int segmentBits) {
+            this.initialCapacity = capacity;
+            this.segmentBits = segmentBits;
+            this.table = new Table(capacity);
+            this.resizeThreshold = (int) (capacity * FILL_FACTOR);
+        }
+
+        V get(long key, long hash) {
+            long stamp = this.tryOptimisticRead();
+            V res = find(this.table, key, hash);
+            if (!this.validate(stamp)) {
+                stamp = this.readLock();
+                try {
+                    res = find(this.table, key, hash);
+                } finally {
+                    this.unlockRead(stamp);
+                }
+            }
+            return res;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> V find(Table tab, long key, long hash) {
+            long[] keys = tab.keys;
+            Object[] values = tab.values;
+            int mask = tab.mask;
+            int ind = (int) hash & mask;
+            // the probe count is limited because an optimistic read can see a table in the middle of a modification
+            for (int i = 0; i <= mask; i++) {
+                Object val = values[ind];
+                if (val == null)
+                    return null;
+                if (keys[ind] == key)
+                    return (V) val;
+                ind = (ind + 1) & mask;
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        V put(long key, long hash, V value, boolean onlyIfAbsent) {
+            long stamp = this.writeLock();
+            try {
+                Table tab = this.table;
+                int mask = tab.mask;
+                int ind = (int) hash & mask;
+                while (true) {
+                    Object val = tab.values[ind];
+                    if (val == null)
+                        break;
+                    if (tab.keys[ind] == key) {
+                        if (!onlyIfAbsent)
+                            tab.values[ind] = value;
+                        return (V) val;
+                    }
+                    ind = (ind + 1) & mask;
+                }
+
+                tab.keys[ind] = key;
+                tab.values[ind] = value;
+                this.size = this.size + 1;
+                if (this.size > this.resizeThreshold)
+                    this.rehash(tab.keys.length << 1);
+                return null;
+            } finally {
+                this.unlockWrite(stamp);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        V remove(long key, long hash) {
+            long stamp = this.writeLock();
+            try {
+                Table tab = this.table;
+                long[] keys = tab.keys;
+                Object[] values = tab.values;
+                int mask = tab.mask;
+                int ind = (int) hash & mask;
+                while (true) {
+                    Object val = values[ind];
+                    if (val == null)
+                        return null;
+                    if (keys[ind] == key)
+                        break;
+                    ind = (ind + 1) & mask;
+                }
+
+                Object res = values[ind];
+                values[ind] = null;
+                this.size = this.size - 1;
+
+                // backward shift deletion: moving of next entries of the cluster to the released slot
+                int gap = ind;
+                int next = ind;
+                while (true) {
+                    next = (next + 1) & mask;
+                    if (values[next] == null)
+                        break;
+                    int ideal = this.idealSlot(keys[next], mask);
+                    boolean stays = (gap <= next) ? (gap < ideal && ideal <= next) : (gap < ideal || ideal <= next);
+                    if (stays)
+                        continue;
+                    keys[gap] = keys[next];
+                    values[gap] = values[next];
+                    values[next] = null;
+                    gap = next;
+                }
+
+                return (V) res;
+            } finally {
+                this.unlockWrite(stamp);
+            }
+        }
+
+        void clear() {
+            long stamp = this.writeLock();
+            try {
+                this.table = new Table(this.initialCapacity);
+                this.resizeThreshold = (int) (this.initialCapacity * FILL_FACTOR);
+                this.size = 0;
+            } finally {
+                this.unlockWrite(stamp);
+            }
+        }
+
+        private void rehash(int capacity) {
+            Table oldTab = this.table;
+            Table newTab = new Table(capacity);
+            int mask = newTab.mask;
+            for (int i = 0; i < oldTab.values.length; i++) {
+                Object val = oldTab.values[i];
+                if (val != null) {
+                    long key = oldTab.keys[i];
+                    int ind = this.idealSlot(key, mask);
+                    while (newTab.values[ind] != null) {
+                        ind = (ind + 1) & mask;
+                    }
+                    newTab.keys[ind] = key;
+                    newTab.values[ind] = val;
+                }
+            }
+            this.table = newTab;
+            this.resizeThreshold = (int) (capacity * FILL_FACTOR);
+        }
+
+        private int idealSlot(long key, int mask) {
+            return (int) (key >>> this.segmentBits) & mask;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tcap;
+
+import org.restcomm.protocols.ss7.tcap.api.TCAPException;
+
+/**
+ * Allocator of local TCAP transaction ids (dialog ids) inside the range [dialogIdRangeStart, dialogIdRangeEnd]. An
+ * implementation must be thread safe: {@link #allocate(int)} and {@link #release(long)} are invoked concurrently from all
+ * threads that create or release dialogs.
+ *
+ */
+public interface DialogIdAllocator {
+
+    /**
+     * Sets (or updates) the range of transaction ids that the allocator hands out. Ids that are already allocated stay valid
+     * until they are released.
+     */
+    void setRange(long rangeStart, long rangeEnd);
+
+    /**
+     * Allocates a free transaction id and marks it as used
+     *
+     * @param maxDialogs the maximum count of ids that may be allocated at the same time
+     * @throws TCAPException if maxDialogs ids are already allocated
+     */
+    long allocate(int maxDialogs) throws TCAPException;
+
+    /**
+     * Marks a transaction id that was suggested by a TCAP user as used
+     *
+     * @return false if the id is already allocated or reserved or maxDialogs ids are already allocated
+     */
+    boolean reserve(long id, int maxDialogs);
+
+    /**
+     * Returns a previously allocated or reserved transaction id into the free pool
+     */
+    void release(long id);
+
+    /**
+     * Returns a next transaction id from the range without marking it as used (for unstructured and preview mode dialogs
+     * that are not stored by a provider)
+     */
+    long next();
+
+    /**
+     * @return the count of currently allocated ids
+     */
+    int getAllocatedCount();
+
+    /**
+     * Releases all allocated ids
+     */
+    void clear();
+
+}
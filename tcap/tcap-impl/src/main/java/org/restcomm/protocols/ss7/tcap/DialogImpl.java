@@ -26,9 +26,6 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.log4j.Level;
@@ -139,7 +136,7 @@ public class DialogImpl implements Dialog {
     private int localSsn;
     private int remotePc = -1;
 
-    private Future idleTimerFuture;
+    private TimerWheel.Timeout idleTimerFuture;
     private boolean idleTimerActionTaken = false;
     private boolean idleTimerInvoked = false;
     private TRPseudoState state = TRPseudoState.Idle;
@@ -157,7 +154,6 @@ public class DialogImpl implements Dialog {
     protected InvokeImpl[] operationsSent = new InvokeImpl[invokeIDTable.length];
     protected InvokeImpl[] operationsSentA = new InvokeImpl[invokeIDTable.length];
     private Set<Long> incomingInvokeList = new HashSet<Long>();
-    private ScheduledExecutorService executor;
 
     // scheduled components list
     private List<Component> scheduledComponentList = new ArrayList<Component>();
@@ -178,6 +174,9 @@ public class DialogImpl implements Dialog {
 
     private boolean isSwapTcapIdBytes;
 
+    // the shard whose thread processes the dialog events, -1 if the sharded mode is disabled
+    private int shard = -1;
+
     private static int getIndexFromInvokeId(Long l) {
         int tmp = l.intValue();
         return tmp + _INVOKE_TABLE_SHIFT;
@@ -195,13 +194,12 @@ public class DialogImpl implements Dialog {
      * @param remoteAddress
      * @param origTransactionId
      * @param structured
-     * @param executor
      * @param provider
      * @param seqControl
      * @param previewMode
      */
     protected DialogImpl(SccpAddress localAddress, SccpAddress remoteAddress, Long origTransactionId, boolean structured,
-            ScheduledExecutorService executor, TCAPProviderImpl provider, int seqControl, boolean previewMode) {
+            TCAPProviderImpl provider, int seqControl, boolean previewMode) {
         super();
         this.localAddress = localAddress;
         this.remoteAddress = remoteAddress;
@@ -209,7 +207,6 @@ public class DialogImpl implements Dialog {
             this.localTransactionIdObject = origTransactionId;
             this.localTransactionId = origTransactionId;
         }
-        this.executor = executor;
         this.provider = provider;
         this.structured = structured;
 
@@ -220,6 +217,15 @@ public class DialogImpl implements Dialog {
         this.idleTaskTimeout = stack.getDialogIdleTimeout();
         this.isSwapTcapIdBytes = stack.getSwapTcapIdBytes();
 
+        DialogShards dialogShards = this.provider.getDialogShards();
+        if (dialogShards != null) {
+            // a dialog that is created by a shard thread stays in this shard
+            this.shard = DialogShards.getCurrentShard();
+            if (this.shard < 0)
+                this.shard = dialogShards.shardOf(this.localTransactionId);
+            this.dialogLock = DialogShards.NO_LOCK;
+        }
+
         startDialogTime = System.currentTimeMillis();
 
         // start
@@ -233,18 +239,16 @@ public class DialogImpl implements Dialog {
      * @param localAddress
      * @param remoteAddress
      * @param seqControl
-     * @param executor
      * @param provider
      * @param pdd
      * @param sideB
      */
-    protected DialogImpl(SccpAddress localAddress, SccpAddress remoteAddress, int seqControl, ScheduledExecutorService executor,
-            TCAPProviderImpl provider, PreviewDialogData pdd, boolean sideB) {
+    protected DialogImpl(SccpAddress localAddress, SccpAddress remoteAddress, int seqControl, TCAPProviderImpl provider,
+            PreviewDialogData pdd, boolean sideB) {
         this.localAddress = localAddress;
         this.remoteAddress = remoteAddress;
         this.localTransactionIdObject = pdd.getDialogId();
         this.localTransactionId = pdd.getDialogId();
-        this.executor = executor;
         this.provider = provider;
         this.structured = true;
 
@@ -312,6 +316,9 @@ public class DialogImpl implements Dialog {
         if (this.isStructured() && this.provider.getStack().getStatisticsEnabled()) {
             long lg = System.currentTimeMillis() - this.startDialogTime;
             this.provider.getStack().getCounterProviderImpl().updateAllDialogsDuration(lg);
+
+            String acn = this.lastACN != null ? ((ApplicationContextNameImpl) this.lastACN).getStringValue() : "";
+            this.provider.getStack().getCounterProviderImpl().updateDialogsDurationPerApplicatioContextName(acn, lg);
         }
 
         this.setState(TRPseudoState.Expunged);
@@ -384,6 +391,7 @@ public class DialogImpl implements Dialog {
     public boolean cancelInvocation(Long invokeId) throws TCAPException {
         if (this.previewMode)
             return false;
+        this.checkShardThread();
 
         try {
             this.dialogLock.lock();
@@ -481,6 +489,7 @@ public class DialogImpl implements Dialog {
     public void keepAlive() {
         if (this.previewMode)
             return;
+        this.checkShardThread();
 
         try {
             this.dialogLock.lock();
@@ -499,6 +508,25 @@ public class DialogImpl implements Dialog {
         return this.dialogLock;
     }
 
+    /**
+     * @return the shard whose thread processes the dialog events or -1 if the sharded processing mode is disabled
+     */
+    public int getShard() {
+        return this.shard;
+    }
+
+    /**
+     * In the sharded processing mode a structured dialog is not locked, so it may be used only by the thread of its shard
+     * (inside of TCListener callbacks or via {@link TCAPProviderImpl#executeInDialogShard(Dialog, Runnable)}).
+     *
+     * @throws IllegalStateException if the current thread is not the thread of the dialog shard
+     */
+    private void checkShardThread() {
+        if (this.shard >= 0 && this.structured && DialogShards.getCurrentShard() != this.shard)
+            throw new IllegalStateException("Dialog " + this.localTransactionId + " of shard " + this.shard
+                    + " is used outside of the shard thread, TCAPProviderImpl.executeInDialogShard() must be used");
+    }
+
     /**
      * @return the acn
      */
@@ -546,6 +574,7 @@ public class DialogImpl implements Dialog {
 
         if (this.previewMode)
             return;
+        this.checkShardThread();
 
         if (this.state != TRPseudoState.Idle) {
             throw new TCAPSendException("Can not send Begin in this state: " + this.state);
@@ -595,14 +624,14 @@ public class DialogImpl implements Dialog {
                 tcbm.setComponent(componentsToSend);
             }
 
-            AsnOutputStream aos = new AsnOutputStream();
+            AsnOutputStream aos = this.provider.borrowEncoder();
             try {
                 tcbm.encode(aos);
                 this.setState(TRPseudoState.InitialSent);
                 if (this.provider.getStack().getStatisticsEnabled()) {
                     this.provider.getStack().getCounterProviderImpl().updateTcBeginSentCount(this);
                 }
-                this.provider.send(aos.toByteArray(), event.getReturnMessageOnError(), this.remoteAddress, this.localAddress,
+                this.provider.send(aos, event.getReturnMessageOnError(), this.remoteAddress, this.localAddress,
                         this.seqControl, this.networkId, this.localSsn, this.remotePc);
                 this.scheduledComponentList.clear();
             } catch (Throwable e) {
@@ -612,6 +641,8 @@ public class DialogImpl implements Dialog {
                     logger.error("Failed to send message: ", e);
                 }
                 throw new TCAPSendException("Failed to send TC-Begin message: " + e.getMessage(), e);
+            } finally {
+                this.provider.releaseEncoder(aos);
             }
 
         } finally {
@@ -629,6 +660,7 @@ public class DialogImpl implements Dialog {
 
         if (this.previewMode)
             return;
+        this.checkShardThread();
 
         if (!this.isStructured()) {
             throw new TCAPSendException("Unstructured dialogs do not use Continue");
@@ -676,13 +708,13 @@ public class DialogImpl implements Dialog {
                 if (event.getOriginatingAddress() != null && !event.getOriginatingAddress().equals(this.localAddress)) {
                     this.localAddress = event.getOriginatingAddress();
                 }
-                AsnOutputStream aos = new AsnOutputStream();
+                AsnOutputStream aos = this.provider.borrowEncoder();
                 try {
                     tcbm.encode(aos);
                     if (this.provider.getStack().getStatisticsEnabled()) {
                         this.provider.getStack().getCounterProviderImpl().updateTcContinueSentCount(this);
                     }
-                    this.provider.send(aos.toByteArray(), event.getReturnMessageOnError(), this.remoteAddress,
+                    this.provider.send(aos, event.getReturnMessageOnError(), this.remoteAddress,
                             this.localAddress, this.seqControl, this.networkId, this.localSsn, this.remotePc);
                     this.setState(TRPseudoState.Active);
                     this.scheduledComponentList.clear();
@@ -692,6 +724,8 @@ public class DialogImpl implements Dialog {
                         logger.error("Failed to send message: ", e);
                     }
                     throw new TCAPSendException("Failed to send TC-Continue message: " + e.getMessage(), e);
+                } finally {
+                    this.provider.releaseEncoder(aos);
                 }
 
             } else if (state == TRPseudoState.Active) {
@@ -709,11 +743,11 @@ public class DialogImpl implements Dialog {
 
                 }
 
-                AsnOutputStream aos = new AsnOutputStream();
+                AsnOutputStream aos = this.provider.borrowEncoder();
                 try {
                     tcbm.encode(aos);
                     this.provider.getStack().getCounterProviderImpl().updateTcContinueSentCount(this);
-                    this.provider.send(aos.toByteArray(), event.getReturnMessageOnError(), this.remoteAddress,
+                    this.provider.send(aos, event.getReturnMessageOnError(), this.remoteAddress,
                             this.localAddress, this.seqControl, this.networkId, this.localSsn, this.remotePc);
                     this.scheduledComponentList.clear();
                 } catch (Exception e) {
@@ -722,6 +756,8 @@ public class DialogImpl implements Dialog {
                         logger.error("Failed to send message: ", e);
                     }
                     throw new TCAPSendException("Failed to send TC-Continue message: " + e.getMessage(), e);
+                } finally {
+                    this.provider.releaseEncoder(aos);
                 }
             } else {
                 throw new TCAPSendException("Wrong state: " + this.state);
@@ -742,6 +778,7 @@ public class DialogImpl implements Dialog {
 
         if (this.previewMode)
             return;
+        this.checkShardThread();
 
         if (!this.isStructured()) {
             throw new TCAPSendException("Unstructured dialogs do not use End");
@@ -832,13 +869,13 @@ public class DialogImpl implements Dialog {
                         TRPseudoState.InitialReceived, this.state));
             }
 
-            AsnOutputStream aos = new AsnOutputStream();
+            AsnOutputStream aos = this.provider.borrowEncoder();
             try {
                 tcbm.encode(aos);
                 if (this.provider.getStack().getStatisticsEnabled()) {
                     this.provider.getStack().getCounterProviderImpl().updateTcEndSentCount(this);
                 }
-                this.provider.send(aos.toByteArray(), event.getReturnMessageOnError(), this.remoteAddress, this.localAddress,
+                this.provider.send(aos, event.getReturnMessageOnError(), this.remoteAddress, this.localAddress,
                         this.seqControl, this.networkId, this.localSsn, this.remotePc);
 
                 this.scheduledComponentList.clear();
@@ -849,6 +886,7 @@ public class DialogImpl implements Dialog {
                 }
                 throw new TCAPSendException("Failed to send TC-End message: " + e.getMessage(), e);
             } finally {
+                this.provider.releaseEncoder(aos);
                 // FIXME: is this proper place - should we not release in case
                 // of error ?
                 release();
@@ -897,13 +935,13 @@ public class DialogImpl implements Dialog {
 
             }
 
-            AsnOutputStream aos = new AsnOutputStream();
+            AsnOutputStream aos = this.provider.borrowEncoder();
             try {
                 msg.encode(aos);
                 if (this.provider.getStack().getStatisticsEnabled()) {
                     this.provider.getStack().getCounterProviderImpl().updateTcUniSentCount(this);
                 }
-                this.provider.send(aos.toByteArray(), event.getReturnMessageOnError(), this.remoteAddress, this.localAddress,
+                this.provider.send(aos, event.getReturnMessageOnError(), this.remoteAddress, this.localAddress,
                         this.seqControl, this.networkId, this.localSsn, this.remotePc);
                 this.scheduledComponentList.clear();
             } catch (Exception e) {
@@ -912,6 +950,7 @@ public class DialogImpl implements Dialog {
                 }
                 throw new TCAPSendException("Failed to send TC-Uni message: " + e.getMessage(), e);
             } finally {
+                this.provider.releaseEncoder(aos);
                 release();
             }
         } finally {
@@ -923,6 +962,7 @@ public class DialogImpl implements Dialog {
 
         if (this.previewMode)
             return;
+        this.checkShardThread();
 
         // is abort allowed in "Active" state ?
         if (!isStructured()) {
@@ -1003,13 +1043,13 @@ public class DialogImpl implements Dialog {
                 }
 
                 // no components
-                AsnOutputStream aos = new AsnOutputStream();
+                AsnOutputStream aos = this.provider.borrowEncoder();
                 try {
                     msg.encode(aos);
                     if (this.provider.getStack().getStatisticsEnabled()) {
                         this.provider.getStack().getCounterProviderImpl().updateTcUserAbortSentCount(this);
                     }
-                    this.provider.send(aos.toByteArray(), event.getReturnMessageOnError(), this.remoteAddress,
+                    this.provider.send(aos, event.getReturnMessageOnError(), this.remoteAddress,
                             this.localAddress, this.seqControl, this.networkId, this.localSsn, this.remotePc);
 
                     this.scheduledComponentList.clear();
@@ -1021,6 +1061,7 @@ public class DialogImpl implements Dialog {
                     }
                     throw new TCAPSendException("Failed to send TC-U-Abort message: " + e.getMessage(), e);
                 } finally {
+                    this.provider.releaseEncoder(aos);
                     release();
                 }
             } else if (this.state == TRPseudoState.InitialSent) {
@@ -1041,6 +1082,7 @@ public class DialogImpl implements Dialog {
 
         if (this.previewMode)
             return;
+        this.checkShardThread();
 
         if (this.provider.getStack().getStatisticsEnabled()) {
             switch (componentRequest.getType()) {
@@ -1168,16 +1210,18 @@ public class DialogImpl implements Dialog {
             tcbm.setComponent(componentsToSend);
         }
 
-        AsnOutputStream aos = new AsnOutputStream();
+        AsnOutputStream aos = this.provider.borrowEncoder();
         try {
             tcbm.encode(aos);
+            return aos.size();
         } catch (EncodeException e) {
             if (logger.isEnabledFor(Level.ERROR)) {
                 logger.error("Failed to encode message while length testing: ", e);
             }
             throw new TCAPSendException("Error encoding TCBeginRequest", e);
+        } finally {
+            this.provider.releaseEncoder(aos);
         }
-        return aos.size();
     }
 
     public int getDataLength(TCContinueRequest event) throws TCAPSendException {
@@ -1218,17 +1262,18 @@ public class DialogImpl implements Dialog {
             tcbm.setComponent(componentsToSend);
         }
 
-        AsnOutputStream aos = new AsnOutputStream();
+        AsnOutputStream aos = this.provider.borrowEncoder();
         try {
             tcbm.encode(aos);
+            return aos.size();
         } catch (Exception e) {
             if (logger.isEnabledFor(Level.ERROR)) {
                 logger.error("Failed to encode message while length testing: ", e);
             }
             throw new TCAPSendException("Error encoding TCContinueRequest", e);
+        } finally {
+            this.provider.releaseEncoder(aos);
         }
-
-        return aos.size();
     }
 
     public int getDataLength(TCEndRequest event) throws TCAPSendException {
@@ -1274,17 +1319,18 @@ public class DialogImpl implements Dialog {
             }
         }
 
-        AsnOutputStream aos = new AsnOutputStream();
+        AsnOutputStream aos = this.provider.borrowEncoder();
         try {
             tcbm.encode(aos);
+            return aos.size();
         } catch (Exception e) {
             if (logger.isEnabledFor(Level.ERROR)) {
                 logger.error("Failed to encode message while length testing: ", e);
             }
             throw new TCAPSendException("Error encoding TCEndRequest", e);
+        } finally {
+            this.provider.releaseEncoder(aos);
         }
-
-        return aos.size();
     }
 
     public int getDataLength(TCUniRequest event) throws TCAPSendException {
@@ -1314,17 +1360,18 @@ public class DialogImpl implements Dialog {
 
         }
 
-        AsnOutputStream aos = new AsnOutputStream();
+        AsnOutputStream aos = this.provider.borrowEncoder();
         try {
             msg.encode(aos);
+            return aos.size();
         } catch (Exception e) {
             if (logger.isEnabledFor(Level.ERROR)) {
                 logger.error("Failed to encode message while length testing: ", e);
             }
             throw new TCAPSendException("Error encoding TCUniRequest", e);
+        } finally {
+            this.provider.releaseEncoder(aos);
         }
-
-        return aos.size();
     }
 
     // /////////////////
@@ -1856,19 +1903,21 @@ public class DialogImpl implements Dialog {
                 msg.setDestinationTransactionId(this.remoteTransactionId);
                 msg.setDialogPortion(dp);
 
-                AsnOutputStream aos = new AsnOutputStream();
+                AsnOutputStream aos = this.provider.borrowEncoder();
                 try {
                     msg.encode(aos);
                     if (this.provider.getStack().getStatisticsEnabled()) {
                         this.provider.getStack().getCounterProviderImpl().updateTcPAbortSentCount(this.remoteTransactionId,
                                 PAbortCauseType.NoReasonGiven);
                     }
-                    this.provider.send(aos.toByteArray(), false, this.remoteAddress, this.localAddress, this.seqControl,
+                    this.provider.send(aos, false, this.remoteAddress, this.localAddress, this.seqControl,
                             this.networkId, this.localSsn, this.remotePc);
                 } catch (Exception e) {
                     if (logger.isEnabledFor(Level.ERROR)) {
                         logger.error("Failed to send message: ", e);
                     }
+                } finally {
+                    this.provider.releaseEncoder(aos);
                 }
 
                 // sending to the local side
@@ -1978,6 +2027,7 @@ public class DialogImpl implements Dialog {
                         p.setReturnResultProblemType(ReturnResultProblemType.ReturnResultUnexpected);
                         this.addReject(resultingIndications, ci.getInvokeId(), p);
                     } else {
+                        this.updateInvokeLatency(invoke);
                         invoke.onReturnResultLast();
                         if (invoke.isSuccessReported()) {
                             resultingIndications.add(ci);
@@ -2002,6 +2052,7 @@ public class DialogImpl implements Dialog {
                         p.setReturnErrorProblemType(ReturnErrorProblemType.ReturnErrorUnexpected);
                         this.addReject(resultingIndications, ci.getInvokeId(), p);
                     } else {
+                        this.updateInvokeLatency(invoke);
                         invoke.onError();
                         if (invoke.isErrorReported()) {
                             resultingIndications.add(ci);
@@ -2044,6 +2095,15 @@ public class DialogImpl implements Dialog {
         return components;
     }
 
+    private void updateInvokeLatency(InvokeImpl invoke) {
+        if (this.provider.getStack().getStatisticsEnabled() && invoke.getSentTime() > 0) {
+            long lg = System.currentTimeMillis() - invoke.getSentTime();
+            OperationCodeImpl oc = (OperationCodeImpl) invoke.getOperationCode();
+            this.provider.getStack().getCounterProviderImpl()
+                    .updateInvokeLatencyPerOperationCode(oc != null ? oc.getStringValue() : "", lg);
+        }
+    }
+
     private void addReject(List<Component> resultingIndications, Long invokeId, Problem p) {
         try {
             Reject rej = TcapFactory.createComponentReject();
@@ -2092,7 +2152,7 @@ public class DialogImpl implements Dialog {
 
             IdleTimerTask t = new IdleTimerTask();
             t.d = this;
-            this.idleTimerFuture = this.executor.schedule(t, this.idleTaskTimeout, TimeUnit.MILLISECONDS);
+            this.idleTimerFuture = this.provider.createDialogTimer(this, t, this.idleTaskTimeout);
 
         } finally {
             this.dialogLock.unlock();
@@ -2106,7 +2166,7 @@ public class DialogImpl implements Dialog {
         try {
             this.dialogLock.lock();
             if (this.idleTimerFuture != null) {
-                this.idleTimerFuture.cancel(false);
+                this.idleTimerFuture.cancel();
                 this.idleTimerFuture = null;
             }
 
@@ -0,0 +1,154 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tcap;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Set of single thread executors (shards) that is used by the actor-like processing mode of TCAP stack.
+ *
+ * Every structured dialog is pinned to one shard: all incoming TC messages, notices, idle timer and invoke timer events of
+ * the dialog are processed by the thread of this shard. So events of a dialog are never processed concurrently and the
+ * dialog (and also MAP / CAP dialogs that are built over it) does not need a lock, {@link #NO_LOCK} is used instead of the
+ * dialog lock. A dialog that is created by a shard thread (when a TC-BEGIN is received or when a dialog is created inside
+ * of a TCListener callback) is pinned to the current shard, other dialogs are pinned to the shard selected by the local
+ * dialog id.
+ *
+ * The count of shards must be a power of 2.
+ */
+public class DialogShards {
+
+    public static final int MAX_SHARD_COUNT = 256;
+
+    /**
+     * Lock that is used by dialogs in a sharded mode. It never blocks and does not track its owner.
+     */
+    public static final ReentrantLock NO_LOCK = new NoOpLock();
+
+    private static final ThreadLocal<Integer> currentShard = new ThreadLocal<Integer>();
+
+    private final ExecutorService[] executors;
+    private final int mask;
+
+    public DialogShards(String name, int shardCount) {
+        if (shardCount < 1 || shardCount > MAX_SHARD_COUNT || (shardCount & (shardCount - 1)) != 0)
+            throw new IllegalArgumentException("Shard count must be a power of 2 between 1 and " + MAX_SHARD_COUNT);
+
+        this.executors = new ExecutorService[shardCount];
+        this.mask = shardCount - 1;
+        for (int i = 0; i < shardCount; i++) {
+            final int shard = i;
+            final ThreadFactory threadFactory = new DefaultThreadFactory(name + "-" + i);
+            this.executors[i] = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable r) {
+                    return threadFactory.newThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            currentShard.set(shard);
+                            r.run();
+                        }
+                    });
+                }
+            });
+        }
+    }
+
+    public int getShardCount() {
+        return this.executors.length;
+    }
+
+    /**
+     * @return the shard for a passed key (a local dialog id or any other value that spreads dialogs over shards)
+     */
+    public int shardOf(long key) {
+        return (int) (key ^ (key >>> 32)) & this.mask;
+    }
+
+    /**
+     * @return the shard whose thread is the current thread or -1 if the current thread is not a shard thread
+     */
+    public static int getCurrentShard() {
+        Integer shard = currentShard.get();
+        return shard != null ? shard : -1;
+    }
+
+    public void execute(int shard, Runnable task) {
+        this.executors[shard].execute(task);
+    }
+
+    /**
+     * Executes a task in the passed shard. If the current thread is the thread of this shard the task is executed
+     * immediately.
+     */
+    public void executeOrRun(int shard, Runnable task) {
+        if (getCurrentShard() == shard)
+            task.run();
+        else
+            this.executors[shard].execute(task);
+    }
+
+    /**
+     * @return a task that (when run in any thread) submits the passed task into the passed shard, it is used for timer tasks
+     */
+    public Runnable bind(final int shard, final Runnable task) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                executeOrRun(shard, task);
+            }
+        };
+    }
+
+    public void stop() {
+        for (ExecutorService executor : this.executors) {
+            executor.shutdown();
+        }
+    }
+
+    private static class NoOpLock extends ReentrantLock {
+
+        @Override
+        public void lock() {
+        }
+
+        @Override
+        public void lockInterruptibly() {
+        }
+
+        @Override
+        public boolean tryLock() {
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+        }
+    }
+
+}
@@ -22,8 +22,6 @@
 
 package org.restcomm.protocols.ss7.tcap;
 
-import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -51,8 +49,7 @@ public class PreviewDialogData {
     private PreviewDialogDataKey prevewDialogDataKey2;
 
     private ReentrantLock dialogLock = new ReentrantLock();
-    private Future idleTimerFuture;
-    private ScheduledExecutorService executor;
+    private TimerWheel.Timeout idleTimerFuture;
     private TCAPProviderImpl provider;
     private long idleTaskTimeout;
     private Long dialogId;
@@ -62,7 +59,6 @@ public class PreviewDialogData {
         this.dialogId = dialogId;
         TCAPStack stack = provider.getStack();
         this.idleTaskTimeout = stack.getDialogIdleTimeout();
-        this.executor = provider._EXECUTOR;
     }
 
     public ApplicationContextName getLastACN() {
@@ -127,7 +123,7 @@ public class PreviewDialogData {
 
             IdleTimerTask t = new IdleTimerTask();
             t.pdd = this;
-            this.idleTimerFuture = this.executor.schedule(t, this.idleTaskTimeout, TimeUnit.MILLISECONDS);
+            this.idleTimerFuture = this.provider.getTimerWheel().schedule(t, this.idleTaskTimeout, TimeUnit.MILLISECONDS);
 
         } finally {
             this.dialogLock.unlock();
@@ -138,7 +134,7 @@ public class PreviewDialogData {
         try {
             this.dialogLock.lock();
             if (this.idleTimerFuture != null) {
-                this.idleTimerFuture.cancel(false);
+                this.idleTimerFuture.cancel();
                 this.idleTimerFuture = null;
             }
 
@@ -165,7 +161,7 @@ public class PreviewDialogData {
             try {
                 dialogLock.lock();
 
-//              Dialog d1 = new DialogImpl(localAddress, remoteAddress, seqControl, provider._EXECUTOR, provider, pdd, sideB);
+//              Dialog d1 = new DialogImpl(localAddress, remoteAddress, seqControl, provider, pdd, sideB);
                 DialogImpl dlg = (DialogImpl)provider.getPreviewDialog(prevewDialogDataKey1, null, null, null, 0);
                 provider.timeout(dlg);
                 provider.removePreviewDialog(dlg);
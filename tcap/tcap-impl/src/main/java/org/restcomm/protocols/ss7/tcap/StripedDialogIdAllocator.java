@@ -0,0 +1,384 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tcap;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.restcomm.protocols.ss7.tcap.api.TCAPException;
+
+/**
+ * Lock-free {@link DialogIdAllocator}.
+ *
+ * The dialog id range is split into stripeCount contiguous subranges (stripes). A thread takes ids from the stripe selected
+ * by its thread id, so threads that create dialogs concurrently do not contend on a common counter. Ids are taken from a
+ * stripe cyclically, like the former "curDialogId" field did, so a released id is not reused until the stripe cursor wraps.
+ *
+ * Allocated ids are marked in a bitmap of 2^slotCountBits slots, a slot of an id is (id & (slotCount - 1)). Marking and
+ * unmarking are CAS operations on a bitmap word. Two ids with the same slot can not be allocated at the same time. If the
+ * range is not bigger than the slot count every id has its own slot. When a stripe is densely populated (the case when
+ * maxDialogs is close to the range size) free slots are found by scanning bitmap words (64 slots per word read) instead of
+ * probing ids one by one.
+ *
+ * Ids that are suggested by TCAP users ({@link #reserve(long, int)}) are marked in the bitmap only if the bitmap is exact
+ * for them (the range is not bigger than the slot count, has not been changed and contains the id). Other suggested ids are
+ * kept in a separate set, so a suggested id does not conflict with another used id that has the same slot. If the slot of
+ * such id is occupied and the bitmap can not tell whether by the id itself, {@link #isIdUsed(long)} is asked.
+ *
+ */
+public class StripedDialogIdAllocator implements DialogIdAllocator {
+
+    public static final int DEFAULT_SLOT_COUNT_BITS = 22;
+    public static final int MAX_STRIPE_COUNT = 256;
+
+    // how many sequential ids from a stripe we check before switching to bitmap scanning
+    private static final int PROBE_COUNT = 8;
+    // a stripe must not be smaller than this
+    private static final long MIN_STRIPE_SIZE = 1024;
+
+    private final AtomicLongArray bitmap;
+    private final long slotMask;
+    private final int wordMask;
+    private final int stripeCount;
+    private final AtomicInteger allocatedCount = new AtomicInteger();
+    // suggested ids that are not marked in the bitmap
+    private final ConcurrentHashMap<Long, Boolean> reservedIds = new ConcurrentHashMap<Long, Boolean>();
+
+    private volatile Range range;
+
+    public StripedDialogIdAllocator(long rangeStart, long rangeEnd) {
+        this(rangeStart, rangeEnd, 1, DEFAULT_SLOT_COUNT_BITS);
+    }
+
+    public StripedDialogIdAllocator(long rangeStart, long rangeEnd, int stripeCount) {
+        this(rangeStart, rangeEnd, stripeCount, DEFAULT_SLOT_COUNT_BITS);
+    }
+
+    /**
+     * @param stripeCount count of subranges, it is rounded up to a power of 2
+     * @param slotCountBits the bitmap contains 2^slotCountBits slots (6..30)
+     */
+    public StripedDialogIdAllocator(long rangeStart, long rangeEnd, int stripeCount, int slotCountBits) {
+        if (stripeCount < 1 || stripeCount > MAX_STRIPE_COUNT)
+            throw new IllegalArgumentException("StripeCount must be between 1 and " + MAX_STRIPE_COUNT);
+        if (slotCountBits < 6 || slotCountBits > 30)
+            throw new IllegalArgumentException("SlotCountBits must be between 6 and 30");
+
+        int cnt = 1;
+        while (cnt < stripeCount)
+            cnt <<= 1;
+        this.stripeCount = cnt;
+
+        int slotCount = 1 << slotCountBits;
+        this.slotMask = slotCount - 1;
+        this.wordMask = (slotCount >>> 6) - 1;
+        this.bitmap = new AtomicLongArray(slotCount >>> 6);
+
+        this.range = new Range(rangeStart, rangeEnd, this.stripeCount, slotCount, null);
+    }
+
+    /**
+     * @return a power of 2 that is not less than the count of available processors
+     */
+    public static int getDefaultStripeCount() {
+        int cnt = 1;
+        int cpus = Runtime.getRuntime().availableProcessors();
+        while (cnt < cpus && cnt < MAX_STRIPE_COUNT)
+            cnt <<= 1;
+        return cnt;
+    }
+
+    public int getStripeCount() {
+        return this.stripeCount;
+    }
+
+    public int getSlotCount() {
+        return (int) (this.slotMask + 1);
+    }
+
+    @Override
+    public void setRange(long rangeStart, long rangeEnd) {
+        Range rng = this.range;
+        if (rng.start == rangeStart && rng.end == rangeEnd)
+            return;
+        this.range = new Range(rangeStart, rangeEnd, this.stripeCount, this.slotMask + 1, this.range);
+    }
+
+    @Override
+    public long allocate(int maxDialogs) throws TCAPException {
+        if (this.allocatedCount.incrementAndGet() > maxDialogs) {
+            this.allocatedCount.decrementAndGet();
+            throw new TCAPException("Current dialog count exceeds its maximum value");
+        }
+
+        Range rng = this.range;
+        Stripe stripe = rng.getStripe();
+        long id = 0;
+        for (int i = 0; i < PROBE_COUNT; i++) {
+            id = stripe.next();
+            if (this.take(id))
+                return id;
+        }
+
+        id = this.scan(rng, id);
+        if (id >= 0)
+            return id;
+
+        this.allocatedCount.decrementAndGet();
+        throw new TCAPException("No free dialog id is available in the dialog id range");
+    }
+
+    @Override
+    public boolean reserve(long id, int maxDialogs) {
+        if (this.allocatedCount.incrementAndGet() > maxDialogs) {
+            this.allocatedCount.decrementAndGet();
+            return false;
+        }
+
+        Range rng = this.range;
+        if (rng.exact && id >= rng.start && id <= rng.end) {
+            // the bitmap contains only ids of the range, every id has its own slot
+            if (this.mark(id))
+                return true;
+        } else if (this.reservedIds.putIfAbsent(id, Boolean.TRUE) == null) {
+            // if the bitmap is exact its slots are occupied only by ids of the range
+            if (rng.exact || !this.isMarked(id) || !this.isIdUsed(id))
+                return true;
+            this.reservedIds.remove(id);
+        }
+
+        this.allocatedCount.decrementAndGet();
+        return false;
+    }
+
+    /**
+     * Exact check whether an id is used by a dialog. It is invoked by {@link #reserve(long, int)} only when the slot of a
+     * suggested id is occupied and the bitmap can not tell whether it is occupied by the id itself (the range is bigger than
+     * the slot count or has been changed). This implementation considers the id as used, a provider that knows its dialogs
+     * overrides it.
+     */
+    protected boolean isIdUsed(long id) {
+        return true;
+    }
+
+    @Override
+    public void release(long id) {
+        if (!this.reservedIds.isEmpty() && this.reservedIds.remove(id) != null) {
+            this.allocatedCount.decrementAndGet();
+            return;
+        }
+
+        int slot = (int) (id & this.slotMask);
+        int word = slot >>> 6;
+        long bit = 1L << slot;
+        while (true) {
+            long val = this.bitmap.get(word);
+            if ((val & bit) == 0)
+                return;
+            if (this.bitmap.compareAndSet(word, val, val & ~bit)) {
+                this.allocatedCount.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public long next() {
+        return this.range.getStripe().next();
+    }
+
+    @Override
+    public int getAllocatedCount() {
+        return this.allocatedCount.get();
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < this.bitmap.length(); i++) {
+            this.bitmap.set(i, 0);
+        }
+        this.reservedIds.clear();
+        this.allocatedCount.set(0);
+    }
+
+    /**
+     * Marks a slot of an id for allocate(). The id must not be a suggested id that is kept out of the bitmap.
+     */
+    private boolean take(long id) {
+        if (!this.mark(id))
+            return false;
+        if (!this.reservedIds.isEmpty() && this.reservedIds.containsKey(id)) {
+            this.unmark(id);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isMarked(long id) {
+        int slot = (int) (id & this.slotMask);
+        return (this.bitmap.get(slot >>> 6) & (1L << slot)) != 0;
+    }
+
+    private void unmark(long id) {
+        int slot = (int) (id & this.slotMask);
+        int word = slot >>> 6;
+        long bit = 1L << slot;
+        while (true) {
+            long val = this.bitmap.get(word);
+            if (this.bitmap.compareAndSet(word, val, val & ~bit))
+                return;
+        }
+    }
+
+    private boolean mark(long id) {
+        int slot = (int) (id & this.slotMask);
+        int word = slot >>> 6;
+        long bit = 1L << slot;
+        while (true) {
+            long val = this.bitmap.get(word);
+            if ((val & bit) != 0)
+                return false;
+            if (this.bitmap.compareAndSet(word, val, val | bit))
+                return true;
+        }
+    }
+
+    /**
+     * Looking for a free slot starting from the slot of lastId. Only slots that have an id inside the range are checked.
+     */
+    private long scan(Range rng, long lastId) {
+        long slotCount = this.slotMask + 1;
+        long windowSize = Math.min(rng.end - rng.start + 1, slotCount);
+        // the window of bitmap words that contain slots of the range
+        int windowWordCount = (int) Math.min(((windowSize + 63) >>> 6) + 1, this.wordMask + 1);
+        int windowStartWord = (int) ((rng.start & this.slotMask) >>> 6);
+        int startOffset = (int) ((((lastId & this.slotMask) >>> 6) - windowStartWord) & this.wordMask);
+        if (startOffset >= windowWordCount)
+            startOffset = 0;
+
+        for (int i = 0; i < windowWordCount; i++) {
+            int word = (windowStartWord + (startOffset + i) % windowWordCount) & this.wordMask;
+            long val = this.bitmap.get(word);
+            while (val != -1L) {
+                int bitNum = Long.numberOfTrailingZeros(~val);
+                long slot = ((long) word << 6) + bitNum;
+                long id = this.idForSlot(rng, lastId, slot);
+                if (id >= 0) {
+                    if (this.take(id))
+                        return id;
+                    // somebody has just taken this slot or the id is a suggested id
+                    val = this.bitmap.get(word) | (1L << bitNum);
+                } else {
+                    // no id of the range is mapped to this slot - skip it
+                    val |= (1L << bitNum);
+                }
+            }
+        }
+        return -1;
+    }
+
+    private long idForSlot(Range rng, long lastId, long slot) {
+        // the first id after lastId that is mapped to the slot
+        long id = lastId + ((slot - lastId) & this.slotMask);
+        if (id >= rng.start && id <= rng.end)
+            return id;
+        // the first id of the range that is mapped to the slot
+        id = rng.start + ((slot - rng.start) & this.slotMask);
+        if (id <= rng.end)
+            return id;
+        return -1;
+    }
+
+    private static class Range {
+        final long start;
+        final long end;
+        final Stripe[] stripes;
+        final int stripeMask;
+        // true if every id of the range has its own slot and no ids of a previous range can be in the bitmap
+        final boolean exact;
+
+        Range(long start, long end, int stripeCount, long slotCount, Range prev) {
+            if (start > end)
+                throw new IllegalArgumentException("Range start value cannot be greater than Range end value");
+
+            this.start = start;
+            this.end = end;
+
+            long size = end - start + 1;
+            this.exact = size <= slotCount && prev == null;
+            int cnt = stripeCount;
+            while (cnt > 1 && size / cnt < MIN_STRIPE_SIZE)
+                cnt >>= 1;
+            this.stripes = new Stripe[cnt];
+            this.stripeMask = cnt - 1;
+
+            long stripeSize = size / cnt;
+            for (int i = 0; i < cnt; i++) {
+                long stripeStart = start + stripeSize * i;
+                long stripeEnd = (i == cnt - 1) ? end : stripeStart + stripeSize - 1;
+                long current = stripeStart - 1;
+                if (prev != null && prev.stripes.length == cnt) {
+                    // keeping of a cursor position after a range change
+                    current = prev.stripes[i].current.get();
+                    if (current < stripeStart)
+                        current = stripeStart;
+                    if (current >= stripeEnd)
+                        current = stripeEnd - 1;
+                }
+                this.stripes[i] = new Stripe(stripeStart, stripeEnd, current);
+            }
+        }
+
+        Stripe getStripe() {
+            if (this.stripeMask == 0)
+                return this.stripes[0];
+            return this.stripes[(int) Thread.currentThread().getId() & this.stripeMask];
+        }
+    }
+
+    private static class Stripe {
+        final long start;
+        final long end;
+        final AtomicLong current;
+
+        Stripe(long start, long end, long current) {
+            this.start = start;
+            this.end = end;
+            this.current = new AtomicLong(current);
+        }
+
+        long next() {
+            while (true) {
+                long cur = this.current.get();
+                long nxt = cur + 1;
+                if (nxt > this.end || nxt < this.start)
+                    nxt = this.start;
+                if (this.current.compareAndSet(cur, nxt))
+                    return nxt;
+            }
+        }
+    }
+
+}
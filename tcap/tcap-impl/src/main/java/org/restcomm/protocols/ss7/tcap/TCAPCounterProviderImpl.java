@@ -27,6 +27,7 @@ import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.restcomm.protocols.ss7.statistics.StatDataCollectionImpl;
+import org.restcomm.protocols.ss7.statistics.api.HistogramValue;
 import org.restcomm.protocols.ss7.statistics.api.LongValue;
 import org.restcomm.protocols.ss7.statistics.api.StatDataCollection;
 import org.restcomm.protocols.ss7.statistics.api.StatDataCollectorType;
@@ -90,6 +91,8 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     private static String INCOMING_ERRORS_PER_ERROR_CODE = "incomingErrorsPerErrorCode";
     private static String OUTGOING_REJECT_PER_PROBLEM = "outgoingRejectPerProblem";
     private static String INCOMING_REJECT_PER_PROBLEM = "incomingRejectPerProblem";
+    private static String DIALOGS_DURATION_PER_APPLICATION_CONTEXT_NAME = "dialogsDurationPerApplicationContextName";
+    private static String INVOKE_LATENCY_PER_OPERATION_CODE = "invokeLatencyPerOperationCode";
 
     private static String MIN_DIALOGS_COUNT = "MinDialogsCount";
     private static String MAX_DIALOGS_COUNT = "MaxDialogsCount";
@@ -120,6 +123,8 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
         this.statDataCollection.registerStatCounterCollector(INCOMING_ERRORS_PER_ERROR_CODE, StatDataCollectorType.StringLongMap);
         this.statDataCollection.registerStatCounterCollector(OUTGOING_REJECT_PER_PROBLEM, StatDataCollectorType.StringLongMap);
         this.statDataCollection.registerStatCounterCollector(INCOMING_REJECT_PER_PROBLEM, StatDataCollectorType.StringLongMap);
+        this.statDataCollection.registerStatCounterCollector(DIALOGS_DURATION_PER_APPLICATION_CONTEXT_NAME, StatDataCollectorType.StringHistogramMap);
+        this.statDataCollection.registerStatCounterCollector(INVOKE_LATENCY_PER_OPERATION_CODE, StatDataCollectorType.StringHistogramMap);
 
         this.statDataCollection.registerStatCounterCollector(MAX_NETWORK_ID_AREAS_NOT_AVAILABLE, StatDataCollectorType.MAX);
         this.statDataCollection.registerStatCounterCollector(MAX_NETWORK_ID_AREAS_CONGLEVEL_1, StatDataCollectorType.MAX);
@@ -459,6 +464,24 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
         return provider.getCurrentDialogsCount();
     }
 
+    @Override
+    public long getActiveTimersCount() {
+        TimerWheel timerWheel = provider.getTimerWheel();
+        return timerWheel != null ? timerWheel.getActiveTimersCount() : 0;
+    }
+
+    @Override
+    public long getMaxTimerLateness() {
+        TimerWheel timerWheel = provider.getTimerWheel();
+        return timerWheel != null ? timerWheel.getMaxLateness() : 0;
+    }
+
+    @Override
+    public double getAverageTimerLateness() {
+        TimerWheel timerWheel = provider.getTimerWheel();
+        return timerWheel != null ? timerWheel.getAverageLateness() : 0;
+    }
+
     @Override
     public long getAllEstablishedDialogsCount() {
         return allEstablishedDialogsCount.get();
@@ -635,6 +658,32 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
         this.statDataCollection.updateData(INCOMING_REJECT_PER_PROBLEM, name);
     }
 
+    @Override
+    public Map<String, HistogramValue> getDialogsDurationPerApplicatioContextName(String compainName) {
+        StatResult res = this.statDataCollection.restartAndGet(DIALOGS_DURATION_PER_APPLICATION_CONTEXT_NAME, compainName);
+        if (res != null)
+            return res.getStringHistogramValue();
+        else
+            return null;
+    }
+
+    public void updateDialogsDurationPerApplicatioContextName(String name, long duration) {
+        this.statDataCollection.updateData(DIALOGS_DURATION_PER_APPLICATION_CONTEXT_NAME, name, duration);
+    }
+
+    @Override
+    public Map<String, HistogramValue> getInvokeLatencyPerOperationCode(String compainName) {
+        StatResult res = this.statDataCollection.restartAndGet(INVOKE_LATENCY_PER_OPERATION_CODE, compainName);
+        if (res != null)
+            return res.getStringHistogramValue();
+        else
+            return null;
+    }
+
+    public void updateInvokeLatencyPerOperationCode(String name, long latency) {
+        this.statDataCollection.updateData(INVOKE_LATENCY_PER_OPERATION_CODE, name, latency);
+    }
+
     @Override
     public Long getMaxNetworkIdAreasNotAvailable(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(MAX_NETWORK_ID_AREAS_NOT_AVAILABLE, compainName);
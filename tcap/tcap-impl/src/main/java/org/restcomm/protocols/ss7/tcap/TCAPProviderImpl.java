@@ -26,13 +26,14 @@ import io.netty.util.concurrent.DefaultThreadFactory;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -81,6 +82,9 @@ import org.restcomm.protocols.ss7.tcap.asn.Result;
 import org.restcomm.protocols.ss7.tcap.asn.ResultSourceDiagnostic;
 import org.restcomm.protocols.ss7.tcap.asn.ResultType;
 import org.restcomm.protocols.ss7.tcap.asn.TCAbortMessageImpl;
+import org.restcomm.protocols.ss7.tcap.asn.TCBeginMessageImpl;
+import org.restcomm.protocols.ss7.tcap.asn.TCContinueMessageImpl;
+import org.restcomm.protocols.ss7.tcap.asn.TCEndMessageImpl;
 import org.restcomm.protocols.ss7.tcap.asn.TCNoticeIndicationImpl;
 import org.restcomm.protocols.ss7.tcap.asn.TCUnidentifiedMessage;
 import org.restcomm.protocols.ss7.tcap.asn.TcapFactory;
@@ -113,8 +117,21 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
 
     private static final Logger logger = Logger.getLogger(TCAPProviderImpl.class); // listenres
 
+    // encoders are cached per thread and reused for encoding of outgoing messages
+    private static final ThreadLocal<CachedEncoder> encoders = new ThreadLocal<CachedEncoder>() {
+        @Override
+        protected CachedEncoder initialValue() {
+            return new CachedEncoder();
+        }
+    };
+    private static final int MAX_CACHED_ENCODER_CAPACITY = 8192;
+
     private transient List<TCListener> tcListeners = new CopyOnWriteArrayList<TCListener>();
     protected transient ScheduledExecutorService _EXECUTOR;
+    // dialog idle timers and invoke timers
+    protected transient TimerWheel timerWheel;
+    // not null if the actor-like (sharded) processing mode is enabled
+    protected transient DialogShards dialogShards;
     // boundry for Uni directional dialogs :), tx id is always encoded
     // on 4 octets, so this is its max value
     // private static final long _4_OCTETS_LONG_FILL = 4294967295l;
@@ -130,7 +147,7 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
     // explicitly...
 
 //    private transient FastMap<Long, DialogImpl> dialogs = new FastMap <Long, DialogImpl>();
-    private transient ConcurrentHashMap<Long, DialogImpl> dialogs = new ConcurrentHashMap <Long, DialogImpl>();
+    private transient ConcurrentLongHashMap<DialogImpl> dialogs = new ConcurrentLongHashMap<DialogImpl>();
 
 //    protected transient FastMap<PrevewDialogDataKey, PrevewDialogData> dialogPreviewList = new FastMap<PrevewDialogDataKey, PrevewDialogData>();
     protected transient ConcurrentHashMap<PreviewDialogDataKey, PreviewDialogData> dialogPreviewList = new ConcurrentHashMap<PreviewDialogDataKey, PreviewDialogData>();
@@ -139,11 +156,17 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
 
     private AtomicInteger seqControl = new AtomicInteger(1);
     private int ssn;
-    private long curDialogId = 0;
-//    private AtomicLong currentDialogId = new AtomicLong(1);
+    private transient DialogIdAllocator dialogIdAllocator;
+
+    // period of the executor congestion level refreshing, adaptive monitors update their levels every few milliseconds
+    private static final int EXECUTOR_CONGESTION_REFRESH_PERIOD = 10;
 
     private int cumulativeCongestionLevel = 0;
-    private int executorCongestionLevel = 0;
+    private volatile int executorCongestionLevel = 0;
+    // min admission probability of new dialogs among executors with adaptive congestion control
+    private volatile double executorAdmissionProbability = 1.0;
+    private volatile double memoryAdmissionProbability = 1.0;
+    private volatile ExecutorCongestionMonitor[] executorCongestionMonitors = new ExecutorCongestionMonitor[0];
     private int executorCountWithCongestionLevel_1 = 0;
     private int executorCountWithCongestionLevel_2 = 0;
     private int executorCountWithCongestionLevel_3 = 0;
@@ -163,6 +186,7 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
 
         this.componentPrimitiveFactory = new ComponentPrimitiveFactoryImpl(this);
         this.dialogPrimitiveFactory = new DialogPrimitiveFactoryImpl(this.componentPrimitiveFactory);
+        this.resetDialogIdAllocator();
     }
 
     public boolean getPreviewMode() {
@@ -193,49 +217,32 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
 
     }
 
-    private boolean checkAvailableTxId(Long id) {
-        if (!this.dialogs.containsKey(id))
-            return true;
-        else
-            return false;
+    private Long getAvailableTxId() throws TCAPException {
+        return this.dialogIdAllocator.allocate(this.stack.getMaxDialogs());
     }
 
-    private synchronized Long getAvailableTxId() throws TCAPException {
-        if (this.dialogs.size() >= this.stack.getMaxDialogs())
-            throw new TCAPException("Current dialog count exceeds its maximum value");
-
-        while (true) {
-//            Long id;
-//            if (!currentDialogId.compareAndSet(this.stack.getDialogIdRangeEnd(), this.stack.getDialogIdRangeStart() + 1)) {
-//                id = currentDialogId.getAndIncrement();
-//            } else {
-//                id = this.stack.getDialogIdRangeStart();
-//            }
-//            if (checkAvailableTxId(id))
-//                return id;
-
-
+    protected void resetDialogIdValueAfterRangeChange() {
+        this.dialogIdAllocator.setRange(this.stack.getDialogIdRangeStart(), this.stack.getDialogIdRangeEnd());
+    }
 
-            if (this.curDialogId < this.stack.getDialogIdRangeStart())
-                this.curDialogId = this.stack.getDialogIdRangeStart() - 1;
-            if (++this.curDialogId > this.stack.getDialogIdRangeEnd())
-                this.curDialogId = this.stack.getDialogIdRangeStart();
-            Long id = this.curDialogId;
-            if (checkAvailableTxId(id))
-                return id;
+    protected void resetDialogIdAllocator() {
+        DialogIdAllocator allocator = this.stack.getDialogIdAllocator();
+        if (allocator == null) {
+            allocator = new StripedDialogIdAllocator(this.stack.getDialogIdRangeStart(), this.stack.getDialogIdRangeEnd(),
+                    this.stack.getDialogIdStripeCount()) {
+                @Override
+                protected boolean isIdUsed(long id) {
+                    return dialogs.containsKey(id);
+                }
+            };
+        } else {
+            allocator.setRange(this.stack.getDialogIdRangeStart(), this.stack.getDialogIdRangeEnd());
         }
+        this.dialogIdAllocator = allocator;
     }
 
-    protected void resetDialogIdValueAfterRangeChange() {
-        if (this.curDialogId < this.stack.getDialogIdRangeStart())
-            this.curDialogId = this.stack.getDialogIdRangeStart();
-        if (this.curDialogId >= this.stack.getDialogIdRangeEnd())
-            this.curDialogId = this.stack.getDialogIdRangeEnd() - 1;
-
-        // if (this.currentDialogId.longValue() < this.stack.getDialogIdRangeStart())
-        // this.currentDialogId.set(this.stack.getDialogIdRangeStart());
-        // if (this.currentDialogId.longValue() >= this.stack.getDialogIdRangeEnd())
-        // this.currentDialogId.set(this.stack.getDialogIdRangeEnd() - 1);
+    protected DialogIdAllocator getDialogIdAllocator() {
+        return this.dialogIdAllocator;
     }
 
     // get next Seq Control value available
@@ -350,15 +357,16 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
 
         // synchronized (this.dialogs) {
 
-        if (id == null) {
-            id = this.getAvailableTxId();
-        } else {
-            if (!checkAvailableTxId(id)) {
-                throw new TCAPException("Suggested local TransactionId is already present in system: " + id);
-            }
-        }
         if (structured) {
-            DialogImpl di = new DialogImpl(localAddress, remoteAddress, id, structured, this._EXECUTOR, this, seqControl,
+            if (id == null) {
+                id = this.getAvailableTxId();
+            } else {
+                if (!this.dialogIdAllocator.reserve(id, this.stack.getMaxDialogs())) {
+                    throw new TCAPException("Suggested local TransactionId is already present in system: " + id);
+                }
+            }
+
+            DialogImpl di = new DialogImpl(localAddress, remoteAddress, id, structured, this, seqControl,
                     this.stack.getPreviewMode());
 
             this.dialogs.put(id, di);
@@ -369,7 +377,12 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
 
             return di;
         } else {
-            DialogImpl di = new DialogImpl(localAddress, remoteAddress, id, structured, this._EXECUTOR, this, seqControl,
+            if (this.dialogIdAllocator.getAllocatedCount() >= this.stack.getMaxDialogs())
+                throw new TCAPException("Current dialog count exceeds its maximum value");
+            if (id == null)
+                id = this.dialogIdAllocator.next();
+
+            DialogImpl di = new DialogImpl(localAddress, remoteAddress, id, structured, this, seqControl,
                     this.stack.getPreviewMode());
             return di;
         }
@@ -391,6 +404,50 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
         return this.dialogs.size();
     }
 
+    /**
+     * Returns a reset encoder that is cached for the current thread. An encoder must be returned by
+     * {@link #releaseEncoder(AsnOutputStream)} after the encoded message has been sent. If an encoder is requested again
+     * before it has been released (nested encoding) a new one is created.
+     */
+    protected AsnOutputStream borrowEncoder() {
+        CachedEncoder cached = encoders.get();
+        if (cached.borrowed)
+            return new AsnOutputStream();
+
+        cached.borrowed = true;
+        cached.aos.reset();
+        return cached.aos;
+    }
+
+    protected void releaseEncoder(AsnOutputStream aos) {
+        CachedEncoder cached = encoders.get();
+        if (cached.aos != aos)
+            // an encoder created for nested encoding
+            return;
+
+        cached.borrowed = false;
+        if (aos.size() > cached.peakSize)
+            cached.peakSize = aos.size();
+        // an encoder that has grown for a very big message is not kept even if it now contains a small one
+        if (cached.peakSize > MAX_CACHED_ENCODER_CAPACITY)
+            encoders.remove();
+    }
+
+    /**
+     * Sends a message that was encoded into an encoder got from {@link #borrowEncoder()}. The encoded content is copied
+     * once into the SCCP message user data, so the encoder can be released just after this method returns. The copy can
+     * not be avoided: AsnOutputStream does not expose its backing array and the SCCP message user data is a byte[] of the
+     * exact length that may still be used after this method returns (delivering to a local SCCP user, a returned message).
+     */
+    public void send(AsnOutputStream aos, boolean returnMessageOnError, SccpAddress destinationAddress,
+            SccpAddress originatingAddress, int seqControl, int networkId, int localSsn, int remotePc) throws IOException {
+        if (this.stack.getPreviewMode())
+            return;
+
+        this.send(aos.toByteArray(), returnMessageOnError, destinationAddress, originatingAddress, seqControl, networkId,
+                localSsn, remotePc);
+    }
+
     public void send(byte[] data, boolean returnMessageOnError, SccpAddress destinationAddress, SccpAddress originatingAddress,
             int seqControl, int networkId, int localSsn, int remotePc) throws IOException {
         if (this.stack.getPreviewMode())
@@ -525,7 +582,9 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
 
             // synchronized (this.dialogs) {
 
-            this.dialogs.remove(did);
+            if (this.dialogs.remove(did) != null) {
+                this.dialogIdAllocator.release(did);
+            }
             if (this.stack.getStatisticsEnabled()) {
                 this.stack.getCounterProviderImpl().updateMinDialogsCount(this.dialogs.size());
                 this.stack.getCounterProviderImpl().updateMaxDialogsCount(this.dialogs.size());
@@ -580,9 +639,39 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
     // ///////////////////////////////////////////
     // Some methods invoked by operation FSM //
     // //////////////////////////////////////////
-    public Future createOperationTimer(Runnable operationTimerTask, long invokeTimeout) {
+    public TimerWheel.Timeout createOperationTimer(Runnable operationTimerTask, long invokeTimeout) {
+
+        return this.timerWheel.schedule(operationTimerTask, invokeTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedules a dialog timer task (an idle timer or an invoke timer). In the sharded mode the task is executed by the
+     * thread of the dialog shard.
+     */
+    public TimerWheel.Timeout createDialogTimer(DialogImpl dialog, Runnable timerTask, long timeout) {
+        if (this.dialogShards != null)
+            timerTask = this.dialogShards.bind(dialog.getShard(), timerTask);
+        return this.timerWheel.schedule(timerTask, timeout, TimeUnit.MILLISECONDS);
+    }
+
+    public DialogShards getDialogShards() {
+        return this.dialogShards;
+    }
 
-        return this._EXECUTOR.schedule(operationTimerTask, invokeTimeout, TimeUnit.MILLISECONDS);
+    /**
+     * Executes a task in the thread of the dialog shard. A TC-user must use this method for invoking of dialog methods
+     * outside of TCListener callbacks when the sharded processing mode is enabled. If the mode is disabled or the current
+     * thread is the thread of the dialog shard the task is executed immediately.
+     */
+    public void executeInDialogShard(Dialog dialog, Runnable task) {
+        if (this.dialogShards == null || !(dialog instanceof DialogImpl))
+            task.run();
+        else
+            this.dialogShards.executeOrRun(((DialogImpl) dialog).getShard(), task);
+    }
+
+    public TimerWheel getTimerWheel() {
+        return this.timerWheel;
     }
 
     public void operationTimedOut(InvokeImpl tcInvokeRequestImpl) {
@@ -600,7 +689,12 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
     void start() {
         logger.info("Starting TCAP Provider");
 
+        this.resetDialogIdValueAfterRangeChange();
         this._EXECUTOR = Executors.newScheduledThreadPool(4, new DefaultThreadFactory("Tcap-Thread"));
+        this.timerWheel = new TimerWheel("Tcap-Timer", this._EXECUTOR);
+        this.timerWheel.start();
+        if (this.stack.getDialogShardCount() > 0 && !this.stack.getPreviewMode())
+            this.dialogShards = new DialogShards("Tcap-Shard", this.stack.getDialogShardCount());
 
         this.sccpProvider.registerSccpListener(ssn, this);
         logger.info("Registered SCCP listener with ssn " + ssn);
@@ -619,6 +713,8 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
         // congestion caring
         updateNetworkIdStateList();
         this._EXECUTOR.scheduleWithFixedDelay(new CongestionExecutor(), 1000, 1000, TimeUnit.MILLISECONDS);
+        this._EXECUTOR.scheduleWithFixedDelay(new ExecutorCongestionRefresher(), EXECUTOR_CONGESTION_REFRESH_PERIOD,
+                EXECUTOR_CONGESTION_REFRESH_PERIOD, TimeUnit.MILLISECONDS);
         memoryCongestionMonitor = new MemoryCongestionMonitorImpl();
         lstUserPartCongestionLevel.clear();
     }
@@ -626,7 +722,14 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
     void stop() {
         stopNetworkIdStateList();
 
+        this.timerWheel.stop();
         this._EXECUTOR.shutdown();
+        if (memoryCongestionMonitor != null)
+            memoryCongestionMonitor.stop();
+        if (this.dialogShards != null) {
+            this.dialogShards.stop();
+            this.dialogShards = null;
+        }
         this.sccpProvider.deregisterSccpListener(ssn);
 
         List<Integer> extraSsns = this.stack.getExtraSsns();
@@ -640,9 +743,17 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
         }
 
         this.dialogs.clear();
+        this.dialogIdAllocator.clear();
         this.dialogPreviewList.clear();
     }
 
+    private void sendProviderAbort(ParseException e, byte[] remoteTransactionId, SccpDataMessage message) {
+        PAbortCauseType pAbortCause = e.getPAbortCauseType() != null ? e.getPAbortCauseType()
+                : PAbortCauseType.BadlyFormattedTxPortion;
+        this.sendProviderAbort(pAbortCause, remoteTransactionId, message.getCallingPartyAddress(),
+                message.getCalledPartyAddress(), message.getSls(), message.getNetworkId(), message.getIncomingOpc());
+    }
+
     protected void sendProviderAbort(PAbortCauseType pAbortCause, byte[] remoteTransactionId, SccpAddress remoteAddress,
             SccpAddress localAddress, int seqControl, int networkId, int remotePc) {
         if (this.stack.getPreviewMode())
@@ -652,17 +763,19 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
         msg.setDestinationTransactionId(remoteTransactionId);
         msg.setPAbortCause(pAbortCause);
 
-        AsnOutputStream aos = new AsnOutputStream();
+        AsnOutputStream aos = this.borrowEncoder();
         try {
             msg.encode(aos);
             if (this.stack.getStatisticsEnabled()) {
                 this.stack.getCounterProviderImpl().updateTcPAbortSentCount(remoteTransactionId, pAbortCause);
             }
-            this.send(aos.toByteArray(), false, remoteAddress, localAddress, seqControl, networkId, localAddress.getSubsystemNumber(), remotePc);
+            this.send(aos, false, remoteAddress, localAddress, seqControl, networkId, localAddress.getSubsystemNumber(), remotePc);
         } catch (Exception e) {
             if (logger.isEnabledFor(Level.ERROR)) {
                 logger.error("Failed to send message: ", e);
             }
+        } finally {
+            this.releaseEncoder(aos);
         }
     }
 
@@ -690,21 +803,71 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
         msg.setDestinationTransactionId(remoteTransactionId);
         msg.setDialogPortion(dp);
 
-        AsnOutputStream aos = new AsnOutputStream();
+        AsnOutputStream aos = this.borrowEncoder();
         try {
             msg.encode(aos);
             if (this.stack.getStatisticsEnabled()) {
                 this.stack.getCounterProviderImpl().updateTcPAbortSentCount(remoteTransactionId, PAbortCauseType.NoReasonGiven);
             }
-            this.send(aos.toByteArray(), false, remoteAddress, localAddress, seqControl, networkId, localAddress.getSubsystemNumber(), remotePc);
+            this.send(aos, false, remoteAddress, localAddress, seqControl, networkId, localAddress.getSubsystemNumber(), remotePc);
         } catch (Exception e) {
             if (logger.isEnabledFor(Level.ERROR)) {
                 logger.error("Failed to send message: ", e);
             }
+        } finally {
+            this.releaseEncoder(aos);
+        }
+    }
+
+    public void onMessage(final SccpDataMessage message) {
+        if (this.dialogShards != null) {
+            this.dialogShards.execute(this.getShardForMessage(message), new Runnable() {
+                @Override
+                public void run() {
+                    processMessage(message);
+                }
+            });
+        } else {
+            this.processMessage(message);
+        }
+    }
+
+    /**
+     * Returns the shard that processes an incoming message. TC-CONTINUE, TC-END and TC-ABORT are processed in the shard of
+     * the dialog they are addressed to, TC-BEGIN messages are spread over shards by the originating transaction id, other
+     * messages (and messages whose transaction portion can not be parsed) - by SLS.
+     */
+    private int getShardForMessage(SccpDataMessage message) {
+        try {
+            AsnInputStream ais = new AsnInputStream(message.getData());
+            ais.readTag();
+            if (ais.getTagClass() == Tag.CLASS_APPLICATION) {
+                AsnInputStream localAis = ais.readSequenceStream();
+                byte[] otx = null;
+                while (localAis.available() > 0) {
+                    int txTag = localAis.readTag();
+                    if (localAis.getTagClass() != Tag.CLASS_APPLICATION) {
+                        break;
+                    } else if (txTag == TCUnidentifiedMessage._TAG_DTX) {
+                        long dialogId = Utils.decodeTransactionId(localAis.readOctetString(), this.stack.getSwapTcapIdBytes());
+                        DialogImpl di = this.dialogs.get(dialogId);
+                        return di != null ? di.getShard() : this.dialogShards.shardOf(dialogId);
+                    } else if (txTag == TCUnidentifiedMessage._TAG_OTX && otx == null) {
+                        otx = localAis.readOctetString();
+                    } else {
+                        break;
+                    }
+                }
+                if (otx != null)
+                    return this.dialogShards.shardOf(Arrays.hashCode(otx));
+            }
+        } catch (Exception e) {
+            // the message will be rejected when processing
         }
+        return this.dialogShards.shardOf(message.getSls());
     }
 
-    public void onMessage(SccpDataMessage message) {
+    private void processMessage(SccpDataMessage message) {
 
         try {
             byte[] data = message.getData();
@@ -728,9 +891,9 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
             // continue first, usually we will get more of those. small perf
             // boost
                 case TCContinueMessage._TAG:
-                    TCContinueMessage tcm = null;
+                    TCContinueMessageImpl tcm = null;
                     try {
-                        tcm = TcapFactory.createTCContinueMessage(ais);
+                        tcm = TcapFactory.createTCContinueMessageLazy(data);
                     } catch (ParseException e) {
                         logger.error("ParseException when parsing TCContinueMessage: " + e.toString(), e);
 
@@ -781,15 +944,22 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
                         this.sendProviderAbort(PAbortCauseType.UnrecognizedTxID, tcm.getOriginatingTransactionId(),
                                 remoteAddress, localAddress, message.getSls(), message.getNetworkId(), message.getIncomingOpc());
                     } else {
+                        try {
+                            tcm.decodePortions();
+                        } catch (ParseException e) {
+                            logger.error("ParseException when parsing TCContinueMessage: " + e.toString(), e);
+                            this.sendProviderAbort(e, tcm.getOriginatingTransactionId(), message);
+                            return;
+                        }
                         di.processContinue(tcm, localAddress, remoteAddress);
                     }
 
                     break;
 
                 case TCBeginMessage._TAG:
-                    TCBeginMessage tcb = null;
+                    TCBeginMessageImpl tcb = null;
                     try {
-                        tcb = TcapFactory.createTCBeginMessage(ais);
+                        tcb = TcapFactory.createTCBeginMessageLazy(data);
                     } catch (ParseException e) {
                         logger.error("ParseException when parsing TCBeginMessage: " + e.toString(), e);
 
@@ -810,6 +980,22 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
                         }
                         return;
                     }
+                    if (this.stack.isCongControl_blockingIncomingTcapMessages()
+                            && (cumulativeCongestionLevel >= 2 || !this.admitNewDialog())) {
+                        // rejecting of new incoming TCAP dialogs
+                        this.sendProviderAbort(PAbortCauseType.ResourceLimitation, tcb.getOriginatingTransactionId(),
+                                remoteAddress, localAddress, message.getSls(), message.getNetworkId(), message.getIncomingOpc());
+                        return;
+                    }
+
+                    // the dialog and component portions are decoded only for dialogs that are not rejected
+                    try {
+                        tcb.decodePortions();
+                    } catch (ParseException e) {
+                        logger.error("ParseException when parsing TCBeginMessage: " + e.toString(), e);
+                        this.sendProviderAbort(e, tcb.getOriginatingTransactionId(), message);
+                        return;
+                    }
                     if (tcb.getDialogPortion() != null && tcb.getDialogPortion().getDialogAPDU() != null
                             && tcb.getDialogPortion().getDialogAPDU() instanceof DialogRequestAPDUImpl) {
                         DialogRequestAPDUImpl dlg = (DialogRequestAPDUImpl) tcb.getDialogPortion().getDialogAPDU();
@@ -822,13 +1008,6 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
                         }
                     }
 
-                    if (this.stack.isCongControl_blockingIncomingTcapMessages() && cumulativeCongestionLevel >= 2) {
-                        // rejecting of new incoming TCAP dialogs
-                        this.sendProviderAbort(PAbortCauseType.ResourceLimitation, tcb.getOriginatingTransactionId(),
-                                remoteAddress, localAddress, message.getSls(), message.getNetworkId(), message.getIncomingOpc());
-                        return;
-                    }
-
                     di = null;
                     try {
                         if (this.stack.getPreviewMode()) {
@@ -869,9 +1048,9 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
                     break;
 
                 case TCEndMessage._TAG:
-                    TCEndMessage teb = null;
+                    TCEndMessageImpl teb = null;
                     try {
-                        teb = TcapFactory.createTCEndMessage(ais);
+                        teb = TcapFactory.createTCEndMessageLazy(data);
                     } catch (ParseException e) {
                         logger.error("ParseException when parsing TCEndMessage: " + e.toString(), e);
                         return;
@@ -896,6 +1075,12 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
                     if (di == null) {
                         logger.warn("TC-END: No dialog/transaction for id: " + dialogId);
                     } else {
+                        try {
+                            teb.decodePortions();
+                        } catch (ParseException e) {
+                            logger.error("ParseException when parsing TCEndMessage: " + e.toString(), e);
+                            return;
+                        }
                         di.processEnd(teb, localAddress, remoteAddress);
                         if (this.stack.getPreviewMode()) {
                             this.removePreviewDialog(di);
@@ -1021,12 +1206,26 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
             logger.error(String.format("Error while decoding Rx SccpNoticeMessage=%s", msg), e);
         }
 
-        TCNoticeIndicationImpl ind = new TCNoticeIndicationImpl();
+        final TCNoticeIndicationImpl ind = new TCNoticeIndicationImpl();
         ind.setRemoteAddress(msg.getCallingPartyAddress());
         ind.setLocalAddress(msg.getCalledPartyAddress());
         ind.setDialog(dialog);
         ind.setReportCause(msg.getReturnCause().getValue());
 
+        if (dialog != null && this.dialogShards != null) {
+            final DialogImpl di = dialog;
+            this.dialogShards.execute(dialog.getShard(), new Runnable() {
+                @Override
+                public void run() {
+                    deliverNotice(di, ind);
+                }
+            });
+        } else {
+            this.deliverNotice(dialog, ind);
+        }
+    }
+
+    private void deliverNotice(DialogImpl dialog, TCNoticeIndicationImpl ind) {
         if (dialog != null) {
             try {
                 dialog.dialogLock.lock();
@@ -1060,7 +1259,7 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
                     + " is already exists - we ignore it and drops curent dialog");
         }
 
-        DialogImpl di = new DialogImpl(localAddress, remoteAddress, seqControl, this._EXECUTOR, this, pdd, false);
+        DialogImpl di = new DialogImpl(localAddress, remoteAddress, seqControl, this, pdd, false);
 
         pdd.startIdleTimer();
 
@@ -1081,7 +1280,7 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
         // Long dialogId = this.getAvailableTxIdPreview();
         // PreviewDialogData pdd = new PreviewDialogData(this, dialogId);
         // this.dialogPreviewList.put(ky, pdd);
-        // DialogImpl di = new DialogImpl(localAddress, remoteAddress, seqControl, this._EXECUTOR, this, pdd, false);
+        // DialogImpl di = new DialogImpl(localAddress, remoteAddress, seqControl, this, pdd, false);
         // pdd.setPrevewDialogDataKey1(ky);
         //
         // pdd.startIdleTimer();
@@ -1090,23 +1289,8 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
         // }
     }
 
-    protected synchronized Long getAvailableTxIdPreview() throws TCAPException {
-        while (true) {
-            // Long id;
-            // if (!currentDialogId.compareAndSet(this.stack.getDialogIdRangeEnd(), this.stack.getDialogIdRangeStart() + 1)) {
-            // id = currentDialogId.getAndIncrement();
-            // } else {
-            // id = this.stack.getDialogIdRangeStart();
-            // }
-            // return id;
-
-            if (this.curDialogId < this.stack.getDialogIdRangeStart())
-                this.curDialogId = this.stack.getDialogIdRangeStart() - 1;
-            if (++this.curDialogId > this.stack.getDialogIdRangeEnd())
-                this.curDialogId = this.stack.getDialogIdRangeStart();
-            Long id = this.curDialogId;
-            return id;
-        }
+    protected Long getAvailableTxIdPreview() throws TCAPException {
+        return this.dialogIdAllocator.next();
     }
 
     protected Dialog getPreviewDialog(PreviewDialogDataKey ky1, PreviewDialogDataKey ky2, SccpAddress localAddress,
@@ -1119,13 +1303,13 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
         boolean sideB = false;
         if (pdd != null) {
             sideB = pdd.getPrevewDialogDataKey1().equals(ky1);
-            di = new DialogImpl(localAddress, remoteAddress, seqControl, this._EXECUTOR, this, pdd, sideB);
+            di = new DialogImpl(localAddress, remoteAddress, seqControl, this, pdd, sideB);
         } else {
             if (ky2 != null)
                 pdd = this.dialogPreviewList.get(ky2);
             if (pdd != null) {
                 sideB = pdd.getPrevewDialogDataKey1().equals(ky1);
-                di = new DialogImpl(localAddress, remoteAddress, seqControl, this._EXECUTOR, this, pdd, sideB);
+                di = new DialogImpl(localAddress, remoteAddress, seqControl, this, pdd, sideB);
             } else {
                 return null;
             }
@@ -1462,6 +1646,7 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
         public void run() {
             // MTP3 Executor monitors
             ExecutorCongestionMonitor[] lst = sccpProvider.getExecutorCongestionMonitorList();
+            executorCongestionMonitors = lst;
             int maxExecutorCongestionLevel = 0;
             int countExecutorCountWithCongestionLevel_1 = 0;
             int countExecutorCountWithCongestionLevel_2 = 0;
@@ -1512,18 +1697,67 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
             memoryCongestionMonitor.setBackToNormalMemoryThreshold3(stack.getCongControl_BackToNormalMemoryThreshold_3());
 
             memoryCongestionMonitor.monitor();
+            memoryAdmissionProbability = memoryCongestionMonitor.getAdmissionProbability();
             stack.getCounterProviderImpl().updateMaxMemoryCongLevel(memoryCongestionMonitor.getAlarmLevel());
 
             // cumulativeCongestionLevel
-            int newCumulativeCongestionLevel = getCumulativeCongestionLevel();
-            if (cumulativeCongestionLevel != newCumulativeCongestionLevel) {
-                logger.warn("Outgoing congestion control: Changing of internal congestion level: " + cumulativeCongestionLevel
-                        + "->" + newCumulativeCongestionLevel + "\n" + getCumulativeCongestionLevelString());
-                cumulativeCongestionLevel = newCumulativeCongestionLevel;
+            updateCumulativeCongestionLevel();
+        }
+    }
+
+    /**
+     * Refreshes the executor congestion level and the admission probability of new dialogs between CongestionExecutor runs,
+     * so congestion levels and admission of adaptive executor monitors are applied without a delay
+     */
+    private class ExecutorCongestionRefresher implements Runnable {
+
+        @Override
+        public void run() {
+            int maxExecutorCongestionLevel = 0;
+            double admissionProbability = 1.0;
+            for (ExecutorCongestionMonitor ecm : executorCongestionMonitors) {
+                int level = ecm.getAlarmLevel();
+                if (maxExecutorCongestionLevel < level)
+                    maxExecutorCongestionLevel = level;
+                double p = ecm.getAdmissionProbability();
+                if (admissionProbability > p)
+                    admissionProbability = p;
+            }
+            executorAdmissionProbability = admissionProbability;
+
+            if (executorCongestionLevel != maxExecutorCongestionLevel) {
+                executorCongestionLevel = maxExecutorCongestionLevel;
+                updateCumulativeCongestionLevel();
             }
         }
     }
 
+    private synchronized void updateCumulativeCongestionLevel() {
+        int newCumulativeCongestionLevel = getCumulativeCongestionLevel();
+        if (cumulativeCongestionLevel != newCumulativeCongestionLevel) {
+            logger.warn("Outgoing congestion control: Changing of internal congestion level: " + cumulativeCongestionLevel
+                    + "->" + newCumulativeCongestionLevel + "\n" + getCumulativeCongestionLevelString());
+            cumulativeCongestionLevel = newCumulativeCongestionLevel;
+        }
+    }
+
+    /**
+     * @return true if a new incoming dialog is admitted by adaptive executor congestion control and by memory congestion
+     *         control (random drawing with the min admission probability among executors and memory)
+     */
+    protected boolean admitNewDialog() {
+        double p = Math.min(executorAdmissionProbability, memoryAdmissionProbability);
+        return p >= 1.0 || ThreadLocalRandom.current().nextDouble() < p;
+    }
+
+    public double getExecutorAdmissionProbability() {
+        return executorAdmissionProbability;
+    }
+
+    public double getMemoryAdmissionProbability() {
+        return memoryAdmissionProbability;
+    }
+
     @Override
     public synchronized void setUserPartCongestionLevel(String congObject, int level) {
         if (congObject != null) {
@@ -1662,4 +1896,12 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
 
         return sb.toString();
     }
+
+    private static final class CachedEncoder {
+        private final AsnOutputStream aos = new AsnOutputStream();
+        // AsnOutputStream does not expose its capacity and never shrinks, so the biggest content it has ever had is the lower
+        // bound of its capacity
+        private int peakSize;
+        private boolean borrowed;
+    }
 }
@@ -43,6 +43,7 @@ import org.restcomm.protocols.ss7.tcap.api.TCAPCounterEventsListener;
 import org.restcomm.protocols.ss7.tcap.api.TCAPCounterProvider;
 import org.restcomm.protocols.ss7.tcap.api.TCAPProvider;
 import org.restcomm.protocols.ss7.tcap.api.TCAPStack;
+import org.restcomm.protocols.ss7.tcap.api.tc.dialog.Dialog;
 
 /**
  * @author amit bhayani
@@ -117,6 +118,12 @@ public class TCAPStackImpl implements TCAPStack {
     private long dialogIdRangeStart = 1;
     private long dialogIdRangeEnd = Integer.MAX_VALUE;
     private boolean previewMode = false;
+    // count of dialog id subranges that are used by different threads for a dialog id allocation
+    private int dialogIdStripeCount = 1;
+    // count of dialog shards (threads) for the actor-like processing mode, 0 - the mode is disabled
+    private int dialogShardCount = 0;
+    // if not null - a custom dialog id allocator that is used instead of StripedDialogIdAllocator
+    private DialogIdAllocator dialogIdAllocator;
     private List<Integer> extraSsns = new FastList<Integer>();
     private boolean doNotSendProtocolVersion = false;
     private boolean statisticsEnabled = false;
@@ -397,6 +404,60 @@ public class TCAPStackImpl implements TCAPStack {
         return previewMode;
     }
 
+    public void setDialogIdStripeCount(int val) throws Exception {
+        if (this.started)
+            throw new Exception("DialogIdStripeCount parameter can be updated only when TCAP stack is NOT running");
+
+        if (val < 1 || val > StripedDialogIdAllocator.MAX_STRIPE_COUNT)
+            throw new IllegalArgumentException("DialogIdStripeCount must be between 1 and "
+                    + StripedDialogIdAllocator.MAX_STRIPE_COUNT);
+
+        dialogIdStripeCount = val;
+        if (tcapProvider != null)
+            tcapProvider.resetDialogIdAllocator();
+    }
+
+    public int getDialogIdStripeCount() {
+        return dialogIdStripeCount;
+    }
+
+    /**
+     * Enables the actor-like processing mode if the passed value > 0. In this mode dialogs are partitioned into the passed
+     * count of shards, every shard is served by its own thread and all events of a dialog are processed by the thread of
+     * its shard without dialog locking (see {@link DialogShards}). A TC-user must invoke methods of a dialog only inside of
+     * TCListener (MAP / CAP listener) callbacks or via {@link TCAPProviderImpl#executeInDialogShard(Dialog, Runnable)},
+     * sending methods of a structured dialog throw IllegalStateException if they are invoked by another thread.
+     *
+     * @param val the count of shards: 0 (disabled) or a power of 2
+     */
+    public void setDialogShardCount(int val) throws Exception {
+        if (this.started)
+            throw new Exception("DialogShardCount parameter can be updated only when TCAP stack is NOT running");
+
+        if (val < 0 || val > DialogShards.MAX_SHARD_COUNT || (val & (val - 1)) != 0)
+            throw new IllegalArgumentException("DialogShardCount must be 0 or a power of 2 not greater than "
+                    + DialogShards.MAX_SHARD_COUNT);
+
+        dialogShardCount = val;
+    }
+
+    public int getDialogShardCount() {
+        return dialogShardCount;
+    }
+
+    public void setDialogIdAllocator(DialogIdAllocator val) throws Exception {
+        if (this.started)
+            throw new Exception("DialogIdAllocator can be updated only when TCAP stack is NOT running");
+
+        dialogIdAllocator = val;
+        if (tcapProvider != null)
+            tcapProvider.resetDialogIdAllocator();
+    }
+
+    public DialogIdAllocator getDialogIdAllocator() {
+        return dialogIdAllocator;
+    }
+
     public void setExtraSsns(List<Integer> extraSsnsNew) throws Exception {
         if (this.started)
             throw new Exception("ExtraSsns parameter can be updated only when TCAP stack is NOT running");
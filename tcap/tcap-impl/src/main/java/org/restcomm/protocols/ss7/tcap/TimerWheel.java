@@ -0,0 +1,403 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tcap;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Hashed timing wheel that is used for TCAP dialog idle timers and invoke timers.
+ *
+ * A ScheduledThreadPoolExecutor keeps its tasks in a delay heap that is guarded by one lock, schedule and cancel cost
+ * O(log n) and a cancelled task stays in the heap until its delay expires. Most of TCAP timers are cancelled (a dialog
+ * ends before its idle timeout, a result comes before an invoke timeout), so the wheel is used instead:
+ * <ul>
+ * <li>schedule() and cancel() are O(1) and lock-free: a timer is pushed into an intrusive stack of new (or cancelled)
+ * timers that is drained by the wheel thread once per tick,</li>
+ * <li>a cancelled timer is unlinked from its bucket at the next tick, so it does not occupy memory till its deadline,</li>
+ * <li>the wheel thread only moves timers between buckets, expired tasks are executed by the supplied executor.</li>
+ * </ul>
+ * A timer expires not earlier than its delay and not later than its delay + one tick duration (if the wheel thread is not
+ * delayed). The wheel collects the count of active timers (wheel occupancy) and the lateness of expired timers.
+ *
+ */
+public class TimerWheel {
+
+    private static final Logger logger = Logger.getLogger(TimerWheel.class);
+
+    public static final long DEFAULT_TICK_DURATION = 10; // milliseconds
+    public static final int DEFAULT_WHEEL_SIZE = 8192;
+
+    private final String name;
+    private final Executor executor;
+    private final long tickDurationNanos;
+    private final int mask;
+    // heads of bucket lists
+    private final Timeout[] buckets;
+
+    private final AtomicReference<Timeout> newTimeouts = new AtomicReference<Timeout>();
+    private final AtomicReference<Timeout> cancelledTimeouts = new AtomicReference<Timeout>();
+
+    private volatile Thread workerThread;
+    private volatile boolean started;
+    private long startTime;
+    private long tick;
+
+    // metrics
+    private final AtomicInteger activeTimers = new AtomicInteger();
+    private final AtomicLong scheduledCount = new AtomicLong();
+    private final AtomicLong cancelledCount = new AtomicLong();
+    private volatile long expiredCount;
+    private volatile long latenessSum;
+    private volatile long maxLateness;
+
+    public TimerWheel(String name, Executor executor) {
+        this(name, executor, DEFAULT_TICK_DURATION, TimeUnit.MILLISECONDS, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * @param name a name of the wheel thread
+     * @param executor an executor that runs expired tasks
+     * @param tickDuration a duration of one tick
+     * @param wheelSize a count of buckets, it is rounded up to a power of 2
+     */
+    public TimerWheel(String name, Executor executor, long tickDuration, TimeUnit unit, int wheelSize) {
+        if (executor == null)
+            throw new NullPointerException("Executor must not be null");
+        if (tickDuration <= 0)
+            throw new IllegalArgumentException("TickDuration must be greater than zero");
+        if (wheelSize < 1 || wheelSize > (1 << 24))
+            throw new IllegalArgumentException("WheelSize must be between 1 and " + (1 << 24));
+
+        int size = 1;
+        while (size < wheelSize)
+            size <<= 1;
+
+        this.name = name;
+        this.executor = executor;
+        this.tickDurationNanos = unit.toNanos(tickDuration);
+        this.mask = size - 1;
+        this.buckets = new Timeout[size];
+    }
+
+    public void start() {
+        if (this.started)
+            return;
+
+        this.started = true;
+        this.startTime = System.nanoTime();
+        this.tick = 0;
+        Thread t = new Thread(new Worker(), this.name);
+        t.setDaemon(true);
+        this.workerThread = t;
+        t.start();
+    }
+
+    /**
+     * Stops the wheel thread. Timers that have not expired yet are dropped.
+     */
+    public void stop() {
+        if (!this.started)
+            return;
+
+        this.started = false;
+        Thread t = this.workerThread;
+        this.workerThread = null;
+        if (t != null && t != Thread.currentThread()) {
+            t.interrupt();
+            try {
+                t.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        for (int i = 0; i < this.buckets.length; i++) {
+            this.buckets[i] = null;
+        }
+        this.newTimeouts.set(null);
+        this.cancelledTimeouts.set(null);
+        this.activeTimers.set(0);
+    }
+
+    public boolean isStarted() {
+        return this.started;
+    }
+
+    /**
+     * Schedules a one-shot task
+     *
+     * @return a handle that can be used for the timer cancelling
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (task == null)
+            throw new NullPointerException("Task must not be null");
+
+        long deadline = System.nanoTime() + unit.toNanos(Math.max(delay, 0));
+        Timeout timeout = new Timeout(this, task, deadline);
+
+        this.activeTimers.incrementAndGet();
+        this.scheduledCount.incrementAndGet();
+        push(this.newTimeouts, timeout, false);
+        return timeout;
+    }
+
+    /**
+     * @return a count of timers that are scheduled and are not yet expired or cancelled
+     */
+    public int getActiveTimersCount() {
+        return this.activeTimers.get();
+    }
+
+    public long getScheduledCount() {
+        return this.scheduledCount.get();
+    }
+
+    public long getCancelledCount() {
+        return this.cancelledCount.get();
+    }
+
+    public long getExpiredCount() {
+        return this.expiredCount;
+    }
+
+    /**
+     * @return a max delay (in milliseconds) between a deadline of an expired timer and the time when the timer was
+     *         processed by the wheel thread
+     */
+    public long getMaxLateness() {
+        return TimeUnit.NANOSECONDS.toMillis(this.maxLateness);
+    }
+
+    /**
+     * @return an average delay (in milliseconds) between a deadline of an expired timer and the time when the timer was
+     *         processed by the wheel thread
+     */
+    public double getAverageLateness() {
+        long cnt = this.expiredCount;
+        if (cnt == 0)
+            return 0;
+        return (double) this.latenessSum / cnt / 1000000.0;
+    }
+
+    /**
+     * Resets lateness statistics
+     */
+    public void resetLateness() {
+        this.maxLateness = 0;
+    }
+
+    private static void push(AtomicReference<Timeout> stack, Timeout timeout, boolean cancelStack) {
+        while (true) {
+            Timeout head = stack.get();
+            if (cancelStack)
+                timeout.nextCancelled = head;
+            else
+                timeout.nextNew = head;
+            if (stack.compareAndSet(head, timeout))
+                return;
+        }
+    }
+
+    private void onCancelled(Timeout timeout) {
+        this.activeTimers.decrementAndGet();
+        this.cancelledCount.incrementAndGet();
+        push(this.cancelledTimeouts, timeout, true);
+    }
+
+    private void processCancelled() {
+        Timeout timeout = this.cancelledTimeouts.getAndSet(null);
+        while (timeout != null) {
+            Timeout next = timeout.nextCancelled;
+            timeout.nextCancelled = null;
+            this.unlink(timeout);
+            timeout = next;
+        }
+    }
+
+    private void processNew() {
+        Timeout timeout = this.newTimeouts.getAndSet(null);
+        while (timeout != null) {
+            Timeout next = timeout.nextNew;
+            timeout.nextNew = null;
+            if (timeout.state == Timeout.ST_INIT) {
+                long calculated = (timeout.deadline - this.startTime + this.tickDurationNanos - 1) / this.tickDurationNanos;
+                long ticks = Math.max(calculated, this.tick);
+                timeout.remainingRounds = (ticks - this.tick) / this.buckets.length;
+                this.link(timeout, (int) (ticks & this.mask));
+            }
+            timeout = next;
+        }
+    }
+
+    private void link(Timeout timeout, int bucket) {
+        Timeout head = this.buckets[bucket];
+        timeout.bucket = bucket;
+        timeout.prev = null;
+        timeout.next = head;
+        if (head != null)
+            head.prev = timeout;
+        this.buckets[bucket] = timeout;
+    }
+
+    private void unlink(Timeout timeout) {
+        int bucket = timeout.bucket;
+        if (bucket < 0)
+            return;
+        if (timeout.prev != null)
+            timeout.prev.next = timeout.next;
+        else
+            this.buckets[bucket] = timeout.next;
+        if (timeout.next != null)
+            timeout.next.prev = timeout.prev;
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+    }
+
+    private void expireBucket(int bucket, long now) {
+        Timeout timeout = this.buckets[bucket];
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+            } else {
+                this.unlink(timeout);
+                if (timeout.expire()) {
+                    this.activeTimers.decrementAndGet();
+
+                    long lateness = Math.max(now - timeout.deadline, 0);
+                    this.expiredCount = this.expiredCount + 1;
+                    this.latenessSum = this.latenessSum + lateness;
+                    if (lateness > this.maxLateness)
+                        this.maxLateness = lateness;
+
+                    try {
+                        this.executor.execute(timeout.task);
+                    } catch (RejectedExecutionException e) {
+                        logger.warn("TimerWheel " + this.name + ": an expired task has been rejected by the executor");
+                    }
+                }
+            }
+            timeout = next;
+        }
+    }
+
+    private class Worker implements Runnable {
+        public void run() {
+            while (started) {
+                long deadline = startTime + tick * tickDurationNanos;
+                long sleepNanos = deadline - System.nanoTime();
+                if (sleepNanos > 0) {
+                    try {
+                        Thread.sleep(sleepNanos / 1000000, (int) (sleepNanos % 1000000));
+                    } catch (InterruptedException e) {
+                        if (!started)
+                            return;
+                    }
+                    continue;
+                }
+
+                try {
+                    processCancelled();
+                    processNew();
+                    expireBucket((int) (tick & mask), System.nanoTime());
+                } catch (Throwable e) {
+                    logger.error("TimerWheel " + name + ": exception while processing of timers", e);
+                }
+                tick++;
+            }
+        }
+    }
+
+    /**
+     * A handle of a scheduled task
+     */
+    public static final class Timeout {
+
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE_UPDATER = AtomicIntegerFieldUpdater.newUpdater(
+                Timeout.class, "state");
+
+        private final TimerWheel wheel;
+        private final Runnable task;
+        private final long deadline;
+        private volatile int state = ST_INIT;
+
+        // fields below are accessed by the wheel thread only (or before publishing)
+        private long remainingRounds;
+        private int bucket = -1;
+        private Timeout prev;
+        private Timeout next;
+        private Timeout nextNew;
+        private Timeout nextCancelled;
+
+        private Timeout(TimerWheel wheel, Runnable task, long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the timer
+         *
+         * @return false if the timer has already expired or been cancelled
+         */
+        public boolean cancel() {
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_CANCELLED))
+                return false;
+            this.wheel.onCancelled(this);
+            return true;
+        }
+
+        private boolean expire() {
+            return STATE_UPDATER.compareAndSet(this, ST_INIT, ST_EXPIRED);
+        }
+
+        public boolean isCancelled() {
+            return this.state == ST_CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return this.state == ST_EXPIRED;
+        }
+
+        /**
+         * @return a delay (in milliseconds) till the deadline of the timer, negative if the deadline has passed
+         */
+        public long getDelay() {
+            return TimeUnit.NANOSECONDS.toMillis(this.deadline - System.nanoTime());
+        }
+    }
+
+}
@@ -40,6 +40,10 @@ public class ApplicationContextNameImpl implements ApplicationContextName {
     // object identifier value
     private long[] oid;
 
+    // String values of recently used ACNs, they are statistics keys for every dialog
+    private static final int STRING_VALUE_CACHE_SIZE = 64;
+    private static final StringValue[] stringValueCache = new StringValue[STRING_VALUE_CACHE_SIZE];
+
     /*
      * (non-Javadoc)
      *
@@ -106,7 +110,27 @@ public class ApplicationContextNameImpl implements ApplicationContextName {
     }
 
     public String getStringValue() {
-        return Arrays.toString(oid);
+        if (oid == null)
+            return Arrays.toString(oid);
+
+        int i = Arrays.hashCode(oid) & (STRING_VALUE_CACHE_SIZE - 1);
+        StringValue sv = stringValueCache[i];
+        if (sv != null && Arrays.equals(sv.oid, oid))
+            return sv.value;
+
+        sv = new StringValue(oid.clone());
+        stringValueCache[i] = sv;
+        return sv.value;
+    }
+
+    private static final class StringValue {
+        private final long[] oid;
+        private final String value;
+
+        private StringValue(long[] oid) {
+            this.oid = oid;
+            this.value = Arrays.toString(oid);
+        }
     }
 
     public String toString() {
@@ -0,0 +1,96 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tcap.asn;
+
+import org.mobicents.protocols.asn.AsnInputStream;
+import org.mobicents.protocols.asn.AsnOutputStream;
+
+/**
+ * <p>
+ * Dialog portion and component portion of a received TC-BEGIN, TC-CONTINUE or TC-END message that have not been decoded yet
+ * (lazy decoding). Both portions follow transaction ids up to the end of the message, so they are kept as a slice of the
+ * received data together with the stream that is positioned at them.
+ * </p>
+ * <p>
+ * Nothing is copied: the stream is used for decoding at the first access and the slice is written as it is if the message is
+ * encoded again before decoding (relaying, preview mode).
+ * </p>
+ */
+final class EncodedPortions {
+
+    private final byte[] data;
+    private final int offset;
+    private final int length;
+    private final AsnInputStream ais;
+
+    private EncodedPortions(byte[] data, int offset, int length, AsnInputStream ais) {
+        this.data = data;
+        this.offset = offset;
+        this.length = length;
+        this.ais = ais;
+    }
+
+    /**
+     * @param data the received message
+     * @param localAis the content of the message positioned just after transaction ids
+     * @return null if the message content is encoded in the indefinite length form (such messages must be decoded eagerly)
+     */
+    static EncodedPortions create(byte[] data, AsnInputStream localAis) {
+        int contentEnd = getContentEnd(data);
+        if (contentEnd < 0 || contentEnd > data.length)
+            return null;
+
+        int length = localAis.available();
+        return new EncodedPortions(data, contentEnd - length, length, localAis);
+    }
+
+    /**
+     * @return the end of the content of the message that starts at the beginning of data (TC message tags are one octet) or -1
+     *         for the indefinite length form
+     */
+    static int getContentEnd(byte[] data) {
+        if (data.length < 2)
+            return -1;
+
+        int len = data[1] & 0xFF;
+        if (len < 0x80)
+            return 2 + len;
+
+        int cnt = len & 0x7F;
+        if (cnt == 0 || cnt > 3 || data.length < 2 + cnt)
+            return -1;
+        int length = 0;
+        for (int i = 0; i < cnt; i++) {
+            length = (length << 8) | (data[2 + i] & 0xFF);
+        }
+        return 2 + cnt + length;
+    }
+
+    AsnInputStream getAis() {
+        return ais;
+    }
+
+    void encode(AsnOutputStream aos) {
+        aos.write(this.data, this.offset, this.length);
+    }
+}
@@ -72,7 +72,7 @@ public class ErrorCodeImpl implements ErrorCode {
 
     public String getStringValue() {
         if (this.localErrorCode != null)
-            return this.localErrorCode.toString();
+            return LocalCodeStrings.valueOf(this.localErrorCode);
         else if (this.globalErrorCode != null)
             return Arrays.toString(this.globalErrorCode);
         else
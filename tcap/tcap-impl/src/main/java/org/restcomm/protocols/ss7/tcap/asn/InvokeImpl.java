@@ -23,7 +23,6 @@
 package org.restcomm.protocols.ss7.tcap.asn;
 
 import java.io.IOException;
-import java.util.concurrent.Future;
 
 import org.mobicents.protocols.asn.AsnException;
 import org.mobicents.protocols.asn.AsnInputStream;
@@ -32,6 +31,7 @@ import org.mobicents.protocols.asn.Tag;
 import org.restcomm.protocols.ss7.tcap.DialogImpl;
 import org.restcomm.protocols.ss7.tcap.TCAPProviderImpl;
 import org.restcomm.protocols.ss7.tcap.TCAPStackImpl;
+import org.restcomm.protocols.ss7.tcap.TimerWheel;
 import org.restcomm.protocols.ss7.tcap.api.tc.component.InvokeClass;
 import org.restcomm.protocols.ss7.tcap.api.tc.component.OperationState;
 import org.restcomm.protocols.ss7.tcap.asn.comp.ComponentType;
@@ -52,10 +52,11 @@ public class InvokeImpl implements Invoke {
     private InvokeClass invokeClass = InvokeClass.Class1;
     private long invokeTimeout = TCAPStackImpl._EMPTY_INVOKE_TIMEOUT;
     private OperationState state = OperationState.Idle;
-    private Future timerFuture;
+    private TimerWheel.Timeout timerFuture;
     private OperationTimerTask operationTimerTask = new OperationTimerTask(this);
     private TCAPProviderImpl provider;
     private DialogImpl dialog;
+    private long sentTime;
 
     public InvokeImpl() {
         // Set Default Class
@@ -331,6 +332,13 @@ public class InvokeImpl implements Invoke {
         this.dialog = dialog;
     }
 
+    /**
+     * @return the time (in milliseconds) when the Invoke was sent, 0 if it has not been sent
+     */
+    public long getSentTime() {
+        return sentTime;
+    }
+
     /**
      * @return the state
      */
@@ -352,6 +360,7 @@ public class InvokeImpl implements Invoke {
 
             switch (state) {
                 case Sent:
+                    this.sentTime = System.currentTimeMillis();
                     // start timer
                     this.startTimer();
                     break;
@@ -389,13 +398,13 @@ public class InvokeImpl implements Invoke {
 
         this.stopTimer();
         if (this.invokeTimeout > 0)
-            this.timerFuture = this.provider.createOperationTimer(this.operationTimerTask, this.invokeTimeout);
+            this.timerFuture = this.provider.createDialogTimer(this.dialog, this.operationTimerTask, this.invokeTimeout);
     }
 
     public synchronized void stopTimer() {
 
         if (this.timerFuture != null) {
-            this.timerFuture.cancel(false);
+            this.timerFuture.cancel();
             this.timerFuture = null;
         }
 
@@ -83,7 +83,7 @@ public class OperationCodeImpl implements OperationCode {
 
     public String getStringValue() {
         if (this.localOperationCode != null)
-            return this.localOperationCode.toString();
+            return LocalCodeStrings.valueOf(this.localOperationCode);
         else if (this.globalOperationCode != null)
             return Arrays.toString(this.globalOperationCode);
         else
@@ -0,0 +1,110 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tcap.asn;
+
+import java.io.Serializable;
+
+import org.mobicents.protocols.asn.AsnOutputStream;
+import org.restcomm.protocols.ss7.tcap.asn.comp.Parameter;
+
+/**
+ * Parameter content of an outgoing TC-User (MAP, CAP) operation. The primitive is encoded directly into the component of
+ * the TCAP message when the dialog is sent, so there is no intermediate byte[] per operation and the primitive must not be
+ * modified after it has been added to the dialog. See {@link ParameterImpl#setContent(ParameterContent)}.
+ *
+ */
+public final class ParameterContent implements Serializable {
+
+    /**
+     * A TC-User primitive that can encode its content (without the tag and the length). MAPAsnPrimitive and CAPAsnPrimitive
+     * narrow the thrown exception.
+     */
+    public interface Primitive extends Serializable {
+
+        /**
+         * Encoding the content. This method may be invoked more then once, for example when the message length is calculated
+         * before sending.
+         *
+         * @param asnOs
+         * @throws Exception
+         */
+        void encodeData(AsnOutputStream asnOs) throws Exception;
+
+    }
+
+    private final Primitive primitive;
+
+    public ParameterContent(Primitive primitive) {
+        this.primitive = primitive;
+    }
+
+    public Primitive getPrimitive() {
+        return primitive;
+    }
+
+    /**
+     * Sets the primitive as the content of the parameter. A parameter that is not created by TCAP factories gets the encoded
+     * byte[] instead, IllegalArgumentException is thrown then if the primitive can not be encoded.
+     *
+     * @param parameter
+     * @param primitive
+     */
+    public static void setContent(Parameter parameter, Primitive primitive) {
+        ParameterContent content = new ParameterContent(primitive);
+        if (parameter instanceof ParameterImpl) {
+            ((ParameterImpl) parameter).setContent(content);
+        } else {
+            parameter.setData(content.encode());
+        }
+    }
+
+    /**
+     * @return the content encoded into byte[]
+     */
+    byte[] encode() {
+        AsnOutputStream aos = new AsnOutputStream();
+        try {
+            this.encodeContent(aos);
+        } catch (EncodeException e) {
+            throw new IllegalArgumentException("Failed to encode parameter content", e);
+        }
+        return aos.toByteArray();
+    }
+
+    public void encodeContent(AsnOutputStream aos) throws EncodeException {
+        try {
+            this.primitive.encodeData(aos);
+        } catch (EncodeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new EncodeException(e.getClass().getSimpleName() + " when encoding "
+                    + this.primitive.getClass().getSimpleName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(this.primitive);
+    }
+
+}
@@ -42,6 +42,7 @@ public class ParameterImpl implements Parameter {
 
     private byte[] data;
     private Parameter[] parameters;
+    private ParameterContent content;
     private boolean primitive = true;
     private int tag;
     private int tagClass;
@@ -54,6 +55,9 @@ public class ParameterImpl implements Parameter {
      */
     public byte[] getData() {
 
+        if (this.data == null && this.content != null) {
+            this.data = this.content.encode();
+        }
         return data;
     }
 
@@ -74,11 +78,36 @@ public class ParameterImpl implements Parameter {
      */
     public void setData(byte[] b) {
         this.data = b;
-        if (data != null)
+        if (data != null) {
             this.setParameters(null);
+            this.content = null;
+        }
 
     }
 
+    /**
+     * Return content that will be encoded by TC-User when the message is sent or null if content is not set
+     *
+     * @return
+     */
+    public ParameterContent getContent() {
+        return content;
+    }
+
+    /**
+     * Sets content that is encoded directly into the outgoing TCAP message. {@link #getData()} encodes the content into byte[]
+     * when invoked.
+     *
+     * @param content
+     */
+    public void setContent(ParameterContent content) {
+        this.content = content;
+        if (content != null) {
+            this.data = null;
+            this.parameters = null;
+        }
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -95,8 +124,8 @@ public class ParameterImpl implements Parameter {
     public int getEncodingLength() {
         if (encodingLength >= 0) {
             return encodingLength;
-        } else if (this.data != null) {
-            return this.data.length;
+        } else if (this.data != null || this.content != null) {
+            return this.getData().length;
         } else {
             return 0;
         }
@@ -135,7 +164,7 @@ public class ParameterImpl implements Parameter {
     }
 
     public String toString() {
-        return "Parameter[data=" + Arrays.toString(data) + ", parameters=" + Arrays.toString(parameters) + ", primitive="
+        return "Parameter[data=" + Arrays.toString(data) + ", content=" + content + ", parameters=" + Arrays.toString(parameters) + ", primitive="
                 + primitive + ", tag=" + tag + ", tagClass=" + tagClass + ", encodingLength=" + this.getEncodingLength() + "]";
     }
 
@@ -143,7 +172,7 @@ public class ParameterImpl implements Parameter {
 
         if (this.parameters == null && !this.isPrimitive()) {
             // we may want to decode
-            if (this.data == null) {
+            if (this.getData() == null) {
                 return this.parameters;
             }
             List<Parameter> paramsList = new ArrayList<Parameter>();
@@ -170,6 +199,7 @@ public class ParameterImpl implements Parameter {
         this.parameters = paramss;
         if (this.parameters != null) {
             this.setData(null);
+            this.content = null;
             this.setPrimitive(false);
         }
 
@@ -214,13 +244,25 @@ public class ParameterImpl implements Parameter {
      * @see org.restcomm.protocols.ss7.tcap.asn.Encodable#encode(org.mobicents.protocols .asn.AsnOutputStream)
      */
     public void encode(AsnOutputStream aos) throws EncodeException {
-        if (data == null && parameters == null) {
+        if (data == null && parameters == null && content == null) {
             throw new EncodeException("Parameter data not set.");
         }
 
         try {
             aos.writeTag(tagClass, primitive, tag);
-            if (data == null) {
+            if (data == null && content != null) {
+                if (this.encodingLength < 0) {
+                    // the content is written directly into the message
+                    int pos = aos.StartContentDefiniteLength();
+                    content.encodeContent(aos);
+                    aos.FinalizeContent(pos);
+                    return;
+                }
+
+                AsnOutputStream localAos = new AsnOutputStream();
+                content.encodeContent(localAos);
+                data = localAos.toByteArray();
+            } else if (data == null) {
 
                 AsnOutputStream localAos = new AsnOutputStream();
                 for (Parameter p : this.parameters) {
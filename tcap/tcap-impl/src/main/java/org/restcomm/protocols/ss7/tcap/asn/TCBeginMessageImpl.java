@@ -48,6 +48,8 @@ public class TCBeginMessageImpl implements TCBeginMessage {
     private DialogPortion dp;
     // opt
     private Component[] component;
+    // dialog portion and component portion that are not decoded yet (lazy decoding)
+    private EncodedPortions encodedPortions;
 
     /*
      * (non-Javadoc)
@@ -55,7 +57,7 @@ public class TCBeginMessageImpl implements TCBeginMessage {
      * @see org.restcomm.protocols.ss7.tcap.asn.comp.TCBeginMessage#getComponent()
      */
     public Component[] getComponent() {
-
+        this.decodePortionsIfNeeded();
         return this.component;
     }
 
@@ -65,7 +67,7 @@ public class TCBeginMessageImpl implements TCBeginMessage {
      * @see org.restcomm.protocols.ss7.tcap.asn.comp.TCBeginMessage#getDialogPortion ()
      */
     public DialogPortion getDialogPortion() {
-
+        this.decodePortionsIfNeeded();
         return this.dp;
     }
 
@@ -86,6 +88,7 @@ public class TCBeginMessageImpl implements TCBeginMessage {
      * (org.restcomm.protocols.ss7.tcap.asn.comp.Component[])
      */
     public void setComponent(Component[] c) {
+        this.decodePortionsIfNeeded();
         this.component = c;
 
     }
@@ -97,6 +100,7 @@ public class TCBeginMessageImpl implements TCBeginMessage {
      * (org.restcomm.protocols.ss7.tcap.asn.DialogPortion)
      */
     public void setDialogPortion(DialogPortion dp) {
+        this.decodePortionsIfNeeded();
         this.dp = dp;
 
     }
@@ -119,49 +123,53 @@ public class TCBeginMessageImpl implements TCBeginMessage {
     public void decode(AsnInputStream ais) throws ParseException {
         try {
             AsnInputStream localAis = ais.readSequenceStream();
+            this.decodeTransactionIds(localAis);
+            this.decodePortions(localAis);
+        } catch (IOException e) {
+            throw new ParseException(PAbortCauseType.BadlyFormattedTxPortion, null, "IOException while decoding TC-Begin: "
+                    + e.getMessage(), e);
+        } catch (AsnException e) {
+            throw new ParseException(PAbortCauseType.BadlyFormattedTxPortion, null, "AsnException while decoding TC-Begin: "
+                    + e.getMessage(), e);
+        }
+    }
 
-            int tag = localAis.readTag();
-            if (tag != _TAG_OTX || localAis.getTagClass() != Tag.CLASS_APPLICATION)
-                throw new ParseException(PAbortCauseType.IncorrectTxPortion, null,
-                        "Error decoding TC-Begin: Expected OriginatingTransactionId, found tag: " + tag);
-            this.originatingTransactionId = localAis.readOctetString();
-
-            while (true) {
-                if (localAis.available() == 0)
-                    return;
-
-                tag = localAis.readTag();
-                if (localAis.isTagPrimitive() || localAis.getTagClass() != Tag.CLASS_APPLICATION)
-                    throw new ParseException(PAbortCauseType.IncorrectTxPortion, null,
-                            "Error decoding TC-Begin: DialogPortion and Component portion must be constructive and has tag class CLASS_APPLICATION");
-
-                switch (tag) {
-                    case DialogPortion._TAG:
-                        this.dp = TcapFactory.createDialogPortion(localAis);
-                        break;
-
-                    case Component._COMPONENT_TAG:
-                        AsnInputStream compAis = localAis.readSequenceStream();
-                        List<Component> cps = new ArrayList<Component>();
-                        // its iterator :)
-                        while (compAis.available() > 0) {
-                            Component c = TcapFactory.createComponent(compAis);
-                            if (c == null) {
-                                break;
-                            }
-                            cps.add(c);
-                        }
+    /**
+     * Lazy decoding of a received message: only transaction ids are decoded here, the dialog portion and the component
+     * portion are decoded by {@link #decodePortions()} or at the first access to them.
+     *
+     * @param data the received message
+     */
+    public void decodeLazy(byte[] data) throws ParseException {
+        try {
+            AsnInputStream ais = new AsnInputStream(data);
+            ais.readTag();
+            AsnInputStream localAis = ais.readSequenceStream();
+            this.decodeTransactionIds(localAis);
 
-                        this.component = new Component[cps.size()];
-                        this.component = cps.toArray(this.component);
-                        break;
+            this.encodedPortions = EncodedPortions.create(data, localAis);
+            if (this.encodedPortions == null)
+                this.decodePortions(localAis);
+        } catch (IOException e) {
+            throw new ParseException(PAbortCauseType.BadlyFormattedTxPortion, null, "IOException while decoding TC-Begin: "
+                    + e.getMessage(), e);
+        } catch (AsnException e) {
+            throw new ParseException(PAbortCauseType.BadlyFormattedTxPortion, null, "AsnException while decoding TC-Begin: "
+                    + e.getMessage(), e);
+        }
+    }
 
-                    default:
-                        throw new ParseException(PAbortCauseType.IncorrectTxPortion, null,
-                                "Error decoding TC-Begin: DialogPortion and Componebt parsing: bad tag - " + tag);
-                }
-            }
+    /**
+     * Decodes the dialog portion and the component portion of a lazily decoded message if they have not been decoded yet
+     */
+    public void decodePortions() throws ParseException {
+        EncodedPortions encodedPortions = this.encodedPortions;
+        if (encodedPortions == null)
+            return;
 
+        this.encodedPortions = null;
+        try {
+            this.decodePortions(encodedPortions.getAis());
         } catch (IOException e) {
             throw new ParseException(PAbortCauseType.BadlyFormattedTxPortion, null, "IOException while decoding TC-Begin: "
                     + e.getMessage(), e);
@@ -169,7 +177,61 @@ public class TCBeginMessageImpl implements TCBeginMessage {
             throw new ParseException(PAbortCauseType.BadlyFormattedTxPortion, null, "AsnException while decoding TC-Begin: "
                     + e.getMessage(), e);
         }
+    }
+
+    private void decodePortionsIfNeeded() {
+        try {
+            this.decodePortions();
+        } catch (ParseException e) {
+            // a portion that can not be decoded is treated as absent, TCAPProviderImpl decodes portions before a message is
+            // processed and rejects bad messages
+        }
+    }
 
+    private void decodeTransactionIds(AsnInputStream localAis) throws ParseException, IOException, AsnException {
+        int tag = localAis.readTag();
+        if (tag != _TAG_OTX || localAis.getTagClass() != Tag.CLASS_APPLICATION)
+            throw new ParseException(PAbortCauseType.IncorrectTxPortion, null,
+                    "Error decoding TC-Begin: Expected OriginatingTransactionId, found tag: " + tag);
+        this.originatingTransactionId = localAis.readOctetString();
+    }
+
+    private void decodePortions(AsnInputStream localAis) throws ParseException, IOException, AsnException {
+        while (true) {
+            if (localAis.available() == 0)
+                return;
+
+            int tag = localAis.readTag();
+            if (localAis.isTagPrimitive() || localAis.getTagClass() != Tag.CLASS_APPLICATION)
+                throw new ParseException(PAbortCauseType.IncorrectTxPortion, null,
+                        "Error decoding TC-Begin: DialogPortion and Component portion must be constructive and has tag class CLASS_APPLICATION");
+
+            switch (tag) {
+                case DialogPortion._TAG:
+                    this.dp = TcapFactory.createDialogPortion(localAis);
+                    break;
+
+                case Component._COMPONENT_TAG:
+                    AsnInputStream compAis = localAis.readSequenceStream();
+                    List<Component> cps = new ArrayList<Component>();
+                    // its iterator :)
+                    while (compAis.available() > 0) {
+                        Component c = TcapFactory.createComponent(compAis);
+                        if (c == null) {
+                            break;
+                        }
+                        cps.add(c);
+                    }
+
+                    this.component = new Component[cps.size()];
+                    this.component = cps.toArray(this.component);
+                    break;
+
+                default:
+                    throw new ParseException(PAbortCauseType.IncorrectTxPortion, null,
+                            "Error decoding TC-Begin: DialogPortion and Componebt parsing: bad tag - " + tag);
+            }
+        }
     }
 
     /*
@@ -189,6 +251,10 @@ public class TCBeginMessageImpl implements TCBeginMessage {
             // Utils.writeTransactionId(aos, this.originatingTransactionId, Tag.CLASS_APPLICATION, _TAG_OTX);
             aos.writeOctetString(Tag.CLASS_APPLICATION, _TAG_OTX, this.originatingTransactionId);
 
+            // portions that have not been decoded are written as they were received
+            if (this.encodedPortions != null)
+                this.encodedPortions.encode(aos);
+
             if (this.dp != null)
                 this.dp.encode(aos);
 
@@ -50,6 +50,8 @@ public class TCContinueMessageImpl implements TCContinueMessage {
     private DialogPortion dp;
     // opt
     private Component[] component;
+    // dialog portion and component portion that are not decoded yet (lazy decoding)
+    private EncodedPortions encodedPortions;
 
     /*
      * (non-Javadoc)
@@ -57,7 +59,7 @@ public class TCContinueMessageImpl implements TCContinueMessage {
      * @see org.restcomm.protocols.ss7.tcap.asn.comp.TCContinueMessage#getComponent ()
      */
     public Component[] getComponent() {
-
+        this.decodePortionsIfNeeded();
         return this.component;
     }
 
@@ -77,7 +79,7 @@ public class TCContinueMessageImpl implements TCContinueMessage {
      * @see org.restcomm.protocols.ss7.tcap.asn.comp.TCContinueMessage#getDialogPortion ()
      */
     public DialogPortion getDialogPortion() {
-
+        this.decodePortionsIfNeeded();
         return this.dp;
     }
 
@@ -98,7 +100,7 @@ public class TCContinueMessageImpl implements TCContinueMessage {
      * (org.restcomm.protocols.ss7.tcap.asn.comp.Component[])
      */
     public void setComponent(Component[] c) {
-
+        this.decodePortionsIfNeeded();
         this.component = c;
     }
 
@@ -119,6 +121,7 @@ public class TCContinueMessageImpl implements TCContinueMessage {
      * (org.restcomm.protocols.ss7.tcap.asn.DialogPortion)
      */
     public void setDialogPortion(DialogPortion dp) {
+        this.decodePortionsIfNeeded();
         this.dp = dp;
 
     }
@@ -141,57 +144,53 @@ public class TCContinueMessageImpl implements TCContinueMessage {
     public void decode(AsnInputStream ais) throws ParseException {
         try {
             AsnInputStream localAis = ais.readSequenceStream();
+            this.decodeTransactionIds(localAis);
+            this.decodePortions(localAis);
+        } catch (IOException e) {
+            throw new ParseException(PAbortCauseType.BadlyFormattedTxPortion, null, "IOException while decoding TC-Continue: "
+                    + e.getMessage(), e);
+        } catch (AsnException e) {
+            throw new ParseException(PAbortCauseType.BadlyFormattedTxPortion, null, "AsnException while decoding TC-Continue: "
+                    + e.getMessage(), e);
+        }
+    }
 
-            int tag = localAis.readTag();
-            if (tag != _TAG_OTX || localAis.getTagClass() != Tag.CLASS_APPLICATION)
-                throw new ParseException(PAbortCauseType.IncorrectTxPortion, null,
-                        "Error decoding TC-Continue: Expected OriginatingTransactionId, found tag: " + tag);
-            this.originatingTransactionId = localAis.readOctetString();
-
-            tag = localAis.readTag();
-            if (tag != _TAG_DTX || localAis.getTagClass() != Tag.CLASS_APPLICATION)
-                throw new ParseException(PAbortCauseType.IncorrectTxPortion, null,
-                        "Error decoding TC-Continue: Expected DestinationTransactionId, found tag: " + tag);
-            this.destinationTransactionId = localAis.readOctetString();
-
-            if (localAis.available() == 0)
-                return;
-
-            while (true) {
-                if (localAis.available() == 0)
-                    return;
+    /**
+     * Lazy decoding of a received message: only transaction ids are decoded here, the dialog portion and the component
+     * portion are decoded by {@link #decodePortions()} or at the first access to them.
+     *
+     * @param data the received message
+     */
+    public void decodeLazy(byte[] data) throws ParseException {
+        try {
+            AsnInputStream ais = new AsnInputStream(data);
+            ais.readTag();
+            AsnInputStream localAis = ais.readSequenceStream();
+            this.decodeTransactionIds(localAis);
 
-                tag = localAis.readTag();
-                if (localAis.isTagPrimitive() || localAis.getTagClass() != Tag.CLASS_APPLICATION)
-                    throw new ParseException(PAbortCauseType.IncorrectTxPortion, null,
-                            "Error decoding TC-Continue: DialogPortion and Component portion must be constructive and has tag class CLASS_APPLICATION");
-
-                switch (tag) {
-                    case DialogPortion._TAG:
-                        this.dp = TcapFactory.createDialogPortion(localAis);
-                        break;
-
-                    case Component._COMPONENT_TAG:
-                        AsnInputStream compAis = localAis.readSequenceStream();
-                        List<Component> cps = new ArrayList<Component>();
-                        // its iterator :)
-                        while (compAis.available() > 0) {
-                            Component c = TcapFactory.createComponent(compAis);
-                            if (c == null) {
-                                break;
-                            }
-                            cps.add(c);
-                        }
+            this.encodedPortions = EncodedPortions.create(data, localAis);
+            if (this.encodedPortions == null)
+                this.decodePortions(localAis);
+        } catch (IOException e) {
+            throw new ParseException(PAbortCauseType.BadlyFormattedTxPortion, null, "IOException while decoding TC-Continue: "
+                    + e.getMessage(), e);
+        } catch (AsnException e) {
+            throw new ParseException(PAbortCauseType.BadlyFormattedTxPortion, null, "AsnException while decoding TC-Continue: "
+                    + e.getMessage(), e);
+        }
+    }
 
-                        this.component = new Component[cps.size()];
-                        this.component = cps.toArray(this.component);
-                        break;
+    /**
+     * Decodes the dialog portion and the component portion of a lazily decoded message if they have not been decoded yet
+     */
+    public void decodePortions() throws ParseException {
+        EncodedPortions encodedPortions = this.encodedPortions;
+        if (encodedPortions == null)
+            return;
 
-                    default:
-                        throw new ParseException(PAbortCauseType.IncorrectTxPortion, null,
-                                "Error decoding TC-Continue: DialogPortion and Componebt parsing: bad tag - " + tag);
-                }
-            }
+        this.encodedPortions = null;
+        try {
+            this.decodePortions(encodedPortions.getAis());
         } catch (IOException e) {
             throw new ParseException(PAbortCauseType.BadlyFormattedTxPortion, null, "IOException while decoding TC-Continue: "
                     + e.getMessage(), e);
@@ -199,7 +198,67 @@ public class TCContinueMessageImpl implements TCContinueMessage {
             throw new ParseException(PAbortCauseType.BadlyFormattedTxPortion, null, "AsnException while decoding TC-Continue: "
                     + e.getMessage(), e);
         }
+    }
+
+    private void decodePortionsIfNeeded() {
+        try {
+            this.decodePortions();
+        } catch (ParseException e) {
+            // a portion that can not be decoded is treated as absent, TCAPProviderImpl decodes portions before a message is
+            // processed and rejects bad messages
+        }
+    }
 
+    private void decodeTransactionIds(AsnInputStream localAis) throws ParseException, IOException, AsnException {
+        int tag = localAis.readTag();
+        if (tag != _TAG_OTX || localAis.getTagClass() != Tag.CLASS_APPLICATION)
+            throw new ParseException(PAbortCauseType.IncorrectTxPortion, null,
+                    "Error decoding TC-Continue: Expected OriginatingTransactionId, found tag: " + tag);
+        this.originatingTransactionId = localAis.readOctetString();
+
+        tag = localAis.readTag();
+        if (tag != _TAG_DTX || localAis.getTagClass() != Tag.CLASS_APPLICATION)
+            throw new ParseException(PAbortCauseType.IncorrectTxPortion, null,
+                    "Error decoding TC-Continue: Expected DestinationTransactionId, found tag: " + tag);
+        this.destinationTransactionId = localAis.readOctetString();
+    }
+
+    private void decodePortions(AsnInputStream localAis) throws ParseException, IOException, AsnException {
+        while (true) {
+            if (localAis.available() == 0)
+                return;
+
+            int tag = localAis.readTag();
+            if (localAis.isTagPrimitive() || localAis.getTagClass() != Tag.CLASS_APPLICATION)
+                throw new ParseException(PAbortCauseType.IncorrectTxPortion, null,
+                        "Error decoding TC-Continue: DialogPortion and Component portion must be constructive and has tag class CLASS_APPLICATION");
+
+            switch (tag) {
+                case DialogPortion._TAG:
+                    this.dp = TcapFactory.createDialogPortion(localAis);
+                    break;
+
+                case Component._COMPONENT_TAG:
+                    AsnInputStream compAis = localAis.readSequenceStream();
+                    List<Component> cps = new ArrayList<Component>();
+                    // its iterator :)
+                    while (compAis.available() > 0) {
+                        Component c = TcapFactory.createComponent(compAis);
+                        if (c == null) {
+                            break;
+                        }
+                        cps.add(c);
+                    }
+
+                    this.component = new Component[cps.size()];
+                    this.component = cps.toArray(this.component);
+                    break;
+
+                default:
+                    throw new ParseException(PAbortCauseType.IncorrectTxPortion, null,
+                            "Error decoding TC-Continue: DialogPortion and Componebt parsing: bad tag - " + tag);
+            }
+        }
     }
 
     /*
@@ -216,6 +275,10 @@ public class TCContinueMessageImpl implements TCContinueMessage {
             aos.writeOctetString(Tag.CLASS_APPLICATION, _TAG_OTX, this.originatingTransactionId);
             aos.writeOctetString(Tag.CLASS_APPLICATION, _TAG_DTX, this.destinationTransactionId);
 
+            // portions that have not been decoded are written as they were received
+            if (this.encodedPortions != null)
+                this.encodedPortions.encode(aos);
+
             if (this.dp != null)
                 this.dp.encode(aos);
 
@@ -205,6 +205,15 @@ public final class TcapFactory {
         return tc;
     }
 
+    /**
+     * Creates a lazily decoded message, see {@link TCContinueMessageImpl#decodeLazy(byte[])}
+     */
+    public static TCContinueMessageImpl createTCContinueMessageLazy(byte[] data) throws ParseException {
+        TCContinueMessageImpl tc = new TCContinueMessageImpl();
+        tc.decodeLazy(data);
+        return tc;
+    }
+
     public static TCContinueMessage createTCContinueMessage() {
         TCContinueMessageImpl tc = new TCContinueMessageImpl();
         return tc;
@@ -216,6 +225,15 @@ public final class TcapFactory {
         return tc;
     }
 
+    /**
+     * Creates a lazily decoded message, see {@link TCEndMessageImpl#decodeLazy(byte[])}
+     */
+    public static TCEndMessageImpl createTCEndMessageLazy(byte[] data) throws ParseException {
+        TCEndMessageImpl tc = new TCEndMessageImpl();
+        tc.decodeLazy(data);
+        return tc;
+    }
+
     public static TCEndMessage createTCEndMessage() {
         TCEndMessageImpl tc = new TCEndMessageImpl();
         return tc;
@@ -238,6 +256,15 @@ public final class TcapFactory {
         return tc;
     }
 
+    /**
+     * Creates a lazily decoded message, see {@link TCBeginMessageImpl#decodeLazy(byte[])}
+     */
+    public static TCBeginMessageImpl createTCBeginMessageLazy(byte[] data) throws ParseException {
+        TCBeginMessageImpl tc = new TCBeginMessageImpl();
+        tc.decodeLazy(data);
+        return tc;
+    }
+
     public static TCBeginMessage createTCBeginMessage() {
         TCBeginMessageImpl tc = new TCBeginMessageImpl();
         return tc;
@@ -25,6 +25,7 @@ import java.util.Map;
 import javolution.util.FastMap;
 
 import org.apache.log4j.Logger;
+import org.restcomm.protocols.ss7.statistics.api.HistogramValue;
 import org.restcomm.protocols.ss7.tcap.TCAPStackImpl;
 import org.restcomm.ss7.management.console.ShellExecutor;
 
@@ -97,6 +98,8 @@ public class TCAPExecutor implements ShellExecutor {
                 return this.manageSet(options);
             } else if (firstOption.equals("get")) {
                 return this.manageGet(options);
+            } else if (firstOption.equals("latency")) {
+                return this.manageLatency(options);
             }
             // } catch (Exception e) {
             // logger.error(String.format("Error while executing comand %s", Arrays.toString(options)), e);
@@ -243,6 +246,73 @@ public class TCAPExecutor implements ShellExecutor {
         return String.format(TCAPOAMMessage.PARAMETER_SUCCESSFULLY_SET, this.tcapStack.getName());
     }
 
+    /**
+     * Command is tcap latency <dialogduration | invoke> <campaign-name> stackname <stack-name>
+     *
+     * The first command for a campaign name starts the campaign, each next one prints p50 / p99 / p999 (in milliseconds)
+     * collected since the previous command and restarts the campaign
+     *
+     * @param options
+     * @return
+     * @throws Exception
+     */
+    private String manageLatency(String[] options) throws Exception {
+        if (options.length < 4) {
+            return TCAPOAMMessage.INVALID_COMMAND;
+        }
+
+        int count = 4;
+        while (count < options.length) {
+            String key = options[count++];
+            if (key == null || count >= options.length) {
+                return TCAPOAMMessage.INVALID_COMMAND;
+            }
+
+            if (key.equals("stackname")) {
+                String tcapStackName = options[count++];
+
+                TCAPStackImpl tcapStackImpl = this.tcapStacks.get(tcapStackName);
+                if (tcapStackImpl == null) {
+                    return String.format(TCAPOAMMessage.NO_TCAP_STCAK_CONFIGURE, tcapStackName);
+                }
+
+                this.tcapStack = tcapStackImpl;
+            } else {
+                return TCAPOAMMessage.INVALID_COMMAND;
+            }
+        }
+
+        this.setDefaultValue();
+
+        String parName = options[2].toLowerCase();
+        String campaignName = options[3];
+        Map<String, HistogramValue> res;
+        if (parName.equals("dialogduration")) {
+            res = this.tcapStack.getCounterProvider().getDialogsDurationPerApplicatioContextName(campaignName);
+        } else if (parName.equals("invoke")) {
+            res = this.tcapStack.getCounterProvider().getInvokeLatencyPerOperationCode(campaignName);
+        } else {
+            return TCAPOAMMessage.INVALID_COMMAND;
+        }
+
+        if (res == null) {
+            return String.format(TCAPOAMMessage.LATENCY_CAMPAIGN_STARTED, campaignName, this.tcapStack.getName());
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(options[2]);
+        sb.append(" latency (ms) for campaign ");
+        sb.append(campaignName);
+        sb.append("\n");
+        for (Map.Entry<String, HistogramValue> e : res.entrySet()) {
+            sb.append(e.getKey().length() > 0 ? e.getKey() : "<none>");
+            sb.append(" : ");
+            sb.append(e.getValue());
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
     /**
      * Command is tcap get <param-name> <name of stack>
      *
@@ -32,4 +32,6 @@ public interface TCAPOAMMessage {
     String PARAMETER_SUCCESSFULLY_SET = "Parameter has been successfully set for stack=%s";
 
     String NO_TCAP_STCAK_CONFIGURE = "No TCAP stack configured for name %s";
+
+    String LATENCY_CAMPAIGN_STARTED = "Latency campaign %s has been started for stack=%s";
 }
@@ -0,0 +1,127 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tcap;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test for ConcurrentLongHashMap
+ *
+ */
+public class ConcurrentLongHashMapTest {
+
+    @Test(groups = { "functional.settings" })
+    public void testBasicOperations() throws Exception {
+        ConcurrentLongHashMap<String> map = new ConcurrentLongHashMap<String>(16, 4);
+
+        assertTrue(map.isEmpty());
+        assertNull(map.put(1, "1"));
+        assertNull(map.put(17, "17"));
+        assertNull(map.put(33, "33"));
+        assertEquals(map.put(17, "17a"), "17");
+        assertEquals(map.putIfAbsent(33, "33a"), "33");
+        assertEquals(map.size(), 3);
+
+        assertEquals(map.get(1), "1");
+        assertEquals(map.get(17), "17a");
+        assertEquals(map.get(33), "33");
+        assertNull(map.get(49));
+
+        assertEquals(map.remove(17), "17a");
+        assertNull(map.remove(17));
+        assertFalse(map.containsKey(17));
+        assertEquals(map.get(33), "33");
+        assertEquals(map.size(), 2);
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1));
+    }
+
+    @Test(groups = { "functional.settings" })
+    public void testRandomOperations() throws Exception {
+        ConcurrentLongHashMap<Long> map = new ConcurrentLongHashMap<Long>(16, 4);
+        Map<Long, Long> etalon = new HashMap<Long, Long>();
+        Random rnd = new Random(1);
+
+        for (int i = 0; i < 500000; i++) {
+            long key = rnd.nextInt(5000) * (rnd.nextBoolean() ? 1 : 37);
+            switch (rnd.nextInt(3)) {
+                case 0:
+                    assertEquals(map.put(key, key + i), etalon.put(key, key + i));
+                    break;
+                case 1:
+                    assertEquals(map.remove(key), etalon.remove(key));
+                    break;
+                default:
+                    assertEquals(map.get(key), etalon.get(key));
+                    break;
+            }
+        }
+        assertEquals(map.size(), etalon.size());
+        for (Map.Entry<Long, Long> e : etalon.entrySet()) {
+            assertEquals(map.get(e.getKey()), e.getValue());
+        }
+    }
+
+    @Test(groups = { "functional.settings" })
+    public void testConcurrentOperations() throws Exception {
+        final ConcurrentLongHashMap<Long> map = new ConcurrentLongHashMap<Long>();
+        final AtomicInteger errors = new AtomicInteger();
+
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            final long base = i * 1000000L;
+            threads[i] = new Thread() {
+                public void run() {
+                    for (int k = 0; k < 200000; k++) {
+                        Long key = base + k % 20000;
+                        map.put(key, key);
+                        if (!key.equals(map.get(key)))
+                            errors.incrementAndGet();
+                        if (!key.equals(map.remove(key)))
+                            errors.incrementAndGet();
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertEquals(errors.get(), 0);
+        assertTrue(map.isEmpty());
+    }
+
+}
@@ -0,0 +1,355 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tcap;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.restcomm.protocols.ss7.indicator.RoutingIndicator;
+import org.restcomm.protocols.ss7.sccp.impl.SccpHarness;
+import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
+import org.restcomm.protocols.ss7.tcap.api.ComponentPrimitiveFactory;
+import org.restcomm.protocols.ss7.tcap.api.TCListener;
+import org.restcomm.protocols.ss7.tcap.api.tc.component.InvokeClass;
+import org.restcomm.protocols.ss7.tcap.api.tc.dialog.Dialog;
+import org.restcomm.protocols.ss7.tcap.api.tc.dialog.events.TCBeginIndication;
+import org.restcomm.protocols.ss7.tcap.api.tc.dialog.events.TCBeginRequest;
+import org.restcomm.protocols.ss7.tcap.api.tc.dialog.events.TCContinueIndication;
+import org.restcomm.protocols.ss7.tcap.api.tc.dialog.events.TCContinueRequest;
+import org.restcomm.protocols.ss7.tcap.api.tc.dialog.events.TCEndIndication;
+import org.restcomm.protocols.ss7.tcap.api.tc.dialog.events.TCEndRequest;
+import org.restcomm.protocols.ss7.tcap.api.tc.dialog.events.TCNoticeIndication;
+import org.restcomm.protocols.ss7.tcap.api.tc.dialog.events.TCPAbortIndication;
+import org.restcomm.protocols.ss7.tcap.api.tc.dialog.events.TCUniIndication;
+import org.restcomm.protocols.ss7.tcap.api.tc.dialog.events.TCUserAbortIndication;
+import org.restcomm.protocols.ss7.tcap.api.tc.dialog.events.TerminationType;
+import org.restcomm.protocols.ss7.tcap.asn.InvokeImpl;
+import org.restcomm.protocols.ss7.tcap.asn.comp.Invoke;
+import org.restcomm.protocols.ss7.tcap.asn.comp.OperationCode;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for dialogs processing in the sharded mode (TCAPStackImpl.setDialogShardCount() > 0)
+ */
+public class DialogShardsFunctionalTest extends SccpHarness {
+
+    private static final long[] _ACN_ = new long[] { 0, 4, 0, 0, 1, 0, 19, 2 };
+    private static final int SHARD_COUNT = 4;
+    private static final int DIALOG_COUNT = 32;
+    private static final long DIALOG_TIMEOUT = 1000;
+    private static final long INVOKE_TIMEOUT = 500;
+
+    private TCAPStackImpl tcapStack1;
+    private TCAPStackImpl tcapStack2;
+    private SccpAddress peer1Address;
+    private SccpAddress peer2Address;
+
+    // errors that are caught in shard threads
+    private List<Throwable> errors;
+
+    @BeforeClass
+    public void setUpClass() {
+        this.sccpStack1Name = "DialogShardsFunctionalTestSccpStack1";
+        this.sccpStack2Name = "DialogShardsFunctionalTestSccpStack2";
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        super.setUp();
+
+        peer1Address = super.parameterFactory.createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 1, 8);
+        peer2Address = super.parameterFactory.createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 2, 8);
+
+        this.tcapStack1 = new TCAPStackImpl("DialogShardsFunctionalTest", this.sccpProvider1, 8);
+        this.tcapStack2 = new TCAPStackImpl("DialogShardsFunctionalTest", this.sccpProvider2, 8);
+        this.tcapStack1.setDialogShardCount(SHARD_COUNT);
+        this.tcapStack2.setDialogShardCount(SHARD_COUNT);
+
+        this.tcapStack1.start();
+        this.tcapStack2.start();
+
+        this.tcapStack1.setInvokeTimeout(0);
+        this.tcapStack2.setInvokeTimeout(0);
+        this.tcapStack1.setDialogIdleTimeout(DIALOG_TIMEOUT);
+        this.tcapStack2.setDialogIdleTimeout(DIALOG_TIMEOUT);
+
+        this.errors = new CopyOnWriteArrayList<Throwable>();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        this.tcapStack1.stop();
+        this.tcapStack2.stop();
+        super.tearDown();
+    }
+
+    @Test(groups = { "functional.flow" })
+    public void testBeginContinueEnd() throws Exception {
+        final TCAPProviderImpl provider1 = (TCAPProviderImpl) this.tcapStack1.getProvider();
+        final TCAPProviderImpl provider2 = (TCAPProviderImpl) this.tcapStack2.getProvider();
+        final CountDownLatch serverEnds = new CountDownLatch(DIALOG_COUNT);
+        final CountDownLatch clientReleases = new CountDownLatch(DIALOG_COUNT);
+        final CountDownLatch serverReleases = new CountDownLatch(DIALOG_COUNT);
+        ShardListener client = new ShardListener() {
+            @Override
+            public void onTCContinue(TCContinueIndication ind) {
+                this.check(ind.getDialog());
+                try {
+                    TCEndRequest end = provider1.getDialogPrimitiveFactory().createEnd(ind.getDialog());
+                    end.setTermination(TerminationType.Basic);
+                    ind.getDialog().send(end);
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            }
+
+            @Override
+            public void onDialogReleased(Dialog d) {
+                this.check(d);
+                clientReleases.countDown();
+            }
+        };
+        ShardListener server = new ShardListener() {
+            @Override
+            public void onTCBegin(TCBeginIndication ind) {
+                this.check(ind.getDialog());
+                try {
+                    TCContinueRequest con = provider2.getDialogPrimitiveFactory().createContinue(ind.getDialog());
+                    con.setApplicationContextName(ind.getApplicationContextName());
+                    ind.getDialog().send(con);
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            }
+
+            @Override
+            public void onTCEnd(TCEndIndication ind) {
+                this.check(ind.getDialog());
+                serverEnds.countDown();
+            }
+
+            @Override
+            public void onDialogReleased(Dialog d) {
+                this.check(d);
+                serverReleases.countDown();
+            }
+        };
+        provider1.addTCListener(client);
+        provider2.addTCListener(server);
+
+        for (int i = 0; i < DIALOG_COUNT; i++) {
+            final Dialog dialog = provider1.getNewDialog(peer1Address, peer2Address);
+            provider1.executeInDialogShard(dialog, new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        sendBegin(provider1, dialog, null);
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+            });
+        }
+
+        assertTrue(serverEnds.await(10, TimeUnit.SECONDS));
+        assertTrue(clientReleases.await(10, TimeUnit.SECONDS));
+        assertTrue(serverReleases.await(10, TimeUnit.SECONDS));
+        assertEquals(this.errors.size(), 0, "Errors: " + this.errors);
+        assertEquals(client.wrongShardCount, 0);
+        assertEquals(server.wrongShardCount, 0);
+        // dialogs are spread over shards on both sides
+        assertTrue(client.usedShards.size() > 1);
+        assertTrue(server.usedShards.size() > 1);
+        assertEquals(provider1.getCurrentDialogsCount(), 0);
+        assertEquals(provider2.getCurrentDialogsCount(), 0);
+    }
+
+    @Test(groups = { "functional.timeout" })
+    public void testTimeout() throws Exception {
+        final TCAPProviderImpl provider1 = (TCAPProviderImpl) this.tcapStack1.getProvider();
+        final TCAPProviderImpl provider2 = (TCAPProviderImpl) this.tcapStack2.getProvider();
+        final CountDownLatch invokeTimeouts = new CountDownLatch(DIALOG_COUNT);
+        final CountDownLatch clientTimeouts = new CountDownLatch(DIALOG_COUNT);
+        final CountDownLatch serverTimeouts = new CountDownLatch(DIALOG_COUNT);
+        final CountDownLatch clientReleases = new CountDownLatch(DIALOG_COUNT);
+        final CountDownLatch serverReleases = new CountDownLatch(DIALOG_COUNT);
+        ShardListener client = new ShardListener() {
+            @Override
+            public void onInvokeTimeout(Invoke tcInvokeRequest) {
+                this.check(((InvokeImpl) tcInvokeRequest).getDialog());
+                invokeTimeouts.countDown();
+            }
+
+            @Override
+            public void onDialogTimeout(Dialog d) {
+                this.check(d);
+                clientTimeouts.countDown();
+            }
+
+            @Override
+            public void onDialogReleased(Dialog d) {
+                this.check(d);
+                clientReleases.countDown();
+            }
+        };
+        // the server does not answer
+        ShardListener server = new ShardListener() {
+            @Override
+            public void onDialogTimeout(Dialog d) {
+                this.check(d);
+                serverTimeouts.countDown();
+            }
+
+            @Override
+            public void onDialogReleased(Dialog d) {
+                this.check(d);
+                serverReleases.countDown();
+            }
+        };
+        provider1.addTCListener(client);
+        provider2.addTCListener(server);
+
+        for (int i = 0; i < DIALOG_COUNT; i++) {
+            final Dialog dialog = provider1.getNewDialog(peer1Address, peer2Address);
+            provider1.executeInDialogShard(dialog, new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        sendBegin(provider1, dialog, INVOKE_TIMEOUT);
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+            });
+        }
+
+        assertTrue(invokeTimeouts.await(DIALOG_TIMEOUT * 10, TimeUnit.MILLISECONDS));
+        assertTrue(clientTimeouts.await(DIALOG_TIMEOUT * 10, TimeUnit.MILLISECONDS));
+        assertTrue(serverTimeouts.await(DIALOG_TIMEOUT * 10, TimeUnit.MILLISECONDS));
+        assertTrue(clientReleases.await(DIALOG_TIMEOUT * 10, TimeUnit.MILLISECONDS));
+        assertTrue(serverReleases.await(DIALOG_TIMEOUT * 10, TimeUnit.MILLISECONDS));
+        assertEquals(this.errors.size(), 0, "Errors: " + this.errors);
+        assertEquals(client.wrongShardCount, 0);
+        assertEquals(server.wrongShardCount, 0);
+        assertTrue(client.usedShards.size() > 1);
+        assertTrue(server.usedShards.size() > 1);
+    }
+
+    @Test(groups = { "functional.flow" })
+    public void testSendOutsideOfShard() throws Exception {
+        TCAPProviderImpl provider1 = (TCAPProviderImpl) this.tcapStack1.getProvider();
+        Dialog dialog = provider1.getNewDialog(peer1Address, peer2Address);
+        try {
+            this.sendBegin(provider1, dialog, null);
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+        }
+        dialog.release();
+    }
+
+    private void sendBegin(TCAPProviderImpl provider, Dialog dialog, Long invokeTimeout) throws Exception {
+        if (invokeTimeout != null) {
+            ComponentPrimitiveFactory cpFactory = provider.getComponentPrimitiveFactory();
+            Invoke invoke = cpFactory.createTCInvokeRequest(InvokeClass.Class1);
+            invoke.setInvokeId(dialog.getNewInvokeId());
+            OperationCode oc = cpFactory.createOperationCode();
+            oc.setLocalOperationCode(12L);
+            invoke.setOperationCode(oc);
+            invoke.setTimeout(invokeTimeout);
+            dialog.sendComponent(invoke);
+        }
+
+        TCBeginRequest begin = provider.getDialogPrimitiveFactory().createBegin(dialog);
+        begin.setApplicationContextName(provider.getDialogPrimitiveFactory().createApplicationContextName(_ACN_));
+        dialog.send(begin);
+    }
+
+    /**
+     * Listener that checks that every dialog event is processed by the thread of the dialog shard
+     */
+    private static class ShardListener implements TCListener {
+        protected volatile int wrongShardCount;
+        protected final Set<Integer> usedShards = ConcurrentHashMap.<Integer> newKeySet();
+
+        protected void check(Dialog dialog) {
+            int shard = ((DialogImpl) dialog).getShard();
+            if (shard < 0 || DialogShards.getCurrentShard() != shard) {
+                synchronized (this) {
+                    wrongShardCount++;
+                }
+            }
+            usedShards.add(shard);
+        }
+
+        @Override
+        public void onTCUni(TCUniIndication ind) {
+        }
+
+        @Override
+        public void onTCBegin(TCBeginIndication ind) {
+        }
+
+        @Override
+        public void onTCContinue(TCContinueIndication ind) {
+        }
+
+        @Override
+        public void onTCEnd(TCEndIndication ind) {
+        }
+
+        @Override
+        public void onTCUserAbort(TCUserAbortIndication ind) {
+        }
+
+        @Override
+        public void onTCPAbort(TCPAbortIndication ind) {
+        }
+
+        @Override
+        public void onTCNotice(TCNoticeIndication ind) {
+        }
+
+        @Override
+        public void onDialogReleased(Dialog d) {
+        }
+
+        @Override
+        public void onInvokeTimeout(Invoke tcInvokeRequest) {
+        }
+
+        @Override
+        public void onDialogTimeout(Dialog d) {
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tcap;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test for DialogShards
+ *
+ */
+public class DialogShardsTest {
+
+    @Test(groups = { "functional.settings" })
+    public void testShardOf() throws Exception {
+        DialogShards shards = new DialogShards("Test-Shard", 8);
+        try {
+            assertEquals(shards.getShardCount(), 8);
+            for (long id = 0; id < 1000; id++) {
+                int shard = shards.shardOf(id);
+                assertTrue(shard >= 0 && shard < 8);
+                assertEquals(shards.shardOf(id), shard);
+            }
+            assertEquals(DialogShards.getCurrentShard(), -1);
+        } finally {
+            shards.stop();
+        }
+
+        try {
+            new DialogShards("Test-Shard", 6);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test(groups = { "functional.settings" })
+    public void testExecution() throws Exception {
+        final DialogShards shards = new DialogShards("Test-Shard", 4);
+        try {
+            final int taskCount = 1000;
+            final CountDownLatch latch = new CountDownLatch(taskCount * 2);
+            final AtomicInteger wrongShard = new AtomicInteger();
+            // tasks of one shard are executed sequentially, so a not synchronized counter is consistent
+            final int[] counters = new int[4];
+            for (int i = 0; i < taskCount; i++) {
+                final int shard = i & 3;
+                shards.execute(shard, new Runnable() {
+                    @Override
+                    public void run() {
+                        if (DialogShards.getCurrentShard() != shard)
+                            wrongShard.incrementAndGet();
+                        counters[shard]++;
+                        latch.countDown();
+                    }
+                });
+                shards.bind(shard, new Runnable() {
+                    @Override
+                    public void run() {
+                        if (DialogShards.getCurrentShard() != shard)
+                            wrongShard.incrementAndGet();
+                        counters[shard]++;
+                        latch.countDown();
+                    }
+                }).run();
+            }
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertEquals(wrongShard.get(), 0);
+
+            final int[] total = new int[1];
+            final CountDownLatch done = new CountDownLatch(4);
+            for (int i = 0; i < 4; i++) {
+                final int shard = i;
+                shards.execute(shard, new Runnable() {
+                    @Override
+                    public void run() {
+                        synchronized (total) {
+                            total[0] += counters[shard];
+                        }
+                        done.countDown();
+                    }
+                });
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            synchronized (total) {
+                assertEquals(total[0], taskCount * 2);
+            }
+        } finally {
+            shards.stop();
+        }
+    }
+
+    @Test(groups = { "functional.settings" })
+    public void testNoLock() throws Exception {
+        DialogShards.NO_LOCK.lock();
+        assertTrue(DialogShards.NO_LOCK.tryLock());
+        DialogShards.NO_LOCK.unlock();
+        DialogShards.NO_LOCK.unlock();
+        assertEquals(DialogShards.NO_LOCK.getHoldCount(), 0);
+    }
+
+}
@@ -29,6 +29,7 @@ import java.util.Date;
 import javolution.util.FastMap;
 
 import org.restcomm.protocols.ss7.statistics.StatDataCollectionImpl;
+import org.restcomm.protocols.ss7.statistics.api.HistogramValue;
 import org.restcomm.protocols.ss7.statistics.api.LongValue;
 import org.restcomm.protocols.ss7.statistics.api.StatCounterCollection;
 import org.restcomm.protocols.ss7.statistics.api.StatDataCollection;
@@ -230,5 +231,99 @@ public class StatCounterTest {
 
     }
 
-}
+    @Test(groups = { "statistic" })
+    public void countersConcurrentUpdateTest() throws Exception {
+        final StatDataCollection sdc = new StatDataCollectionImpl();
+        sdc.registerStatCounterCollector("counter1", StatDataCollectorType.StringLongMap);
+        sdc.registerStatCounterCollector("counter2", StatDataCollectorType.MAX);
+        assertNull(sdc.restartAndGet("counter1", "a1"));
+        assertNull(sdc.restartAndGet("counter2", "a1"));
+
+        final int threadCount = 4;
+        final int updateCount = 10000;
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            final int base = i * updateCount;
+            threads[i] = new Thread() {
+                public void run() {
+                    for (int j = 0; j < updateCount; j++) {
+                        sdc.updateData("counter1", (j % 2 == 0) ? "x1" : "x2");
+                        sdc.updateData("counter2", base + j);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+
+        long x1 = 0;
+        long x2 = 0;
+        // snapshots are taken while updating, no update may be lost
+        for (int i = 0; i < 10; i++) {
+            FastMap<String, LongValue> res = sdc.restartAndGet("counter1", "a1").getStringLongValue();
+            x1 += res.get("x1") != null ? res.get("x1").getValue() : 0;
+            x2 += res.get("x2") != null ? res.get("x2").getValue() : 0;
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        FastMap<String, LongValue> res = sdc.restartAndGet("counter1", "a1").getStringLongValue();
+        x1 += res.get("x1") != null ? res.get("x1").getValue() : 0;
+        x2 += res.get("x2") != null ? res.get("x2").getValue() : 0;
+
+        assertEquals(x1, threadCount * updateCount / 2);
+        assertEquals(x2, threadCount * updateCount / 2);
+        assertEquals(sdc.restartAndGet("counter2", "a1").getLongValue(), threadCount * updateCount - 1);
+    }
+
+    @Test(groups = { "statistic" })
+    public void countersHistogramTest() throws Exception {
 
+        StatDataCollection sdc = new StatDataCollectionImpl();
+
+        sdc.registerStatCounterCollector("counter1", StatDataCollectorType.StringHistogramMap);
+
+        assertNull(sdc.restartAndGet("counter1", "a1"));
+        FastMap<String, HistogramValue> res = sdc.restartAndGet("counter1", "a1").getStringHistogramValue();
+        assertEquals(res.size(), 0);
+
+        // values below 128 are kept exactly
+        for (int i = 1; i <= 100; i++) {
+            sdc.updateData("counter1", "x1", i);
+        }
+        sdc.updateData("counter1", "x2", 7);
+        res = sdc.restartAndGet("counter1", "a1").getStringHistogramValue();
+        assertEquals(res.size(), 2);
+        HistogramValue hv = res.get("x1");
+        assertEquals(hv.getCount(), 100);
+        assertEquals(hv.getMin(), 1);
+        assertEquals(hv.getMax(), 100);
+        assertEquals(hv.getMean(), 50.5, 0.001);
+        assertEquals(hv.getP50(), 50);
+        assertEquals(hv.getP99(), 99);
+        assertEquals(hv.getP999(), 100);
+        hv = res.get("x2");
+        assertEquals(hv.getCount(), 1);
+        assertEquals(hv.getP50(), 7);
+        assertEquals(hv.getP999(), 7);
+
+        // bigger values are kept with the relative error below 1/64
+        for (int i = 1; i <= 100000; i++) {
+            sdc.updateData("counter1", "x1", i);
+        }
+        sdc.updateData("counter1", "x1", -5);
+        sdc.updateData("counter1", "x1", Long.MAX_VALUE);
+        res = sdc.restartAndGet("counter1", "a1").getStringHistogramValue();
+        assertEquals(res.size(), 1);
+        hv = res.get("x1");
+        assertEquals(hv.getCount(), 100002);
+        assertEquals(hv.getMin(), 0);
+        assertEquals(hv.getMax(), 24 * 3600 * 1000L);
+        assertTrue(hv.getP50() >= 50001 && hv.getP50() <= 50001 + 50001 / 64);
+        assertTrue(hv.getP99() >= 99001 && hv.getP99() <= 99001 + 99001 / 64);
+        assertTrue(hv.getP999() >= 99901 && hv.getP999() <= 99901 + 99901 / 64);
+
+        res = sdc.restartAndGet("counter1", "a1").getStringHistogramValue();
+        assertEquals(res.size(), 0);
+    }
+
+}
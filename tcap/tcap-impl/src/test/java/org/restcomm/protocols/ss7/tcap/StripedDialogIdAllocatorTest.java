@@ -0,0 +1,195 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tcap;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.restcomm.protocols.ss7.tcap.api.TCAPException;
+import org.testng.annotations.Test;
+
+/**
+ * Test for StripedDialogIdAllocator
+ *
+ */
+public class StripedDialogIdAllocatorTest {
+
+    @Test(groups = { "functional.settings" })
+    public void testSequentialAllocation() throws Exception {
+        StripedDialogIdAllocator allocator = new StripedDialogIdAllocator(1, 11000, 1, 14);
+
+        assertEquals(allocator.allocate(100), 1);
+        assertEquals(allocator.allocate(100), 2);
+        assertEquals(allocator.next(), 3);
+        assertEquals(allocator.allocate(100), 4);
+        assertEquals(allocator.getAllocatedCount(), 3);
+
+        // the cursor position is kept after a range change
+        allocator.setRange(1, 10004);
+        allocator.setRange(1, 10005);
+        allocator.setRange(20, 10020);
+        assertEquals(allocator.allocate(100), 21);
+
+        allocator.release(21);
+        allocator.release(21);
+        assertEquals(allocator.getAllocatedCount(), 3);
+
+        assertTrue(allocator.reserve(500, 100));
+        assertFalse(allocator.reserve(500, 100));
+        assertFalse(allocator.reserve(1, 100));
+        assertEquals(allocator.getAllocatedCount(), 4);
+
+        allocator.clear();
+        assertEquals(allocator.getAllocatedCount(), 0);
+        assertTrue(allocator.reserve(1, 100));
+    }
+
+    @Test(groups = { "functional.settings" })
+    public void testDenseRange() throws Exception {
+        // maxDialogs is equal to the range size - 1
+        StripedDialogIdAllocator allocator = new StripedDialogIdAllocator(1, 10001, 4, 14);
+        Set<Long> ids = new HashSet<Long>();
+        for (int i = 0; i < 10000; i++) {
+            long id = allocator.allocate(10000);
+            assertTrue(id >= 1 && id <= 10001);
+            assertTrue(ids.add(id));
+        }
+
+        try {
+            allocator.allocate(10000);
+            fail("Must be exception");
+        } catch (TCAPException e) {
+        }
+
+        allocator.release(5000);
+        assertEquals(allocator.allocate(10000), 5000);
+    }
+
+    @Test(groups = { "functional.settings" })
+    public void testRangeBiggerThanBitmap() throws Exception {
+        StripedDialogIdAllocator allocator = new StripedDialogIdAllocator(1, Integer.MAX_VALUE, 8, 10);
+        Set<Long> ids = new HashSet<Long>();
+        for (int i = 0; i < 1024; i++) {
+            assertTrue(ids.add(allocator.allocate(2000)));
+        }
+        assertEquals(allocator.getAllocatedCount(), 1024);
+
+        try {
+            allocator.allocate(2000);
+            fail("Must be exception");
+        } catch (TCAPException e) {
+        }
+    }
+
+    @Test(groups = { "functional.settings" })
+    public void testSlotCollision() throws Exception {
+        // 1024 slots, ids 1 and 1025 have the same slot
+        StripedDialogIdAllocator allocator = new StripedDialogIdAllocator(1, 1000, 1, 10);
+        assertEquals(allocator.allocate(100), 1);
+
+        assertTrue(allocator.reserve(1025, 100));
+        assertFalse(allocator.reserve(1025, 100));
+        assertFalse(allocator.reserve(1, 100));
+        assertEquals(allocator.getAllocatedCount(), 2);
+
+        // releasing of one id does not free the other one
+        allocator.release(1025);
+        assertFalse(allocator.reserve(1, 100));
+        assertTrue(allocator.reserve(1025, 100));
+        allocator.release(1);
+        assertFalse(allocator.reserve(1025, 100));
+        assertTrue(allocator.reserve(1, 100));
+        assertEquals(allocator.getAllocatedCount(), 2);
+    }
+
+    @Test(groups = { "functional.settings" })
+    public void testSlotCollisionBigRange() throws Exception {
+        final Set<Long> dialogs = new HashSet<Long>();
+        StripedDialogIdAllocator allocator = new StripedDialogIdAllocator(1, Integer.MAX_VALUE, 1, 10) {
+            @Override
+            protected boolean isIdUsed(long id) {
+                return dialogs.contains(id);
+            }
+        };
+
+        long id = allocator.allocate(100);
+        dialogs.add(id);
+        assertEquals(id, 1);
+        assertTrue(allocator.reserve(1025, 100));
+        assertFalse(allocator.reserve(1025, 100));
+        assertFalse(allocator.reserve(1, 100));
+
+        // a suggested id is not allocated
+        assertTrue(allocator.reserve(2, 100));
+        assertEquals(allocator.allocate(100), 3);
+        allocator.release(2);
+        assertEquals(allocator.getAllocatedCount(), 3);
+
+        // without the exact check an id with an occupied slot is considered as used
+        StripedDialogIdAllocator allocator2 = new StripedDialogIdAllocator(1, Integer.MAX_VALUE, 1, 10);
+        assertEquals(allocator2.allocate(100), 1);
+        assertFalse(allocator2.reserve(1025, 100));
+        assertTrue(allocator2.reserve(1026, 100));
+    }
+
+    @Test(groups = { "functional.settings" })
+    public void testConcurrentAllocation() throws Exception {
+        final StripedDialogIdAllocator allocator = new StripedDialogIdAllocator(1, 20000, 8, 16);
+        final ConcurrentHashMap<Long, Long> used = new ConcurrentHashMap<Long, Long>();
+        final AtomicInteger errors = new AtomicInteger();
+
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                public void run() {
+                    try {
+                        for (int k = 0; k < 100000; k++) {
+                            long id = allocator.allocate(19000);
+                            if (used.putIfAbsent(id, id) != null)
+                                errors.incrementAndGet();
+                            used.remove(id);
+                            allocator.release(id);
+                        }
+                    } catch (TCAPException e) {
+                        errors.incrementAndGet();
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertEquals(errors.get(), 0);
+        assertEquals(allocator.getAllocatedCount(), 0);
+    }
+
+}
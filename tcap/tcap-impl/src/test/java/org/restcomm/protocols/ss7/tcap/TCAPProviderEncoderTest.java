@@ -0,0 +1,238 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tcap;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javolution.util.FastMap;
+
+import org.mobicents.protocols.asn.AsnOutputStream;
+import org.restcomm.protocols.ss7.sccp.MaxConnectionCountReached;
+import org.restcomm.protocols.ss7.sccp.NetworkIdState;
+import org.restcomm.protocols.ss7.sccp.SccpConnection;
+import org.restcomm.protocols.ss7.sccp.SccpListener;
+import org.restcomm.protocols.ss7.sccp.SccpManagementEventListener;
+import org.restcomm.protocols.ss7.sccp.SccpProvider;
+import org.restcomm.protocols.ss7.sccp.SccpStack;
+import org.restcomm.protocols.ss7.sccp.impl.SccpStackImpl;
+import org.restcomm.protocols.ss7.sccp.impl.message.MessageFactoryImpl;
+import org.restcomm.protocols.ss7.sccp.impl.parameter.SccpAddressImpl;
+import org.restcomm.protocols.ss7.sccp.message.MessageFactory;
+import org.restcomm.protocols.ss7.sccp.message.SccpDataMessage;
+import org.restcomm.protocols.ss7.sccp.message.SccpNoticeMessage;
+import org.restcomm.protocols.ss7.sccp.parameter.LocalReference;
+import org.restcomm.protocols.ss7.sccp.parameter.ParameterFactory;
+import org.restcomm.protocols.ss7.sccp.parameter.ProtocolClass;
+import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
+import org.restcomm.ss7.congestion.ExecutorCongestionMonitor;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Checks the per thread cache of encoders for outgoing messages
+ */
+public class TCAPProviderEncoderTest {
+
+    private SccpProviderRecorder sccpProvider;
+    private TCAPStackImpl tcapStack;
+    private TCAPProviderImpl tcapProvider;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        this.sccpProvider = new SccpProviderRecorder();
+        this.tcapStack = new TCAPStackImpl("TCAPProviderEncoderTest", this.sccpProvider, 8);
+        this.tcapProvider = (TCAPProviderImpl) this.tcapStack.getProvider();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        this.tcapStack.stop();
+    }
+
+    private void send(AsnOutputStream aos) throws IOException {
+        SccpAddress address = new SccpAddressImpl();
+        this.tcapProvider.send(aos, false, address, address, 1, 0, 8, -1);
+    }
+
+    private void encode(AsnOutputStream aos, int length) {
+        for (int i = 0; i < length; i++) {
+            aos.write(i);
+        }
+    }
+
+    @Test(groups = { "functional.encode" })
+    public void testEncoderReuse() throws Exception {
+        this.tcapStack.start();
+
+        AsnOutputStream aos = this.tcapProvider.borrowEncoder();
+        this.encode(aos, 1000);
+        this.send(aos);
+        this.tcapProvider.releaseEncoder(aos);
+
+        // a released encoder is reused and reset
+        AsnOutputStream aos2 = this.tcapProvider.borrowEncoder();
+        assertSame(aos2, aos);
+        assertEquals(aos2.size(), 0);
+
+        // nested encoding gets its own encoder that is not cached
+        AsnOutputStream nested = this.tcapProvider.borrowEncoder();
+        assertNotSame(nested, aos2);
+        this.tcapProvider.releaseEncoder(nested);
+        this.tcapProvider.releaseEncoder(aos2);
+        assertSame(this.tcapProvider.borrowEncoder(), aos);
+        this.tcapProvider.releaseEncoder(aos);
+
+        // the sent data is a copy of the encoder content
+        assertEquals(this.sccpProvider.messages.size(), 1);
+        assertEquals(this.sccpProvider.messages.get(0).getData().length, 1000);
+    }
+
+    @Test(groups = { "functional.encode" })
+    public void testGrownEncoderIsDropped() throws Exception {
+        this.tcapStack.start();
+
+        AsnOutputStream aos = this.tcapProvider.borrowEncoder();
+        this.tcapProvider.releaseEncoder(aos);
+        assertSame(this.tcapProvider.borrowEncoder(), aos);
+
+        // a very big message - the encoder is above the cached capacity (8192 bytes)
+        this.encode(aos, 10000);
+        this.send(aos);
+        this.tcapProvider.releaseEncoder(aos);
+
+        AsnOutputStream aos2 = this.tcapProvider.borrowEncoder();
+        assertNotSame(aos2, aos);
+        assertEquals(aos2.size(), 0);
+        this.tcapProvider.releaseEncoder(aos2);
+        assertSame(this.tcapProvider.borrowEncoder(), aos2);
+        this.tcapProvider.releaseEncoder(aos2);
+
+        assertEquals(this.sccpProvider.messages.size(), 1);
+        byte[] data = this.sccpProvider.messages.get(0).getData();
+        assertEquals(data.length, 10000);
+        assertEquals(data[9999], (byte) 9999);
+    }
+
+    @Test(groups = { "functional.encode" })
+    public void testPreviewModeSend() throws Exception {
+        this.tcapStack.setPreviewMode(true);
+        this.tcapStack.start();
+
+        AsnOutputStream aos = this.tcapProvider.borrowEncoder();
+        this.encode(aos, 100);
+        this.send(aos);
+        this.tcapProvider.releaseEncoder(aos);
+
+        // nothing is sent in the preview mode, the encoder is still released
+        assertEquals(this.sccpProvider.messages.size(), 0);
+        assertSame(this.tcapProvider.borrowEncoder(), aos);
+        this.tcapProvider.releaseEncoder(aos);
+    }
+
+    private static class SccpProviderRecorder implements SccpProvider {
+
+        private final MessageFactory messageFactory = new MessageFactoryImpl(new SccpStackImpl("TCAPProviderEncoderTest",
+                null));
+        private final List<SccpDataMessage> messages = new ArrayList<SccpDataMessage>();
+
+        @Override
+        public void registerSccpListener(int ssn, SccpListener listener) {
+        }
+
+        @Override
+        public void deregisterSccpListener(int ssn) {
+        }
+
+        @Override
+        public void registerManagementEventListener(SccpManagementEventListener listener) {
+        }
+
+        @Override
+        public void deregisterManagementEventListener(SccpManagementEventListener listener) {
+        }
+
+        @Override
+        public MessageFactory getMessageFactory() {
+            return messageFactory;
+        }
+
+        @Override
+        public ParameterFactory getParameterFactory() {
+            return null;
+        }
+
+        @Override
+        public void send(SccpDataMessage msg) throws IOException {
+            messages.add(msg);
+        }
+
+        @Override
+        public void send(SccpNoticeMessage message) throws IOException {
+        }
+
+        @Override
+        public int getMaxUserDataLength(SccpAddress calledPartyAddress, SccpAddress callingPartyAddress, int networkId) {
+            return 0;
+        }
+
+        @Override
+        public void coordRequest(int ssn) {
+        }
+
+        @Override
+        public FastMap<Integer, NetworkIdState> getNetworkIdStateList() {
+            return new FastMap<Integer, NetworkIdState>();
+        }
+
+        @Override
+        public ExecutorCongestionMonitor[] getExecutorCongestionMonitorList() {
+            return null;
+        }
+
+        @Override
+        public SccpConnection newConnection(int localSsn, ProtocolClass protocolClass) throws MaxConnectionCountReached {
+            return null;
+        }
+
+        @Override
+        public FastMap<LocalReference, SccpConnection> getConnections() {
+            return null;
+        }
+
+        @Override
+        public SccpStack getSccpStack() {
+            return null;
+        }
+
+        @Override
+        public void updateSPCongestion(Integer ssn, Integer congestionLevel) {
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.restcomm.protocols.ss7.tcap;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for TimerWheel
+ *
+ */
+public class TimerWheelTest {
+
+    private ExecutorService executor;
+    private TimerWheel timerWheel;
+
+    @BeforeMethod
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        timerWheel = new TimerWheel("Test-Timer", executor, 10, TimeUnit.MILLISECONDS, 64);
+        timerWheel.start();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        timerWheel.stop();
+        executor.shutdownNow();
+    }
+
+    @Test(groups = { "functional.settings" })
+    public void testExpiration() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(3);
+        final long startTime = System.nanoTime();
+        final long[] fireTimes = new long[3];
+        long[] delays = new long[] { 50, 200, 900 };
+        for (int i = 0; i < delays.length; i++) {
+            final int n = i;
+            timerWheel.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    fireTimes[n] = System.nanoTime() - startTime;
+                    latch.countDown();
+                }
+            }, delays[i], TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < delays.length; i++) {
+            // a timer must never fire before its delay (the wheel is longer than 64 ticks for the last timer)
+            assertTrue(fireTimes[i] >= TimeUnit.MILLISECONDS.toNanos(delays[i]));
+        }
+        assertEquals(timerWheel.getExpiredCount(), 3);
+        assertEquals(timerWheel.getActiveTimersCount(), 0);
+        assertTrue(timerWheel.getMaxLateness() >= 0);
+    }
+
+    @Test(groups = { "functional.settings" })
+    public void testCancel() throws Exception {
+        final AtomicInteger fired = new AtomicInteger();
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                fired.incrementAndGet();
+            }
+        };
+
+        TimerWheel.Timeout[] timeouts = new TimerWheel.Timeout[1000];
+        for (int i = 0; i < timeouts.length; i++) {
+            timeouts[i] = timerWheel.schedule(task, 100 + i % 50, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(timerWheel.getActiveTimersCount(), 1000);
+
+        for (int i = 0; i < timeouts.length; i += 2) {
+            assertTrue(timeouts[i].cancel());
+            assertFalse(timeouts[i].cancel());
+            assertTrue(timeouts[i].isCancelled());
+        }
+        assertEquals(timerWheel.getActiveTimersCount(), 500);
+
+        Thread.sleep(500);
+        assertEquals(fired.get(), 500);
+        assertEquals(timerWheel.getActiveTimersCount(), 0);
+        assertEquals(timerWheel.getCancelledCount(), 500);
+        for (int i = 1; i < timeouts.length; i += 2) {
+            assertTrue(timeouts[i].isExpired());
+            assertFalse(timeouts[i].cancel());
+        }
+    }
+
+}
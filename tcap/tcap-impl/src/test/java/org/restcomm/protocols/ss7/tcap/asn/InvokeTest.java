@@ -135,6 +135,44 @@ public class InvokeTest {
 
     }
 
+    @Test(groups = { "functional.encode" })
+    public void testEncodeContent() throws IOException, EncodeException {
+
+        byte[] expected = this.getData();
+
+        Invoke invoke = TcapFactory.createComponentInvoke();
+        invoke.setInvokeId(12l);
+
+        OperationCode oc = TcapFactory.createOperationCode();
+        oc.setLocalOperationCode(59L);
+        invoke.setOperationCode(oc);
+
+        Parameter pm = TcapFactory.createParameter();
+        pm.setTagClass(Tag.CLASS_UNIVERSAL);
+        pm.setTag(Tag.SEQUENCE);
+        pm.setPrimitive(false);
+        ParameterContent.setContent(pm, new ParameterContent.Primitive() {
+            public void encodeData(AsnOutputStream aos) throws Exception {
+                aos.writeOctetString(new byte[] { 0x0F });
+                aos.writeOctetString(new byte[] { (byte) 0xaa, (byte) 0x98, (byte) 0xac, (byte) 0xa6, 0x5a, (byte) 0xcd, 0x62,
+                        0x36, 0x19, 0x0e, 0x37, (byte) 0xcb, (byte) 0xe5, 0x72, (byte) 0xb9, 0x11 });
+            }
+        });
+        invoke.setParameter(pm);
+
+        AsnOutputStream asnos = new AsnOutputStream();
+        invoke.encode(asnos);
+        assertTrue(Arrays.equals(expected, asnos.toByteArray()));
+
+        // the content is encoded into byte[] on demand
+        assertTrue(Arrays.equals(Arrays.copyOfRange(expected, 10, expected.length), pm.getData()));
+        assertEquals(pm.getParameters().length, 2);
+
+        asnos = new AsnOutputStream();
+        invoke.encode(asnos);
+        assertTrue(Arrays.equals(expected, asnos.toByteArray()));
+    }
+
     @Test(groups = { "functional.decode" })
     public void testDecodeWithParaSequ() throws IOException, ParseException {
 
@@ -551,4 +551,54 @@ public class TcContinueTest {
 
     }
 
+    @Test(groups = { "functional.encode", "functional.decode" })
+    public void testLazyDecoding() throws IOException, EncodeException, ParseException {
+
+        byte[] b = new byte[] { 0x65, 0x16,
+                // org txid
+                0x48, 0x04, 0x08, (byte) 0xA5, 0, 0x01,
+                // dtx
+                0x49, 0x04, 8, (byte) 0xA4, 0, 1,
+                // comp portion
+                0x6C, 8,
+                // invoke
+                (byte) 0xA1, 6,
+                // invoke ID
+                0x02, 0x01, 0x01,
+                // op code
+                0x02, 0x01, 0x37 };
+
+        // not decoded portions are encoded as they were received
+        TCContinueMessageImpl tcm = TcapFactory.createTCContinueMessageLazy(b);
+        assertTrue(Arrays.equals(tcm.getOriginatingTransactionId(), new byte[] { 0x08, (byte) 0xA5, 0, 0x01, }),
+                "Originating transaction id does not match");
+        assertTrue(Arrays.equals(tcm.getDestinationTransactionId(), new byte[] { 8, (byte) 0xA4, 0, 1, }),
+                "Destination transaction id does not match");
+        AsnOutputStream aos = new AsnOutputStream();
+        tcm.encode(aos);
+        TCAPTestUtils.compareArrays(b, aos.toByteArray());
+
+        // portions are decoded at the first access
+        tcm = TcapFactory.createTCContinueMessageLazy(b);
+        assertNull(tcm.getDialogPortion(), "Dialog portion should not be present");
+        assertNotNull(tcm.getComponent(), "Component portion should be present");
+        assertEquals(1, tcm.getComponent().length, "Component count is wrong");
+        Invoke i = (Invoke) tcm.getComponent()[0];
+        assertEquals(new Long(1), i.getInvokeId(), "Wrong invoke ID");
+        assertEquals(new Long(0x37), i.getOperationCode().getLocalOperationCode(), "Wrong operation code");
+        aos = new AsnOutputStream();
+        tcm.encode(aos);
+        TCAPTestUtils.compareArrays(b, aos.toByteArray());
+
+        // a bad component portion is detected by decodePortions()
+        byte[] bad = Arrays.copyOf(b, b.length);
+        bad[14] = 0x6D;
+        tcm = TcapFactory.createTCContinueMessageLazy(bad);
+        try {
+            tcm.decodePortions();
+            assertTrue(false, "ParseException expected");
+        } catch (ParseException e) {
+        }
+    }
+
 }
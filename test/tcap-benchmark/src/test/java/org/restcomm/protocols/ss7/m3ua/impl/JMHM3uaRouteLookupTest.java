@@ -0,0 +1,104 @@
+package org.restcomm.protocols.ss7.m3ua.impl;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.testng.annotations.Test;
+
+/**
+ * Route lookup for an outgoing MSU: the former "dpc:opc:si" StringBuffer keys probed against the RouteMap and the compiled
+ * {@link RouteIndex}. Every DPC is configured with a "dpc:-1:-1" wildcard route and every fourth DPC additionally with a
+ * "dpc:opc:-1" route, so most of lookups go through the whole wildcard fallback.
+ */
+@State(Scope.Benchmark)
+public class JMHM3uaRouteLookupTest {
+
+    private static final String KEY_SEPARATOR = ":";
+    private static final int WILDCARD = -1;
+    private static final int OPC = 1;
+    private static final int SI = 3;
+
+    @Param({ "16", "1024" })
+    int dpcCount = 16;
+
+    M3UAManagementImpl m3uaManagement;
+    M3UARouteManagement routeManagement;
+    RouteIndex routeIndex;
+
+    @Setup
+    public void doStart() {
+        m3uaManagement = new M3UAManagementImpl("JMHM3uaRouteLookup", null, null);
+        routeManagement = new M3UARouteManagement(m3uaManagement);
+        for (int dpc = 1; dpc <= dpcCount; dpc++) {
+            routeManagement.route.put(dpc + KEY_SEPARATOR + WILDCARD + KEY_SEPARATOR + WILDCARD, new RouteAsImpl());
+            if (dpc % 4 == 0) {
+                routeManagement.route.put(dpc + KEY_SEPARATOR + OPC + KEY_SEPARATOR + WILDCARD, new RouteAsImpl());
+            }
+        }
+        routeManagement.reset();
+        routeIndex = RouteIndex.compile(routeManagement.route);
+    }
+
+    private int randomDpc() {
+        return ThreadLocalRandom.current().nextInt(dpcCount) + 1;
+    }
+
+    @Benchmark
+    public RouteAsImpl measureStringKeyLookup() {
+        int dpc = randomDpc();
+        RouteMap<String, RouteAsImpl> route = routeManagement.route;
+
+        String key = (new StringBuffer().append(dpc).append(KEY_SEPARATOR).append(OPC).append(KEY_SEPARATOR).append(SI))
+                .toString();
+        RouteAsImpl routeAs = route.get(key);
+        if (routeAs == null) {
+            key = (new StringBuffer().append(dpc).append(KEY_SEPARATOR).append(OPC).append(KEY_SEPARATOR).append(WILDCARD))
+                    .toString();
+            routeAs = route.get(key);
+            if (routeAs == null) {
+                key = (new StringBuffer().append(dpc).append(KEY_SEPARATOR).append(WILDCARD).append(KEY_SEPARATOR)
+                        .append(WILDCARD)).toString();
+                routeAs = route.get(key);
+            }
+        }
+        return routeAs;
+    }
+
+    @Benchmark
+    public RouteAsImpl measureRouteIndexLookup() {
+        return routeIndex.find(randomDpc(), OPC, SI);
+    }
+
+    @Benchmark
+    public AsImpl measureGetAsForRoute() {
+        return routeManagement.getAsForRoute(randomDpc(), OPC, SI, ThreadLocalRandom.current().nextInt(256));
+    }
+
+    @Test
+    public void launchBenchmark() throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(JMHM3uaRouteLookupTest.class.getSimpleName())
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(5))
+                .mode(Mode.Throughput)
+                .threads(8)
+                .forks(1)
+                .addProfiler("gc")
+                .build();
+
+        new Runner(opt).run();
+    }
+}
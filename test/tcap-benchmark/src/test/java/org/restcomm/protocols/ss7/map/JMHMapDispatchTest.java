@@ -0,0 +1,88 @@
+package org.restcomm.protocols.ss7.map;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.restcomm.protocols.ss7.map.api.MAPApplicationContext;
+import org.restcomm.protocols.ss7.map.api.MAPApplicationContextName;
+import org.restcomm.protocols.ss7.map.api.MAPApplicationContextVersion;
+import org.restcomm.protocols.ss7.map.api.MAPServiceBase;
+import org.restcomm.protocols.ss7.map.api.dialog.ServingCheckData;
+import org.restcomm.protocols.ss7.map.api.dialog.ServingCheckResult;
+import org.testng.annotations.Test;
+
+/**
+ * Selecting of the MAP service for an incoming TC-BEGIN: the former scan of all MAP services with isServingService() and the
+ * table that MAPProviderImpl fills when it is created. Application contexts are the usual SMS, USSD, ATI and location update
+ * ones.
+ */
+@State(Scope.Thread)
+public class JMHMapDispatchTest {
+
+    MAPProviderImpl mapProvider;
+    MAPApplicationContext[] contexts;
+    int index;
+
+    @Setup
+    public void doStart() {
+        mapProvider = new MAPProviderImpl("JMHMapDispatch", null);
+        contexts = new MAPApplicationContext[] {
+                MAPApplicationContext.getInstance(MAPApplicationContextName.shortMsgMTRelayContext,
+                        MAPApplicationContextVersion.version3),
+                MAPApplicationContext.getInstance(MAPApplicationContextName.shortMsgGatewayContext,
+                        MAPApplicationContextVersion.version3),
+                MAPApplicationContext.getInstance(MAPApplicationContextName.networkUnstructuredSsContext,
+                        MAPApplicationContextVersion.version2),
+                MAPApplicationContext.getInstance(MAPApplicationContextName.anyTimeEnquiryContext,
+                        MAPApplicationContextVersion.version3),
+                MAPApplicationContext.getInstance(MAPApplicationContextName.networkLocUpContext,
+                        MAPApplicationContextVersion.version3) };
+    }
+
+    private MAPApplicationContext nextContext() {
+        index = (index + 1) % contexts.length;
+        return contexts[index];
+    }
+
+    @Benchmark
+    public MAPServiceBase measureServiceScan() {
+        MAPApplicationContext mapAppCtx = nextContext();
+        for (MAPServiceBase ser : mapProvider.mapServices) {
+            ServingCheckData chkRes = ser.isServingService(mapAppCtx);
+            if (chkRes.getResult() == ServingCheckResult.AC_Serving)
+                return ser;
+        }
+        return null;
+    }
+
+    @Benchmark
+    public MAPServiceBase measureServiceTable() {
+        return mapProvider.getServingService(nextContext());
+    }
+
+    @Test
+    public void launchBenchmark() throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(JMHMapDispatchTest.class.getSimpleName())
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(5))
+                .mode(Mode.Throughput)
+                .threads(1)
+                .forks(1)
+                .addProfiler("gc")
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,102 @@
+package org.restcomm.protocols.ss7.map.datacoding;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.testng.annotations.Test;
+
+/**
+ * GSM7 encoding and decoding of a USSD string and of a SMS text with a UserDataHeader: GSMCharsetEncoder / GSMCharsetDecoder
+ * against Gsm7Codec that works with caller's buffers.
+ */
+@State(Scope.Thread)
+public class JMHGsm7CodecTest {
+
+    GSMCharset cs;
+    String ussdString;
+    String smsString;
+    byte[] udh;
+    byte[] ussdData;
+    byte[] encodeBuf;
+    char[] decodeBuf;
+    GSMCharsetDecodingData ussdDecodingData;
+
+    @Setup
+    public void doStart() {
+        cs = new GSMCharset("GSM", new String[] {});
+        ussdString = "Your balance is 12.50 EUR. Reply 1 for {bonus} offers, 2 for [roaming] info, 3 for more\r";
+        smsString = "Hello !!!! 111 222 333 444 555 666 - the first part of a concatenated message with {ext} chars";
+        udh = new byte[] { 5, 0, 3, 1, 2, 1 };
+        ussdData = Gsm7Codec.encode(cs, ussdString, new GSMCharsetEncodingData(Gsm7EncodingStyle.bit7_ussd_style, null));
+        encodeBuf = new byte[256];
+        decodeBuf = new char[256];
+        ussdDecodingData = new GSMCharsetDecodingData(Gsm7EncodingStyle.bit7_ussd_style, Integer.MAX_VALUE, 0);
+    }
+
+    @Benchmark
+    public ByteBuffer measureUssdCharsetEncoder() throws CharacterCodingException {
+        GSMCharsetEncoder encoder = (GSMCharsetEncoder) cs.newEncoder();
+        encoder.setGSMCharsetEncodingData(new GSMCharsetEncodingData(Gsm7EncodingStyle.bit7_ussd_style, null));
+        return encoder.encode(CharBuffer.wrap(ussdString));
+    }
+
+    @Benchmark
+    public int measureUssdCodec() {
+        return Gsm7Codec.encode(cs, ussdString, new GSMCharsetEncodingData(Gsm7EncodingStyle.bit7_ussd_style, null),
+                encodeBuf, 0);
+    }
+
+    @Benchmark
+    public ByteBuffer measureSmsCharsetEncoder() throws CharacterCodingException {
+        GSMCharsetEncoder encoder = (GSMCharsetEncoder) cs.newEncoder();
+        encoder.setGSMCharsetEncodingData(new GSMCharsetEncodingData(Gsm7EncodingStyle.bit7_sms_style, udh));
+        return encoder.encode(CharBuffer.wrap(smsString));
+    }
+
+    @Benchmark
+    public int measureSmsCodec() {
+        return Gsm7Codec.encode(cs, smsString, new GSMCharsetEncodingData(Gsm7EncodingStyle.bit7_sms_style, udh), encodeBuf,
+                0);
+    }
+
+    @Benchmark
+    public CharBuffer measureUssdCharsetDecoder() throws CharacterCodingException {
+        GSMCharsetDecoder decoder = (GSMCharsetDecoder) cs.newDecoder();
+        decoder.setGSMCharsetDecodingData(ussdDecodingData);
+        return decoder.decode(ByteBuffer.wrap(ussdData));
+    }
+
+    @Benchmark
+    public int measureUssdCodecDecoding() {
+        return Gsm7Codec.decode(cs, ussdData, 0, ussdData.length, ussdDecodingData, decodeBuf, 0);
+    }
+
+    @Test
+    public void launchBenchmark() throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(JMHGsm7CodecTest.class.getSimpleName())
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(5))
+                .mode(Mode.Throughput)
+                .threads(1)
+                .forks(1)
+                .addProfiler("gc")
+                .build();
+
+        new Runner(opt).run();
+    }
+}
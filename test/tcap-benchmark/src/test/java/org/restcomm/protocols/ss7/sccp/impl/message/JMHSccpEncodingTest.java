@@ -0,0 +1,95 @@
+package org.restcomm.protocols.ss7.sccp.impl.message;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.restcomm.protocols.ss7.indicator.NatureOfAddress;
+import org.restcomm.protocols.ss7.indicator.NumberingPlan;
+import org.restcomm.protocols.ss7.indicator.RoutingIndicator;
+import org.restcomm.protocols.ss7.sccp.LongMessageRuleType;
+import org.restcomm.protocols.ss7.sccp.SccpProtocolVersion;
+import org.restcomm.protocols.ss7.sccp.impl.SccpStackImpl;
+import org.restcomm.protocols.ss7.sccp.impl.parameter.ParameterFactoryImpl;
+import org.restcomm.protocols.ss7.sccp.impl.parameter.SccpAddressImpl;
+import org.restcomm.protocols.ss7.sccp.parameter.GlobalTitle;
+import org.testng.annotations.Test;
+
+/**
+ * Encoding of a UDT with a typical TCAP payload and GT addressed called and calling parties. All messages of a dialog are
+ * sent with the same addresses, so their encoded form comes from the address cache. Run with the gc profiler to see allocated
+ * bytes per UDT: only the resulting message array and its result holder are left.
+ */
+@State(Scope.Thread)
+public class JMHSccpEncodingTest {
+
+    private static final int MAX_MTP3_USER_DATA_LENGTH = 272;
+
+    SccpStackImpl stack;
+    Logger logger;
+    SccpAddressImpl calledParty;
+    SccpAddressImpl callingParty;
+    SccpDataMessageImpl udt;
+
+    @Setup
+    public void doStart() throws Exception {
+        stack = new SccpStackImpl("JMHSccpEncoding", null);
+        logger = Logger.getLogger(SccpStackImpl.class);
+        ParameterFactoryImpl factory = new ParameterFactoryImpl();
+        GlobalTitle gt1 = factory.createGlobalTitle("79023700271", 0, NumberingPlan.ISDN_TELEPHONY, null,
+                NatureOfAddress.INTERNATIONAL);
+        GlobalTitle gt2 = factory.createGlobalTitle("79023700299", 0, NumberingPlan.ISDN_TELEPHONY, null,
+                NatureOfAddress.INTERNATIONAL);
+        calledParty = (SccpAddressImpl) factory.createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_GLOBAL_TITLE, gt1, 0, 6);
+        callingParty = (SccpAddressImpl) factory.createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_GLOBAL_TITLE, gt2, 0, 8);
+
+        byte[] data = new byte[120];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        udt = (SccpDataMessageImpl) new MessageFactoryImpl(stack).createDataMessageClass1(calledParty, callingParty, data, 0, 8,
+                false, null, null);
+    }
+
+    @Benchmark
+    public byte[] measureUdtEncode() throws Exception {
+        return udt.encode(stack, LongMessageRuleType.LONG_MESSAGE_FORBBIDEN, MAX_MTP3_USER_DATA_LENGTH, logger, false,
+                SccpProtocolVersion.ITU).getSolidData();
+    }
+
+    @Benchmark
+    public byte[] measureAddressEncodedCache() throws Exception {
+        return calledParty.getEncoded(false, SccpProtocolVersion.ITU);
+    }
+
+    @Benchmark
+    public byte[] measureAddressEncodeCopy() throws Exception {
+        return calledParty.encode(false, SccpProtocolVersion.ITU);
+    }
+
+    @Test
+    public void launchBenchmark() throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(JMHSccpEncodingTest.class.getSimpleName())
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(5))
+                .mode(Mode.Throughput)
+                .threads(1)
+                .forks(1)
+                .addProfiler("gc")
+                .build();
+
+        new Runner(opt).run();
+    }
+}
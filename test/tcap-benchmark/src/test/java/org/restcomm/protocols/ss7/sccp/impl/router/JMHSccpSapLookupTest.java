@@ -0,0 +1,112 @@
+package org.restcomm.protocols.ss7.sccp.impl.router;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javolution.util.FastMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.restcomm.protocols.ss7.sccp.LongMessageRule;
+import org.restcomm.protocols.ss7.sccp.LongMessageRuleType;
+import org.restcomm.protocols.ss7.sccp.Mtp3ServiceAccessPoint;
+import org.testng.annotations.Test;
+
+/**
+ * MTP3 SAP lookup in the SCCP router: the former linear scan over every SAP and its destinations and the compiled
+ * {@link Mtp3RoutingIndex}. Every SAP has own OPC and DESTS_PER_SAP destinations with DPC ranges of DPC_RANGE point codes,
+ * the first half of SLS values is served by one destination and the second half by another one.
+ */
+@State(Scope.Benchmark)
+public class JMHSccpSapLookupTest {
+
+    private static final int DESTS_PER_SAP = 8;
+    private static final int DPC_RANGE = 4;
+
+    @Param({ "16", "512" })
+    int sapCount = 16;
+
+    FastMap<Integer, Mtp3ServiceAccessPoint> saps;
+    FastMap<Integer, LongMessageRule> lmrs;
+    Mtp3RoutingIndex routingIndex;
+    int dpcCount;
+
+    @Setup
+    public void doStart() throws Exception {
+        saps = new FastMap<Integer, Mtp3ServiceAccessPoint>();
+        lmrs = new FastMap<Integer, LongMessageRule>();
+        int dpc = 1;
+        for (int i = 0; i < sapCount; i++) {
+            Mtp3ServiceAccessPointImpl sap = new Mtp3ServiceAccessPointImpl(1, 10000 + i, 2, "JMHSccpSapLookup", 0, null);
+            for (int j = 0; j < DESTS_PER_SAP; j += 2) {
+                sap.addMtp3Destination(j, dpc, dpc + DPC_RANGE - 1, 0, 7, 15);
+                sap.addMtp3Destination(j + 1, dpc, dpc + DPC_RANGE - 1, 8, 15, 15);
+                dpc += DPC_RANGE;
+            }
+            saps.put(i, sap);
+            lmrs.put(i, new LongMessageRuleImpl(dpc - DPC_RANGE, dpc - 1, LongMessageRuleType.XUDT_ENABLED));
+        }
+        dpcCount = dpc - 1;
+        routingIndex = Mtp3RoutingIndex.compile(saps, lmrs);
+    }
+
+    private int randomDpc() {
+        return ThreadLocalRandom.current().nextInt(dpcCount) + 1;
+    }
+
+    @Benchmark
+    public Mtp3ServiceAccessPoint measureLinearScan() {
+        int dpc = randomDpc();
+        int sls = ThreadLocalRandom.current().nextInt(256);
+        for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = this.saps.head(), end = this.saps.tail(); (e = e.getNext()) != end;) {
+            Mtp3ServiceAccessPoint sap = e.getValue();
+            if (sap.matches(dpc, sls)) {
+                return sap;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public Mtp3ServiceAccessPoint measureRoutingIndex() {
+        return routingIndex.findMtp3ServiceAccessPoint(randomDpc(), ThreadLocalRandom.current().nextInt(256));
+    }
+
+    @Benchmark
+    public Mtp3ServiceAccessPoint measureRoutingIndexForIncMes() {
+        int dpc = randomDpc();
+        int opc = 10000 + (dpc - 1) / (DESTS_PER_SAP / 2 * DPC_RANGE);
+        return routingIndex.findMtp3ServiceAccessPointForIncMes(opc, dpc, null);
+    }
+
+    @Benchmark
+    public LongMessageRule measureLongMessageRuleIndex() {
+        return routingIndex.findLongMessageRule(randomDpc());
+    }
+
+    @Test
+    public void launchBenchmark() throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(JMHSccpSapLookupTest.class.getSimpleName())
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(5))
+                .mode(Mode.Throughput)
+                .threads(8)
+                .forks(1)
+                .addProfiler("gc")
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,141 @@
+package org.restcomm.protocols.ss7.tcap.test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.restcomm.protocols.ss7.tcap.ConcurrentLongHashMap;
+import org.testng.annotations.Test;
+
+/**
+ * Comparison of ConcurrentHashMap&lt;Long, Object&gt; and ConcurrentLongHashMap as a dialog table: a lookup of an existing
+ * dialog (TC-CONTINUE) and an add / remove pair (TC-BEGIN / TC-END) with a table that already contains dialogCount dialogs.
+ * {@link #measureFootprint()} reports the heap occupied by both tables with 1M dialogs and checks the table size of
+ * ConcurrentLongHashMap.
+ */
+@State(Scope.Benchmark)
+public class JMHDialogMapTest {
+
+    @Param({ "1000000" })
+    int dialogCount = 1000000;
+
+    ConcurrentHashMap<Long, Object> chm;
+    ConcurrentLongHashMap<Object> clhm;
+    Object dialog = new Object();
+
+    @Setup
+    public void doStart() {
+        chm = new ConcurrentHashMap<Long, Object>();
+        clhm = new ConcurrentLongHashMap<Object>();
+        for (long i1 = 1; i1 <= dialogCount; i1++) {
+            chm.put(i1, dialog);
+            clhm.put(i1, dialog);
+        }
+    }
+
+    private long randomExistingId() {
+        return ThreadLocalRandom.current().nextLong(dialogCount) + 1;
+    }
+
+    private long randomNewId() {
+        return ThreadLocalRandom.current().nextLong(dialogCount) + 1 + dialogCount * 2L;
+    }
+
+    @Benchmark
+    public Object measureConcurrentHashMapGet() {
+        return chm.get(randomExistingId());
+    }
+
+    @Benchmark
+    public Object measureConcurrentLongHashMapGet() {
+        return clhm.get(randomExistingId());
+    }
+
+    @Benchmark
+    public Object measureConcurrentHashMapPutRemove() {
+        long id = randomNewId();
+        chm.put(id, dialog);
+        return chm.remove(id);
+    }
+
+    @Benchmark
+    public Object measureConcurrentLongHashMapPutRemove() {
+        long id = randomNewId();
+        clhm.put(id, dialog);
+        return clhm.remove(id);
+    }
+
+    private static long usedHeap(MemoryMXBean memoryBean) throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memoryBean.getHeapMemoryUsage().getUsed();
+    }
+
+    @Test
+    public void measureFootprint() throws Exception {
+        int count = 1000000;
+        Object value = new Object();
+        MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+
+        long before = usedHeap(memoryBean);
+        ConcurrentHashMap<Long, Object> map1 = new ConcurrentHashMap<Long, Object>();
+        for (long i1 = 1; i1 <= count; i1++) {
+            map1.put(i1, value);
+        }
+        long chmFootprint = usedHeap(memoryBean) - before;
+        assertEquals(map1.size(), count);
+        map1 = null;
+
+        before = usedHeap(memoryBean);
+        ConcurrentLongHashMap<Object> map2 = new ConcurrentLongHashMap<Object>();
+        for (long i1 = 1; i1 <= count; i1++) {
+            map2.put(i1, value);
+        }
+        long clhmFootprint = usedHeap(memoryBean) - before;
+        assertEquals(map2.size(), count);
+
+        // the heap usage depends on the gc and is only reported
+        System.out.println("Footprint of " + count + " dialogs: ConcurrentHashMap " + chmFootprint
+                + " bytes, ConcurrentLongHashMap " + clhmFootprint + " bytes");
+
+        // the footprint of ConcurrentLongHashMap is a long and a reference per table slot, no Long keys and no entry
+        // objects; the table must not be larger than 4 slots per dialog (that is at most 64 bytes per dialog)
+        assertTrue(map2.getCapacity() >= count);
+        assertTrue(map2.getCapacity() <= 4L * count, "ConcurrentLongHashMap capacity " + map2.getCapacity()
+                + " is more than 4 slots per dialog");
+    }
+
+    @Test
+    public void launchBenchmark() throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(JMHDialogMapTest.class.getSimpleName())
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(5))
+                .mode(Mode.Throughput)
+                .threads(8)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -6,6 +6,7 @@ import org.restcomm.protocols.ss7.sccp.SccpProvider;
 import org.restcomm.protocols.ss7.sccp.impl.SccpStackImpl;
 import org.restcomm.protocols.ss7.sccp.impl.parameter.SccpAddressImpl;
 import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
+import org.restcomm.protocols.ss7.tcap.StripedDialogIdAllocator;
 import org.restcomm.protocols.ss7.tcap.TCAPStackImpl;
 import org.restcomm.protocols.ss7.tcap.api.TCAPException;
 import org.restcomm.protocols.ss7.tcap.api.TCAPProvider;
@@ -13,6 +14,7 @@ import org.restcomm.protocols.ss7.tcap.api.tc.dialog.Dialog;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -32,6 +34,10 @@ public class JMHTcapDialogAddingTest {
     TCAPProvider provider;
     SccpAddress sccpAddress = new SccpAddressImpl();
 
+    // 1 - a single cursor for all threads, 0 - StripedDialogIdAllocator.getDefaultStripeCount()
+    @Param({ "1", "0" })
+    int dialogIdStripeCount = 1;
+
     public static String getTmpTestDir() {
         return "/aaa/aaa";
     }
@@ -54,6 +60,8 @@ public class JMHTcapDialogAddingTest {
         SccpProvider sccpProvider = sccpStack.getSccpProvider();
 
         stack = new TCAPStackImpl("Test_Benchmark", sccpProvider, 8);
+        stack.setDialogIdStripeCount(dialogIdStripeCount > 0 ? dialogIdStripeCount : StripedDialogIdAllocator
+                .getDefaultStripeCount());
 
         stack.start();
         stack.setMaxDialogs(1000000);
@@ -88,21 +96,25 @@ public class JMHTcapDialogAddingTest {
 
     @Test
     public void launchBenchmark() throws Exception {
-        Options opt = new OptionsBuilder()
-                // Specify which benchmarks to run.
-                // You can be more specific if you'd like to run only one benchmark per test.
-                .include(JMHTcapDialogAddingTest.class.getSimpleName())
-                // Set the following options as needed
-                .timeUnit(TimeUnit.MICROSECONDS)
-                .warmupIterations(0)
-                .measurementIterations(5)
-                .measurementTime(TimeValue.seconds(5))
-                .mode(Mode.Throughput)
-                .threads(20)
-                .forks(1)
-                .build();
-
-        new Runner(opt).run();
+        // throughput of dialog creation for a growing count of threads
+        int[] threadCounts = new int[] { 1, 2, 4, 8, 16, 20 };
+        for (int threads : threadCounts) {
+            Options opt = new OptionsBuilder()
+                    // Specify which benchmarks to run.
+                    // You can be more specific if you'd like to run only one benchmark per test.
+                    .include(JMHTcapDialogAddingTest.class.getSimpleName())
+                    // Set the following options as needed
+                    .timeUnit(TimeUnit.MICROSECONDS)
+                    .warmupIterations(0)
+                    .measurementIterations(5)
+                    .measurementTime(TimeValue.seconds(5))
+                    .mode(Mode.Throughput)
+                    .threads(threads)
+                    .forks(1)
+                    .build();
+
+            new Runner(opt).run();
+        }
 
 //        .shouldFailOnError(true)
 //        .shouldDoGC(true)